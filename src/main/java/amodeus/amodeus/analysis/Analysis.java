@@ -2,10 +2,15 @@
 package amodeus.amodeus.analysis;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import amodeus.amodeus.analysis.element.DistanceElement;
@@ -74,7 +79,22 @@ public class Analysis {
      * @throws Exception */
     public static Analysis setup(ScenarioOptions scenarioOptions, File outputDirectory, //
             Network network, MatsimAmodeusDatabase db) throws Exception {
-        return new Analysis(scenarioOptions, outputDirectory, network, db);
+        return new Analysis(scenarioOptions, outputDirectory, network, db, null);
+    }
+
+    /** returns an Instance of the Analysis Class which does not read the recorded simulation objects,
+     * but is fed with the simulation objects while the simulation is running, see {@link #register(SimulationObject)}.
+     * The results are exported with {@link #finish()}.
+     * 
+     * @param scenarioOptions
+     * @param outputDirectory existing directory in which the results are exported
+     * @param network
+     * @param db
+     * @param vehicleIndices indices of all vehicles in the fleet
+     * @throws Exception */
+    public static Analysis live(ScenarioOptions scenarioOptions, File outputDirectory, //
+            Network network, MatsimAmodeusDatabase db, Set<Integer> vehicleIndices) throws Exception {
+        return new Analysis(scenarioOptions, outputDirectory, network, db, Objects.requireNonNull(vehicleIndices));
     }
 
     public final static String DATAFOLDERNAME = "data";
@@ -85,8 +105,8 @@ public class Analysis {
     private final List<AnalysisReport> analysisReports = new LinkedList<>();
 
     private final File dataDirectory;
+    /** null if the analysis is fed while the simulation is running */
     private final StorageSupplier storageSupplier;
-    private final int size;
     private final AnalysisSummary analysisSummary;
     private final HtmlReport htmlReport;
     private final TotalValues totalValues;
@@ -109,9 +129,11 @@ public class Analysis {
      *            Scenario Server)
      * @param db:
      *            relation between AMoDeus and MATSim objects
+     * @param vehicleIndices:
+     *            null if the recorded simulation objects are analyzed
      * @throws Exception */
     private Analysis(ScenarioOptions scenarioOptions, File outputDirectory, //
-            Network network, MatsimAmodeusDatabase db) throws Exception {
+            Network network, MatsimAmodeusDatabase db, Set<Integer> vehicleIndices) throws Exception {
         if (Objects.isNull(scenarioOptions))
             throw new RuntimeException("Analysis requires a ScenarioOptions object as input.");
         Objects.requireNonNull(scenarioOptions.getWorkingDirectory());
@@ -147,13 +169,16 @@ public class Analysis {
         dataDirectory = new File(outputDirectory, DATAFOLDERNAME);
         dataDirectory.mkdir();
 
-        // load simulation data
-        StorageUtils storageUtils = new StorageUtils(outputDirectory);
-        storageUtils.printStorageProperties();
-        storageSupplier = new StorageSupplier(storageUtils.getFirstAvailableIteration());
-        size = storageSupplier.size();
-        System.out.println("Found files: " + size);
-        Set<Integer> vehicleIndices = storageSupplier.getSimulationObject(1).vehicles.stream().map(vc -> vc.vehicleIndex).collect(Collectors.toSet());
+        if (Objects.isNull(vehicleIndices)) {
+            // load simulation data
+            StorageUtils storageUtils = new StorageUtils(outputDirectory);
+            storageUtils.printStorageProperties();
+            storageSupplier = storageUtils.getLastIterationStorageSupplier();
+            System.out.println("Found files: " + storageSupplier.size());
+            vehicleIndices = storageSupplier.getSimulationObject(1).vehicles.stream().map(vc -> vc.vehicleIndex).collect(Collectors.toSet());
+        } else {
+            storageSupplier = null;
+        }
 
         analysisSummary = new AnalysisSummary(vehicleIndices, db, scenarioOptions);
 
@@ -208,10 +233,21 @@ public class Analysis {
 
     }
 
+    /** The recorded {@link SimulationObject}s are registered with every {@link AnalysisElement} on a separate
+     * thread, in ascending order. Hence, an {@link AnalysisElement} must not depend on another
+     * {@link AnalysisElement} during registration and must not modify the {@link SimulationObject}s.
+     * An exception thrown by an {@link AnalysisElement} stops the analysis and is rethrown by {@link #run()}.
+     * 
+     * @param analysisElement */
     public void addAnalysisElement(AnalysisElement analysisElement) {
         analysisElements.add(analysisElement);
     }
 
+    /** The {@link AnalysisExport}s are generated concurrently after all {@link AnalysisElement}s are consolidated.
+     * Hence, an {@link AnalysisExport} may only read the {@link AnalysisSummary} and must not write files of
+     * another {@link AnalysisExport}.
+     * 
+     * @param analysisExport */
     public void addAnalysisExport(AnalysisExport analysisExport) {
         analysisExports.add(analysisExport);
     }
@@ -237,19 +273,24 @@ public class Analysis {
         return analysisSummary;
     }
 
+    /** analyzes the recorded simulation objects, and exports the results */
     public void run() throws Exception {
         /** iterate simulation objects */
-        {
+        if (Objects.nonNull(storageSupplier)) {
             Timing timing = Timing.started();
-            for (int index = 0; index < size; ++index) {
-                SimulationObject simulationObject = storageSupplier.getSimulationObject(index);
-                analysisElements.forEach(analysisElement -> analysisElement.register(simulationObject));
-                if (simulationObject.now % 10_000 == 0)
-                    System.out.println(String.format("%6.2f now=%d", timing.seconds(), simulationObject.now));
-            }
+            new AnalysisPipeline(storageSupplier, analysisElements).run();
             System.out.println(String.format("%6.2f register all", timing.seconds()));
         }
+        finish();
+    }
 
+    /** @param simulationObject of the next time step, which is registered with all {@link AnalysisElement}s */
+    public void register(SimulationObject simulationObject) {
+        analysisElements.forEach(analysisElement -> analysisElement.register(simulationObject));
+    }
+
+    /** consolidates the {@link AnalysisElement}s after the last time step, and generates the exports and reports */
+    public void finish() {
         /** this tep includes processing after all time steps are loaded */
         {
             Timing timing = Timing.started();
@@ -257,10 +298,29 @@ public class Analysis {
             System.out.println(String.format("%6.2f consolidate all", timing.seconds()));
         }
 
-        for (AnalysisExport analysisExport : analysisExports) {
-            Timing timing = Timing.started();
-            analysisExport.summaryTarget(analysisSummary, dataDirectory, colorDataIndexed);
-            System.out.println(String.format("%6.2f %s", timing.seconds(), analysisExport.getClass().getSimpleName()));
+        /** the exports only read the consolidated elements, and are generated concurrently */
+        if (!analysisExports.isEmpty()) {
+            ExecutorService executorService = Executors.newFixedThreadPool( //
+                    Math.min(analysisExports.size(), Runtime.getRuntime().availableProcessors()));
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (AnalysisExport analysisExport : analysisExports)
+                    futures.add(executorService.submit(() -> {
+                        Timing timing = Timing.started();
+                        analysisExport.summaryTarget(analysisSummary, dataDirectory, colorDataIndexed);
+                        System.out.println(String.format("%6.2f %s", timing.seconds(), analysisExport.getClass().getSimpleName()));
+                    }));
+                for (Future<?> future : futures)
+                    future.get();
+            } catch (ExecutionException executionException) {
+                Throwable cause = executionException.getCause();
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(interruptedException);
+            } finally {
+                executorService.shutdown();
+            }
         }
 
         /** generate reports */
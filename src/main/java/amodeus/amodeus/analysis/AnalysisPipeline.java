@@ -0,0 +1,119 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.analysis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import amodeus.amodeus.analysis.element.AnalysisElement;
+import amodeus.amodeus.net.SimulationObject;
+import amodeus.amodeus.net.StorageSupplier;
+import ch.ethz.idsc.tensor.io.Timing;
+
+/** registers the recorded {@link SimulationObject}s with the {@link AnalysisElement}s.
+ *
+ * Chunks of consecutive frames are decoded ahead by several threads, see {@link StorageSupplier#getSimulationObjects(int, int)}.
+ * The chunks span the keyframe interval of the recorded frames, hence every chunk is decoded starting from its own keyframe.
+ * Every {@link AnalysisElement} registers the frames in ascending order on its own thread, hence the
+ * {@link AnalysisElement}s must not depend on each other during registration and must not modify the frames. */
+/* package */ class AnalysisPipeline {
+    private static final int DECODERS = Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors() / 2));
+    /** decoded chunks which are not yet handed to the {@link AnalysisElement}s */
+    private static final int WINDOW = 2 * DECODERS;
+    /** chunks pending for an {@link AnalysisElement} */
+    private static final int ELEMENT_QUEUE = 2;
+    private static final List<SimulationObject> END = new ArrayList<>();
+    // ---
+    private final StorageSupplier storageSupplier;
+    private final List<AnalysisElement> analysisElements;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    public AnalysisPipeline(StorageSupplier storageSupplier, List<AnalysisElement> analysisElements) {
+        this.storageSupplier = storageSupplier;
+        this.analysisElements = analysisElements;
+    }
+
+    public void run() throws Exception {
+        Timing timing = Timing.started();
+        List<BlockingQueue<List<SimulationObject>>> queues = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (AnalysisElement analysisElement : analysisElements) {
+            BlockingQueue<List<SimulationObject>> queue = new ArrayBlockingQueue<>(ELEMENT_QUEUE);
+            Thread thread = new Thread(() -> register(analysisElement, queue), "analysis " + analysisElement.getClass().getSimpleName());
+            thread.setDaemon(true);
+            thread.start();
+            queues.add(queue);
+            threads.add(thread);
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(DECODERS);
+        try {
+            int size = storageSupplier.size();
+            int chunkSize = storageSupplier.getKeyframeInterval();
+            Deque<Future<List<SimulationObject>>> window = new ArrayDeque<>();
+            int next = 0;
+            /** after a failure of an {@link AnalysisElement}, no further chunks are decoded */
+            while ((next < size || !window.isEmpty()) && Objects.isNull(failure.get())) {
+                while (next < size && window.size() < WINDOW) {
+                    int from = next;
+                    int to = Math.min(size, from + chunkSize);
+                    window.addLast(executorService.submit(() -> storageSupplier.getSimulationObjects(from, to)));
+                    next = to;
+                }
+                List<SimulationObject> chunk = get(window.pollFirst());
+                for (BlockingQueue<List<SimulationObject>> queue : queues)
+                    queue.put(chunk);
+                for (SimulationObject simulationObject : chunk)
+                    if (simulationObject.now % 10_000 == 0)
+                        System.out.println(String.format("%6.2f now=%d", timing.seconds(), simulationObject.now));
+            }
+        } finally {
+            executorService.shutdownNow();
+            for (BlockingQueue<List<SimulationObject>> queue : queues)
+                queue.put(END);
+            for (Thread thread : threads)
+                thread.join();
+        }
+        Throwable throwable = failure.get();
+        if (throwable instanceof Error)
+            throw (Error) throwable;
+        if (Objects.nonNull(throwable))
+            throw (Exception) throwable;
+    }
+
+    private static List<SimulationObject> get(Future<List<SimulationObject>> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException executionException) {
+            Throwable cause = executionException.getCause();
+            throw cause instanceof Exception ? (Exception) cause : executionException;
+        }
+    }
+
+    /** after a failure, including an {@link Error}, the chunks are discarded such that the decoding does not block */
+    private void register(AnalysisElement analysisElement, BlockingQueue<List<SimulationObject>> queue) {
+        try {
+            while (true) {
+                List<SimulationObject> chunk = queue.take();
+                if (chunk == END)
+                    return;
+                if (Objects.isNull(failure.get()))
+                    try {
+                        chunk.forEach(analysisElement::register);
+                    } catch (Throwable throwable) {
+                        failure.compareAndSet(null, throwable);
+                    }
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,6 +2,7 @@
 package amodeus.amodeus.analysis.element;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -9,6 +10,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import amodeus.amodeus.analysis.report.TotalValueAppender;
 import amodeus.amodeus.analysis.report.TotalValueIdentifier;
@@ -35,7 +37,12 @@ public class DistanceElement implements AnalysisElement, TotalValueAppender {
     // ---
 
     private final Map<Integer, VehicleTraceAnalyzer> traceAnalyzers;
+    /** fixed order in which the distances of the vehicles are summed up */
+    private final List<VehicleTraceAnalyzer> traceAnalyzerList;
+    private final Unit unit;
     private final List<Long> times = new ArrayList<>();
+    /** distances covered by the fleet, {@link VehicleTraceAnalyzer#DISTANCES} entries per time step */
+    private double[] stepDistances = new double[VehicleTraceAnalyzer.DISTANCES * 1024];
     public final Tensor time = Tensors.empty(); // vector for instance {10, 20, ...}
 
     /** fields assigned in consolidate */
@@ -56,6 +63,8 @@ public class DistanceElement implements AnalysisElement, TotalValueAppender {
     public DistanceElement(Set<Integer> vehicleIndices, MatsimAmodeusDatabase db, //
             RequestRobotaxiInformationElement requestElement) {
         traceAnalyzers = vehicleIndices.stream().collect(Collectors.toMap(Function.identity(), i -> new VehicleTraceAnalyzer(db)));
+        traceAnalyzerList = new ArrayList<>(traceAnalyzers.values());
+        unit = db.referenceFrame.unit();
         this.requestElement = requestElement;
     }
 
@@ -67,6 +76,13 @@ public class DistanceElement implements AnalysisElement, TotalValueAppender {
 
         /** register Simulation Object for distance analysis */
         simulationObject.vehicles.parallelStream().forEach(vc -> traceAnalyzers.get(vc.vehicleIndex).register(vc, simulationObject.now));
+
+        /** sum up the distances of the time step */
+        int offset = VehicleTraceAnalyzer.DISTANCES * (times.size() - 1);
+        if (stepDistances.length < offset + VehicleTraceAnalyzer.DISTANCES)
+            stepDistances = Arrays.copyOf(stepDistances, 2 * stepDistances.length);
+        for (VehicleTraceAnalyzer vehicleTraceAnalyzer : traceAnalyzerList)
+            vehicleTraceAnalyzer.addStepDistance(simulationObject.now, stepDistances, offset);
     }
 
     @Override // from AnalysisElement
@@ -88,9 +104,9 @@ public class DistanceElement implements AnalysisElement, TotalValueAppender {
         totalDistanceRatio = Scalars.lessThan(Quantity.of(0, TARGET_UNIT), totalDistance) ? //
                 totalDistanceWtCst.divide(totalDistance) : RealScalar.of(-1);
         // distance per time of day
-        distancesOverDay = allVehicleTraceAnalyzers.stream().map(tA -> //
-                // since times are also recorded by VehicleTraceAnalyzers no interpolation is needed
-                Tensor.of(times.stream().map(tA::stepDistance))).reduce(Tensor::add).orElseThrow();
+        distancesOverDay = Tensor.of(IntStream.range(0, times.size()).mapToObj(index -> Tensor.of( //
+                Arrays.stream(stepDistances, VehicleTraceAnalyzer.DISTANCES * index, VehicleTraceAnalyzer.DISTANCES * (index + 1)) //
+                        .mapToObj(distance -> Quantity.of(distance, unit)))));
         distanceRatioOverDay = Tensor.of(distancesOverDay.stream().map(dist -> //
                 Scalars.nonZero(dist.Get(0)) ? dist.Get(1).divide(dist.Get(0)) : RealScalar.ONE));
 
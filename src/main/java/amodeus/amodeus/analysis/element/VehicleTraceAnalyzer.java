@@ -1,39 +1,34 @@
 /* amodeus - Copyright (c) 2018, ETH Zurich, Institute for Dynamic Systems and Control */
 package amodeus.amodeus.analysis.element;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.NavigableMap;
-import java.util.NavigableSet;
-import java.util.Optional;
-import java.util.TreeMap;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
 
-import amodeus.amodeus.dispatcher.core.LinkStatusPair;
+import org.matsim.api.core.v01.network.Link;
+
 import amodeus.amodeus.dispatcher.core.RoboTaxiStatus;
 import amodeus.amodeus.net.MatsimAmodeusDatabase;
 import amodeus.amodeus.net.VehicleContainer;
-import amodeus.amodeus.util.math.GlobalAssert;
 import ch.ethz.idsc.tensor.Scalar;
-import ch.ethz.idsc.tensor.Tensor;
-import ch.ethz.idsc.tensor.alg.Array;
 import ch.ethz.idsc.tensor.qty.Quantity;
 import ch.ethz.idsc.tensor.qty.Unit;
-import org.matsim.api.core.v01.network.Link;
 
+/** accumulates the distances driven by a vehicle time step by time step, only the last link and the
+ * distances of the last time step are kept */
 /* package */ class VehicleTraceAnalyzer {
     private static final List<RoboTaxiStatus> DRIVING_STATII = //
             Arrays.asList(RoboTaxiStatus.DRIVEWITHCUSTOMER, RoboTaxiStatus.DRIVETOCUSTOMER, RoboTaxiStatus.REBALANCEDRIVE);
+    /** number of entries of a distance: {total distance, with customer, pickup, rebalance} */
+    /* package */ static final int DISTANCES = DRIVING_STATII.size() + 1;
     // ---
     private final MatsimAmodeusDatabase db;
     private final Unit unit;
-    private final NavigableMap<Long, List<LinkStatusPair>> history = new TreeMap<>();
-    private final NavigableSet<Long> times = new TreeSet<>();
-    private NavigableMap<Long, Tensor> distances;
+    /** link of the last driven link, null if the vehicle has not driven yet */
+    private Link lastLink = null;
+    private long stepTime = Long.MIN_VALUE;
+    /** distances covered in the time step ending at stepTime */
+    private final double[] step = new double[DISTANCES];
+    private final double[] total = new double[DISTANCES];
     /* package */ Scalar vehicleTotalDistance;
     /* package */ Scalar vehicleCustomerDist;
     /* package */ Scalar vehiclePickupDist;
@@ -48,103 +43,53 @@ import org.matsim.api.core.v01.network.Link;
     }
 
     public void register(VehicleContainer vc, long now) {
-        times.add(now);
-        Optional<Link> lastLink = history.values().stream().flatMap(Collection::stream).reduce((v1, v2) -> v2).map(pair -> pair.link);
+        stepTime = now;
+        Arrays.fill(step, 0);
+        /** only the first link of the trace is compared to the last link of the previous time steps */
+        Link previousLink = lastLink;
         for (int i = 0; i < vc.linkTrace.length; i++) {
             Link link = db.getOsmLink(vc.linkTrace[i]).link;
-            if (i > 0 || !lastLink.map(link::equals).orElse(false)) {
+            if (i > 0 || !link.equals(previousLink)) {
                 RoboTaxiStatus roboTaxiStatus = vc.statii[i];
-                if (roboTaxiStatus != RoboTaxiStatus.STAY) {
-                    history.computeIfAbsent(now, l -> new ArrayList<>()).add(new LinkStatusPair(link, roboTaxiStatus));
-                } else if (vc.linkTrace.length > i + 1 && link.getId().index() != vc.linkTrace[i + 1]) { // investigate why this status is assigned anyway
+                if (roboTaxiStatus != RoboTaxiStatus.STAY)
+                    drive(link, roboTaxiStatus);
+                else if (vc.linkTrace.length > i + 1 && link.getId().index() != vc.linkTrace[i + 1]) { // investigate why this status is assigned anyway
                     roboTaxiStatus = vc.statii[i + 1];
                     if (roboTaxiStatus != RoboTaxiStatus.STAY)
-                        history.computeIfAbsent(now, l -> new ArrayList<>()).add(new LinkStatusPair(link, roboTaxiStatus));
-                } else
-                    // sh: Not sure what is happening here... ?
-                    GlobalAssert.that(true);
-                    // GlobalAssert.that(history.isEmpty()); // TODO remove if proven, maybe reblace check by isDriving
+                        drive(link, roboTaxiStatus);
+                }
             }
         }
+        for (int index = 0; index < DISTANCES; ++index)
+            total[index] += step[index];
     }
 
-    // alternative
-    // public void register(VehicleContainer vc, long now) {
-    //     times.add(now);
-    //     for (int i = 0; i < vc.linkTrace.length; i++)
-    //         history.computeIfAbsent(now, t -> new ArrayList<>()).add(new LinkStatusPair(db.getOsmLink(vc.linkTrace[i]).link, vc.statii[i]));
-    // }
-
-    /* package */ void consolidate() {
-        /** compute distance at every time step */
-        distances = history.entrySet().stream().collect(Collectors.toMap( //
-                Entry::getKey, e -> distance(e.getValue()), (v1, v2) -> { throw new RuntimeException(); }, TreeMap::new));
-
-        /** compute total distances */
-        Tensor totalDistances = distances.values().stream().reduce(Tensor::add).orElse(emptyDistance());
-        vehicleTotalDistance = totalDistances.Get(0);
-        vehicleCustomerDist = totalDistances.Get(DRIVING_STATII.indexOf(RoboTaxiStatus.DRIVEWITHCUSTOMER) + 1);
-        vehiclePickupDist = totalDistances.Get(DRIVING_STATII.indexOf(RoboTaxiStatus.DRIVETOCUSTOMER) + 1);
-        vehicleRebalancedist = totalDistances.Get(DRIVING_STATII.indexOf(RoboTaxiStatus.REBALANCEDRIVE) + 1);
+    private void drive(Link link, RoboTaxiStatus roboTaxiStatus) {
+        double length = db.getOsmLink(link).getLength();
+        step[0] += length;
+        int index = DRIVING_STATII.indexOf(roboTaxiStatus);
+        if (0 <= index)
+            step[index + 1] += length;
+        lastLink = link;
     }
 
-    // alternative
-    // /* package */ void consolidate() {
-    //     /** clean history */
-    //     // correct wrongly labeled stay
-    //     history.values().forEach(pairs -> IntStream.rangeClosed(2, pairs.size()).map(i -> pairs.size() - i) //
-    //             .filter(i -> pairs.get(i).roboTaxiStatus == RoboTaxiStatus.STAY) //
-    //             .filter(i -> pairs.get(i + 1).roboTaxiStatus != RoboTaxiStatus.STAY) //
-    //             .filter(i -> pairs.get(i).link !=  pairs.get(i + 1).link) //
-    //             .forEach(i -> pairs.set(i, new LinkStatusPair(pairs.get(i).link, pairs.get(i + 1).roboTaxiStatus))));
-    //
-    //     // remove stay
-    //     history.values().forEach(pairs -> pairs.removeIf(p -> p.roboTaxiStatus == RoboTaxiStatus.STAY));
-    //
-    //     // remove duplicate links
-    //     AtomicInteger pastLink = new AtomicInteger(-1);
-    //     history.values().forEach(pairs -> pairs.removeIf(p -> {
-    //         int id = p.link.getId().index();
-    //         return id == pastLink.getAndSet(id);
-    //     }));
-    //
-    //     // remove empty entries
-    //     history.entrySet().removeIf(e -> e.getValue().isEmpty());
-    //
-    //     /** compute distance at every time step */
-    //     distances = history.entrySet().stream().collect(Collectors.toMap( //
-    //             Entry::getKey, e -> distance(e.getValue()), (v1, v2) -> { throw new RuntimeException(); }, TreeMap::new));
-    //
-    //     // System.out.println("fut: " + Accumulate.of(Tensor.of(distances.values().stream().map(t -> t.Get(0)).map(Round._6))));
-    //
-    //     /** compute total distances */
-    //     Tensor totalDistances = distances.values().stream().reduce(Tensor::add).orElse(emptyDistance());
-    //     vehicleTotalDistance = totalDistances.Get(0);
-    //     vehicleCustomerDist = totalDistances.Get(DRIVING_STATII.indexOf(RoboTaxiStatus.DRIVEWITHCUSTOMER) + 1);
-    //     vehiclePickupDist = totalDistances.Get(DRIVING_STATII.indexOf(RoboTaxiStatus.DRIVETOCUSTOMER) + 1);
-    //     vehicleRebalancedist = totalDistances.Get(DRIVING_STATII.indexOf(RoboTaxiStatus.REBALANCEDRIVE) + 1);
-    // }
-
-    private Tensor distance(Collection<LinkStatusPair> pairs) {
-        Tensor distance = emptyDistance();
-        for (LinkStatusPair pair : pairs) {
-            Scalar length = Quantity.of(db.getOsmLink(pair.link).getLength(), unit);
-            distance.set(length::add, 0);
-            if (DRIVING_STATII.contains(pair.roboTaxiStatus))
-                distance.set(length::add, DRIVING_STATII.indexOf(pair.roboTaxiStatus) + 1);
-        }
-        return distance;
-    }
-
-    private Tensor emptyDistance() {
-        return Array.fill(() -> Quantity.of(0, unit), 4);
+    /* package */ void consolidate() {
+        vehicleTotalDistance = Quantity.of(total[0], unit);
+        vehicleCustomerDist = Quantity.of(total[DRIVING_STATII.indexOf(RoboTaxiStatus.DRIVEWITHCUSTOMER) + 1], unit);
+        vehiclePickupDist = Quantity.of(total[DRIVING_STATII.indexOf(RoboTaxiStatus.DRIVETOCUSTOMER) + 1], unit);
+        vehicleRebalancedist = Quantity.of(total[DRIVING_STATII.indexOf(RoboTaxiStatus.REBALANCEDRIVE) + 1], unit);
     }
 
-    /** @param endTime (inclusive)
-     * @return distance covered in time interval ending at endTime as {total distance, with customer, pickup, rebalance} */
-    /* package */ Tensor stepDistance(long endTime) {
-        GlobalAssert.that(times.contains(endTime)); // all times should have been visited, hence no interpolation is needed
-        return distances.getOrDefault(endTime, emptyDistance()); // if a time step is not in distances, no distance has been covered
+    /** adds the distance covered in the time step ending at endTime as {total distance, with customer, pickup, rebalance}
+     * to the {@link #DISTANCES} entries of distances starting at offset, nothing is added if the vehicle was not registered at endTime
+     * 
+     * @param endTime (inclusive) of the last registered time step
+     * @param distances
+     * @param offset */
+    /* package */ void addStepDistance(long endTime, double[] distances, int offset) {
+        if (stepTime == endTime)
+            for (int index = 0; index < DISTANCES; ++index)
+                distances[offset + index] += step[index];
     }
 }
 
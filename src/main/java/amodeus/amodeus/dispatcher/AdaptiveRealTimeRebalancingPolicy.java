@@ -26,7 +26,6 @@ import amodeus.amodeus.dispatcher.core.PartitionedDispatcher;
 import amodeus.amodeus.dispatcher.util.AbstractRoboTaxiDestMatcher;
 import amodeus.amodeus.dispatcher.util.AbstractVirtualNodeDest;
 import amodeus.amodeus.dispatcher.util.ConfigurableBipartiteMatcher;
-import amodeus.amodeus.dispatcher.util.DistanceCost;
 import amodeus.amodeus.dispatcher.util.DistanceHeuristics;
 import amodeus.amodeus.dispatcher.util.EuclideanDistanceCost;
 import amodeus.amodeus.dispatcher.util.FeasibleRebalanceCreator;
@@ -90,8 +89,8 @@ public class AdaptiveRealTimeRebalancingPolicy extends PartitionedDispatcher {
         this.network = network;
         distanceHeuristics = dispatcherConfig.getDistanceHeuristics(DistanceHeuristics.EUCLIDEAN);
         System.out.println("Using DistanceHeuristics: " + distanceHeuristics.name());
-        this.distanceFunction = distanceHeuristics.getDistanceFunction(network);
-        this.bipartiteMatcher = new ConfigurableBipartiteMatcher(network, new DistanceCost(distanceFunction), //
+        this.distanceFunction = distanceHeuristics.getDistanceFunction(network, dispatcherConfig.getContractionHierarchyFile());
+        this.bipartiteMatcher = new ConfigurableBipartiteMatcher(network, distanceHeuristics.getBipartiteCost(network, distanceFunction), //
                 SafeConfig.wrap(operatorConfig.getDispatcherConfig()));
     }
 
@@ -27,7 +27,6 @@ import amodeus.amodeus.dispatcher.core.PartitionedDispatcher;
 import amodeus.amodeus.dispatcher.util.AbstractRoboTaxiDestMatcher;
 import amodeus.amodeus.dispatcher.util.AbstractVirtualNodeDest;
 import amodeus.amodeus.dispatcher.util.ConfigurableBipartiteMatcher;
-import amodeus.amodeus.dispatcher.util.DistanceCost;
 import amodeus.amodeus.dispatcher.util.DistanceHeuristics;
 import amodeus.amodeus.dispatcher.util.EuclideanDistanceCost;
 import amodeus.amodeus.dispatcher.util.FeasibleRebalanceCreator;
@@ -91,7 +90,7 @@ public class DFRStrategy extends PartitionedDispatcher {
         DistanceHeuristics distanceHeuristics = //
                 dispatcherConfig.getDistanceHeuristics(DistanceHeuristics.EUCLIDEAN);
         System.out.println("Using DistanceHeuristics: " + distanceHeuristics.name());
-        distanceFunction = distanceHeuristics.getDistanceFunction(network);
+        distanceFunction = distanceHeuristics.getDistanceFunction(network, dispatcherConfig.getContractionHierarchyFile());
         this.network = network;
         this.travelData = travelData;
         this.neighboring = new Neighboring(virtualNetwork, network);
@@ -101,7 +100,7 @@ public class DFRStrategy extends PartitionedDispatcher {
         this.vehicleDestMatcher = new GlobalBipartiteMatching(EuclideanDistanceCost.INSTANCE);
         this.virtualNodeDest = new RandomVirtualNodeDest();
         SafeConfig safeConfig = SafeConfig.wrap(operatorConfig);
-        bipartiteMatchingUtils = new ConfigurableBipartiteMatcher(network, new DistanceCost(distanceFunction), safeConfig);
+        bipartiteMatchingUtils = new ConfigurableBipartiteMatcher(network, distanceHeuristics.getBipartiteCost(network, distanceFunction), safeConfig);
         this.doDFR = dispatcherConfig.getBoolStrict("DFR");
         this.config = config;
         System.out.println("DFR is set to: " + doDFR);
@@ -16,7 +16,6 @@ import amodeus.amodeus.dispatcher.core.RoboTaxiUsageType;
 import amodeus.amodeus.dispatcher.core.RebalancingDispatcher;
 import amodeus.amodeus.dispatcher.util.BipartiteMatcher;
 import amodeus.amodeus.dispatcher.util.ConfigurableBipartiteMatcher;
-import amodeus.amodeus.dispatcher.util.DistanceCost;
 import amodeus.amodeus.dispatcher.util.DistanceHeuristics;
 import amodeus.amodeus.net.MatsimAmodeusDatabase;
 import amodeus.amodeus.routing.DistanceFunction;
@@ -49,11 +48,11 @@ public class GlobalBipartiteMatchingDispatcher extends RebalancingDispatcher {
         DistanceHeuristics distanceHeuristics = //
                 dispatcherConfig.getDistanceHeuristics(DistanceHeuristics.EUCLIDEAN);
         System.out.println("Using DistanceHeuristics: " + distanceHeuristics.name());
-        distanceFunction = distanceHeuristics.getDistanceFunction(network);
+        distanceFunction = distanceHeuristics.getDistanceFunction(network, dispatcherConfig.getContractionHierarchyFile());
         this.network = network;
         /** matching algorithm - standard is a solution to the assignment problem with the Hungarian method */
         SafeConfig safeConfig = SafeConfig.wrap(operatorConfig.getDispatcherConfig());
-        bipartiteMatcher = new ConfigurableBipartiteMatcher(network, new DistanceCost(distanceFunction), //
+        bipartiteMatcher = new ConfigurableBipartiteMatcher(network, distanceHeuristics.getBipartiteCost(network, distanceFunction), //
                 safeConfig);
     }
 
@@ -7,6 +7,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import org.matsim.amodeus.components.AmodeusDispatcher;
@@ -28,7 +29,6 @@ import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
 import org.matsim.core.router.DijkstraFactory;
 import org.matsim.core.router.costcalculators.OnlyTimeDependentTravelDisutility;
-import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.TravelDisutility;
 import org.matsim.core.router.util.TravelTime;
 
@@ -38,9 +38,11 @@ import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraParameters.Rejectio
 import amodeus.amodeus.dispatcher.alonso_mora_2016.ilp.ILPSolver;
 import amodeus.amodeus.dispatcher.alonso_mora_2016.rebalancing.RebalancingSolver;
 import amodeus.amodeus.dispatcher.alonso_mora_2016.routing.DefaultTravelFunction;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.rtv.ParallelRequestTripVehicleGraphBuilder;
 import amodeus.amodeus.dispatcher.alonso_mora_2016.rtv.RequestTripVehicleGraph;
 import amodeus.amodeus.dispatcher.alonso_mora_2016.rtv.RequestTripVehicleGraph.TripVehicleEdge;
 import amodeus.amodeus.dispatcher.alonso_mora_2016.rtv.RequestTripVehicleGraphBuilder;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.rv.ParallelRequestVehicleGraphBuilder;
 import amodeus.amodeus.dispatcher.alonso_mora_2016.rv.RequestVehicleGraph;
 import amodeus.amodeus.dispatcher.alonso_mora_2016.rv.RequestVehicleGraphBuilder;
 import amodeus.amodeus.dispatcher.core.DispatcherConfigWrapper;
@@ -49,6 +51,7 @@ import amodeus.amodeus.dispatcher.core.RoboTaxiUsageType;
 import amodeus.amodeus.dispatcher.core.schedule.directives.Directive;
 import amodeus.amodeus.dispatcher.core.schedule.directives.StopDirective;
 import amodeus.amodeus.net.MatsimAmodeusDatabase;
+import amodeus.amodeus.routing.LandmarkLowerBound;
 
 /** This is a second implementation next to the HighCapacityDispatcher which intends to be a bit more structured and closer to the paper.
  * 
@@ -56,32 +59,53 @@ import amodeus.amodeus.net.MatsimAmodeusDatabase;
 public class AlonsoMoraDispatcher extends RebalancingDispatcher {
     protected AlonsoMoraDispatcher(Config config, AmodeusModeConfig operatorConfig, TravelTime travelTime, ParallelLeastCostPathCalculator parallelLeastCostPathCalculator,
             EventsManager eventsManager, MatsimAmodeusDatabase db, RebalancingStrategy drtRebalancing, AlonsoMoraParameters parameters, TravelTimeCalculator travelTimeCalculator,
-            Set<DefaultTravelFunction.Constraint> constraints) {
+            Set<DefaultTravelFunction.Constraint> constraints, LandmarkLowerBound lowerBound) {
         super(config, operatorConfig, travelTime, parallelLeastCostPathCalculator, eventsManager, db, drtRebalancing, RoboTaxiUsageType.SHARED);
 
         this.travelTimeCalculator = travelTimeCalculator;
         this.parameters = parameters;
         this.constraints = constraints;
+        this.lowerBound = lowerBound;
 
         DispatcherConfigWrapper dispatcherConfig = DispatcherConfigWrapper.wrap(operatorConfig.getDispatcherConfig());
         dispatchPeriod = dispatcherConfig.getDispatchPeriod(30); // if want to change value, change in av file, here only for backup
         useRebalancing = drtRebalancing instanceof NoRebalancingStrategy;
+        forkJoinPool = parameters.numberOfThreads > 1 ? new ForkJoinPool(parameters.numberOfThreads) : null;
+        incrementalTravelFunction = parameters.reuseTrips ? new IncrementalTravelFunction() : null;
     }
 
     private final TravelTimeCalculator travelTimeCalculator;
     private final AlonsoMoraParameters parameters;
     private final Set<DefaultTravelFunction.Constraint> constraints;
+    private final LandmarkLowerBound lowerBound; // null if the request-vehicle pairs are not pruned
 
     private final IdMap<Request, AlonsoMoraRequest> requests = new IdMap<>(Request.class);
     private final IdMap<Request, Double> resubmissionTimes = new IdMap<>(Request.class);
 
     private final int dispatchPeriod;
     private final boolean useRebalancing;
+    private final ForkJoinPool forkJoinPool; // null if the graphs are built on the dispatcher thread
+    private final IncrementalTravelFunction incrementalTravelFunction; // null if all trips are evaluated in every step
+
+    @Override
+    public void onSimulationEnd() {
+        try {
+            super.onSimulationEnd();
+        } finally {
+            if (forkJoinPool != null) {
+                forkJoinPool.shutdown();
+            }
+        }
+    }
 
     @Override
     protected void redispatch(double now) {
         if (now % parameters.travelTimeCacheInterval == 0) {
             travelTimeCalculator.clear();
+
+            if (incrementalTravelFunction != null) {
+                incrementalTravelFunction.clear();
+            }
         }
 
         if (now % dispatchPeriod != 0) {
@@ -139,10 +163,17 @@ public class AlonsoMoraDispatcher extends RebalancingDispatcher {
         AlonsoMoraTravelFunction travelFunction = new DefaultTravelFunction(parameters, now, travelTimeCalculator, requests, pickupDurationPerStop, dropoffDurationPerStop,
                 constraints);
 
-        RequestVehicleGraphBuilder rvBuilder = new RequestVehicleGraphBuilder(travelFunction);
+        if (incrementalTravelFunction != null) {
+            incrementalTravelFunction.update(travelFunction, now, vehicles, requests.values());
+            travelFunction = incrementalTravelFunction;
+        }
+
+        RequestVehicleGraphBuilder rvBuilder = forkJoinPool == null ? new RequestVehicleGraphBuilder(travelFunction, lowerBound)
+                : new ParallelRequestVehicleGraphBuilder(travelFunction, lowerBound, forkJoinPool);
         RequestVehicleGraph rvGraph = rvBuilder.build(now, vehicles, assignmentRequests);
 
-        RequestTripVehicleGraphBuilder rtvBuilder = new RequestTripVehicleGraphBuilder(travelFunction, parameters);
+        RequestTripVehicleGraphBuilder rtvBuilder = forkJoinPool == null ? new RequestTripVehicleGraphBuilder(travelFunction, parameters)
+                : new ParallelRequestTripVehicleGraphBuilder(travelFunction, parameters, forkJoinPool);
         RequestTripVehicleGraph rtvGraph = rtvBuilder.build(rvGraph);
 
         // System.err.println("RR=" + rvGraph.getRequestRequestEdges().size() + " RV=" + rvGraph.getRequestVehicleEdges().size() + " RT=" +
@@ -290,10 +321,14 @@ public class AlonsoMoraDispatcher extends RebalancingDispatcher {
             });
 
             TravelDisutility travelDisutility = new OnlyTimeDependentTravelDisutility(travelTime);
-            LeastCostPathCalculator travelTimeRouter = new DijkstraFactory().createPathCalculator(network, travelDisutility, travelTime);
-            TravelTimeCalculator travelTimeCalculator = new DefaultTravelTimeCalculator(travelTimeRouter);
+            // Every thread that builds the graphs routes with its own router
+            TravelTimeCalculator travelTimeCalculator = new DefaultTravelTimeCalculator(() -> new DijkstraFactory().createPathCalculator(network, travelDisutility, travelTime),
+                    parameters.travelTimeCacheInterval);
+
+            LandmarkLowerBound lowerBound = parameters.pruneUnreachableVehicles ? LandmarkLowerBound.of(network) : null;
 
-            return new AlonsoMoraDispatcher(config, operatorConfig, travelTime, router, eventsManager, db, rebalancingStrategy, parameters, travelTimeCalculator, constraints);
+            return new AlonsoMoraDispatcher(config, operatorConfig, travelTime, router, eventsManager, db, rebalancingStrategy, parameters, travelTimeCalculator, constraints,
+                    lowerBound);
         }
     }
 }
@@ -12,8 +12,21 @@ public class AlonsoMoraParameters {
 
     public int routeOptimizationLimit = Integer.MAX_VALUE;
 
+    // Travel times are cached for intervals of this length in seconds, every pair of links is routed at the start of the interval
     public int travelTimeCacheInterval = 1200;
 
+    // Threads to build the graphs, 1 builds them on the dispatcher thread
+    public int numberOfThreads = 1;
+
+    // Skip request-vehicle pairs in which the vehicle cannot reach the pickup in time according to a lower bound
+    // on the free-flow travel time, this assumes that links are not traversed faster than with their freespeed
+    public boolean pruneUnreachableVehicles = true;
+
+    // Reuse the trips of the last dispatch steps which are not affected by changes of the vehicles and requests, see
+    // IncrementalTravelFunction. The costs of reused trips are upper bounds obtained by shifting the previous costs, hence the
+    // assignment ILP is solved on approximate costs, and the constraints must not depend on the time
+    public boolean reuseTrips = false;
+
     public enum RejectionType {
         FirstUnsuccessulAssignment, AfterInitialPickupTime, ResubmitAfterInitialPickupTime
     }
@@ -6,6 +6,8 @@ import java.util.Optional;
 
 import amodeus.amodeus.dispatcher.core.schedule.directives.StopDirective;
 
+/** If the graphs are built by several threads, see {@link AlonsoMoraParameters#numberOfThreads},
+ * the functions are called concurrently and the implementation must be thread-safe. */
 public interface AlonsoMoraTravelFunction {
     /** This function is called by the Alonso-Mora dispatcher to find the optimal
      * order of pickups and dropoffs for a given vehicle and a list of requests.
@@ -22,10 +24,17 @@ public interface AlonsoMoraTravelFunction {
     static public class Result {
         public final List<StopDirective> directives;
         public final double cost;
+        /** time by which the start of the sequence may be delayed while it stays feasible, 0 if unknown */
+        public final double slack;
 
         public Result(List<StopDirective> directives, double cost) {
+            this(directives, cost, 0.0);
+        }
+
+        public Result(List<StopDirective> directives, double cost, double slack) {
             this.cost = cost;
             this.directives = directives;
+            this.slack = slack;
         }
     }
 }
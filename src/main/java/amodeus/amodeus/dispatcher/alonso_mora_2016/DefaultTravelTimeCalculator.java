@@ -1,35 +1,68 @@
 package amodeus.amodeus.dispatcher.alonso_mora_2016;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.LeastCostPathCalculator.Path;
 import org.matsim.core.utils.collections.Tuple;
 
+/** The calculator may be called concurrently, e.g., by the {@link amodeus.amodeus.dispatcher.alonso_mora_2016.rv.ParallelRequestVehicleGraphBuilder}.
+ * The cache is shared by all threads. If the calculator is created with a router supplier, every thread routes with its own router,
+ * otherwise the single router is used by one thread at a time.
+ * 
+ * The travel times are cached per pair of links and interval of departure times, and every pair is routed at the start of the interval
+ * which contains the departure time. Hence, the cached travel time does not depend on the thread or call that routes the pair first. */
 public class DefaultTravelTimeCalculator implements TravelTimeCalculator {
+    /** null if every thread has its own router */
     private final LeastCostPathCalculator router;
-    private final Map<Tuple<Link, Link>, Double> cache = new HashMap<>();
+    private final ThreadLocal<LeastCostPathCalculator> routers;
+    private final double interval;
+    private final Map<Long, Map<Tuple<Link, Link>, Double>> cache = new ConcurrentHashMap<>();
 
-    public DefaultTravelTimeCalculator(LeastCostPathCalculator router) {
+    public DefaultTravelTimeCalculator(LeastCostPathCalculator router, double interval) {
         this.router = router;
+        this.routers = null;
+        this.interval = interval;
+    }
+
+    public DefaultTravelTimeCalculator(Supplier<LeastCostPathCalculator> routerSupplier, double interval) {
+        this.router = null;
+        this.routers = ThreadLocal.withInitial(routerSupplier);
+        this.interval = interval;
     }
 
     @Override
     public double getTravelTime(double departureTime, Link originLink, Link destinationLink) {
+        long index = (long) Math.floor(departureTime / interval);
+        Map<Tuple<Link, Link>, Double> intervalCache = cache.computeIfAbsent(index, i -> new ConcurrentHashMap<>());
+
         Tuple<Link, Link> tuple = new Tuple<>(originLink, destinationLink);
-        Double travelTime = cache.get(tuple);
+        Double travelTime = intervalCache.get(tuple);
 
         if (travelTime != null) {
             return travelTime;
         } else {
-            Path path = router.calcLeastCostPath(originLink.getToNode(), destinationLink.getFromNode(), departureTime, null, null);
-            cache.put(tuple, path.travelTime);
-            return path.travelTime;
+            // If two threads route the same pair, both obtain the same travel time
+            travelTime = route(originLink, destinationLink, index * interval).travelTime;
+            intervalCache.putIfAbsent(tuple, travelTime);
+            return travelTime;
         }
     }
 
+    private Path route(Link originLink, Link destinationLink, double departureTime) {
+        if (Objects.isNull(routers)) {
+            synchronized (router) {
+                return router.calcLeastCostPath(originLink.getToNode(), destinationLink.getFromNode(), departureTime, null, null);
+            }
+        }
+
+        return routers.get().calcLeastCostPath(originLink.getToNode(), destinationLink.getFromNode(), departureTime, null, null);
+    }
+
     @Override
     public void clear() {
         cache.clear();
@@ -0,0 +1,190 @@
+package amodeus.amodeus.dispatcher.alonso_mora_2016;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.IdMap;
+import org.matsim.api.core.v01.IdSet;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
+import org.matsim.contrib.dvrp.optimizer.Request;
+
+import amodeus.amodeus.dispatcher.core.schedule.directives.Directive;
+import amodeus.amodeus.dispatcher.core.schedule.directives.StopDirective;
+
+/** Keeps the results of a travel function across the dispatch steps, such that only the trips which are affected by
+ * changes since their evaluation are evaluated again, similar to the feasible requests that the AdvancedRTVGenerator
+ * of the high capacity dispatcher carries forward.
+ *
+ * The trips of a vehicle are discarded once it has moved to another link or its directives have changed, and the trips
+ * of a request are discarded once it is gone or its active pickup or dropoff time has changed. Otherwise, all stops of a
+ * trip are reached later by the elapsed time, assuming that the travel times do not change until {@link #clear()} is
+ * called. Hence, an infeasible trip stays infeasible, while a feasible trip is reused as long as the elapsed time does
+ * not exceed its slack, see {@link Result#slack}, with a cost that grows by at most the elapsed time per dropoff. */
+public class IncrementalTravelFunction implements AlonsoMoraTravelFunction {
+    private final Map<Id<DvrpVehicle>, VehicleTrips> vehicleTrips = new HashMap<>();
+    private final Map<Set<Id<Request>>, Entry> requestPairs = new ConcurrentHashMap<>();
+    private final IdMap<Request, List<Double>> requestStates = new IdMap<>(Request.class);
+
+    private AlonsoMoraTravelFunction delegate;
+    private double now;
+
+    /** Prepares the next dispatch step and discards the trips which are affected by changes of the vehicles or requests.
+     *
+     * @param delegate travel function of this dispatch step
+     * @param now
+     * @param vehicles which are passed to the travel function in this dispatch step
+     * @param requests all requests which are known to the dispatcher */
+    public void update(AlonsoMoraTravelFunction delegate, double now, Collection<AlonsoMoraVehicle> vehicles, Collection<AlonsoMoraRequest> requests) {
+        this.delegate = delegate;
+        this.now = now;
+
+        IdSet<Request> changedRequestIds = new IdSet<>(Request.class);
+        IdMap<Request, List<Double>> updatedRequestStates = new IdMap<>(Request.class);
+
+        for (AlonsoMoraRequest request : requests) {
+            List<Double> state = Arrays.asList(request.getActivePickupTime(), request.getActiveDropoffTime());
+            updatedRequestStates.put(request.getId(), state);
+
+            if (!state.equals(requestStates.get(request.getId()))) {
+                changedRequestIds.add(request.getId());
+            }
+        }
+
+        for (Id<Request> requestId : requestStates.keySet()) {
+            if (!updatedRequestStates.containsKey(requestId)) {
+                changedRequestIds.add(requestId);
+            }
+        }
+
+        requestStates.clear();
+        requestStates.putAll(updatedRequestStates);
+
+        Map<Id<DvrpVehicle>, VehicleTrips> updatedVehicleTrips = new HashMap<>();
+
+        for (AlonsoMoraVehicle vehicle : vehicles) {
+            List<Object> state = getState(vehicle);
+            VehicleTrips trips = vehicleTrips.get(vehicle.getId());
+
+            if (trips == null || !trips.state.equals(state)) {
+                trips = new VehicleTrips(state);
+            }
+
+            updatedVehicleTrips.put(vehicle.getId(), trips);
+        }
+
+        vehicleTrips.clear();
+        vehicleTrips.putAll(updatedVehicleTrips);
+
+        for (VehicleTrips trips : vehicleTrips.values()) {
+            discard(trips.results, changedRequestIds);
+        }
+
+        discard(requestPairs, changedRequestIds);
+    }
+
+    /** Discards all trips, e.g., if the travel times have changed */
+    public void clear() {
+        vehicleTrips.clear();
+        requestPairs.clear();
+        requestStates.clear();
+    }
+
+    @Override
+    public Optional<Result> calculate(AlonsoMoraVehicle vehicle, Collection<AlonsoMoraRequest> requests) {
+        VehicleTrips trips = vehicleTrips.get(vehicle.getId());
+
+        if (trips == null) {
+            return delegate.calculate(vehicle, requests);
+        }
+
+        Set<Id<Request>> key = requests.stream().map(AlonsoMoraRequest::getId).collect(Collectors.toSet());
+        Entry entry = trips.results.get(key);
+
+        if (entry == null || !entry.isValid(now)) {
+            entry = new Entry(delegate.calculate(vehicle, requests), now);
+            trips.results.put(key, entry);
+        }
+
+        return entry.get(now);
+    }
+
+    @Override
+    public Optional<Result> calculate(AlonsoMoraRequest firstRequest, AlonsoMoraRequest secondRequest) {
+        Set<Id<Request>> key = new HashSet<>(Arrays.asList(firstRequest.getId(), secondRequest.getId()));
+        Entry entry = requestPairs.get(key);
+
+        if (entry == null || !entry.isValid(now)) {
+            entry = new Entry(delegate.calculate(firstRequest, secondRequest), now);
+            requestPairs.put(key, entry);
+        }
+
+        return entry.get(now);
+    }
+
+    private void discard(Map<Set<Id<Request>>, Entry> results, IdSet<Request> changedRequestIds) {
+        results.entrySet().removeIf(e -> !e.getValue().isValid(now) || e.getKey().stream().anyMatch(changedRequestIds::contains));
+    }
+
+    /** @return location and directives of the vehicle, which determine the results of the travel function */
+    private static List<Object> getState(AlonsoMoraVehicle vehicle) {
+        List<Object> state = new ArrayList<>();
+        state.add(vehicle.getLocation().getId());
+
+        for (Directive directive : vehicle.getDirectives()) {
+            state.add(Directive.getLink(directive).getId());
+            state.add(directive.isModifiable());
+
+            if (directive instanceof StopDirective) {
+                StopDirective stopDirective = (StopDirective) directive;
+                state.add(stopDirective.getRequest().getId());
+                state.add(stopDirective.isPickup());
+            }
+        }
+
+        return state;
+    }
+
+    private static class VehicleTrips {
+        final List<Object> state;
+        final Map<Set<Id<Request>>, Entry> results = new ConcurrentHashMap<>();
+
+        VehicleTrips(List<Object> state) {
+            this.state = state;
+        }
+    }
+
+    private static class Entry {
+        final Optional<Result> result;
+        final double time;
+
+        Entry(Optional<Result> result, double time) {
+            this.result = result;
+            this.time = time;
+        }
+
+        boolean isValid(double now) {
+            return !result.isPresent() || now - time <= result.get().slack;
+        }
+
+        Optional<Result> get(double now) {
+            double delay = now - time;
+
+            if (!result.isPresent() || delay == 0.0) {
+                return result;
+            }
+
+            long dropoffs = result.get().directives.stream().filter(d -> !d.isPickup()).count();
+            return Optional.of(new Result(result.get().directives, result.get().cost + delay * dropoffs, result.get().slack - delay));
+        }
+    }
+}
@@ -164,6 +164,9 @@ public class DefaultTravelFunction implements AlonsoMoraTravelFunction {
                 double updatedTime = partial.time + travelTimeCalculator.getTravelTime(partial.time, originLink, destinationLink);
                 double updatedCost = partial.cost;
 
+                // The planned times shift with the start time, hence only the active times limit the slack
+                double updatedSlack = partial.slack;
+
                 if (addedDirective.isPickup()) {
                     TimeInfo plannedTiming = timeInfo.get(addedDirective.getRequest().getId());
                     updatedTime += pickupDuration;
@@ -177,6 +180,8 @@ public class DefaultTravelFunction implements AlonsoMoraTravelFunction {
                         if (updatedTime > addedRequest.getActivePickupTime()) {
                             continue; // Not feasible because pickup will be too late!
                         }
+
+                        updatedSlack = Math.min(updatedSlack, addedRequest.getActivePickupTime() - updatedTime);
                     }
                 } else {
                     TimeInfo plannedTiming = timeInfo.get(addedDirective.getRequest().getId());
@@ -190,6 +195,8 @@ public class DefaultTravelFunction implements AlonsoMoraTravelFunction {
                         if (updatedTime > addedRequest.getActiveDropoffTime()) {
                             continue; // Not feasible because pickup will be too late!
                         }
+
+                        updatedSlack = Math.min(updatedSlack, addedRequest.getActiveDropoffTime() - updatedTime);
                     }
 
                     updatedCost += Math.max(0.0, updatedTime - addedRequest.getDirectDropoffTime());
@@ -216,7 +223,7 @@ public class DefaultTravelFunction implements AlonsoMoraTravelFunction {
 
                 // We have a new feasible partial solution!
                 if (partial.indices.size() + 1 < numberOfDirectives) {
-                    generator.expand(partial, updatedTime, updatedPassengers, updatedCost);
+                    generator.expand(partial, updatedTime, updatedPassengers, updatedCost, updatedSlack);
                 } else {
                     // We have a full sequence with cost better than the current minimum
                     minimumCost = updatedCost;
@@ -229,7 +236,7 @@ public class DefaultTravelFunction implements AlonsoMoraTravelFunction {
 
                     sequence.add(directives.get(partial.addedIndex));
 
-                    minimumCostSolution = new Result(directives, updatedCost);
+                    minimumCostSolution = new Result(directives, updatedCost, updatedSlack);
                     numberOfSolutions++;
                 }
             }
@@ -309,13 +316,15 @@ public class DefaultTravelFunction implements AlonsoMoraTravelFunction {
         final double time;
         final double cost;
         final int passengers;
+        final double slack;
 
-        PartialSolution(List<Integer> indices, int addedIndex, double time, double cost, int passengers) {
+        PartialSolution(List<Integer> indices, int addedIndex, double time, double cost, int passengers, double slack) {
             this.indices = indices;
             this.addedIndex = addedIndex;
             this.time = time;
             this.cost = cost;
             this.passengers = passengers;
+            this.slack = slack;
         }
     }
 
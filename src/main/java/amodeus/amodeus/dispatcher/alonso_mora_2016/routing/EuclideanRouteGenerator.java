@@ -34,7 +34,7 @@ public class EuclideanRouteGenerator implements RouteGenerator {
         this.numberOfDirectives = locations.size();
         this.locations = locations;
 
-        this.partial = new PartialSolution(Arrays.asList(), -1, now, 0.0, initialPassengers);
+        this.partial = new PartialSolution(Arrays.asList(), -1, now, 0.0, initialPassengers, Double.POSITIVE_INFINITY);
 
         for (int i = 0; i < numberOfDirectives; i++) {
             alternatives.add(i);
@@ -72,16 +72,16 @@ public class EuclideanRouteGenerator implements RouteGenerator {
 
         expanded = false;
 
-        return new PartialSolution(partial.indices, minimumDistanceIndex, partial.time, partial.cost, partial.passengers);
+        return new PartialSolution(partial.indices, minimumDistanceIndex, partial.time, partial.cost, partial.passengers, partial.slack);
     }
 
     @Override
-    public void expand(PartialSolution partial, double updatedTime, int updatedPassengers, double updatedCost) {
+    public void expand(PartialSolution partial, double updatedTime, int updatedPassengers, double updatedCost, double updatedSlack) {
         List<Integer> updatedIndices = new ArrayList<>(numberOfDirectives);
         updatedIndices.addAll(partial.indices);
         updatedIndices.add(partial.addedIndex);
 
-        this.partial = new PartialSolution(updatedIndices, -1, updatedTime, updatedCost, updatedPassengers);
+        this.partial = new PartialSolution(updatedIndices, -1, updatedTime, updatedCost, updatedPassengers, updatedSlack);
         alternatives.clear();
 
         for (int index = 0; index < numberOfDirectives; index++) {
@@ -122,11 +122,11 @@ public class EuclideanRouteGenerator implements RouteGenerator {
             System.out.println(solution.indices + " " + solution.addedIndex);
 
             if (solution.addedIndex == 1) {
-                generator.expand(solution, 0, 0, 0);
+                generator.expand(solution, 0, 0, 0, 0);
             }
 
             if (solution.addedIndex == 2) {
-                generator.expand(solution, 0, 0, 0);
+                generator.expand(solution, 0, 0, 0, 0);
             }
         }
     }
@@ -18,7 +18,7 @@ public class ExtensiveRouteGenerator implements RouteGenerator {
         this.isDepthFirst = isDepthFirst;
 
         for (int i = 0; i < numberOfDirectives; i++) {
-            queue.add(new PartialSolution(Arrays.asList(), i, now, 0.0, initialPassengers));
+            queue.add(new PartialSolution(Arrays.asList(), i, now, 0.0, initialPassengers, Double.POSITIVE_INFINITY));
         }
     }
 
@@ -28,14 +28,14 @@ public class ExtensiveRouteGenerator implements RouteGenerator {
     }
 
     @Override
-    public void expand(PartialSolution solution, double updatedTime, int updatedPassengers, double updatedCost) {
+    public void expand(PartialSolution solution, double updatedTime, int updatedPassengers, double updatedCost, double updatedSlack) {
         List<Integer> updatedIndices = new ArrayList<>(solution.indices.size() + 1);
         updatedIndices.addAll(solution.indices);
         updatedIndices.add(solution.addedIndex);
 
         for (int i = 0; i < numberOfDirectives; i++) {
             if (!updatedIndices.contains(i)) {
-                queue.add(new PartialSolution(updatedIndices, i, updatedTime, updatedCost, updatedPassengers));
+                queue.add(new PartialSolution(updatedIndices, i, updatedTime, updatedCost, updatedPassengers, updatedSlack));
             }
         }
     }
@@ -5,7 +5,7 @@ import amodeus.amodeus.dispatcher.alonso_mora_2016.routing.DefaultTravelFunction
 public interface RouteGenerator {
     PartialSolution next();
 
-    void expand(PartialSolution solution, double updatedTime, int updatedPassengers, double updatedCost);
+    void expand(PartialSolution solution, double updatedTime, int updatedPassengers, double updatedCost, double updatedSlack);
 
     boolean hasNext();
 }
\ No newline at end of file
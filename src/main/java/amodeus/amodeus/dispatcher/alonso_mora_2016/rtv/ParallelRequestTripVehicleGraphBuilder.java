@@ -0,0 +1,37 @@
+package amodeus.amodeus.dispatcher.alonso_mora_2016.rtv;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraParameters;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraTravelFunction;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraVehicle;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.rv.RequestVehicleGraph;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.rv.RequestVehicleGraph.RequestVehicleEdge;
+
+/** Expands the trips of the vehicles on a {@link ForkJoinPool}, the travel function must be thread-safe. Every task
+ * registers the trips of its vehicle locally, the trips are merged into the global index in the order of the vehicles.
+ *
+ * Hence, the graph equals the one of the {@link RequestTripVehicleGraphBuilder} as long as the
+ * {@link AlonsoMoraParameters#rtvLimitPerFleet} is not reached. Otherwise, the budget is shared by the concurrent
+ * tasks and the vehicles which obtain the remaining edges depend on the scheduling. */
+public class ParallelRequestTripVehicleGraphBuilder extends RequestTripVehicleGraphBuilder {
+    private final ForkJoinPool forkJoinPool;
+
+    public ParallelRequestTripVehicleGraphBuilder(AlonsoMoraTravelFunction travelFunction, AlonsoMoraParameters parameters, ForkJoinPool forkJoinPool) {
+        super(travelFunction, parameters);
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    @Override
+    protected List<VehicleTrips> expand(RequestVehicleGraph requestVehicleGraph, List<Map.Entry<AlonsoMoraVehicle, List<RequestVehicleEdge>>> entries, FleetBudget budget) {
+        // runs the parallel stream on the pool instead of the common pool
+        return forkJoinPool.submit(() -> entries.parallelStream() //
+                .map(entry -> expand(requestVehicleGraph, entry.getKey(), entry.getValue(), budget)) //
+                .filter(Objects::nonNull) //
+                .collect(Collectors.toList())).join();
+    }
+}
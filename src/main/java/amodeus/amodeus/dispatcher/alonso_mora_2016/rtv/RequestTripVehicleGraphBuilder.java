@@ -2,15 +2,15 @@ package amodeus.amodeus.dispatcher.alonso_mora_2016.rtv;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraParameters;
 import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraRequest;
@@ -22,6 +22,8 @@ import amodeus.amodeus.dispatcher.alonso_mora_2016.rtv.RequestTripVehicleGraph.T
 import amodeus.amodeus.dispatcher.alonso_mora_2016.rtv.RequestTripVehicleGraph.TripVehicleEdge;
 import amodeus.amodeus.dispatcher.alonso_mora_2016.rv.RequestVehicleGraph;
 import amodeus.amodeus.dispatcher.alonso_mora_2016.rv.RequestVehicleGraph.RequestVehicleEdge;
+import amodeus.amodeus.dispatcher.core.schedule.directives.StopDirective;
+import amodeus.amodeus.dispatcher.util.TripKey;
 
 public class RequestTripVehicleGraphBuilder {
     private final AlonsoMoraTravelFunction travelFunction;
@@ -32,156 +34,180 @@ public class RequestTripVehicleGraphBuilder {
         this.parameters = parameters;
     }
 
-    private final Map<Trip, Integer> tripIndices = new HashMap<>();
-    private final List<Trip> tripList = new LinkedList<>();
+    public RequestTripVehicleGraph build(RequestVehicleGraph requestVehicleGraph) {
+        List<Map.Entry<AlonsoMoraVehicle, List<RequestVehicleEdge>>> entries = new ArrayList<>(requestVehicleGraph.getRequestVehicleEdges().entrySet());
+        FleetBudget budget = new FleetBudget(parameters.rtvLimitPerFleet);
+        return merge(expand(requestVehicleGraph, entries, budget));
+    }
 
-    // TODO: Avoid this class variable!
-    private Trip registerTrip(Set<AlonsoMoraRequest> requests) {
-        Trip trip = new Trip(requests, tripList.size());
-        Integer index = tripIndices.get(trip);
+    /** Expands the trips of the vehicles one after another until the fleet budget is exhausted.
+     * 
+     * @return trips of the expanded vehicles in the order of the entries */
+    protected List<VehicleTrips> expand(RequestVehicleGraph requestVehicleGraph, List<Map.Entry<AlonsoMoraVehicle, List<RequestVehicleEdge>>> entries, FleetBudget budget) {
+        List<VehicleTrips> result = new ArrayList<>(entries.size());
 
-        if (index != null) {
-            return tripList.get(index);
-        }
+        for (Map.Entry<AlonsoMoraVehicle, List<RequestVehicleEdge>> entry : entries) {
+            VehicleTrips vehicleTrips = expand(requestVehicleGraph, entry.getKey(), entry.getValue(), budget);
+
+            if (vehicleTrips == null) {
+                break;
+            }
 
-        tripList.add(trip);
-        tripIndices.put(trip, trip.getIndex());
+            result.add(vehicleTrips);
+        }
 
-        return trip;
+        return result;
     }
 
-    public RequestTripVehicleGraph build(RequestVehicleGraph requestVehicleGraph) {
-        Set<RequestTripEdge> requestTripEdges = new HashSet<>();
-        Set<TripVehicleEdge> tripVehicleEdges = new HashSet<>();
+    /** Builds the trips of size 1 up to the capacity of one vehicle. The trips are only registered locally, hence the
+     * vehicles can be expanded concurrently, see {@link #merge(List)}.
+     * 
+     * @return trips of the vehicle or null if the fleet budget was exhausted before the vehicle was expanded */
+    protected VehicleTrips expand(RequestVehicleGraph requestVehicleGraph, AlonsoMoraVehicle vehicle, List<RequestVehicleEdge> vehicleEdges, FleetBudget budget) {
+        if (budget.isExhausted()) {
+            return null;
+        }
 
-        List<AlonsoMoraVehicle> vehicles = new LinkedList<>();
+        VehicleTrips registry = new VehicleTrips(vehicle);
 
-        int fleetEdgeCount = 0;
+        int vehicleCapacity = vehicle.getCapacity();
+        int vehicleEdgeCount = 0;
 
-        for (Map.Entry<AlonsoMoraVehicle, List<RequestVehicleEdge>> entry : requestVehicleGraph.getRequestVehicleEdges().entrySet()) {
-            if (fleetEdgeCount >= parameters.rtvLimitPerFleet) {
-                break;
-            }
+        // The trips of each length are identified by the indices of their requests in vehicleRequests
+        List<Map<TripKey, Trip>> vehicleTrips = new ArrayList<>(vehicleCapacity);
+        List<AlonsoMoraRequest> vehicleRequests = new ArrayList<>();
+        int candidates = vehicleEdges.size();
 
-            AlonsoMoraVehicle vehicle = entry.getKey();
-            List<RequestVehicleEdge> vehicleEdges = entry.getValue();
+        for (int k = 0; k < vehicleCapacity; k++) {
+            vehicleTrips.add(new LinkedHashMap<>());
+        }
 
-            int vehicleIndex = vehicles.size();
-            vehicles.add(vehicle);
+        // Trips of length 1
 
-            int vehicleCapacity = vehicle.getCapacity();
-            int vehicleEdgeCount = 0;
+        if (vehicleCapacity > 0) {
+            for (RequestVehicleEdge edge : vehicleEdges) {
+                if (vehicleEdgeCount >= parameters.rtvLimitPerVehicle || !budget.tryAcquire()) {
+                    break;
+                }
 
-            List<Set<Trip>> vehicleTrips = new ArrayList<>(vehicleCapacity);
-            List<AlonsoMoraRequest> vehicleRequests = new LinkedList<>();
+                Trip trip = registry.add(Collections.singleton(edge.getRequest()), edge.getCost(), edge.getSequence());
+                vehicleTrips.get(0).put(TripKey.of(candidates, vehicleRequests.size()), trip);
+                vehicleEdgeCount++;
 
-            for (int k = 0; k < vehicleCapacity; k++) {
-                vehicleTrips.add(new HashSet<>());
+                vehicleRequests.add(edge.getRequest());
             }
+        }
 
-            // Trips of length 1
+        // Trips of length 2
+
+        if (vehicleCapacity > 1) {
+            for (int i = 0; i < vehicleRequests.size(); i++) {
+                if (budget.isExhausted() || vehicleEdgeCount >= parameters.rtvLimitPerVehicle) {
+                    break;
+                }
 
-            if (vehicleCapacity > 0) {
-                for (RequestVehicleEdge edge : vehicleEdges) {
-                    if (fleetEdgeCount >= parameters.rtvLimitPerFleet || vehicleEdgeCount >= parameters.rtvLimitPerVehicle) {
+                for (int j = i + 1; j < vehicleRequests.size(); j++) {
+                    if (budget.isExhausted() || vehicleEdgeCount >= parameters.rtvLimitPerVehicle) {
                         break;
                     }
 
-                    Trip trip = registerTrip(Collections.singleton(edge.getRequest()));
-                    vehicleTrips.get(0).add(trip);
+                    AlonsoMoraRequest firstRequest = vehicleRequests.get(i);
+                    AlonsoMoraRequest secondRequest = vehicleRequests.get(j);
+
+                    if (requestVehicleGraph.hasEdge(firstRequest, secondRequest)) {
+                        Optional<Result> result = travelFunction.calculate(vehicle, Arrays.asList(firstRequest, secondRequest));
 
-                    requestTripEdges.add(new RequestTripEdge(edge.getRequest(), trip, trip.getIndex()));
-                    tripVehicleEdges.add(new TripVehicleEdge(trip.getIndex(), vehicleIndex, edge.getCost(), edge.getSequence()));
-                    vehicleEdgeCount++;
-                    fleetEdgeCount++;
+                        if (result.isPresent()) {
+                            if (!budget.tryAcquire()) {
+                                break;
+                            }
 
-                    vehicleRequests.add(edge.getRequest());
+                            Trip trip = registry.add(new HashSet<>(Arrays.asList(firstRequest, secondRequest)), result.get().cost, result.get().directives);
+                            vehicleTrips.get(1).put(TripKey.of(candidates, i, j), trip);
+                            vehicleEdgeCount++;
+                        }
+                    }
                 }
             }
+        }
+
+        // Longer trips
+        for (int k = 2; k < vehicleCapacity; k++) {
+            if (budget.isExhausted() || vehicleEdgeCount >= parameters.rtvLimitPerVehicle) {
+                break;
+            }
+
+            List<Map.Entry<TripKey, Trip>> previousTrips = new ArrayList<>(vehicleTrips.get(k - 1).entrySet());
 
-            // Trips of length 2
+            for (int i = 0; i < previousTrips.size(); i++) {
+                if (budget.isExhausted() || vehicleEdgeCount >= parameters.rtvLimitPerVehicle) {
+                    break;
+                }
 
-            if (vehicleCapacity > 1) {
-                for (int i = 0; i < vehicleRequests.size(); i++) {
-                    if (fleetEdgeCount >= parameters.rtvLimitPerFleet || vehicleEdgeCount >= parameters.rtvLimitPerVehicle) {
+                for (int j = i + 1; j < previousTrips.size(); j++) {
+                    if (budget.isExhausted() || vehicleEdgeCount >= parameters.rtvLimitPerVehicle) {
                         break;
                     }
 
-                    for (int j = i + 1; j < vehicleRequests.size(); j++) {
-                        if (fleetEdgeCount >= parameters.rtvLimitPerFleet || vehicleEdgeCount >= parameters.rtvLimitPerVehicle) {
-                            break;
-                        }
+                    TripKey combinedKey = previousTrips.get(i).getKey().union(previousTrips.get(j).getKey());
 
-                        AlonsoMoraRequest firstRequest = vehicleRequests.get(i);
-                        AlonsoMoraRequest secondRequest = vehicleRequests.get(j);
+                    if (combinedKey.size() == k + 1) {
+                        if (!vehicleTrips.get(k).containsKey(combinedKey) && combinedKey.containsAllSubtrips(vehicleTrips.get(k - 1).keySet())) {
+                            Set<AlonsoMoraRequest> combinedRequests = new HashSet<>();
+                            combinedRequests.addAll(previousTrips.get(i).getValue().getRequests());
+                            combinedRequests.addAll(previousTrips.get(j).getValue().getRequests());
 
-                        if (requestVehicleGraph.hasEdge(firstRequest, secondRequest)) {
-                            Optional<Result> result = travelFunction.calculate(vehicle, Arrays.asList(firstRequest, secondRequest));
+                            Optional<Result> result = travelFunction.calculate(vehicle, combinedRequests);
 
                             if (result.isPresent()) {
-                                Trip trip = registerTrip(new HashSet<>(Arrays.asList(firstRequest, secondRequest)));
-                                vehicleTrips.get(1).add(trip);
-
-                                // System.err.println(String.join(", ", result.get().directives.stream().map(d -> d.toString()).collect(Collectors.toList())));
+                                if (!budget.tryAcquire()) {
+                                    break;
+                                }
 
-                                tripVehicleEdges.add(new TripVehicleEdge(trip.getIndex(), vehicleIndex, result.get().cost, result.get().directives));
+                                Trip trip = registry.add(combinedRequests, result.get().cost, result.get().directives);
+                                vehicleTrips.get(k).put(combinedKey, trip);
                                 vehicleEdgeCount++;
-                                fleetEdgeCount++;
-
-                                requestTripEdges.add(new RequestTripEdge(firstRequest, trip, trip.getIndex()));
-                                requestTripEdges.add(new RequestTripEdge(secondRequest, trip, trip.getIndex()));
                             }
                         }
                     }
                 }
             }
+        }
 
-            // Longer trips
-            for (int k = 2; k < vehicleCapacity; k++) {
-                if (fleetEdgeCount >= parameters.rtvLimitPerFleet || vehicleEdgeCount >= parameters.rtvLimitPerVehicle) {
-                    break;
-                }
-
-                List<Trip> previousTrips = new ArrayList<>(vehicleTrips.get(k - 1));
-
-                for (int i = 0; i < previousTrips.size(); i++) {
-                    if (fleetEdgeCount >= parameters.rtvLimitPerFleet || vehicleEdgeCount >= parameters.rtvLimitPerVehicle) {
-                        break;
-                    }
-
-                    for (int j = i + 1; j < previousTrips.size(); j++) {
-                        if (fleetEdgeCount >= parameters.rtvLimitPerFleet || vehicleEdgeCount >= parameters.rtvLimitPerVehicle) {
-                            break;
-                        }
-
-                        Trip firstTrip = previousTrips.get(i);
-                        Trip secondTrip = previousTrips.get(j);
-
-                        Set<AlonsoMoraRequest> combinedRequests = new HashSet<>();
-                        combinedRequests.addAll(firstTrip.getRequests());
-                        combinedRequests.addAll(secondTrip.getRequests());
+        return registry;
+    }
 
-                        Trip unassignedTrip = new Trip(combinedRequests, -1);
+    /** Registers the trips of all vehicles in a global index, such that equal trips of different vehicles share one
+     * index. The trips are indexed in the order of the vehicles and of their expansion. */
+    private static RequestTripVehicleGraph merge(List<VehicleTrips> expansions) {
+        Set<RequestTripEdge> requestTripEdges = new HashSet<>();
+        Set<TripVehicleEdge> tripVehicleEdges = new HashSet<>();
 
-                        if (combinedRequests.size() == k + 1) {
-                            if (!vehicleTrips.get(k).contains(unassignedTrip) && checkSubtrips(combinedRequests, previousTrips)) {
-                                Optional<Result> result = travelFunction.calculate(vehicle, combinedRequests);
+        Map<Trip, Integer> tripIndices = new HashMap<>();
+        List<Trip> tripList = new ArrayList<>();
+        List<AlonsoMoraVehicle> vehicles = new ArrayList<>(expansions.size());
 
-                                if (result.isPresent()) {
-                                    Trip trip = registerTrip(combinedRequests);
-                                    vehicleTrips.get(k).add(trip);
+        for (VehicleTrips expansion : expansions) {
+            int vehicleIndex = vehicles.size();
+            vehicles.add(expansion.vehicle);
+
+            for (TripVehicleEdge localEdge : expansion.edges) {
+                Trip localTrip = expansion.trips.get(localEdge.getTripIndex());
+                Integer index = tripIndices.get(localTrip);
+                Trip trip;
+
+                if (index == null) {
+                    trip = new Trip(localTrip.getRequests(), tripList.size());
+                    tripList.add(trip);
+                    tripIndices.put(trip, trip.getIndex());
+                } else {
+                    trip = tripList.get(index);
+                }
 
-                                    tripVehicleEdges.add(new TripVehicleEdge(trip.getIndex(), vehicleIndex, result.get().cost, result.get().directives));
-                                    vehicleEdgeCount++;
-                                    fleetEdgeCount++;
+                tripVehicleEdges.add(new TripVehicleEdge(trip.getIndex(), vehicleIndex, localEdge.getCost(), localEdge.getSequence()));
 
-                                    for (AlonsoMoraRequest request : combinedRequests) {
-                                        requestTripEdges.add(new RequestTripEdge(request, trip, trip.getIndex()));
-                                    }
-                                }
-                            }
-                        }
-                    }
+                for (AlonsoMoraRequest request : trip.getRequests()) {
+                    requestTripEdges.add(new RequestTripEdge(request, trip, trip.getIndex()));
                 }
             }
         }
@@ -189,20 +215,40 @@ public class RequestTripVehicleGraphBuilder {
         return new RequestTripVehicleGraph(tripList, vehicles, tripVehicleEdges, requestTripEdges);
     }
 
-    private boolean checkSubtrips(Collection<AlonsoMoraRequest> requests, List<Trip> previousTrips) {
-        List<AlonsoMoraRequest> requestsList = new ArrayList<>(requests);
+    /** Trips of one vehicle, the trip indices of the edges refer to the local list of trips */
+    protected static class VehicleTrips {
+        private final AlonsoMoraVehicle vehicle;
+        private final List<Trip> trips = new ArrayList<>();
+        private final List<TripVehicleEdge> edges = new ArrayList<>();
 
-        for (int i = 0; i < requestsList.size(); i++) {
-            List<AlonsoMoraRequest> residual = new ArrayList<>(requestsList);
-            residual.remove(i);
+        VehicleTrips(AlonsoMoraVehicle vehicle) {
+            this.vehicle = vehicle;
+        }
 
-            Trip trip = new Trip(new HashSet<>(residual), 0);
+        Trip add(Set<AlonsoMoraRequest> requests, double cost, List<StopDirective> sequence) {
+            Trip trip = new Trip(requests, trips.size());
+            trips.add(trip);
+            edges.add(new TripVehicleEdge(trip.getIndex(), -1, cost, sequence));
+            return trip;
+        }
+    }
 
-            if (!previousTrips.contains(trip)) {
-                return false;
-            }
+    /** Remaining number of trip-vehicle edges of the fleet, see {@link AlonsoMoraParameters#rtvLimitPerFleet}, which
+     * may be shared among the threads that expand the vehicles */
+    protected static class FleetBudget {
+        private final AtomicInteger remaining;
+
+        FleetBudget(int limit) {
+            remaining = new AtomicInteger(limit);
+        }
+
+        boolean isExhausted() {
+            return remaining.get() <= 0;
         }
 
-        return true;
+        /** @return true if one unit of the budget was consumed, false if it is exhausted */
+        boolean tryAcquire() {
+            return remaining.getAndUpdate(value -> Math.max(0, value - 1)) > 0;
+        }
     }
 }
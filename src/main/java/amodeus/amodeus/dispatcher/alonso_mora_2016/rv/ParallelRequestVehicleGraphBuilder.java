@@ -0,0 +1,108 @@
+package amodeus.amodeus.dispatcher.alonso_mora_2016.rv;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraRequest;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraTravelFunction;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraTravelFunction.Result;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraVehicle;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.rv.RequestVehicleGraph.RequestRequestEdge;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.rv.RequestVehicleGraph.RequestVehicleEdge;
+import amodeus.amodeus.routing.LandmarkLowerBound;
+
+/** Builds the same graph as the {@link RequestVehicleGraphBuilder}, but evaluates the request-vehicle pairs and the
+ * request-request pairs on a {@link ForkJoinPool}. Hence, the travel function is called concurrently and must be thread-safe.
+ *
+ * Every task collects the edges of one request in a list of its own. Afterwards, the lists are merged in the order
+ * of the serial builder, such that the graph does not depend on the scheduling of the tasks. */
+public class ParallelRequestVehicleGraphBuilder extends RequestVehicleGraphBuilder {
+    private final AlonsoMoraTravelFunction travelFunction;
+    private final ForkJoinPool forkJoinPool;
+
+    public ParallelRequestVehicleGraphBuilder(AlonsoMoraTravelFunction travelFunction, LandmarkLowerBound lowerBound, ForkJoinPool forkJoinPool) {
+        super(travelFunction, lowerBound);
+        this.travelFunction = travelFunction;
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    @Override
+    public RequestVehicleGraph build(double now, Collection<AlonsoMoraVehicle> vehicles, Collection<AlonsoMoraRequest> requests) {
+        List<AlonsoMoraVehicle> vehicleList = new ArrayList<>(vehicles);
+        List<AlonsoMoraRequest> requestList = new ArrayList<>(requests);
+        Function<AlonsoMoraRequest, Predicate<AlonsoMoraVehicle>> candidates = getCandidates(now, vehicleList);
+
+        List<List<RequestVehicleEdge>> requestVehicleEdgeLists = invoke(() -> requestList.parallelStream() //
+                .map(request -> getRequestVehicleEdges(request, vehicleList, candidates.apply(request))) //
+                .collect(Collectors.toList()));
+
+        Set<RequestVehicleEdge> requestVehicleEdges = new HashSet<>();
+        List<AlonsoMoraRequest> assignableRequests = new ArrayList<>();
+
+        for (List<RequestVehicleEdge> edges : requestVehicleEdgeLists) {
+            if (!edges.isEmpty()) {
+                requestVehicleEdges.addAll(edges);
+                assignableRequests.add(edges.get(0).getRequest());
+            }
+        }
+
+        List<List<RequestRequestEdge>> requestRequestEdgeLists = invoke(() -> IntStream.range(0, assignableRequests.size()).parallel() //
+                .mapToObj(i -> getRequestRequestEdges(i, assignableRequests)) //
+                .collect(Collectors.toList()));
+
+        Set<RequestRequestEdge> requestRequestEdges = new HashSet<>();
+        requestRequestEdgeLists.forEach(requestRequestEdges::addAll);
+
+        return new RequestVehicleGraph(requestVehicleEdges, requestRequestEdges);
+    }
+
+    private List<RequestVehicleEdge> getRequestVehicleEdges(AlonsoMoraRequest request, List<AlonsoMoraVehicle> vehicles, Predicate<AlonsoMoraVehicle> isCandidate) {
+        List<RequestVehicleEdge> edges = new ArrayList<>();
+
+        for (AlonsoMoraVehicle vehicle : vehicles) {
+            if (!isCandidate.test(vehicle)) {
+                continue;
+            }
+
+            Optional<Result> result = travelFunction.calculate(vehicle, Collections.singleton(request));
+
+            if (result.isPresent()) {
+                edges.add(new RequestVehicleEdge(request, vehicle, result.get().cost, result.get().directives));
+            }
+        }
+
+        return edges;
+    }
+
+    /** @return edges between the i-th request and all subsequent requests */
+    private List<RequestRequestEdge> getRequestRequestEdges(int i, List<AlonsoMoraRequest> requests) {
+        List<RequestRequestEdge> edges = new ArrayList<>();
+        AlonsoMoraRequest firstRequest = requests.get(i);
+
+        for (int j = i + 1; j < requests.size(); j++) {
+            AlonsoMoraRequest secondRequest = requests.get(j);
+
+            if (travelFunction.calculate(firstRequest, secondRequest).isPresent()) {
+                edges.add(new RequestRequestEdge(firstRequest, secondRequest));
+            }
+        }
+
+        return edges;
+    }
+
+    /** runs the parallel stream of the callable on the pool instead of the common pool */
+    private <T> T invoke(Callable<T> callable) {
+        return forkJoinPool.submit(callable).join();
+    }
+}
@@ -0,0 +1,63 @@
+package amodeus.amodeus.dispatcher.alonso_mora_2016.rv;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.matsim.api.core.v01.IdSet;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.contrib.dvrp.optimizer.Request;
+
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraRequest;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraVehicle;
+import amodeus.amodeus.dispatcher.core.schedule.directives.Directive;
+import amodeus.amodeus.dispatcher.core.schedule.directives.StopDirective;
+import amodeus.amodeus.dispatcher.util.ReachabilityIndex;
+import amodeus.amodeus.routing.LandmarkLowerBound;
+
+/** Prunes the request-vehicle pairs for which the vehicle cannot reach the origin of the request before its active
+ * pickup time, see {@link ReachabilityIndex}.
+ *
+ * The path of a vehicle starts at its location and may pass the links of its directives before the pickup. The travel
+ * function does not count the traversal of these links, hence their free-flow travel times are granted as allowance.
+ * Requests that are among the directives of a vehicle are never pruned for this vehicle, because their timing may be
+ * relaxed, see AlonsoMoraParameters.useSoftConstraintsAfterAssignment. */
+/* package */ class RequestVehicleCandidates {
+    private final double now;
+    private final ReachabilityIndex<AlonsoMoraVehicle> reachabilityIndex;
+    private final Map<AlonsoMoraVehicle, IdSet<Request>> directiveRequests = new HashMap<>();
+
+    RequestVehicleCandidates(double now, Collection<AlonsoMoraVehicle> vehicles, LandmarkLowerBound lowerBound) {
+        this.now = now;
+
+        Map<AlonsoMoraVehicle, Double> allowances = new HashMap<>();
+
+        for (AlonsoMoraVehicle vehicle : vehicles) {
+            IdSet<Request> requestIds = new IdSet<>(Request.class);
+            double allowance = 0.0;
+
+            for (Directive directive : vehicle.getDirectives()) {
+                Link link = Directive.getLink(directive);
+                allowance += link.getLength() / link.getFreespeed();
+
+                if (directive instanceof StopDirective) {
+                    requestIds.add(((StopDirective) directive).getRequest().getId());
+                }
+            }
+
+            directiveRequests.put(vehicle, requestIds);
+            allowances.put(vehicle, allowance);
+        }
+
+        // The travel function routes from the to-node of the vehicle's link to the from-node of the pickup link
+        reachabilityIndex = new ReachabilityIndex<>(lowerBound, vehicles, vehicle -> vehicle.getLocation().getToNode(), allowances::get);
+    }
+
+    /** @return true for the vehicles of which the pair with the request needs to be evaluated */
+    Predicate<AlonsoMoraVehicle> of(AlonsoMoraRequest request) {
+        Set<AlonsoMoraVehicle> reachable = reachabilityIndex.reachable(request.getRequest().getFromLink().getFromNode(), request.getActivePickupTime() - now);
+        return vehicle -> reachable.contains(vehicle) || directiveRequests.get(vehicle).contains(request.getId());
+    }
+}
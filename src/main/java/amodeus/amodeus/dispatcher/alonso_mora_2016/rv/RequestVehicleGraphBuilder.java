@@ -7,6 +7,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraRequest;
 import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraTravelFunction;
@@ -14,24 +16,48 @@ import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraTravelFunction.Resu
 import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraVehicle;
 import amodeus.amodeus.dispatcher.alonso_mora_2016.rv.RequestVehicleGraph.RequestRequestEdge;
 import amodeus.amodeus.dispatcher.alonso_mora_2016.rv.RequestVehicleGraph.RequestVehicleEdge;
+import amodeus.amodeus.routing.LandmarkLowerBound;
 
 public class RequestVehicleGraphBuilder {
     private final AlonsoMoraTravelFunction travelFunction;
+    private final LandmarkLowerBound lowerBound; // null if no request-vehicle pairs are pruned
 
     public RequestVehicleGraphBuilder(AlonsoMoraTravelFunction travelFunction) {
+        this(travelFunction, null);
+    }
+
+    /** Pairs in which the vehicle cannot reach the request in time according to the lower bound are not
+     * evaluated, see {@link RequestVehicleCandidates}. */
+    public RequestVehicleGraphBuilder(AlonsoMoraTravelFunction travelFunction, LandmarkLowerBound lowerBound) {
         this.travelFunction = travelFunction;
+        this.lowerBound = lowerBound;
+    }
+
+    /** @return predicate on the vehicles for each request which are evaluated */
+    protected Function<AlonsoMoraRequest, Predicate<AlonsoMoraVehicle>> getCandidates(double now, Collection<AlonsoMoraVehicle> vehicles) {
+        if (lowerBound == null) {
+            return request -> vehicle -> true;
+        }
+
+        return new RequestVehicleCandidates(now, vehicles, lowerBound)::of;
     }
 
     public RequestVehicleGraph build(double now, Collection<AlonsoMoraVehicle> vehicles, Collection<AlonsoMoraRequest> requests) {
-        // TODO: This can be heavily parallelized!
+        // See ParallelRequestVehicleGraphBuilder for the parallel version
 
         Set<RequestVehicleEdge> requestVehicleEdges = new HashSet<>();
         List<AlonsoMoraRequest> requestList = new LinkedList<>();
+        Function<AlonsoMoraRequest, Predicate<AlonsoMoraVehicle>> candidates = getCandidates(now, vehicles);
 
         for (AlonsoMoraRequest request : requests) {
             boolean assignedOnce = false;
+            Predicate<AlonsoMoraVehicle> isCandidate = candidates.apply(request);
 
             for (AlonsoMoraVehicle vehicle : vehicles) {
+                if (!isCandidate.test(vehicle)) {
+                    continue;
+                }
+
                 Optional<Result> result = travelFunction.calculate(vehicle, Collections.singleton(request));
 
                 if (result.isPresent()) {
@@ -11,7 +11,6 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.matsim.amodeus.components.AmodeusGenerator;
 import org.matsim.amodeus.components.dispatcher.AVVehicleAssignmentEvent;
@@ -28,11 +27,10 @@ import org.matsim.core.router.util.TravelTime;
 
 import amodeus.amodeus.dispatcher.core.schedule.FutureVrpPathCalculator;
 import amodeus.amodeus.net.MatsimAmodeusDatabase;
-import amodeus.amodeus.net.SimulationDistribution;
 import amodeus.amodeus.net.SimulationObject;
 import amodeus.amodeus.net.SimulationObjectCompiler;
 import amodeus.amodeus.net.SimulationObjects;
-import amodeus.amodeus.net.StorageUtils;
+import amodeus.amodeus.net.SimulationPublisher;
 import amodeus.amodeus.util.math.GlobalAssert;
 import amodeus.amodeus.util.matsim.SafeConfig;
 
@@ -72,7 +70,7 @@ import amodeus.amodeus.util.matsim.SafeConfig;
         return Collections.unmodifiableCollection(pendingRequests);
     }
 
-    /** @return {@link List} of all {@link RoboTaxi}s which are in
+    /** @return unmodifiable {@link List} of all {@link RoboTaxi}s which are in
      *         {@link RoboTaxiStatus} @param status, sample usage:
      *         getRoboTaxiSubset(AVStatus.STAY, AVStatus.DRIVEWITHCUSTOMER) */
     protected final List<RoboTaxi> getRoboTaxiSubset(RoboTaxiStatus... status) {
@@ -80,8 +78,7 @@ import amodeus.amodeus.util.matsim.SafeConfig;
     }
 
     protected final List<RoboTaxi> getRoboTaxiSubset(Set<RoboTaxiStatus> status) {
-        return getRoboTaxis().stream() //
-                .filter(rt -> status.contains(rt.getStatus())).collect(Collectors.toList());
+        return getFleetIndex().getWithStatus(status);
     }
 
     /** @return {@link Collection} of {@link RoboTaxi}s which can be redirected during
@@ -89,9 +86,7 @@ import amodeus.amodeus.util.matsim.SafeConfig;
      *         it has a directive in the current ime step or it is on the last link of its
      *         directive. */
     protected final Collection<RoboTaxi> getDivertableRoboTaxis() {
-        return getRoboTaxis().stream() //
-                .filter(RoboTaxi::isDivertable) //
-                .collect(Collectors.toList());
+        return getFleetIndex().getDivertable();
     }
 
     /** Adding a @param vehicle during setup of simulation handled by {@link AmodeusGenerator},
@@ -125,7 +120,7 @@ import amodeus.amodeus.util.matsim.SafeConfig;
     /** save simulation data into {@link SimulationObject} for later analysis and
      * visualization. */
     @Override
-    protected final void notifySimulationSubscribers(long round_now, StorageUtils storageUtils) {
+    protected final void notifySimulationSubscribers(long round_now, SimulationPublisher simulationPublisher) {
         if (publishPeriod > 0 && round_now % publishPeriod == 0 && round_now > 1) {
             SimulationObjectCompiler simulationObjectCompiler = SimulationObjectCompiler.create( //
                     round_now, getInfoLine(), total_matchedRequests, db);
@@ -139,7 +134,7 @@ import amodeus.amodeus.util.matsim.SafeConfig;
              * {@link SimulationObject}s */
             SimulationObject simulationObject = simulationObjectCompiler.compile();
             if (SimulationObjects.hasVehicles(simulationObject))
-                SimulationDistribution.of(simulationObject, storageUtils);
+                simulationPublisher.publish(simulationObject);
 
             /** the temporary location traces are flushed at this point as they have
              * been communicated, saved. */
@@ -147,6 +142,17 @@ import amodeus.amodeus.util.matsim.SafeConfig;
         }
     }
 
+    /** the routes of the schedules changed during the time step are submitted as one batch */
+    @Override
+    /* package */ final void submitRoutes() {
+        router.flush();
+    }
+
+    @Override
+    /* package */ final int getIteration() {
+        return db.getIteration();
+    }
+
     /* package */ abstract void insertRequestInfo(SimulationObjectCompiler simulationObjectCompiler);
 
     @Override
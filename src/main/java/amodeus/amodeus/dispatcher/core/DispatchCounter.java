@@ -0,0 +1,37 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.dispatcher.core;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Counters of operations which are relevant for the duration of a dispatcher step. The counters are
+ * global and thread-safe, the {@link DispatchProfiler} attributes the increments during a step to the
+ * dispatcher which executes the step. */
+public enum DispatchCounter {
+    /** shortest paths requested, for schedules or on misses of a travel time cache */
+    ROUTING_CALLS("routingCalls"), //
+    CACHE_HITS("cacheHits"), //
+    CACHE_MISSES("cacheMisses"), //
+    /** updates of the schedule of a RoboTaxi after its directives changed */
+    SCHEDULE_REBUILDS("scheduleRebuilds"), //
+    ;
+
+    private final String tag;
+    private final LongAdder adder = new LongAdder();
+
+    DispatchCounter(String tag) {
+        this.tag = tag;
+    }
+
+    public void increment() {
+        adder.increment();
+    }
+
+    /** @return total number of increments since the start of the JVM */
+    public long sum() {
+        return adder.sum();
+    }
+
+    public String tag() {
+        return tag;
+    }
+}
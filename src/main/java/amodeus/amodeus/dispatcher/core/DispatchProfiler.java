@@ -0,0 +1,132 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.dispatcher.core;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/** Records the wall-clock time and the allocated memory of every phase of a dispatcher step, and the
+ * increments of the {@link DispatchCounter}s during the step. One row per step is written to a csv file,
+ * the columns are the time, the milliseconds and kilobytes of each {@link Phase}, the totals and the counters.
+ *
+ * The allocated memory is measured for the dispatcher thread only, i.e., allocations of parallel routers
+ * are not included. It is reported as -1 if the JVM does not support the measurement. */
+/* package */ class DispatchProfiler {
+    /* package */ enum Phase {
+        INFO_LINE, PUBLISH, CONSISTENCY, BEFORE_STEP, DROPOFFS, PICKUPS, REDIRECTS, REDISPATCH, REDISPATCH_INTERNAL, AFTER_STEP;
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final DispatchCounter[] COUNTERS = DispatchCounter.values();
+
+    private final Supplier<File> file;
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final boolean measuresAllocation;
+    private final long[] nanos = new long[PHASES.length];
+    private final long[] bytes = new long[PHASES.length];
+    private final long[] counters = new long[COUNTERS.length];
+    private BufferedWriter writer = null;
+    private String summary = "";
+
+    /** @param file supplier of the csv file, called at the end of the first step */
+    public DispatchProfiler(Supplier<File> file) {
+        this.file = file;
+        measuresAllocation = threadMXBean instanceof com.sun.management.ThreadMXBean //
+                && ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported() //
+                && ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemoryEnabled();
+    }
+
+    public void beginStep() {
+        Arrays.fill(nanos, 0);
+        Arrays.fill(bytes, 0);
+        for (int index = 0; index < COUNTERS.length; ++index)
+            counters[index] = COUNTERS[index].sum();
+    }
+
+    /** executes runnable and adds its duration and allocation to phase
+     *
+     * @param phase
+     * @param runnable */
+    public void time(Phase phase, Runnable runnable) {
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        runnable.run();
+        nanos[phase.ordinal()] += System.nanoTime() - start;
+        bytes[phase.ordinal()] += allocatedBytes() - allocated;
+    }
+
+    public void endStep(double now) {
+        long totalNanos = Arrays.stream(nanos).sum();
+        long totalBytes = Arrays.stream(bytes).sum();
+        for (int index = 0; index < COUNTERS.length; ++index)
+            counters[index] = COUNTERS[index].sum() - counters[index];
+        summary = String.format(Locale.ENGLISH, " T=(%.1fms,%dr)", totalNanos * 1e-6, counters[DispatchCounter.ROUTING_CALLS.ordinal()]);
+
+        StringBuilder row = new StringBuilder().append(Math.round(now));
+        Arrays.stream(nanos).forEach(value -> row.append(',').append(String.format(Locale.ENGLISH, "%.3f", value * 1e-6)));
+        Arrays.stream(bytes).forEach(value -> row.append(',').append(measuresAllocation ? value / 1024 : -1));
+        row.append(',').append(String.format(Locale.ENGLISH, "%.3f", totalNanos * 1e-6));
+        row.append(',').append(measuresAllocation ? totalBytes / 1024 : -1);
+        Arrays.stream(counters).forEach(value -> row.append(',').append(value));
+        write(row.toString());
+    }
+
+    /** @return short summary of the last step for the info line */
+    public String summary() {
+        return summary;
+    }
+
+    private long allocatedBytes() {
+        return measuresAllocation //
+                ? ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(Thread.currentThread().getId())
+                : 0;
+    }
+
+    private void write(String row) {
+        try {
+            if (Objects.isNull(writer)) {
+                File csv = file.get();
+                csv.getParentFile().mkdirs();
+                writer = new BufferedWriter(new FileWriter(csv));
+                writer.write(header());
+                writer.newLine();
+            }
+            writer.write(row);
+            writer.newLine();
+            writer.flush();
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    /** closes the csv file, a subsequent step starts a new file */
+    public void close() {
+        if (Objects.nonNull(writer))
+            try {
+                writer.close();
+            } catch (IOException exception) {
+                throw new RuntimeException(exception);
+            } finally {
+                writer = null;
+            }
+    }
+
+    private static String header() {
+        return Stream.of( //
+                Stream.of("time"), //
+                Stream.of(PHASES).map(phase -> phase.name().toLowerCase() + "_ms"), //
+                Stream.of(PHASES).map(phase -> phase.name().toLowerCase() + "_kB"), //
+                Stream.of("total_ms", "total_kB"), //
+                Stream.of(COUNTERS).map(DispatchCounter::tag)) //
+                .flatMap(stream -> stream).collect(Collectors.joining(","));
+    }
+}
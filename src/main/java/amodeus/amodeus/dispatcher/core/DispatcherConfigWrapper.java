@@ -1,6 +1,9 @@
 /* amodeus - Copyright (c) 2018, ETH Zurich, Institute for Dynamic Systems and Control */
 package amodeus.amodeus.dispatcher.core;
 
+import java.io.File;
+import java.util.Objects;
+
 import org.matsim.core.config.ReflectiveConfigGroup;
 
 import amodeus.amodeus.dispatcher.util.DistanceHeuristics;
@@ -11,6 +14,7 @@ public class DispatcherConfigWrapper extends SafeConfig {
     private static final String DISPATCH_PERIOD = "dispatchPeriod";
     private static final String REBALANCING_PERIOD = "rebalancingPeriod";
     private static final String DISTANCE_HEURISTICS = "distanceHeuristics";
+    private static final String CONTRACTION_HIERARCHY_FILE = "contractionHierarchyFile";
 
     public static DispatcherConfigWrapper wrap(ReflectiveConfigGroup reflectiveConfigGroup) {
         return new DispatcherConfigWrapper(reflectiveConfigGroup);
@@ -42,4 +46,11 @@ public class DispatcherConfigWrapper extends SafeConfig {
         return alt;
     }
 
+    /** @return file in which the contraction hierarchy of {@link DistanceHeuristics#CH} is stored across
+     *         simulations, or null if the hierarchy is built in every simulation */
+    public File getContractionHierarchyFile() {
+        String fileName = getString(CONTRACTION_HIERARCHY_FILE, null);
+        return Objects.isNull(fileName) ? null : new File(fileName);
+    }
+
 }
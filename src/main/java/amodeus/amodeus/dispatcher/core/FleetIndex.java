@@ -0,0 +1,216 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.dispatcher.core;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
+import org.matsim.contrib.dvrp.schedule.Schedule.ScheduleStatus;
+
+/** Index of the fleet of a {@link RoboTaxiMaintainer}, partitioned by {@link RoboTaxiStatus} and divertability.
+ * The subsets only contain {@link RoboTaxi}s with a started schedule and are provided as live views which
+ * iterate in the order in which the {@link RoboTaxi}s were added to the fleet.
+ *
+ * A {@link RoboTaxi} is updated whenever its directives or on-board requests change, it is locked or unlocked,
+ * its schedule is started or its next task is started in the simulation, see {@link #update(DvrpVehicle)}.
+ * Hence, the index is never updated by a scan of the whole fleet. */
+public final class FleetIndex {
+    private final List<RoboTaxi> roboTaxis = new ArrayList<>();
+    private final Map<RoboTaxi, Integer> indices = new HashMap<>();
+    private final Map<Id<DvrpVehicle>, RoboTaxi> byVehicle = new HashMap<>();
+    private final BitSet started = new BitSet();
+    private final BitSet divertable = new BitSet();
+    private final BitSet inStayTask = new BitSet();
+    private final Map<RoboTaxiStatus, BitSet> byStatus = new EnumMap<>(RoboTaxiStatus.class);
+    private final Map<RoboTaxiStatus, Collection<RoboTaxi>> statusViews = new EnumMap<>(RoboTaxiStatus.class);
+    private final Collection<RoboTaxi> divertableView = new View(divertable);
+    /** rebuilt only if the set of started {@link RoboTaxi}s changes */
+    private List<RoboTaxi> startedList = Collections.emptyList();
+    /** number of changes of the subsets of each {@link RoboTaxiStatus} */
+    private final long[] statusVersions = new long[RoboTaxiStatus.values().length];
+    /** lists returned by {@link #getWithStatus(Set)}, rebuilt only if one of the subsets has changed */
+    private final Map<Set<RoboTaxiStatus>, Snapshot> snapshots = new HashMap<>();
+    private long divertableVersion = 0;
+    private Snapshot divertableSnapshot = null;
+
+    /* package */ FleetIndex() {
+        for (RoboTaxiStatus status : RoboTaxiStatus.values()) {
+            BitSet bitSet = new BitSet();
+            byStatus.put(status, bitSet);
+            statusViews.put(status, new View(bitSet));
+        }
+    }
+
+    /* package */ void add(RoboTaxi roboTaxi) {
+        indices.put(roboTaxi, roboTaxis.size());
+        roboTaxis.add(roboTaxi);
+        byVehicle.put(roboTaxi.getId(), roboTaxi);
+        roboTaxi.setFleetIndex(this);
+        update(roboTaxi);
+    }
+
+    /** updates the subsets which contain roboTaxi
+     *
+     * @param roboTaxi */
+    /* package */ void update(RoboTaxi roboTaxi) {
+        int index = indices.get(roboTaxi);
+        boolean isStarted = roboTaxi.getSchedule().getStatus().equals(ScheduleStatus.STARTED);
+        if (started.get(index) != isStarted) {
+            started.set(index, isStarted);
+            startedList = null;
+        }
+        RoboTaxiStatus status = isStarted ? roboTaxi.getStatus() : null;
+        for (RoboTaxiStatus candidate : RoboTaxiStatus.values()) {
+            BitSet bitSet = byStatus.get(candidate);
+            if (bitSet.get(index) != (candidate == status)) {
+                bitSet.set(index, candidate == status);
+                ++statusVersions[candidate.ordinal()];
+            }
+        }
+        boolean isDivertable = isStarted && roboTaxi.isDivertable();
+        if (divertable.get(index) != isDivertable) {
+            divertable.set(index, isDivertable);
+            ++divertableVersion;
+        }
+        inStayTask.set(index, isStarted && roboTaxi.isInStayTask());
+    }
+
+    /** updates the subsets which contain the {@link RoboTaxi} of vehicle, called when its schedule or its next
+     * task is started in the simulation
+     *
+     * @param vehicle */
+    /* package */ void update(DvrpVehicle vehicle) {
+        RoboTaxi roboTaxi = byVehicle.get(vehicle.getId());
+        if (Objects.nonNull(roboTaxi))
+            update(roboTaxi);
+    }
+
+    /** @return unmodifiable {@link List} of the {@link RoboTaxi}s with a started schedule */
+    /* package */ List<RoboTaxi> getStarted() {
+        if (Objects.isNull(startedList))
+            startedList = Collections.unmodifiableList(collect(started));
+        return startedList;
+    }
+
+    /** @param statuses
+     * @return unmodifiable {@link List} of the {@link RoboTaxi}s with a started schedule and one of the given statuses,
+     *         the same instance is returned until one of the subsets of the given statuses changes */
+    /* package */ List<RoboTaxi> getWithStatus(Set<RoboTaxiStatus> statuses) {
+        long version = 0;
+        for (RoboTaxiStatus status : statuses)
+            version += statusVersions[status.ordinal()];
+        Snapshot snapshot = snapshots.get(statuses);
+        if (Objects.isNull(snapshot) || snapshot.version != version) {
+            BitSet union = new BitSet();
+            statuses.forEach(status -> union.or(byStatus.get(status)));
+            snapshot = new Snapshot(Collections.unmodifiableList(collect(union)), version);
+            snapshots.put(EnumSet.copyOf(statuses), snapshot);
+        }
+        return snapshot.list;
+    }
+
+    /** @return unmodifiable {@link List} of the divertable {@link RoboTaxi}s with a started schedule, the same
+     *         instance is returned until the divertable subset changes */
+    /* package */ List<RoboTaxi> getDivertable() {
+        if (Objects.isNull(divertableSnapshot) || divertableSnapshot.version != divertableVersion)
+            divertableSnapshot = new Snapshot(Collections.unmodifiableList(collect(divertable)), divertableVersion);
+        return divertableSnapshot.list;
+    }
+
+    /** @return number of {@link RoboTaxi}s which stay, including those whose schedule is not started */
+    /* package */ int countInStayTask() {
+        return roboTaxis.size() - started.cardinality() + inStayTask.cardinality();
+    }
+
+    /** @return number of {@link RoboTaxi}s with a driving {@link RoboTaxiStatus} */
+    /* package */ int countDriving() {
+        int count = 0;
+        for (RoboTaxiStatus status : RoboTaxiStatus.values())
+            if (status.isDriving())
+                count += byStatus.get(status).cardinality();
+        return count;
+    }
+
+    /** @param status
+     * @return live view of the {@link RoboTaxi}s with a started schedule and the given status */
+    public Collection<RoboTaxi> getRoboTaxis(RoboTaxiStatus status) {
+        return statusViews.get(status);
+    }
+
+    /** @return live view of the divertable {@link RoboTaxi}s with a started schedule */
+    public Collection<RoboTaxi> getDivertableRoboTaxis() {
+        return divertableView;
+    }
+
+    private List<RoboTaxi> collect(BitSet bitSet) {
+        List<RoboTaxi> list = new ArrayList<>(bitSet.cardinality());
+        for (int index = bitSet.nextSetBit(0); 0 <= index; index = bitSet.nextSetBit(index + 1))
+            list.add(roboTaxis.get(index));
+        return list;
+    }
+
+    private static class Snapshot {
+        private final List<RoboTaxi> list;
+        /** version of the subsets at the time the list was collected */
+        private final long version;
+
+        private Snapshot(List<RoboTaxi> list, long version) {
+            this.list = list;
+            this.version = version;
+        }
+    }
+
+    /** read-only view of the {@link RoboTaxi}s whose index is set in a {@link BitSet} */
+    private class View extends AbstractCollection<RoboTaxi> {
+        private final BitSet bitSet;
+
+        private View(BitSet bitSet) {
+            this.bitSet = bitSet;
+        }
+
+        @Override // from AbstractCollection
+        public Iterator<RoboTaxi> iterator() {
+            return new Iterator<RoboTaxi>() {
+                private int next = bitSet.nextSetBit(0);
+
+                @Override // from Iterator
+                public boolean hasNext() {
+                    return 0 <= next;
+                }
+
+                @Override // from Iterator
+                public RoboTaxi next() {
+                    if (next < 0)
+                        throw new NoSuchElementException();
+                    RoboTaxi roboTaxi = roboTaxis.get(next);
+                    next = bitSet.nextSetBit(next + 1);
+                    return roboTaxi;
+                }
+            };
+        }
+
+        @Override // from AbstractCollection
+        public int size() {
+            return bitSet.cardinality();
+        }
+
+        @Override // from AbstractCollection
+        public boolean contains(Object object) {
+            Integer index = indices.get(object);
+            return Objects.nonNull(index) && bitSet.get(index);
+        }
+    }
+}
@@ -51,6 +51,7 @@ public final class RoboTaxi {
     // private boolean dropoffInProgress = false;
 
     private final ScheduleManager scheduleManager;
+    private FleetIndex fleetIndex = null;
 
     /** Standard constructor
      * 
@@ -64,7 +65,7 @@ public final class RoboTaxi {
         this.driveDestination = Objects.requireNonNull(driveDestination);
         this.usageType = usageType;
 
-        this.scheduleManager = new ScheduleManager(this, router, avVehicle.getServiceEndTime());
+        this.scheduleManager = new ScheduleManager(this, router, avVehicle.getServiceEndTime(), this::updateFleetIndex);
     }
 
     // **********************************************
@@ -455,9 +456,23 @@ public final class RoboTaxi {
     
     public void lock() {
         this.isLocked = true;
+        updateFleetIndex();
     }
     
     public void unlock() {
-        this.isLocked = false;
+        if (isLocked) {
+            this.isLocked = false;
+            updateFleetIndex();
+        }
+    }
+
+    /** @param fleetIndex which is updated whenever the status or divertability of the RoboTaxi may change */
+    /* package */ void setFleetIndex(FleetIndex fleetIndex) {
+        this.fleetIndex = fleetIndex;
+    }
+
+    private void updateFleetIndex() {
+        if (Objects.nonNull(fleetIndex))
+            fleetIndex.update(this);
     }
 }
@@ -3,10 +3,8 @@ package amodeus.amodeus.dispatcher.core;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 import org.matsim.amodeus.components.AmodeusDispatcher;
 import org.matsim.amodeus.config.AmodeusModeConfig;
@@ -26,6 +24,12 @@ import org.matsim.contrib.dvrp.util.LinkTimePair;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
 
+import amodeus.amodeus.dispatcher.core.DispatchProfiler.Phase;
+import amodeus.amodeus.net.SimulationObjectCodec;
+import amodeus.amodeus.net.SimulationPublisher;
+import amodeus.amodeus.net.SimulationPublisher.OverflowPolicy;
+import amodeus.amodeus.net.StorageFormat;
+import amodeus.amodeus.net.StorageLayout;
 import amodeus.amodeus.net.StorageUtils;
 import amodeus.amodeus.util.matsim.SafeConfig;
 
@@ -38,18 +42,32 @@ import amodeus.amodeus.util.matsim.SafeConfig;
 /* package */ abstract class RoboTaxiMaintainer implements AmodeusDispatcher {
     protected final EventsManager eventsManager;
     private final List<RoboTaxi> roboTaxis = new ArrayList<>();
+    private final FleetIndex fleetIndex = new FleetIndex();
     private Double private_now = null;
     public InfoLine infoLine = null;
-    private final StorageUtils storageUtils;
+    private final SimulationPublisher simulationPublisher;
     protected final String mode;
+    /** null unless the dispatcher parameter profileDispatch is set */
+    private final DispatchProfiler profiler;
+    private final boolean profileInInfoLine;
 
     RoboTaxiMaintainer(EventsManager eventsManager, Config config, AmodeusModeConfig operatorConfig) {
         SafeConfig safeConfig = SafeConfig.wrap(operatorConfig.getDispatcherConfig());
         this.eventsManager = eventsManager;
         this.infoLine = new InfoLine(safeConfig.getInteger("infoLinePeriod", 10));
         String outputdirectory = config.controler().getOutputDirectory();
-        this.storageUtils = new StorageUtils(new File(outputdirectory));
+        StorageFormat storageFormat = StorageFormat.valueOf(safeConfig.getString("storageFormat", StorageFormat.SERIALIZED.name()));
+        StorageLayout storageLayout = StorageLayout.valueOf(safeConfig.getString("storageLayout", StorageLayout.FILES.name()));
+        StorageUtils storageUtils = new StorageUtils(new File(outputdirectory), storageFormat, storageLayout, //
+                safeConfig.getInteger("storageKeyframes", SimulationObjectCodec.DEFAULT_KEYFRAME_INTERVAL), //
+                safeConfig.getInteger("storageCoarsePeriod", 0));
+        this.simulationPublisher = new SimulationPublisher(storageUtils, safeConfig.getInteger("publishQueue", 0), //
+                OverflowPolicy.valueOf(safeConfig.getString("publishOverflow", OverflowPolicy.BLOCK.name())));
         this.mode = operatorConfig.getMode();
+        this.profiler = safeConfig.getBool("profileDispatch", false) //
+                ? new DispatchProfiler(() -> new File(outputdirectory, "ITERS/it." + getIteration() + "/" + getIteration() + ".dispatchProfile_" + mode + ".csv"))
+                : null;
+        this.profileInInfoLine = Objects.nonNull(profiler) && safeConfig.getBool("profileInInfoLine", false);
     }
 
     /** @return time of current re-dispatching iteration step
@@ -59,18 +77,21 @@ import amodeus.amodeus.util.matsim.SafeConfig;
         return private_now;
     }
 
-    /** @return {@link List} of {@link RoboTaxi} */
+    /** @return unmodifiable {@link List} of {@link RoboTaxi}s with a started schedule */
     protected final List<RoboTaxi> getRoboTaxis() {
-        if (roboTaxis.isEmpty())
-            return Collections.emptyList();
+        return fleetIndex.getStarted();
+    }
 
-        return roboTaxis.stream().filter(rt -> rt.getSchedule().getStatus().equals(ScheduleStatus.STARTED)).collect(Collectors.toList());
+    /** @return {@link FleetIndex} with live views of the {@link RoboTaxi}s by status and divertability */
+    protected final FleetIndex getFleetIndex() {
+        return fleetIndex;
     }
 
     protected abstract void updateDivertableLocations();
 
     public final void addRoboTaxi(RoboTaxi roboTaxi, Event event) {
         roboTaxis.add(roboTaxi);
+        fleetIndex.add(roboTaxi);
         eventsManager.processEvent(event);
     }
 
@@ -81,26 +102,50 @@ import amodeus.amodeus.util.matsim.SafeConfig;
     @Override
     public final void onNextTimestep(double now) {
         private_now = now; // <- time available to derived class via getTimeNow()
-        updateInfoLine();
-        notifySimulationSubscribers(Math.round(now), storageUtils);
-        consistencyCheck();
-        beforeStepTasks(); // <- if problems with RoboTaxi Status to Completed consider to set "simEndtimeInterpretation" to "null"
+        if (Objects.nonNull(profiler))
+            profiler.beginStep();
+        phase(Phase.INFO_LINE, this::updateInfoLine);
+        phase(Phase.PUBLISH, () -> notifySimulationSubscribers(Math.round(now), simulationPublisher));
+        phase(Phase.CONSISTENCY, this::consistencyCheck);
+        phase(Phase.BEFORE_STEP, this::beforeStepTasks); // <- if problems with RoboTaxi Status to Completed consider to set "simEndtimeInterpretation" to "null"
         // The Dropoff is before the pickup because:
         // a) A robotaxi which picks up a customer should not dropoff one at the same time step
         // b) but in the shared case the internal dropoff should be able to finish a dropoff which enables the pickups to be executed
-        executeDropoffs();
-        executePickups();
-        executeRedirects();
-        redispatch(now);
-        redispatchInternal(now);
-        afterStepTasks();
-        consistencyCheck();
+        phase(Phase.DROPOFFS, this::executeDropoffs);
+        phase(Phase.PICKUPS, this::executePickups);
+        phase(Phase.REDIRECTS, this::executeRedirects);
+        phase(Phase.REDISPATCH, () -> redispatch(now));
+        phase(Phase.REDISPATCH_INTERNAL, () -> redispatchInternal(now));
+        phase(Phase.AFTER_STEP, this::afterStepTasks);
+        phase(Phase.CONSISTENCY, this::consistencyCheck);
+        if (Objects.nonNull(profiler))
+            profiler.endStep(now);
+    }
+
+    /** waits until the pending frames of the {@link SimulationPublisher} are published and closes the
+     * file of the {@link DispatchProfiler} */
+    @Override
+    public void onSimulationEnd() {
+        try {
+            simulationPublisher.close();
+        } finally {
+            if (Objects.nonNull(profiler))
+                profiler.close();
+        }
+    }
+
+    /** executes runnable, timed by the {@link DispatchProfiler} if profiling is enabled */
+    private void phase(Phase phase, Runnable runnable) {
+        if (Objects.isNull(profiler))
+            runnable.run();
+        else
+            profiler.time(phase, runnable);
     }
 
     /** the info line is displayed in the console at every dispatching timestep and in the
      * AMoDeus viewer */
     protected final void updateInfoLine() {
-        String infoLine = getInfoLine();
+        String infoLine = profileInInfoLine ? getInfoLine() + profiler.summary() : getInfoLine();
         this.infoLine.updateInfoLine(infoLine, getTimeNow());
     }
 
@@ -112,8 +157,8 @@ import amodeus.amodeus.util.matsim.SafeConfig;
         return String.format("%s@%6d V=(%4ds,%4dd)", //
                 string.substring(0, 6), //
                 (long) getTimeNow(), //
-                roboTaxis.stream().filter(RoboTaxi::isInStayTask).count(), //
-                roboTaxis.stream().map(RoboTaxi::getStatus).filter(RoboTaxiStatus::isDriving).count());
+                fleetIndex.countInStayTask(), //
+                fleetIndex.countDriving());
     }
 
     private void beforeStepTasks() {
@@ -125,6 +170,7 @@ import amodeus.amodeus.util.matsim.SafeConfig;
      * stopped, also taxis which have lost their pickup assignment */
     private void afterStepTasks() {
         stopAbortedPickupRoboTaxis();
+        submitRoutes();
         // flushLocationTraces();
     }
 
@@ -174,17 +220,26 @@ import amodeus.amodeus.util.matsim.SafeConfig;
 
     /* package */ abstract void stopAbortedPickupRoboTaxis();
 
+    /* package */ abstract void submitRoutes();
+
+    /* package */ abstract int getIteration();
+
     /* package */ abstract void consistencySubCheck();
 
-    /* package */ abstract void notifySimulationSubscribers(long round_now, StorageUtils storageUtils);
+    /* package */ abstract void notifySimulationSubscribers(long round_now, SimulationPublisher simulationPublisher);
 
     /* package */ abstract void redispatchInternal(double now);
 
     /* package */ abstract void executeRedirects();
 
     @Override
-    public final void onNextTaskStarted(DvrpVehicle task) {
-        // intentionally empty
+    public final void onScheduleStarted(DvrpVehicle vehicle) {
+        fleetIndex.update(vehicle);
+    }
+
+    @Override
+    public final void onNextTaskStarted(DvrpVehicle vehicle) {
+        fleetIndex.update(vehicle);
     }
 
     /** derived classes should override this function
@@ -6,6 +6,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -72,6 +73,12 @@ public abstract class UniversalDispatcher extends BasicUniversalDispatcher {
     private final Map<RoboTaxi, Link> rebalancingDestinations = new HashMap<>();
 
     private final Map<PassengerRequest, RoboTaxi> requestAssignments = new HashMap<>();
+    /** indexes of {@link #pendingRequests} and {@link #requestAssignments}, updated with every change of an assignment
+     * or a pending request, see {@link #assign(PassengerRequest, RoboTaxi)}, {@link #unassign(PassengerRequest)} and
+     * {@link #removePending(PassengerRequest)} */
+    private final Set<PassengerRequest> unassignedRequests = new LinkedHashSet<>();
+    private final Set<PassengerRequest> assignedPendingRequests = new HashSet<>();
+    private final Map<RoboTaxi, Set<PassengerRequest>> vehicleAssignments = new HashMap<>();
     private final Map<PassengerRequest, List<RequestStatus>> requestStatusChanges = new HashMap<>();
     private final Map<PassengerRequest, RequestStatus> requestStatus = new HashMap<>();
 
@@ -127,12 +134,15 @@ public abstract class UniversalDispatcher extends BasicUniversalDispatcher {
     // ===================================================================================
     // Methods to use EXTERNALLY in derived dispatchers
 
+    /** @return read-only view of the {@link PassengerRequest}s which are assigned to a {@link RoboTaxi} and not yet dropped off */
     protected final Set<PassengerRequest> getAssignedRequests() {
-        return requestAssignments.keySet();
+        return Collections.unmodifiableSet(requestAssignments.keySet());
     }
 
+    /** @return read-only view of the pending {@link PassengerRequest}s which are not assigned to a {@link RoboTaxi}.
+     *         The view reflects every assignment, hence it has to be copied if requests are assigned while iterating over it. */
     protected final Set<PassengerRequest> getUnassignedRequests() {
-        return pendingRequests.stream().filter(r -> !requestAssignments.containsKey(r)).collect(Collectors.toSet());
+        return Collections.unmodifiableSet(unassignedRequests);
     }
 
     protected final Set<PassengerRequest> getWaitingRequests() {
@@ -181,7 +191,7 @@ public abstract class UniversalDispatcher extends BasicUniversalDispatcher {
     protected final Collection<RoboTaxi> getDivertableUnassignedRoboTaxis() {
         Collection<RoboTaxi> divertableUnassignedRoboTaxis = getDivertableRoboTaxis().stream() //
                 .filter(rt -> getTimeNow() < rt.getDvrpVehicle().getServiceEndTime() && getTimeNow() >= rt.getDvrpVehicle().getServiceBeginTime())
-                .filter(rt -> !requestAssignments.containsValue(rt)) //
+                .filter(rt -> !vehicleAssignments.containsKey(rt)) //
                 .collect(Collectors.toList());
         GlobalAssert.that(divertableUnassignedRoboTaxis.stream().allMatch(RoboTaxi::isWithoutCustomer));
         return divertableUnassignedRoboTaxis;
@@ -229,7 +239,7 @@ public abstract class UniversalDispatcher extends BasicUniversalDispatcher {
         if (showRegistry)
             System.err.println(makeIndent() + "Assigned " + avRequest.getId() + " to " + roboTaxi.getId());
         indent--;
-        requestAssignments.put(avRequest, roboTaxi);
+        assign(avRequest, roboTaxi);
         roboTaxi.addPassengerRequestToMenu(avRequest);
         GlobalAssert.that(getUniqueRequests(roboTaxi).contains(avRequest));
 
@@ -309,7 +319,7 @@ public abstract class UniversalDispatcher extends BasicUniversalDispatcher {
         indent++;
         GlobalAssert.that(requestAssignments.containsKey(avRequest)); // Only already assigned RoboTaxis are considered else you can not call this function
         GlobalAssert.that(pendingRequests.contains(avRequest)); // only if a request is not picked up it makes sense to abort it.
-        RoboTaxi roboTaxi = requestAssignments.remove(avRequest);
+        RoboTaxi roboTaxi = unassign(avRequest);
         if (showRegistry)
             System.err.println(makeIndent() + "Remove " + avRequest.getId() + " from " + roboTaxi.getId());
         roboTaxi.removePassengerRequestFromMenu(avRequest);
@@ -445,7 +455,7 @@ public abstract class UniversalDispatcher extends BasicUniversalDispatcher {
                         addStatusChange(request, RequestStatus.PICKUP);
                         periodPickedUpRequests.add(request);
 
-                        pendingRequests.remove(request);
+                        removePending(request);
                         ++total_matchedRequests;
                     }
 
@@ -475,7 +485,7 @@ public abstract class UniversalDispatcher extends BasicUniversalDispatcher {
         GlobalAssert.that(pendingRequests.contains(request));
         GlobalAssert.that(!requestAssignments.containsKey(request));
 
-        pendingRequests.remove(request);
+        removePending(request);
         eventsManager.processEvent(new PassengerRequestRejectedEvent(getTimeNow(), mode, request.getId(), request.getPassengerId(), "Canceled by dispatcher"));
     }
 
@@ -585,7 +595,7 @@ public abstract class UniversalDispatcher extends BasicUniversalDispatcher {
 
             if (task.getStatus() == TaskStatus.PERFORMED) {
                 for (PassengerRequest request : task.getDropoffRequests().values()) {
-                    requestAssignments.remove(request);
+                    unassign(request);
                     periodFulfilledRequests.put(request, roboTaxi);
                     addStatusChange(request, null);
                 }
@@ -622,6 +632,7 @@ public abstract class UniversalDispatcher extends BasicUniversalDispatcher {
     @Override
     public final void onRequestSubmitted(PassengerRequest request) {
         super.onRequestSubmitted(request);
+        unassignedRequests.add(request);
         addStatusChange(request, RequestStatus.REQUESTED);
         periodSubmittdRequests.add(request);
     }
@@ -641,21 +652,49 @@ public abstract class UniversalDispatcher extends BasicUniversalDispatcher {
                 StopDirective stopDirective = (StopDirective) directive;
 
                 // pendingRequests.add(stopDirective.getRequest());
-                requestAssignments.remove(stopDirective.getRequest());
+                unassign(stopDirective.getRequest());
                 addStatusChange(stopDirective.getRequest(), RequestStatus.REQUESTED);
             }
         }
 
         GlobalAssert.that(roboTaxi.getScheduleManager().getDirectives().size() == 0);
-        GlobalAssert.that(!requestAssignments.containsValue(roboTaxi));
+        GlobalAssert.that(!vehicleAssignments.containsKey(roboTaxi));
+    }
+
+    private void assign(PassengerRequest request, RoboTaxi roboTaxi) {
+        requestAssignments.put(request, roboTaxi);
+        vehicleAssignments.computeIfAbsent(roboTaxi, rt -> new HashSet<>()).add(request);
+        if (unassignedRequests.remove(request))
+            assignedPendingRequests.add(request);
+    }
+
+    /** @return {@link RoboTaxi} to which the request was assigned, or null */
+    private RoboTaxi unassign(PassengerRequest request) {
+        RoboTaxi roboTaxi = requestAssignments.remove(request);
+        if (Objects.nonNull(roboTaxi)) {
+            Set<PassengerRequest> requests = vehicleAssignments.get(roboTaxi);
+            requests.remove(request);
+            if (requests.isEmpty())
+                vehicleAssignments.remove(roboTaxi);
+            /** requests which are already picked up do not become pending again */
+            if (assignedPendingRequests.remove(request))
+                unassignedRequests.add(request);
+        }
+        return roboTaxi;
+    }
+
+    private void removePending(PassengerRequest request) {
+        pendingRequests.remove(request);
+        unassignedRequests.remove(request);
+        assignedPendingRequests.remove(request);
     }
 
     private Set<PassengerRequest> getAssignedPendingRequests() {
-        return pendingRequests.stream().filter(r -> requestAssignments.containsKey(r)).collect(Collectors.toSet());
+        return Collections.unmodifiableSet(assignedPendingRequests);
     }
 
     private Set<PassengerRequest> getAssignmentsForVehicle(RoboTaxi robotaxi) {
-        return requestAssignments.entrySet().stream().filter(e -> e.getValue() == robotaxi).map(e -> e.getKey()).collect(Collectors.toSet());
+        return Collections.unmodifiableSet(vehicleAssignments.getOrDefault(robotaxi, Collections.emptySet()));
     }
 
     /** Consistency checks to be called by
@@ -806,7 +845,7 @@ public abstract class UniversalDispatcher extends BasicUniversalDispatcher {
                 } else if (currentTask instanceof DrtStayTask) {
                     DrtStayTask stayTask = (DrtStayTask) currentTask;
 
-                    if (ScheduleUtils.isLastTask(schedule, stayTask) && !requestAssignments.containsValue(roboTaxi) && !periodFulfilledRequests.containsValue(roboTaxi)) {
+                    if (ScheduleUtils.isLastTask(schedule, stayTask) && !vehicleAssignments.containsKey(roboTaxi) && !periodFulfilledRequests.containsValue(roboTaxi)) {
                         GlobalAssert.that(stayTask.getBeginTime() <= getTimeNow());
                         GlobalAssert.that(Objects.nonNull(stayTask.getLink()));
                         roboTaxi.setDivertableLinkTime(new LinkTimePair(stayTask.getLink(), getTimeNow()));
@@ -1,18 +1,30 @@
 package amodeus.amodeus.dispatcher.core.schedule;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.lang3.concurrent.ConcurrentUtils;
 import org.matsim.amodeus.plpc.ParallelLeastCostPathCalculator;
+import org.matsim.amodeus.plpc.PathQuery;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.contrib.dvrp.path.VrpPathWithTravelData;
 import org.matsim.core.router.util.LeastCostPathCalculator.Path;
 import org.matsim.core.router.util.TravelTime;
 
+import amodeus.amodeus.dispatcher.core.DispatchCounter;
+
 public class FutureVrpPathCalculator {
     private final ParallelLeastCostPathCalculator pathCalculator;
     private final TravelTime travelTime;
 
+    /** queries of deferred paths which are not yet submitted, see {@link #deferPath(Link, Link, double)} */
+    private final List<PathQuery> deferredQueries = new ArrayList<>();
+    private final List<DeferredPath> deferredPaths = new ArrayList<>();
+
     static private final double FIRST_LINK_TT = 1.0;
     static private final double ESTIMATED_DURATION = 600.0;
 
@@ -26,10 +38,81 @@ public class FutureVrpPathCalculator {
         Future<Path> path = ConcurrentUtils.constantFuture(null);
 
         if (fromLink != toLink) {
+            DispatchCounter.ROUTING_CALLS.increment();
             path = pathCalculator.calcLeastCostPath(fromLink.getToNode(), toLink.getFromNode(), departureTime + FIRST_LINK_TT, null, null);
         }
 
         double estimatedArrivalTime = departureTime + ESTIMATED_DURATION;
         return new FutureVrpPathWithTravelData(departureTime, estimatedArrivalTime, fromLink, toLink, path, travelTime);
     }
+
+    /** Same as {@link #calculatePath(Link, Link, double)}, but the route is only submitted with the next call
+     * to {@link #flush()}, together with all other deferred routes. Accessing the path before triggers the flush. */
+    public FutureVrpPathWithTravelData deferPath(Link fromLink, Link toLink, double departureTime) {
+        Future<Path> path = ConcurrentUtils.constantFuture(null);
+
+        if (fromLink != toLink) {
+            DispatchCounter.ROUTING_CALLS.increment();
+            DeferredPath deferredPath = new DeferredPath();
+            deferredQueries.add(new PathQuery(fromLink.getToNode(), toLink.getFromNode(), departureTime + FIRST_LINK_TT));
+            deferredPaths.add(deferredPath);
+            path = deferredPath;
+        }
+
+        double estimatedArrivalTime = departureTime + ESTIMATED_DURATION;
+        return new FutureVrpPathWithTravelData(departureTime, estimatedArrivalTime, fromLink, toLink, path, travelTime);
+    }
+
+    /** Submits all deferred routes as one batch to the {@link ParallelLeastCostPathCalculator} */
+    public void flush() {
+        if (deferredQueries.isEmpty()) {
+            return;
+        }
+
+        List<Future<Path>> futures = pathCalculator.calcLeastCostPaths(new ArrayList<>(deferredQueries));
+
+        for (int index = 0; index < futures.size(); index++) {
+            deferredPaths.get(index).delegate = futures.get(index);
+        }
+
+        deferredQueries.clear();
+        deferredPaths.clear();
+    }
+
+    private class DeferredPath implements Future<Path> {
+        private Future<Path> delegate = null;
+
+        private Future<Path> getDelegate() {
+            if (delegate == null) {
+                flush();
+            }
+
+            return delegate;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return getDelegate().cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return delegate != null && delegate.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return delegate != null && delegate.isDone();
+        }
+
+        @Override
+        public Path get() throws InterruptedException, ExecutionException {
+            return getDelegate().get();
+        }
+
+        @Override
+        public Path get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return getDelegate().get(timeout, unit);
+        }
+    }
 }
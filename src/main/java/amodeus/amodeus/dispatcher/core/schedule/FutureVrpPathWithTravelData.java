@@ -29,6 +29,11 @@ public class FutureVrpPathWithTravelData implements VrpPathWithTravelData {
         this.estimatedArrivalTime = estimatedArrivalTime;
     }
 
+    /** @return path with the same route which departs at the given time, the route is not recalculated */
+    public FutureVrpPathWithTravelData withDepartureTime(double departureTime) {
+        return new FutureVrpPathWithTravelData(departureTime, estimatedArrivalTime + departureTime - this.departureTime, fromLink, toLink, pathFuture, travelTime);
+    }
+
     private void prepareDelegate() {
         if (delegate == null) {
             try {
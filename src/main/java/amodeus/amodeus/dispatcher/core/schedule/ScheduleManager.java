@@ -26,6 +26,7 @@ import org.matsim.contrib.dvrp.util.LinkTimePair;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
+import amodeus.amodeus.dispatcher.core.DispatchCounter;
 import amodeus.amodeus.dispatcher.core.RoboTaxi;
 import amodeus.amodeus.dispatcher.core.schedule.directives.DefaultDriveDirective;
 import amodeus.amodeus.dispatcher.core.schedule.directives.DefaultStopDirective;
@@ -37,6 +38,8 @@ public class ScheduleManager {
     private final Schedule schedule;
     private final FutureVrpPathCalculator router;
     private final double serviceEndTime;
+    /** called whenever the directives or the on-board requests have changed */
+    private final Runnable listener;
 
     private final List<InternalDirective> directiveSequence = new LinkedList<>();
     private final Set<PassengerRequest> onboard = new HashSet<>();
@@ -44,9 +47,15 @@ public class ScheduleManager {
     private double now = 0.0;
 
     public ScheduleManager(RoboTaxi vehicle, FutureVrpPathCalculator router, double serviceEndTime) {
+        this(vehicle, router, serviceEndTime, () -> {
+        });
+    }
+
+    public ScheduleManager(RoboTaxi vehicle, FutureVrpPathCalculator router, double serviceEndTime, Runnable listener) {
         this.schedule = vehicle.getSchedule();
         this.router = router;
         this.serviceEndTime = serviceEndTime;
+        this.listener = listener;
     }
     
     private boolean isOther(Task task) {
@@ -67,6 +76,7 @@ public class ScheduleManager {
 
     public void updateSequence(double now) {
         this.now = now;
+        boolean changed = false;
         Iterator<InternalDirective> iterator = directiveSequence.iterator();
 
         while (iterator.hasNext()) {
@@ -93,28 +103,107 @@ public class ScheduleManager {
                     }
 
                     iterator.remove();
+                    changed = true;
                 } else {
                     break;
                 }
             }
         }
+
+        if (changed) {
+            listener.run();
+        }
+    }
+
+    /** @return number of leading directives whose tasks are still in the schedule and can be kept as they are */
+    private int countKeptDirectives(Task currentTask) {
+        if (isStay(currentTask)) {
+            return 0;
+        }
+
+        int kept = 0;
+
+        for (InternalDirective directive : directiveSequence) {
+            if (!directive.hasTask()) {
+                break;
+            }
+
+            int taskIndex = directive.getTask().getTaskIdx();
+
+            if (taskIndex < currentTask.getTaskIdx() || taskIndex >= schedule.getTaskCount() || schedule.getTasks().get(taskIndex) != directive.getTask()) {
+                break;
+            }
+
+            kept++;
+        }
+
+        if (kept > 0 && directiveSequence.get(kept - 1) instanceof StopDirective) {
+            // The last kept stop may still serve requests of directives which were changed, then it is rebuilt
+            Task stopTask = directiveSequence.get(kept - 1).getTask();
+
+            if (stopTask != currentTask) {
+                int first = kept - 1;
+
+                while (first > 0 && directiveSequence.get(first - 1).getTask() == stopTask) {
+                    first--;
+                }
+
+                AmodeusStopTask amodeusStopTask = (AmodeusStopTask) stopTask;
+
+                if (amodeusStopTask.getPickupRequests().size() + amodeusStopTask.getDropoffRequests().size() != kept - first) {
+                    kept = first;
+                }
+            }
+        }
+
+        return kept;
+    }
+
+    /** @return path from the removed tasks with the same links, otherwise a new deferred path */
+    private VrpPathWithTravelData getPath(Link fromLink, Link toLink, double departureTime, List<FutureVrpPathWithTravelData> reusablePaths) {
+        Iterator<FutureVrpPathWithTravelData> iterator = reusablePaths.iterator();
+
+        while (iterator.hasNext()) {
+            FutureVrpPathWithTravelData path = iterator.next();
+
+            if (path.getFromLink() == fromLink && path.getToLink() == toLink) {
+                iterator.remove();
+                return path.withDepartureTime(departureTime);
+            }
+        }
+
+        return router.deferPath(fromLink, toLink, departureTime);
     }
 
     private void updateSchedule() {
+        DispatchCounter.SCHEDULE_REBUILDS.increment();
         Task currentTask = schedule.getCurrentTask();
 
-        // Clean up schedule
+        // Only the tasks after the unchanged leading directives are rebuilt
+
+        int kept = countKeptDirectives(currentTask);
+        Task lastKeptTask = kept > 0 ? directiveSequence.get(kept - 1).getTask() : currentTask;
 
-        int currentIndex = currentTask.getTaskIdx();
+        // Clean up schedule, the routes of removed drives may be reused
+
+        List<FutureVrpPathWithTravelData> reusablePaths = new LinkedList<>();
+
+        while (Schedules.getLastTask(schedule).getTaskIdx() > lastKeptTask.getTaskIdx()) {
+            Task task = Schedules.getLastTask(schedule);
+
+            if (isDrive(task) && ((DrtDriveTask) task).getPath() instanceof FutureVrpPathWithTravelData) {
+                reusablePaths.add(0, (FutureVrpPathWithTravelData) ((DrtDriveTask) task).getPath());
+            }
 
-        while (Schedules.getLastTask(schedule).getTaskIdx() > currentIndex) {
             schedule.removeLastTask();
         }
 
-        List<InternalDirective> sequence = new LinkedList<>(directiveSequence);
+        List<InternalDirective> sequence = new LinkedList<>(directiveSequence.subList(kept, directiveSequence.size()));
 
         if (sequence.size() > 0) {
-            if (isStop(currentTask)) {
+            if (kept > 0) {
+                // The current task serves or leads to the kept directives and remains unchanged
+            } else if (isStop(currentTask)) {
                 // Skip all stops in the sequence which are handled by the current task
                 AmodeusStopTask stopTask = (AmodeusStopTask) currentTask;
 
@@ -169,7 +258,7 @@ public class ScheduleManager {
 
             // Now, rebuild the schedule based on the stop sequence
 
-            Task previousTask = currentTask;
+            Task previousTask = lastKeptTask;
 
             for (InternalDirective directive : sequence) {
                 double previousEndTime = previousTask.getEndTime();
@@ -190,7 +279,7 @@ public class ScheduleManager {
                     if (stopLink != previousLink) {
                         // We need to add a drive in between
 
-                        VrpPathWithTravelData path = router.calculatePath(previousLink, stopLink, previousEndTime);
+                        VrpPathWithTravelData path = getPath(previousLink, stopLink, previousEndTime, reusablePaths);
                         DrtDriveTask driveTask = new DrtDriveTask(path, DrtDriveTask.TYPE);
                         schedule.addTask(driveTask);
 
@@ -245,7 +334,7 @@ public class ScheduleManager {
 
                     // We need to add a drive in between
 
-                    VrpPathWithTravelData path = router.calculatePath(previousLink, destination, previousEndTime);
+                    VrpPathWithTravelData path = getPath(previousLink, destination, previousEndTime, reusablePaths);
                     DrtDriveTask driveTask = new DrtDriveTask(path, DrtDriveTask.TYPE);
                     driveDirective.setTask(driveTask);
                     schedule.addTask(driveTask);
@@ -279,6 +368,8 @@ public class ScheduleManager {
                 throw new IllegalStateException("Found directive without task!");
             }
         }
+
+        listener.run();
     }
 
     private List<InternalStopDirective> getStopDirectives() {
@@ -368,6 +459,12 @@ public class ScheduleManager {
             }
         }
 
+        // Unchanged modifiable directives are kept as well, such that their tasks are not rebuilt
+
+        while (index < directiveSequence.size() && index < sequence.size() && directiveSequence.get(index).isEqual(sequence.get(index))) {
+            index++;
+        }
+
         // Check sequence of pickups and dropoffs
 
         Set<PassengerRequest> pickups = new HashSet<>(onboard);
@@ -81,7 +81,7 @@ public class ExtDemandSupplyBeamSharing extends RebalancingDispatcher {
             Collection<RoboTaxi> robotaxisDivertable = getDivertableUnassignedRoboTaxis();
             robotaxisDivertable.forEach(unassignedRoboTaxis::add);
 
-            Set<PassengerRequest> requests = getUnassignedRequests();
+            Set<PassengerRequest> requests = new HashSet<>(getUnassignedRequests());
             requests.forEach(requestMaintainer::add);
 
             if (unassignedRoboTaxis.size() > 0 && requests.size() > 0) {
@@ -17,7 +17,6 @@ import org.matsim.contrib.dvrp.passenger.PassengerRequest;
 import org.matsim.contrib.dvrp.run.ModalProviders.InstanceGetter;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
-import org.matsim.core.router.FastAStarLandmarksFactory;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.TravelTime;
 
@@ -28,7 +27,7 @@ import amodeus.amodeus.dispatcher.core.RebalancingDispatcher;
 import amodeus.amodeus.dispatcher.core.schedule.directives.Directive;
 import amodeus.amodeus.net.MatsimAmodeusDatabase;
 import amodeus.amodeus.routing.CachedNetworkTimeDistance;
-import amodeus.amodeus.routing.EasyMinTimePathCalculator;
+import amodeus.amodeus.routing.SharedLandmarksRouters;
 import amodeus.amodeus.routing.TimeDistanceProperty;
 import amodeus.amodeus.util.math.GlobalAssert;
 import amodeus.amodeus.util.matsim.SafeConfig;
@@ -86,7 +85,7 @@ public class DynamicRideSharingStrategy extends RebalancingDispatcher {
     private final CachedNetworkTimeDistance timeDb;
     private static final double MAXLAGTRAVELTIMECALCULATION = 180000.0;
 
-    protected DynamicRideSharingStrategy(Network network, //
+    protected DynamicRideSharingStrategy(Network network, SharedLandmarksRouters landmarksRouters, //
             Config config, AmodeusModeConfig operatorConfig, //
             TravelTime travelTime, AmodeusRouter router, EventsManager eventsManager, //
             MatsimAmodeusDatabase db, RebalancingStrategy rebalancingStrategy) {
@@ -102,8 +101,7 @@ public class DynamicRideSharingStrategy extends RebalancingDispatcher {
 
         roboTaxiHandler = new RoboTaxiHandler(network);
 
-        FastAStarLandmarksFactory factory = new FastAStarLandmarksFactory(Runtime.getRuntime().availableProcessors());
-        LeastCostPathCalculator calculator = EasyMinTimePathCalculator.prepPathCalculator(network, factory);
+        LeastCostPathCalculator calculator = landmarksRouters.minTime();
         timeDb = new CachedNetworkTimeDistance(calculator, MAXLAGTRAVELTIMECALCULATION, TimeDistanceProperty.INSTANCE);
 
         rebalancing = new BlockRebalancing(network, timeDb, MINNUMBERROBOTAXISINBLOCKTOREBALANCE, BINSIZETRAVELDEMAND, dispatchPeriod, REBALANCINGGRIDDISTANCE);
@@ -193,12 +191,13 @@ public class DynamicRideSharingStrategy extends RebalancingDispatcher {
 
             AmodeusModeConfig operatorConfig = inject.getModal(AmodeusModeConfig.class);
             Network network = inject.getModal(Network.class);
+            SharedLandmarksRouters landmarksRouters = inject.getModal(SharedLandmarksRouters.class);
             AmodeusRouter router = inject.getModal(AmodeusRouter.class);
             TravelTime travelTime = inject.getModal(TravelTime.class);
 
             RebalancingStrategy rebalancingStrategy = inject.getModal(RebalancingStrategy.class);
 
-            return new DynamicRideSharingStrategy(network, config, operatorConfig, travelTime, router, eventsManager, db, rebalancingStrategy);
+            return new DynamicRideSharingStrategy(network, landmarksRouters, config, operatorConfig, travelTime, router, eventsManager, db, rebalancingStrategy);
         }
     }
 }
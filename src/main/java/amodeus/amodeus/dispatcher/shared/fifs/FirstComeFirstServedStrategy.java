@@ -17,7 +17,6 @@ import org.matsim.contrib.dvrp.run.ModalProviders.InstanceGetter;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
 import org.matsim.core.network.NetworkUtils;
-import org.matsim.core.router.FastAStarLandmarksFactory;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.TravelTime;
 
@@ -29,7 +28,7 @@ import amodeus.amodeus.dispatcher.util.TreeMultipleItems;
 import amodeus.amodeus.net.MatsimAmodeusDatabase;
 import amodeus.amodeus.net.TensorCoords;
 import amodeus.amodeus.routing.CachedNetworkTimeDistance;
-import amodeus.amodeus.routing.EasyMinTimePathCalculator;
+import amodeus.amodeus.routing.SharedLandmarksRouters;
 import amodeus.amodeus.routing.TimeDistanceProperty;
 import ch.ethz.idsc.tensor.Tensor;
 
@@ -63,7 +62,7 @@ public class FirstComeFirstServedStrategy extends RebalancingDispatcher {
 
     private final BlockRebalancing kockelmanRebalancing;
 
-    protected FirstComeFirstServedStrategy(Network network, //
+    protected FirstComeFirstServedStrategy(Network network, SharedLandmarksRouters landmarksRouters, //
             Config config, AmodeusModeConfig operatorConfig, //
             TravelTime travelTime, AmodeusRouter router, EventsManager eventsManager, MatsimAmodeusDatabase db, RebalancingStrategy rebalancingStrategy) {
         super(config, operatorConfig, travelTime, router, eventsManager, db, rebalancingStrategy, RoboTaxiUsageType.SINGLEUSED);
@@ -73,8 +72,7 @@ public class FirstComeFirstServedStrategy extends RebalancingDispatcher {
         this.unassignedRequests = new TreeMultipleItems<>(PassengerRequest::getSubmissionTime);
         this.requestsLastHour = new TreeMultipleItems<>(PassengerRequest::getSubmissionTime);
 
-        FastAStarLandmarksFactory factory = new FastAStarLandmarksFactory(Runtime.getRuntime().availableProcessors());
-        LeastCostPathCalculator calculator = EasyMinTimePathCalculator.prepPathCalculator(network, factory);
+        LeastCostPathCalculator calculator = landmarksRouters.minTime();
         timeDb = new CachedNetworkTimeDistance(calculator, MAXLAGTRAVELTIMECALCULATION, TimeDistanceProperty.INSTANCE);
 
         this.kockelmanRebalancing = new BlockRebalancing(network, timeDb, MINNUMBERROBOTAXISINBLOCKTOREBALANCE, BINSIZETRAVELDEMAND, dispatchPeriod, REBALANCINGGRIDDISTANCE);
@@ -164,12 +162,13 @@ public class FirstComeFirstServedStrategy extends RebalancingDispatcher {
 
             AmodeusModeConfig operatorConfig = inject.getModal(AmodeusModeConfig.class);
             Network network = inject.getModal(Network.class);
+            SharedLandmarksRouters landmarksRouters = inject.getModal(SharedLandmarksRouters.class);
             AmodeusRouter router = inject.getModal(AmodeusRouter.class);
             TravelTime travelTime = inject.getModal(TravelTime.class);
             
             RebalancingStrategy rebalancingStrategy = inject.getModal(RebalancingStrategy.class);
 
-            return new FirstComeFirstServedStrategy(network, config, operatorConfig, travelTime, router, eventsManager, db, rebalancingStrategy);
+            return new FirstComeFirstServedStrategy(network, landmarksRouters, config, operatorConfig, travelTime, router, eventsManager, db, rebalancingStrategy);
         }
     }
 }
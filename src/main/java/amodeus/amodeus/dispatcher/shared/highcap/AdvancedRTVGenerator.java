@@ -12,6 +12,9 @@ import org.matsim.api.core.v01.network.Link;
 import org.matsim.contrib.dvrp.passenger.PassengerRequest;
 
 import amodeus.amodeus.dispatcher.core.RoboTaxi;
+import amodeus.amodeus.dispatcher.util.ReachabilityIndex;
+import amodeus.amodeus.dispatcher.util.TripKey;
+import amodeus.amodeus.routing.LandmarkLowerBound;
 
 /* package */ class AdvancedRTVGenerator {
     private static final double MAX_RANGE = 999999.8;
@@ -20,17 +23,28 @@ import amodeus.amodeus.dispatcher.core.RoboTaxi;
     private final int capacityOfTaxi;
     private final double pickupDurationPerStop;
     private final double dropoffDurationPerStop;
-
-    public AdvancedRTVGenerator(int capacityOfTaxi, double pickupDurationPerStop, double dropoffDurationPerStop) {
+    private final LandmarkLowerBound lowerBound;
+
+    /** @param capacityOfTaxi
+     * @param pickupDurationPerStop
+     * @param dropoffDurationPerStop
+     * @param lowerBound on the free-flow travel times of the {@link TravelTimeComputation}, used to skip the requests which
+     *            a robotaxi cannot reach before their pickup deadline without routing */
+    public AdvancedRTVGenerator(int capacityOfTaxi, double pickupDurationPerStop, double dropoffDurationPerStop, LandmarkLowerBound lowerBound) {
         this.capacityOfTaxi = capacityOfTaxi;
         this.pickupDurationPerStop = pickupDurationPerStop;
         this.dropoffDurationPerStop = dropoffDurationPerStop;
+        this.lowerBound = lowerBound;
     }
 
     public List<TripWithVehicle> generateRTV(List<RoboTaxi> roboTaxis, Set<PassengerRequest> newAddedRequests, Set<PassengerRequest> removedRequests, //
             double now, Map<PassengerRequest, RequestKeyInfo> requestKeyInfoMap, Set<Set<PassengerRequest>> rvEdges, //
             TravelTimeComputation ttc, List<TripWithVehicle> lastAssignment, double trafficAllowance) {
         List<TripWithVehicle> grossListOfRTVEdges = new ArrayList<>();
+        // the travel time computation routes from the from-node of the taxi link to the to-node of the pickup link
+        ReachabilityIndex<RoboTaxi> reachabilityIndex = new ReachabilityIndex<>(lowerBound, roboTaxis, roboTaxi -> roboTaxi.getDivertableLocation().getFromNode());
+        // the deadline of a request is extended by the traffic allowance for the taxi it was assigned to in the last step
+        Map<PassengerRequest, Set<RoboTaxi>> reachableRoboTaxis = new HashMap<>();
         for (RoboTaxi roboTaxi : roboTaxis) {
             // construct collection of single request to check
             Set<PassengerRequest> candidateRequests = new HashSet<>();
@@ -61,6 +75,9 @@ import amodeus.amodeus.dispatcher.core.RoboTaxi;
             // size 1 trips:
             List<Set<PassengerRequest>> listOfsize1Trip = new ArrayList<>(); // this is useful for generating possible combination for size 2 trip
             for (PassengerRequest avRequest : candidateRequests) {
+                if (!reachableRoboTaxis.computeIfAbsent(avRequest, request -> reachabilityIndex.reachable(request.getFromLink().getToNode(), //
+                        requestKeyInfoMap.get(request).getDeadlinePickUp() + trafficAllowance - now)).contains(roboTaxi))
+                    continue; // the taxi cannot arrive before the deadline for pick up
                 double timeFromTaxiToRequest = ttc.of(taxiCurrentLink, //
                         avRequest.getFromLink(), now, false); // do not store this travel time in Cache.
                 double arrivalTime = now + timeFromTaxiToRequest;
@@ -87,7 +104,10 @@ import amodeus.amodeus.dispatcher.core.RoboTaxi;
             }
 
             // size 2 trips:
+            // the trips are identified by the indices of their requests in listOfsize1Trip to check the sub-trips
+            int candidates = listOfsize1Trip.size();
             List<Set<PassengerRequest>> listOfSize2Trips = new ArrayList<>();
+            List<TripKey> keysOfSize2Trips = new ArrayList<>();
             for (int i = 0; i < listOfsize1Trip.size(); i++)
                 for (int j = i + 1; j < listOfsize1Trip.size(); j++) {
                     Set<PassengerRequest> thisTrip = new HashSet<>();
@@ -102,27 +122,32 @@ import amodeus.amodeus.dispatcher.core.RoboTaxi;
                             TripWithVehicle thisTripWithVehicle = new TripWithVehicle(roboTaxi, totalDelayForThisTrip, thisTrip, route);
                             grossListOfRTVEdges.add(thisTripWithVehicle);
                             listOfSize2Trips.add(thisTrip);
+                            keysOfSize2Trips.add(TripKey.of(candidates, i, j));
                         }
                     }
                 }
 
             // size 3 to maximum trip length
             List<Set<PassengerRequest>> listOfTripsFromLastLoop = listOfSize2Trips;
-            List<Set<PassengerRequest>> listOfTripsFromThisLoop = new ArrayList<>();
+            List<TripKey> keysFromLastLoop = keysOfSize2Trips;
             int k = 3;
             while (k <= capacityOfTaxi && !listOfTripsFromLastLoop.isEmpty()) {
                 // generate all combination of trips with size k
-                listOfTripsFromThisLoop.clear();
+                List<Set<PassengerRequest>> listOfTripsFromThisLoop = new ArrayList<>();
+                List<TripKey> keysFromThisLoop = new ArrayList<>();
+                Set<TripKey> setOfKeysFromLastLoop = new HashSet<>(keysFromLastLoop);
+                Set<TripKey> setOfKeysFromThisLoop = new HashSet<>(); // every trip is checked once
                 for (int i = 0; i < listOfTripsFromLastLoop.size(); i++) {
                     for (int j = i + 1; j < listOfTripsFromLastLoop.size(); j++) {
-                        Set<PassengerRequest> thisTrip = new HashSet<>();
-                        thisTrip.addAll(listOfTripsFromLastLoop.get(i));
-                        thisTrip.addAll(listOfTripsFromLastLoop.get(j));
+                        TripKey thisKey = keysFromLastLoop.get(i).union(keysFromLastLoop.get(j));
 
                         // check if this trip is size k
-                        if (thisTrip.size() == k) {
+                        if (thisKey.size() == k && setOfKeysFromThisLoop.add(thisKey)) {
                             // check if all thisTrip's sub-trip is in the set of trips of size k-1
-                            if (EverySubtripIsValid.of(listOfTripsFromLastLoop, thisTrip)) {
+                            if (thisKey.containsAllSubtrips(setOfKeysFromLastLoop)) {
+                                Set<PassengerRequest> thisTrip = new HashSet<>();
+                                thisTrip.addAll(listOfTripsFromLastLoop.get(i));
+                                thisTrip.addAll(listOfTripsFromLastLoop.get(j));
                                 // if yes, then generate route and validate the route
                                 List<StopInRoute> route = RouteGenerator.of(roboTaxi, thisTrip, now, //
                                         requestKeyInfoMap, capacityOfTaxi, //
@@ -133,6 +158,7 @@ import amodeus.amodeus.dispatcher.core.RoboTaxi;
                                     TripWithVehicle thisTripWithVehicle = new TripWithVehicle(roboTaxi, totalDelayForThisTrip, thisTrip, route);
                                     grossListOfRTVEdges.add(thisTripWithVehicle);
                                     listOfTripsFromThisLoop.add(thisTrip);
+                                    keysFromThisLoop.add(thisKey);
                                 }
                             }
                         }
@@ -140,6 +166,7 @@ import amodeus.amodeus.dispatcher.core.RoboTaxi;
                 }
                 k++;
                 listOfTripsFromLastLoop = listOfTripsFromThisLoop;
+                keysFromLastLoop = keysFromThisLoop;
             }
 
             // remove some data from cache to release some memory
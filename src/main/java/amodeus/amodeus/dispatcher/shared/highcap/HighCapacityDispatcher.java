@@ -23,7 +23,6 @@ import org.matsim.contrib.dvrp.passenger.PassengerRequest;
 import org.matsim.contrib.dvrp.run.ModalProviders.InstanceGetter;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
-import org.matsim.core.router.FastAStarLandmarksFactory;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.TravelTime;
 
@@ -33,7 +32,8 @@ import amodeus.amodeus.dispatcher.core.RoboTaxi;
 import amodeus.amodeus.dispatcher.core.RoboTaxiUsageType;
 import amodeus.amodeus.dispatcher.core.schedule.directives.Directive;
 import amodeus.amodeus.net.MatsimAmodeusDatabase;
-import amodeus.amodeus.routing.EasyMinTimePathCalculator;
+import amodeus.amodeus.routing.LandmarkLowerBound;
+import amodeus.amodeus.routing.SharedLandmarksRouters;
 
 /** High-Capacity Algorithm from Alonso-Mora, Javier, et al. "On-demand high-capacity ride-sharing via dynamic trip-vehicle assignment."
  * Proceedings of the National Academy of Sciences 114.3 (2017): 462-467.
@@ -82,7 +82,7 @@ public class HighCapacityDispatcher extends RebalancingDispatcher {
     private final double constantMaximumWaitTime;
     private final double constantMaximumDelay;
 
-    public HighCapacityDispatcher(Network network, //
+    public HighCapacityDispatcher(Network network, SharedLandmarksRouters landmarksRouters, //
             Config config, AmodeusModeConfig operatorConfig, //
             TravelTime travelTime, AmodeusRouter router, EventsManager eventsManager, //
             MatsimAmodeusDatabase db, RebalancingStrategy rebalancingStrategy) {
@@ -96,10 +96,9 @@ public class HighCapacityDispatcher extends RebalancingDispatcher {
         links = new ArrayList<>(network.getLinks().values());
         Collections.shuffle(links, randGen);
 
-        FastAStarLandmarksFactory factory = new FastAStarLandmarksFactory(Runtime.getRuntime().availableProcessors());
-        LeastCostPathCalculator lcpc = EasyMinTimePathCalculator.prepPathCalculator(network, factory);
+        LeastCostPathCalculator lcpc = landmarksRouters.minTime();
         ttc = new TravelTimeComputation(lcpc, sizeLimitOfCache);
-        rtvGG = new AdvancedRTVGenerator(capacityOfTaxi, pickupDurationPerStop, dropoffDurationPerStop);
+        rtvGG = new AdvancedRTVGenerator(capacityOfTaxi, pickupDurationPerStop, dropoffDurationPerStop, LandmarkLowerBound.of(network));
         rvGenerator = new AdvanceTVRVGenerator(pickupDurationPerStop, dropoffDurationPerStop);
         checkingUpdateMenuOrNot = new CheckingUpdateMenuOrNot();
 
@@ -290,12 +289,13 @@ public class HighCapacityDispatcher extends RebalancingDispatcher {
 
             AmodeusModeConfig operatorConfig = inject.getModal(AmodeusModeConfig.class);
             Network network = inject.getModal(Network.class);
+            SharedLandmarksRouters landmarksRouters = inject.getModal(SharedLandmarksRouters.class);
             AmodeusRouter router = inject.getModal(AmodeusRouter.class);
             TravelTime travelTime = inject.getModal(TravelTime.class);
 
             RebalancingStrategy rebalancingStrategy = inject.getModal(RebalancingStrategy.class);
 
-            return new HighCapacityDispatcher(network, config, operatorConfig, travelTime, router, eventsManager, db, rebalancingStrategy);
+            return new HighCapacityDispatcher(network, landmarksRouters, config, operatorConfig, travelTime, router, eventsManager, db, rebalancingStrategy);
         }
     }
 }
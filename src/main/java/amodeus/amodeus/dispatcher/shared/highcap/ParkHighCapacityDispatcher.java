@@ -23,7 +23,6 @@ import org.matsim.contrib.dvrp.passenger.PassengerRequest;
 import org.matsim.contrib.dvrp.run.ModalProviders.InstanceGetter;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
-import org.matsim.core.router.FastAStarLandmarksFactory;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.TravelTime;
 
@@ -37,7 +36,8 @@ import amodeus.amodeus.dispatcher.util.DistanceHeuristics;
 import amodeus.amodeus.net.MatsimAmodeusDatabase;
 import amodeus.amodeus.parking.capacities.ParkingCapacity;
 import amodeus.amodeus.parking.strategies.ParkingStrategy;
-import amodeus.amodeus.routing.EasyMinTimePathCalculator;
+import amodeus.amodeus.routing.LandmarkLowerBound;
+import amodeus.amodeus.routing.SharedLandmarksRouters;
 
 /** High-Capacity Algorithm from Alonso-Mora, Javier, et al. "On-demand high-capacity ride-sharing via dynamic trip-vehicle assignment."
  * Proceedings of the National Academy of Sciences 114.3 (2017): 462-467.
@@ -123,7 +123,7 @@ import amodeus.amodeus.routing.EasyMinTimePathCalculator;
         }
     }
     
-    public ParkHighCapacityDispatcher(Network network, //
+    public ParkHighCapacityDispatcher(Network network, SharedLandmarksRouters landmarksRouters, //
             Config config, AmodeusModeConfig operatorConfig, //
             TravelTime travelTime, AmodeusRouter router, EventsManager eventsManager, //
             MatsimAmodeusDatabase db, ParkingStrategy parkingStrategy, //
@@ -138,17 +138,17 @@ import amodeus.amodeus.routing.EasyMinTimePathCalculator;
         links = new ArrayList<>(network.getLinks().values());
         Collections.shuffle(links, randGen);
 
-        FastAStarLandmarksFactory factory = new FastAStarLandmarksFactory(Runtime.getRuntime().availableProcessors());
-        LeastCostPathCalculator lcpc = EasyMinTimePathCalculator.prepPathCalculator(network, factory);
+        LeastCostPathCalculator lcpc = landmarksRouters.minTime();
         ttc = new TravelTimeComputation(lcpc, sizeLimitOfCache);
-        rtvGG = new AdvancedRTVGenerator(capacityOfTaxi, pickupDurationPerStop, dropoffDurationPerStop);
+        rtvGG = new AdvancedRTVGenerator(capacityOfTaxi, pickupDurationPerStop, dropoffDurationPerStop, LandmarkLowerBound.of(network));
         rvGenerator = new AdvanceTVRVGenerator(pickupDurationPerStop, dropoffDurationPerStop);
         checkingUpdateMenuOrNot = new CheckingUpdateMenuOrNot();
 
         /** PARKING EXTENSION */
         this.parkingStrategy = parkingStrategy;
-        DistanceHeuristics distanceHeuristics = DispatcherConfigWrapper.wrap(operatorConfig.getDispatcherConfig()).getDistanceHeuristics(DistanceHeuristics.ASTARLANDMARKS);
-        this.parkingStrategy.setRuntimeParameters(avSpatialCapacityAmodeus, network, distanceHeuristics.getDistanceFunction(network));
+        DistanceHeuristics distanceHeuristics = dispatcherConfig.getDistanceHeuristics(DistanceHeuristics.ASTARLANDMARKS);
+        this.parkingStrategy.setRuntimeParameters(avSpatialCapacityAmodeus, network, //
+                distanceHeuristics.getDistanceFunction(network, dispatcherConfig.getContractionHierarchyFile()));
         /** PARKING EXTENSION */
         
 
@@ -309,6 +309,7 @@ import amodeus.amodeus.routing.EasyMinTimePathCalculator;
 
             AmodeusModeConfig operatorConfig = inject.getModal(AmodeusModeConfig.class);
             Network network = inject.getModal(Network.class);
+            SharedLandmarksRouters landmarksRouters = inject.getModal(SharedLandmarksRouters.class);
             AmodeusRouter router = inject.getModal(AmodeusRouter.class);
             TravelTime travelTime = inject.getModal(TravelTime.class);
 
@@ -318,7 +319,7 @@ import amodeus.amodeus.routing.EasyMinTimePathCalculator;
 
             RebalancingStrategy rebalancingStrategy = inject.getModal(RebalancingStrategy.class);
 
-            return new ParkHighCapacityDispatcher(network, config, operatorConfig, travelTime, router, eventsManager, db, Objects.requireNonNull(parkingStrategy),
+            return new ParkHighCapacityDispatcher(network, landmarksRouters, config, operatorConfig, travelTime, router, eventsManager, db, Objects.requireNonNull(parkingStrategy),
                     Objects.requireNonNull(avSpatialCapacityAmodeus), rebalancingStrategy);
         }
     }
@@ -21,7 +21,8 @@ import org.matsim.contrib.dvrp.passenger.PassengerRequest;
 import org.matsim.contrib.dvrp.run.ModalProviders.InstanceGetter;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
-import org.matsim.core.router.FastAStarLandmarksFactory;
+import org.matsim.core.router.DijkstraFactory;
+import org.matsim.core.router.costcalculators.OnlyTimeDependentTravelDisutility;
 import org.matsim.core.router.util.TravelTime;
 import org.matsim.core.utils.collections.QuadTree;
 
@@ -32,10 +33,12 @@ import amodeus.amodeus.dispatcher.core.RoboTaxi;
 import amodeus.amodeus.dispatcher.core.RoboTaxiUsageType;
 import amodeus.amodeus.dispatcher.core.PartitionedDispatcher;
 import amodeus.amodeus.dispatcher.util.DistanceHeuristics;
+import amodeus.amodeus.linkspeed.LSDataTravelTime;
+import amodeus.amodeus.linkspeed.LinkSpeedDataContainer;
+import amodeus.amodeus.linkspeed.TaxiTrafficData;
 import amodeus.amodeus.net.MatsimAmodeusDatabase;
 import amodeus.amodeus.routing.CachedNetworkTimeDistance;
-import amodeus.amodeus.routing.EasyMinDistPathCalculator;
-import amodeus.amodeus.routing.EasyMinTimePathCalculator;
+import amodeus.amodeus.routing.SharedLandmarksRouters;
 import amodeus.amodeus.routing.TimeDistanceProperty;
 import amodeus.amodeus.util.geo.FastQuadTree;
 import amodeus.amodeus.util.math.SI;
@@ -56,7 +59,9 @@ import ch.ethz.idsc.tensor.qty.Quantity;
  * already being transported by a taxi. In order to operate the policy with taxis with capacity N, in this
  * version the time windows of all requests already in a taxi are checked before the insertion of a
  * new request is allowed.
- * - To limit computation time, a maximum length of the planned {@link SharedMenu} was introduced. */
+ * - To limit computation time, a maximum length of the planned {@link SharedMenu} was introduced.
+ * - If the dispatcher parameter linkSpeedData is set, the travel times are those of the link speed data and
+ * cached travel times are only dropped when the speed on a link of their path changes. */
 public class TShareDispatcher extends PartitionedDispatcher {
 
     /** general */
@@ -72,20 +77,29 @@ public class TShareDispatcher extends PartitionedDispatcher {
     private final CachedNetworkTimeDistance distanceCashed;
     private final CachedNetworkTimeDistance travelTimeCalculator;
 
-    protected TShareDispatcher(Network network, Config config, AmodeusModeConfig operatorConfig, //
+    protected TShareDispatcher(Network network, SharedLandmarksRouters landmarksRouters, Config config, AmodeusModeConfig operatorConfig, //
             TravelTime travelTime, AmodeusRouter router, EventsManager eventsManager, //
-            MatsimAmodeusDatabase db, VirtualNetwork<Link> virtualNetwork, RebalancingStrategy rebalancingStrategy) {
+            MatsimAmodeusDatabase db, VirtualNetwork<Link> virtualNetwork, RebalancingStrategy rebalancingStrategy, //
+            LinkSpeedDataContainer lsData) {
         super(config, operatorConfig, travelTime, router, eventsManager, virtualNetwork, db, rebalancingStrategy, RoboTaxiUsageType.SHARED);
         DispatcherConfigWrapper dispatcherConfig = DispatcherConfigWrapper.wrap(operatorConfig.getDispatcherConfig());
         dispatchPeriod = dispatcherConfig.getDispatchPeriod(30);
         DistanceHeuristics distanceHeuristics = dispatcherConfig.getDistanceHeuristics(DistanceHeuristics.EUCLIDEAN);
         System.out.println("Using DistanceHeuristics: " + distanceHeuristics.name());
         distanceCashed = new CachedNetworkTimeDistance(
-                EasyMinDistPathCalculator.prepPathCalculator(network, new FastAStarLandmarksFactory(Runtime.getRuntime().availableProcessors())), //
-                180000.0, TimeDistanceProperty.INSTANCE);
-        travelTimeCalculator = new CachedNetworkTimeDistance(
-                EasyMinTimePathCalculator.prepPathCalculator(network, new FastAStarLandmarksFactory(Runtime.getRuntime().availableProcessors())), //
+                landmarksRouters.minDist(), //
                 180000.0, TimeDistanceProperty.INSTANCE);
+        if (Objects.isNull(lsData))
+            travelTimeCalculator = new CachedNetworkTimeDistance(
+                    landmarksRouters.minTime(), //
+                    180000.0, TimeDistanceProperty.INSTANCE);
+        else {
+            /** travel times of the link speed data, cached until the speed on a link of the path changes */
+            TravelTime lsDataTravelTime = new LSDataTravelTime(lsData);
+            travelTimeCalculator = new CachedNetworkTimeDistance( //
+                    new DijkstraFactory().createPathCalculator(network, new OnlyTimeDependentTravelDisutility(lsDataTravelTime), lsDataTravelTime), //
+                    lsData, CachedNetworkTimeDistance.DEFAULT_MAX_ENTRIES);
+        }
         bipartiteMatchingUtils = new TShareBipartiteMatchingUtils();
 
         /** T-Share specific */
@@ -192,6 +206,7 @@ public class TShareDispatcher extends PartitionedDispatcher {
 
             AmodeusModeConfig operatorConfig = inject.getModal(AmodeusModeConfig.class);
             Network network = inject.getModal(Network.class);
+            SharedLandmarksRouters landmarksRouters = inject.getModal(SharedLandmarksRouters.class);
             AmodeusRouter router = inject.getModal(AmodeusRouter.class);
             TravelTime travelTime = inject.getModal(TravelTime.class);
 
@@ -200,8 +215,12 @@ public class TShareDispatcher extends PartitionedDispatcher {
 
             RebalancingStrategy rebalancingStrategy = inject.getModal(RebalancingStrategy.class);
 
-            return new TShareDispatcher(network, config, operatorConfig, travelTime, router, eventsManager, //
-                    db, virtualNetwork, rebalancingStrategy);
+            /** the travel times of the link speed data require the TrafficDataModule */
+            boolean linkSpeedData = SafeConfig.wrap(operatorConfig.getDispatcherConfig()).getBool("linkSpeedData", false);
+            LinkSpeedDataContainer lsData = linkSpeedData ? inject.get(TaxiTrafficData.class).getLSData() : null;
+
+            return new TShareDispatcher(network, landmarksRouters, config, operatorConfig, travelTime, router, eventsManager, //
+                    db, virtualNetwork, rebalancingStrategy, lsData);
         }
     }
 }
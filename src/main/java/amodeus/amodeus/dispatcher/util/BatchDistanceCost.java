@@ -0,0 +1,40 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.dispatcher.util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.matsim.api.core.v01.network.Link;
+
+import amodeus.amodeus.dispatcher.core.RoboTaxi;
+import amodeus.amodeus.routing.NetworkMinTimeDistanceFunction;
+import amodeus.amodeus.routing.OneToManyNetworkTimeDistance;
+
+/** network distance cost for bipartite matching in which the cost matrix is computed with
+ * one search per divertable location instead of one search per pair. The costs are the same
+ * as those of a {@link DistanceCost} with a {@link NetworkMinTimeDistanceFunction}, i.e., the
+ * length of the path with minimum travel time between the from nodes of the {@link Link}s. */
+public class BatchDistanceCost implements GlobalBipartiteCost {
+    private final OneToManyNetworkTimeDistance timeDist;
+    private final double now;
+
+    public BatchDistanceCost(OneToManyNetworkTimeDistance timeDist, double now) {
+        this.timeDist = timeDist;
+        this.now = now;
+    }
+
+    @Override
+    public double between(RoboTaxi roboTaxi, Link link) {
+        return timeDist.nodeDistances( //
+                Collections.singletonList(roboTaxi.getDivertableLocation().getFromNode()), //
+                Collections.singletonList(link.getFromNode()), now)[0][0];
+    }
+
+    @Override
+    public double[][] matrix(List<RoboTaxi> roboTaxis, List<Link> links) {
+        return timeDist.nodeDistances( //
+                roboTaxis.stream().map(roboTaxi -> roboTaxi.getDivertableLocation().getFromNode()).collect(Collectors.toList()), //
+                links.stream().map(Link::getFromNode).collect(Collectors.toList()), now);
+    }
+}
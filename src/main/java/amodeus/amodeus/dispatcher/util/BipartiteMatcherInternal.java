@@ -6,13 +6,13 @@ import java.util.Map;
 
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.contrib.dvrp.passenger.PassengerRequest;
-import org.matsim.core.router.FastAStarLandmarksFactory;
 
 import amodeus.amodeus.dispatcher.core.RoboTaxi;
 import amodeus.amodeus.dispatcher.core.UniversalDispatcher;
 import amodeus.amodeus.routing.CachedNetworkTimeDistance;
 import amodeus.amodeus.routing.DistanceFunction;
 import amodeus.amodeus.routing.NetworkMinTimeDistanceFunction;
+import amodeus.amodeus.routing.SharedLandmarksRouters;
 import ch.ethz.idsc.tensor.Tensor;
 import ch.ethz.idsc.tensor.Tensors;
 
@@ -22,7 +22,7 @@ import ch.ethz.idsc.tensor.Tensors;
     protected final DistanceFunction accDstFctn;
 
     public BipartiteMatcherInternal(Network network) {
-        accDstFctn = new NetworkMinTimeDistanceFunction(network, new FastAStarLandmarksFactory(Runtime.getRuntime().availableProcessors()));
+        accDstFctn = new NetworkMinTimeDistanceFunction(SharedLandmarksRouters.of(network));
     }
 
     @Override
@@ -1,14 +1,23 @@
 /* amodeus - Copyright (c) 2018, ETH Zurich, Institute for Dynamic Systems and Control */
 package amodeus.amodeus.dispatcher.util;
 
+import java.io.File;
+import java.util.Objects;
+
+import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.core.router.FastAStarEuclideanFactory;
-import org.matsim.core.router.FastAStarLandmarksFactory;
 import org.matsim.core.router.FastDijkstraFactory;
 
+import amodeus.amodeus.dispatcher.core.RoboTaxi;
+import amodeus.amodeus.routing.ContractionHierarchy;
+import amodeus.amodeus.routing.ContractionHierarchyDistanceFunction;
 import amodeus.amodeus.routing.DistanceFunction;
+import amodeus.amodeus.routing.EasyMinTimePathCalculator;
 import amodeus.amodeus.routing.EuclideanDistanceFunction;
 import amodeus.amodeus.routing.NetworkMinTimeDistanceFunction;
+import amodeus.amodeus.routing.OneToManyNetworkTimeDistance;
+import amodeus.amodeus.routing.SharedLandmarksRouters;
 
 /** Enum of various methods to compute distances between two points on a network - used in the dispatching logic
  *
@@ -18,6 +27,14 @@ import amodeus.amodeus.routing.NetworkMinTimeDistanceFunction;
  * lower bounds
  * ASTARLANDMARKS - computes the shortest paths in terms of free flow travel times using an AStar algorithm with lower
  * bounds computed using known (euclidean) distances to Landmarks and the triangle inequality
+ * CH - computes the shortest paths in terms of free flow travel times using a contraction hierarchy which is built
+ * once per network, well suited for the many queries issued when constructing cost matrices. The hierarchy is
+ * stored in the file given by the dispatcher parameter "contractionHierarchyFile", if any, and loaded from there
+ * in later simulations on the same network
+ *
+ * For DIJKSTRA, ASTAR and ASTARLANDMARKS, the cost matrices of the bipartite matchings are computed with one
+ * one-to-many search per vehicle location, see {@link BatchDistanceCost}, the search algorithm only matters
+ * for the remaining single queries.
  *
  * //todo @clruch In AStar and ASTARLANDMARKS is this correct? Euclidean distances are not valid lower bounds on travel
  * //todo @clruch I am missing a few pieces of the code, that's why I am asking - not sure I fully understand. */
@@ -33,19 +50,66 @@ public enum DistanceHeuristics {
         public DistanceFunction getDistanceFunction(Network network) {
             return new NetworkMinTimeDistanceFunction(network, new FastDijkstraFactory());
         }
+
+        @Override
+        public GlobalBipartiteCost getBipartiteCost(Network network, DistanceFunction distanceFunction) {
+            return batchDistanceCost(network);
+        }
     },
     ASTAR {
         @Override
         public DistanceFunction getDistanceFunction(Network network) {
             return new NetworkMinTimeDistanceFunction(network, new FastAStarEuclideanFactory());
         }
+
+        @Override
+        public GlobalBipartiteCost getBipartiteCost(Network network, DistanceFunction distanceFunction) {
+            return batchDistanceCost(network);
+        }
     },
     ASTARLANDMARKS {
         @Override
         public DistanceFunction getDistanceFunction(Network network) {
-            return new NetworkMinTimeDistanceFunction(network, new FastAStarLandmarksFactory(Runtime.getRuntime().availableProcessors()));
+            return new NetworkMinTimeDistanceFunction(SharedLandmarksRouters.of(network));
+        }
+
+        @Override
+        public GlobalBipartiteCost getBipartiteCost(Network network, DistanceFunction distanceFunction) {
+            return batchDistanceCost(network);
+        }
+    },
+    CH {
+        @Override
+        public DistanceFunction getDistanceFunction(Network network) {
+            return new ContractionHierarchyDistanceFunction(ContractionHierarchy.of(network));
+        }
+
+        @Override
+        public DistanceFunction getDistanceFunction(Network network, File file) {
+            return Objects.isNull(file) //
+                    ? getDistanceFunction(network)
+                    : new ContractionHierarchyDistanceFunction(ContractionHierarchy.of(network, file));
         }
     };
 
     public abstract DistanceFunction getDistanceFunction(Network network);
+
+    /** @param network
+     * @param file in which the preprocessing of the {@link Network} is stored across simulations, only used by {@link #CH},
+     *            may be null
+     * @return {@link DistanceFunction} as {@link #getDistanceFunction(Network)} */
+    public DistanceFunction getDistanceFunction(Network network, File file) {
+        return getDistanceFunction(network);
+    }
+
+    /** @return cost of the bipartite matchings between {@link RoboTaxi}s and {@link Link}s which is consistent with
+     *         the {@link DistanceFunction} @param distanceFunction obtained from {@link #getDistanceFunction(Network)}
+     *         for the {@link Network} @param network */
+    public GlobalBipartiteCost getBipartiteCost(Network network, DistanceFunction distanceFunction) {
+        return new DistanceCost(distanceFunction);
+    }
+
+    private static GlobalBipartiteCost batchDistanceCost(Network network) {
+        return new BatchDistanceCost(new OneToManyNetworkTimeDistance(network, EasyMinTimePathCalculator.FREE_FLOW), 0.0);
+    }
 }
\ No newline at end of file
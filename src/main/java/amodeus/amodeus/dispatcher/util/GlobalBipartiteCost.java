@@ -1,6 +1,8 @@
 /* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
 package amodeus.amodeus.dispatcher.util;
 
+import java.util.List;
+
 import org.matsim.api.core.v01.network.Link;
 
 import amodeus.amodeus.dispatcher.core.RoboTaxi;
@@ -12,4 +14,19 @@ public interface GlobalBipartiteCost {
      *         and a {@link Link} @param link, e.g., the Euclidean distance */
     double between(RoboTaxi roboTaxi, Link link);
 
+    /** @return cost matrix in which the entry [i][j] is the cost between the i-th {@link RoboTaxi} in
+     *         @param roboTaxis and the j-th {@link Link} in @param links. Implementations may override
+     *         this method to compute the matrix in batches instead of pair by pair. */
+    default double[][] matrix(List<RoboTaxi> roboTaxis, List<Link> links) {
+        double[][] costMatrix = new double[roboTaxis.size()][links.size()];
+        int i = 0;
+        for (RoboTaxi roboTaxi : roboTaxis) {
+            int j = 0;
+            for (Link link : links)
+                costMatrix[i][j++] = between(roboTaxi, link);
+            ++i;
+        }
+        return costMatrix;
+    }
+
 }
@@ -27,16 +27,10 @@ import amodeus.amodeus.util.math.GlobalAssert;
         /** setup cost matrix */
         final int n = orderedRoboTaxis.size(); // workers
         final int m = ordered_linkObjects.size(); // jobs
-        final double[][] costMatrix = new double[n][m];
 
         /** cost of assigning vehicle i to dest j, i.e. distance from vehicle i to destination j */
-        int i = 0;
-        for (RoboTaxi roboTaxi : orderedRoboTaxis) {
-            int j = 0;
-            for (T t : ordered_linkObjects)
-                costMatrix[i][j++] = globalBipartiteCost.between(roboTaxi, linkOfT.apply(t));
-            ++i;
-        }
+        final double[][] costMatrix = globalBipartiteCost.matrix(orderedRoboTaxis, //
+                ordered_linkObjects.stream().map(linkOfT).collect(Collectors.toList()));
 
         /** vehicle at position i is assigned to destination matchinghungarianAlgorithm[j],
          * int[] matchinghungarianAlgorithm = new HungarianAlgorithm(distancematrix).execute(); O(n^3) */
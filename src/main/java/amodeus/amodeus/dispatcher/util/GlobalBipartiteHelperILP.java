@@ -7,6 +7,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.contrib.dvrp.passenger.PassengerRequest;
@@ -39,16 +40,13 @@ import ch.ethz.idsc.tensor.red.Total;
         /** setup cost matrix */
         final int n = orderedRoboTaxis.size(); // workers
         final int m = ordered_linkObjects.size(); // jobs
-        final double[][] costMatrix = new double[n][m];
 
         /** cost of assigning vehicle i to dest j, i.e. distance from vehicle i to destination j */
+        final double[][] costMatrix = weight.matrix(orderedRoboTaxis, //
+                ordered_linkObjects.stream().map(linkOfT).collect(Collectors.toList()));
         Tensor lastSolution = Array.zeros(n, m);
         int i = 0;
         for (RoboTaxi roboTaxi : orderedRoboTaxis) {
-            /** cost of current assignments */
-            int j = 0;
-            for (T t : ordered_linkObjects)
-                costMatrix[i][j++] = weight.between(roboTaxi, linkOfT.apply(t));
             ++i;
 
             /** possible previous assignments */
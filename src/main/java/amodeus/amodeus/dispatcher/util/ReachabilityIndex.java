@@ -0,0 +1,77 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.dispatcher.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.network.Node;
+
+import amodeus.amodeus.routing.LandmarkLowerBound;
+import ch.ethz.idsc.tensor.Tensors;
+
+/** Index of vehicles by location to prune vehicle-request pairs before their feasibility is checked:
+ * only the vehicles which may reach a node within a given time according to the {@link LandmarkLowerBound}
+ * are returned. The vehicles are stored in a {@link TreeMaintainer}, the candidates in the disk which can be
+ * covered at the maximum beeline speed are refined with the landmark bound.
+ *
+ * The allowance of a vehicle is subtracted from its lower bounds, e.g., if the time of the feasibility check
+ * does not include the full path of the vehicle. */
+public class ReachabilityIndex<T> {
+    private final LandmarkLowerBound lowerBound;
+    private final Function<T, Node> location;
+    private final TreeMaintainer<T> treeMaintainer;
+    private final Map<T, Double> allowances = new HashMap<>();
+    private final double maxAllowance;
+
+    /** @param lowerBound of the network
+     * @param vehicles
+     * @param location node from which the path of the vehicle starts
+     * @param allowance non-negative time that is subtracted from the lower bounds of the vehicle */
+    public ReachabilityIndex(LandmarkLowerBound lowerBound, Collection<T> vehicles, Function<T, Node> location, ToDoubleFunction<T> allowance) {
+        this.lowerBound = lowerBound;
+        this.location = location;
+        treeMaintainer = new TreeMaintainer<>(lowerBound.getBoundingBox(), vehicle -> {
+            Coord coord = location.apply(vehicle).getCoord();
+            return Tensors.vectorDouble(coord.getX(), coord.getY());
+        });
+        double max = 0;
+        for (T vehicle : vehicles) {
+            treeMaintainer.add(vehicle);
+            double value = allowance.applyAsDouble(vehicle);
+            allowances.put(vehicle, value);
+            max = Math.max(max, value);
+        }
+        maxAllowance = max;
+    }
+
+    public ReachabilityIndex(LandmarkLowerBound lowerBound, Collection<T> vehicles, Function<T, Node> location) {
+        this(lowerBound, vehicles, location, vehicle -> 0.0);
+    }
+
+    /** @param node
+     * @param time
+     * @return vehicles of which the lower bound of the travel time to node minus the allowance is at most time */
+    public Set<T> reachable(Node node, double time) {
+        Set<T> set = new HashSet<>();
+        if (time + maxAllowance < 0)
+            return set;
+        double maxSpeed = lowerBound.getMaxSpeed();
+        Collection<T> candidates = Double.isFinite(maxSpeed) //
+                ? treeMaintainer.disk(node.getCoord().getX(), node.getCoord().getY(), (time + maxAllowance) * maxSpeed)
+                : treeMaintainer.getValues();
+        for (T vehicle : candidates)
+            if (lowerBound.of(location.apply(vehicle), node) - allowances.get(vehicle) <= time)
+                set.add(vehicle);
+        return set;
+    }
+
+    public int size() {
+        return treeMaintainer.size();
+    }
+}
@@ -0,0 +1,99 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.dispatcher.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+
+/** Compact key of a trip, i.e., a set of requests, which are identified by their indices in a list of candidate
+ * requests, e.g., the requests that a vehicle can serve alone. For at most 64 candidates, the trip is stored as a
+ * bitset in a long, otherwise as a sorted array of indices. All keys of one list of candidates use the same
+ * representation and must not be mixed with keys of another list.
+ *
+ * Keys are compared by value. If the trips of size k are stored in a {@link Set}, checking whether all subtrips
+ * of a trip of size k + 1 are among them takes k + 1 lookups, see {@link #containsAllSubtrips(Set)}. */
+public final class TripKey {
+    /** @param candidates number of candidate requests
+     * @param indices of the requests of the trip, in the range [0, candidates)
+     * @return key of the trip */
+    public static TripKey of(int candidates, int... indices) {
+        if (candidates <= Long.SIZE) {
+            long bits = 0;
+            for (int index : indices)
+                bits |= 1L << index;
+            return new TripKey(bits, null);
+        }
+        return new TripKey(0, Arrays.stream(indices).sorted().distinct().toArray());
+    }
+
+    // ---
+    private final long bits;
+    /** sorted indices, null if the trip is stored in bits */
+    private final int[] indices;
+    private final int hashCode;
+
+    private TripKey(long bits, int[] indices) {
+        this.bits = bits;
+        this.indices = indices;
+        hashCode = Objects.isNull(indices) ? Long.hashCode(bits) : Arrays.hashCode(indices);
+    }
+
+    /** @param other key of the same list of candidates
+     * @return key of the trip with the requests of both trips */
+    public TripKey union(TripKey other) {
+        if (Objects.isNull(indices))
+            return new TripKey(bits | other.bits, null);
+        int[] union = new int[indices.length + other.indices.length];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < indices.length || j < other.indices.length)
+            if (j == other.indices.length || i < indices.length && indices[i] < other.indices[j])
+                union[count++] = indices[i++];
+            else if (i == indices.length || other.indices[j] < indices[i])
+                union[count++] = other.indices[j++];
+            else {
+                union[count++] = indices[i++];
+                ++j;
+            }
+        return new TripKey(0, Arrays.copyOf(union, count));
+    }
+
+    /** @return number of requests of the trip */
+    public int size() {
+        return Objects.isNull(indices) ? Long.bitCount(bits) : indices.length;
+    }
+
+    /** @param trips keys of the same list of candidates
+     * @return true if every trip which is obtained by removing one request from this trip is in trips */
+    public boolean containsAllSubtrips(Set<TripKey> trips) {
+        if (Objects.isNull(indices)) {
+            for (long remaining = bits; remaining != 0; remaining &= remaining - 1)
+                if (!trips.contains(new TripKey(bits & ~Long.lowestOneBit(remaining), null)))
+                    return false;
+            return true;
+        }
+        for (int i = 0; i < indices.length; ++i) {
+            int[] subtrip = new int[indices.length - 1];
+            System.arraycopy(indices, 0, subtrip, 0, i);
+            System.arraycopy(indices, i + 1, subtrip, i, subtrip.length - i);
+            if (!trips.contains(new TripKey(0, subtrip)))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (object instanceof TripKey) {
+            TripKey tripKey = (TripKey) object;
+            return bits == tripKey.bits && Arrays.equals(indices, tripKey.indices);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
@@ -22,6 +22,7 @@ import amodeus.amodeus.net.SimulationObject;
 import amodeus.amodeus.util.gui.GraphicsUtil;
 import amodeus.amodeus.view.jmapviewer.Coordinate;
 import amodeus.amodeus.view.jmapviewer.JMapViewer;
+import amodeus.amodeus.view.jmapviewer.SharedTileCache;
 import amodeus.amodeus.view.jmapviewer.interfaces.ICoordinate;
 
 public class AmodeusComponent extends JMapViewer {
@@ -64,6 +65,15 @@ public class AmodeusComponent extends JMapViewer {
      * 
      * @param db */
     public AmodeusComponent(MatsimAmodeusDatabase db) {
+        this(db, new SharedTileCache());
+    }
+
+    /** constructs an component without any {@link ViewerLayer}s which shares the map tiles with other components
+     * 
+     * @param db
+     * @param sharedTileCache */
+    public AmodeusComponent(MatsimAmodeusDatabase db, SharedTileCache sharedTileCache) {
+        super(sharedTileCache);
         this.db = db;
         viewerConfig = ViewerConfig.fromDefaults(db);
         infoFontSize = viewerConfig.settings.infoFontSize;
@@ -186,6 +196,11 @@ public class AmodeusComponent extends JMapViewer {
         repaint();
     }
 
+    /** @param simulationObject which precedes the next one to be set, see {@link ViewerLayer#remember(SimulationObject)} */
+    public void remember(SimulationObject simulationObject) {
+        viewerLayers.forEach(viewerLayer -> viewerLayer.remember(simulationObject));
+    }
+
     public void setMapAlphaCover(int alpha) {
         mapAlphaCover = alpha;
         repaint();
@@ -42,6 +42,11 @@ public class LoadLayer extends ViewerLayer {
         super(amodeusComponent);
     }
 
+    @Override
+    protected void remember(SimulationObject ref) {
+        lruCache.put(ref.now, ref);
+    }
+
     @Override
     protected void paint(Graphics2D graphics, SimulationObject ref) {
         if (Objects.isNull(ref))
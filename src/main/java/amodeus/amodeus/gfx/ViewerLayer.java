@@ -51,6 +51,14 @@ import amodeus.amodeus.view.jmapviewer.AmodeusHeatMap;
         // nothing to do here
     }
 
+    /** called for a {@link SimulationObject} which precedes the next painted one but is not painted
+     * by this component, for instance when the frames of a video are distributed among several components
+     * 
+     * @param ref non null */
+    protected void remember(SimulationObject ref) {
+        // nothing to do here
+    }
+
     protected abstract void paint(Graphics2D graphics, SimulationObject ref);
 
     /** @param graphics
@@ -2,6 +2,8 @@
 package amodeus.amodeus.net;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 public class IterationFolder {
     private final File itDir;
@@ -11,7 +13,11 @@ public class IterationFolder {
      * /media/datahaki/data/ethz/2017_03_09_Sioux_HU/output/simobj/it.02 */
     public IterationFolder(File itDir, StorageUtils storageUtils) {
         this.itDir = itDir;
-        storageSupplier = new StorageSupplier(storageUtils.getFrom(itDir));
+        try {
+            storageSupplier = storageUtils.getStorageSupplier(itDir);
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
     }
 
     public StorageSupplier storageSupplier() {
@@ -0,0 +1,177 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/** append-only log of the encoded {@link SimulationObject}s of one iteration. The frames are appended
+ * to segment files of bounded size, "segment.000.bin", "segment.001.bin", ..., and every frame is
+ * registered in the file "index.bin" with the record
+ * <pre>
+ * int time, int segment, long offset, int length
+ * </pre>
+ * The frame is written before its record, i.e., every complete record refers to a complete frame
+ * also while the simulation is still running. */
+public enum SegmentLog {
+    ;
+    /* package */ static final String INDEX = "index.bin";
+    private static final int RECORD_LENGTH = 20;
+    private static final long SEGMENT_BYTES = 1L << 26;
+
+    /** @param iterationDirectory
+     * @return true if the iteration is stored in the layout {@link StorageLayout#SEGMENTS} */
+    public static boolean exists(File iterationDirectory) {
+        return new File(iterationDirectory, INDEX).isFile();
+    }
+
+    private static File segment(File iterationDirectory, int segment) {
+        return new File(iterationDirectory, String.format("segment.%03d.bin", segment));
+    }
+
+    /** appends the frames of successive iterations, a new iteration directory closes the log of the previous iteration */
+    public static class Writer implements AutoCloseable {
+        private File iterationDirectory = null;
+        private OutputStream segmentStream;
+        private DataOutputStream indexStream;
+        private int segment;
+        private long offset;
+
+        /** @param iterationDirectory
+         * @param time
+         * @param bytes of the encoded frame
+         * @throws IOException */
+        public synchronized void append(File iterationDirectory, long time, byte[] bytes) throws IOException {
+            if (!iterationDirectory.equals(this.iterationDirectory)) {
+                close();
+                iterationDirectory.mkdirs();
+                this.iterationDirectory = iterationDirectory;
+                indexStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(new File(iterationDirectory, INDEX))));
+                segment = -1;
+                offset = SEGMENT_BYTES;
+            }
+            if (SEGMENT_BYTES <= offset + bytes.length && 0 < offset) {
+                if (Objects.nonNull(segmentStream))
+                    segmentStream.close();
+                segmentStream = new BufferedOutputStream(new FileOutputStream(segment(iterationDirectory, ++segment)));
+                offset = 0;
+            }
+            segmentStream.write(bytes);
+            segmentStream.flush();
+            indexStream.writeInt(Math.toIntExact(time));
+            indexStream.writeInt(segment);
+            indexStream.writeLong(offset);
+            indexStream.writeInt(bytes.length);
+            indexStream.flush();
+            offset += bytes.length;
+        }
+
+        @Override // from AutoCloseable
+        public synchronized void close() throws IOException {
+            if (Objects.nonNull(segmentStream))
+                segmentStream.close();
+            if (Objects.nonNull(indexStream))
+                indexStream.close();
+            segmentStream = null;
+            indexStream = null;
+            iterationDirectory = null;
+        }
+    }
+
+    /** random access to the frames of an iteration, the index is read once at construction. The segments
+     * are memory-mapped upon first access, hence reading a frame does not require a system call. */
+    public static class Reader implements AutoCloseable {
+        private final File iterationDirectory;
+        private final int[] times;
+        private final int[] segments;
+        private final long[] offsets;
+        private final int[] lengths;
+        private final Map<Integer, ByteBuffer> mapped = new HashMap<>();
+
+        public Reader(File iterationDirectory) throws IOException {
+            this.iterationDirectory = iterationDirectory;
+            File index = new File(iterationDirectory, INDEX);
+            /** an incomplete last record of a running simulation is ignored */
+            int size = (int) (index.length() / RECORD_LENGTH);
+            times = new int[size];
+            segments = new int[size];
+            offsets = new long[size];
+            lengths = new int[size];
+            try (DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(index.toPath())))) {
+                for (int count = 0; count < size; ++count) {
+                    times[count] = dataInputStream.readInt();
+                    segments[count] = dataInputStream.readInt();
+                    offsets[count] = dataInputStream.readLong();
+                    lengths[count] = dataInputStream.readInt();
+                }
+            } catch (EOFException eofException) {
+                throw new IOException("index modified while reading " + index, eofException);
+            }
+        }
+
+        /** @return number of frames */
+        public int size() {
+            return times.length;
+        }
+
+        /** @return recorded times of the frames in the order of recording */
+        public int[] times() {
+            return Arrays.copyOf(times, times.length);
+        }
+
+        /** @param index of frame
+         * @return bytes of frame
+         * @throws IOException */
+        public byte[] read(int index) throws IOException {
+            return read(index, lengths[index]);
+        }
+
+        /** @param index of frame
+         * @param length maximum number of bytes
+         * @return first bytes of frame, for instance the header
+         * @throws IOException */
+        public synchronized byte[] read(int index, int length) throws IOException {
+            ByteBuffer byteBuffer = mapped.get(segments[index]);
+            if (Objects.isNull(byteBuffer)) {
+                byteBuffer = map(segments[index]);
+                mapped.put(segments[index], byteBuffer);
+            }
+            byte[] bytes = new byte[Math.min(length, lengths[index])];
+            byteBuffer.position(Math.toIntExact(offsets[index]));
+            byteBuffer.get(bytes);
+            return bytes;
+        }
+
+        /** maps the part of the segment which is referenced by the index, a running simulation may append further frames */
+        private ByteBuffer map(int segment) throws IOException {
+            long size = 0;
+            for (int count = 0; count < segments.length; ++count)
+                if (segments[count] == segment)
+                    size = Math.max(size, offsets[count] + lengths[count]);
+            try (FileChannel fileChannel = FileChannel.open(segment(iterationDirectory, segment).toPath(), StandardOpenOption.READ)) {
+                return fileChannel.map(MapMode.READ_ONLY, 0, size);
+            }
+        }
+
+        /** releases the mapped segments, the memory is unmapped by the garbage collector */
+        @Override // from AutoCloseable
+        public synchronized void close() {
+            mapped.clear();
+        }
+    }
+}
@@ -1,8 +1,6 @@
 /* amodeus - Copyright (c) 2018, ETH Zurich, Institute for Dynamic Systems and Control */
 package amodeus.amodeus.net;
 
-import amodeus.amodeus.util.net.ObjectHandler;
-
 public enum SimulationDistribution {
     ;
     // ---
@@ -10,17 +8,18 @@ public enum SimulationDistribution {
     public static void of(SimulationObject simulationObject, StorageUtils storageUtils) {
         SimulationObjects.sortVehiclesAccordingToIndex(simulationObject);
 
-        new StorageSubscriber(storageUtils).handle(simulationObject);
+        storageUtils.getStorageSubscriber().handle(simulationObject);
+        SimulationSubscribers.INSTANCE.handle(simulationObject);
 
         if (SimulationServer.INSTANCE.getWaitForClients()) { // <- server is
                                                              // running &&
                                                              // wait for
                                                              // clients is
                                                              // set
-            if (SimulationClientSet.INSTANCE.isEmpty())
+            if (!SimulationServer.INSTANCE.hasClients())
                 System.out.println("waiting for connections...");
             // block for connections
-            while (SimulationClientSet.INSTANCE.isEmpty())
+            while (!SimulationServer.INSTANCE.hasClients())
                 try {
                     Thread.sleep(300);
                 } catch (InterruptedException e) {
@@ -28,7 +27,6 @@ public enum SimulationDistribution {
                 }
         }
 
-        for (ObjectHandler objectHandler : SimulationClientSet.INSTANCE)
-            objectHandler.handle(simulationObject);
+        SimulationServer.INSTANCE.broadcast(simulationObject);
     }
 }
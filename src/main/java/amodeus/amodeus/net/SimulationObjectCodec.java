@@ -0,0 +1,446 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.net;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import amodeus.amodeus.dispatcher.core.RequestStatus;
+import amodeus.amodeus.dispatcher.core.RoboTaxiStatus;
+
+/** Compact binary format of {@link SimulationObject}s as an alternative to Java serialization.
+ *
+ * The vehicles and requests are stored column by column, i.e., first the indices of all vehicles, then
+ * all destinations, and so on. Integers are written as variable length zig-zag integers, statuses as one byte.
+ * Except for keyframes, every frame is delta-encoded against the previous frame: the link indices of a
+ * vehicle or request are stored as difference to the values of the same vehicle or request in the previous
+ * frame, which is zero most of the time and then takes a single byte. A delta frame only stores the columns of
+ * the vehicles and requests which changed since the previous frame, the others are marked in a bit mask and
+ * refer to the same instance as in the previous decoded frame.
+ *
+ * An instance either encodes or decodes a sequence of frames, as the previous frame is kept as reference.
+ * A delta frame can only be decoded after the frame preceding it, see {@link StorageSupplier}. */
+public class SimulationObjectCodec {
+    /** "AMOD" */
+    private static final int MAGIC = 0x414D4F44;
+    private static final byte VERSION = 2;
+    private static final byte KEYFRAME = 1;
+    /* package */ static final int HEADER_LENGTH = 6;
+    private static final byte STATUS_NULL = -1;
+    private static final RoboTaxiStatus[] ROBOTAXI_STATUS = RoboTaxiStatus.values();
+    private static final RequestStatus[] REQUEST_STATUS = RequestStatus.values();
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 60;
+
+    /** @param file
+     * @return true if the file starts with the header of the format
+     * @throws IOException */
+    public static boolean isEncoded(File file) throws IOException {
+        return isEncoded(header(file));
+    }
+
+    /** @param bytes of a frame, or at least its first {@link #HEADER_LENGTH} bytes
+     * @return true if bytes start with the header of the format */
+    public static boolean isEncoded(byte[] bytes) {
+        return HEADER_LENGTH <= bytes.length && readMagic(bytes) == MAGIC;
+    }
+
+    /** @param file in the format of {@link SimulationObjectCodec}
+     * @return true if the frame can be decoded without the previous frames
+     * @throws IOException */
+    public static boolean isKeyframe(File file) throws IOException {
+        return isKeyframe(header(file));
+    }
+
+    /** @param bytes of a frame in the format of {@link SimulationObjectCodec}, or at least its first {@link #HEADER_LENGTH} bytes
+     * @return true if the frame can be decoded without the previous frames */
+    public static boolean isKeyframe(byte[] bytes) {
+        return (bytes[5] & KEYFRAME) != 0;
+    }
+
+    /** @return first {@link #HEADER_LENGTH} bytes of file, or an empty array if the file is shorter */
+    /* package */ static byte[] header(File file) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            byte[] header = new byte[HEADER_LENGTH];
+            int length = 0;
+            for (int read = 0; length < HEADER_LENGTH && 0 <= read; length += Math.max(read, 0))
+                read = inputStream.read(header, length, HEADER_LENGTH - length);
+            return length == HEADER_LENGTH ? header : new byte[0];
+        }
+    }
+
+    private static int readMagic(byte[] header) {
+        return ((header[0] & 0xff) << 24) | ((header[1] & 0xff) << 16) | ((header[2] & 0xff) << 8) | (header[3] & 0xff);
+    }
+
+    // ---
+    private final int keyframeInterval;
+    /** reference values of the previous frame */
+    private Map<Integer, VehicleContainer> previousVehicles = Collections.emptyMap();
+    private Map<Integer, RequestContainer> previousRequests = Collections.emptyMap();
+    private SimulationObject previous = null;
+    private int sinceKeyframe = 0;
+
+    /** @param keyframeInterval number of frames after which the encoder writes a frame independent of the previous frames */
+    public SimulationObjectCodec(int keyframeInterval) {
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+    }
+
+    public SimulationObjectCodec() {
+        this(DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /** @param simulationObject
+     * @return binary representation of simulationObject, delta-encoded against the previously encoded frame */
+    public byte[] encode(SimulationObject simulationObject) throws IOException {
+        boolean keyframe = Objects.isNull(previous) || keyframeInterval <= sinceKeyframe //
+                || previous.iteration != simulationObject.iteration || simulationObject.now <= previous.now;
+        if (keyframe)
+            reset();
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(byteArrayOutputStream);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(keyframe ? KEYFRAME : 0);
+        writeVarInt(out, simulationObject.iteration);
+        writeVarLong(out, simulationObject.now);
+        writeVarInt(out, simulationObject.total_matchedRequests);
+        out.writeUTF(Objects.toString(simulationObject.infoLine, ""));
+        writeSerializable(out, simulationObject.serializable);
+        writeVehicles(out, simulationObject.vehicles, !keyframe);
+        writeRequests(out, simulationObject.requests, !keyframe);
+        out.flush();
+        remember(simulationObject);
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    /** @param bytes of a frame encoded with {@link #encode(SimulationObject)}
+     * @return decoded frame
+     * @throws IllegalStateException if bytes is a delta frame and no frame was decoded before */
+    public SimulationObject decode(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != MAGIC)
+            throw new IOException("not a simulation object frame");
+        byte version = in.readByte();
+        if (version != VERSION)
+            throw new IOException("unsupported version " + version);
+        boolean keyframe = (in.readByte() & KEYFRAME) != 0;
+        if (keyframe)
+            reset();
+        else if (Objects.isNull(previous))
+            throw new IllegalStateException("delta frame without previous frame");
+        SimulationObject simulationObject = new SimulationObject();
+        simulationObject.iteration = readVarInt(in);
+        simulationObject.now = readVarLong(in);
+        simulationObject.total_matchedRequests = readVarInt(in);
+        simulationObject.infoLine = in.readUTF();
+        simulationObject.serializable = readSerializable(in);
+        simulationObject.vehicles = readVehicles(in, !keyframe);
+        simulationObject.requests = readRequests(in, !keyframe);
+        remember(simulationObject);
+        return simulationObject;
+    }
+
+    private void reset() {
+        previousVehicles = Collections.emptyMap();
+        previousRequests = Collections.emptyMap();
+        sinceKeyframe = 0;
+    }
+
+    private void remember(SimulationObject simulationObject) {
+        previous = simulationObject;
+        ++sinceKeyframe;
+        previousVehicles = new HashMap<>();
+        if (Objects.nonNull(simulationObject.vehicles))
+            simulationObject.vehicles.forEach(vehicleContainer -> previousVehicles.put(vehicleContainer.vehicleIndex, vehicleContainer));
+        previousRequests = new HashMap<>();
+        if (Objects.nonNull(simulationObject.requests))
+            simulationObject.requests.forEach(requestContainer -> previousRequests.put(requestContainer.requestIndex, requestContainer));
+    }
+
+    // ---
+    private void writeVehicles(DataOutputStream out, List<VehicleContainer> all, boolean sparse) throws IOException {
+        writeVarInt(out, Objects.isNull(all) ? 0 : all.size() + 1);
+        if (Objects.isNull(all))
+            return;
+        int previousIndex = -1;
+        for (VehicleContainer vehicleContainer : all) {
+            writeVarInt(out, vehicleContainer.vehicleIndex - previousIndex);
+            previousIndex = vehicleContainer.vehicleIndex;
+        }
+        List<VehicleContainer> vehicles = all;
+        if (sparse) {
+            BitSet changed = new BitSet(all.size());
+            for (int i = 0; i < all.size(); ++i)
+                changed.set(i, !isUnchanged(all.get(i), previousVehicles.get(all.get(i).vehicleIndex)));
+            writeBitSet(out, changed, all.size());
+            vehicles = changed.stream().mapToObj(all::get).collect(Collectors.toList());
+        }
+        VehicleContainer[] references = vehicles.stream().map(vc -> previousVehicles.get(vc.vehicleIndex)).toArray(VehicleContainer[]::new);
+        for (int i = 0; i < vehicles.size(); ++i)
+            writeVarInt(out, vehicles.get(i).destinationLinkIndex - destination(references[i]));
+        for (VehicleContainer vehicleContainer : vehicles)
+            writeVarInt(out, vehicleContainer.linkTrace.length);
+        for (VehicleContainer vehicleContainer : vehicles)
+            writeVarInt(out, vehicleContainer.statii.length - vehicleContainer.linkTrace.length);
+        for (int i = 0; i < vehicles.size(); ++i) {
+            int reference = lastLink(references[i]);
+            for (int link : vehicles.get(i).linkTrace) {
+                writeVarInt(out, link - reference);
+                reference = link;
+            }
+        }
+        for (VehicleContainer vehicleContainer : vehicles)
+            for (RoboTaxiStatus status : vehicleContainer.statii)
+                out.writeByte(Objects.isNull(status) ? STATUS_NULL : status.ordinal());
+    }
+
+    private List<VehicleContainer> readVehicles(DataInputStream in, boolean sparse) throws IOException {
+        int total = readVarInt(in) - 1;
+        if (total < 0)
+            return null;
+        int[] indices = readIndices(in, total);
+        BitSet changed = sparse ? readBitSet(in, total) : null;
+        List<VehicleContainer> all = new ArrayList<>(total);
+        List<VehicleContainer> vehicles = sparse ? new ArrayList<>(changed.cardinality()) : all;
+        for (int i = 0; i < total; ++i)
+            if (sparse && !changed.get(i))
+                all.add(previousVehicles.get(indices[i]));
+            else {
+                VehicleContainer vehicleContainer = new VehicleContainer();
+                vehicleContainer.vehicleIndex = indices[i];
+                all.add(vehicleContainer);
+                if (sparse)
+                    vehicles.add(vehicleContainer);
+            }
+        int size = vehicles.size();
+        VehicleContainer[] references = vehicles.stream().map(vc -> previousVehicles.get(vc.vehicleIndex)).toArray(VehicleContainer[]::new);
+        for (int i = 0; i < size; ++i)
+            vehicles.get(i).destinationLinkIndex = destination(references[i]) + readVarInt(in);
+        for (VehicleContainer vehicleContainer : vehicles)
+            vehicleContainer.linkTrace = new int[readVarInt(in)];
+        for (VehicleContainer vehicleContainer : vehicles)
+            vehicleContainer.statii = new RoboTaxiStatus[vehicleContainer.linkTrace.length + readVarInt(in)];
+        for (int i = 0; i < size; ++i) {
+            int[] linkTrace = vehicles.get(i).linkTrace;
+            int reference = lastLink(references[i]);
+            for (int j = 0; j < linkTrace.length; ++j) {
+                linkTrace[j] = reference + readVarInt(in);
+                reference = linkTrace[j];
+            }
+        }
+        for (VehicleContainer vehicleContainer : vehicles)
+            for (int j = 0; j < vehicleContainer.statii.length; ++j) {
+                byte ordinal = in.readByte();
+                vehicleContainer.statii[j] = ordinal == STATUS_NULL ? null : ROBOTAXI_STATUS[ordinal];
+            }
+        return all;
+    }
+
+    private static boolean isUnchanged(VehicleContainer vehicleContainer, VehicleContainer reference) {
+        return Objects.nonNull(reference) //
+                && vehicleContainer.destinationLinkIndex == reference.destinationLinkIndex //
+                && Arrays.equals(vehicleContainer.linkTrace, reference.linkTrace) //
+                && Arrays.equals(vehicleContainer.statii, reference.statii);
+    }
+
+    private static int destination(VehicleContainer reference) {
+        return Objects.isNull(reference) ? VehicleContainer.LINK_UNSPECIFIED : reference.destinationLinkIndex;
+    }
+
+    private static int lastLink(VehicleContainer reference) {
+        return Objects.isNull(reference) || reference.linkTrace.length == 0 //
+                ? VehicleContainer.LINK_UNSPECIFIED
+                : reference.linkTrace[reference.linkTrace.length - 1];
+    }
+
+    // ---
+    private void writeRequests(DataOutputStream out, List<RequestContainer> all, boolean sparse) throws IOException {
+        writeVarInt(out, Objects.isNull(all) ? 0 : all.size() + 1);
+        if (Objects.isNull(all))
+            return;
+        int previousIndex = -1;
+        for (RequestContainer requestContainer : all) {
+            writeVarInt(out, requestContainer.requestIndex - previousIndex);
+            previousIndex = requestContainer.requestIndex;
+        }
+        List<RequestContainer> requests = all;
+        if (sparse) {
+            BitSet changed = new BitSet(all.size());
+            for (int i = 0; i < all.size(); ++i)
+                changed.set(i, !isUnchanged(all.get(i), previousRequests.get(all.get(i).requestIndex)));
+            writeBitSet(out, changed, all.size());
+            requests = changed.stream().mapToObj(all::get).collect(Collectors.toList());
+        }
+        RequestContainer[] references = requests.stream().map(rc -> previousRequests.get(rc.requestIndex)).toArray(RequestContainer[]::new);
+        for (int i = 0; i < requests.size(); ++i)
+            writeVarInt(out, requests.get(i).fromLinkIndex - (Objects.isNull(references[i]) ? -1 : references[i].fromLinkIndex));
+        for (int i = 0; i < requests.size(); ++i)
+            writeVarInt(out, requests.get(i).toLinkIndex - (Objects.isNull(references[i]) ? -1 : references[i].toLinkIndex));
+        for (int i = 0; i < requests.size(); ++i)
+            writeVarInt(out, requests.get(i).associatedVehicle - (Objects.isNull(references[i]) ? -1 : references[i].associatedVehicle));
+        for (int i = 0; i < requests.size(); ++i)
+            writeVarLong(out, Double.doubleToLongBits(requests.get(i).submissionTime) //
+                    ^ Double.doubleToLongBits(Objects.isNull(references[i]) ? -1 : references[i].submissionTime));
+        for (RequestContainer requestContainer : requests)
+            writeVarInt(out, statusMask(requestContainer.requestStatus));
+    }
+
+    private List<RequestContainer> readRequests(DataInputStream in, boolean sparse) throws IOException {
+        int total = readVarInt(in) - 1;
+        if (total < 0)
+            return null;
+        int[] indices = readIndices(in, total);
+        BitSet changed = sparse ? readBitSet(in, total) : null;
+        List<RequestContainer> all = new ArrayList<>(total);
+        List<RequestContainer> requests = sparse ? new ArrayList<>(changed.cardinality()) : all;
+        for (int i = 0; i < total; ++i)
+            if (sparse && !changed.get(i))
+                all.add(previousRequests.get(indices[i]));
+            else {
+                RequestContainer requestContainer = new RequestContainer();
+                requestContainer.requestIndex = indices[i];
+                all.add(requestContainer);
+                if (sparse)
+                    requests.add(requestContainer);
+            }
+        int size = requests.size();
+        RequestContainer[] references = requests.stream().map(rc -> previousRequests.get(rc.requestIndex)).toArray(RequestContainer[]::new);
+        for (int i = 0; i < size; ++i)
+            requests.get(i).fromLinkIndex = (Objects.isNull(references[i]) ? -1 : references[i].fromLinkIndex) + readVarInt(in);
+        for (int i = 0; i < size; ++i)
+            requests.get(i).toLinkIndex = (Objects.isNull(references[i]) ? -1 : references[i].toLinkIndex) + readVarInt(in);
+        for (int i = 0; i < size; ++i)
+            requests.get(i).associatedVehicle = (Objects.isNull(references[i]) ? -1 : references[i].associatedVehicle) + readVarInt(in);
+        for (int i = 0; i < size; ++i)
+            requests.get(i).submissionTime = Double.longBitsToDouble(readVarLong(in) //
+                    ^ Double.doubleToLongBits(Objects.isNull(references[i]) ? -1 : references[i].submissionTime));
+        for (RequestContainer requestContainer : requests)
+            requestContainer.requestStatus = statusSet(readVarInt(in));
+        return all;
+    }
+
+    private static boolean isUnchanged(RequestContainer requestContainer, RequestContainer reference) {
+        return Objects.nonNull(reference) //
+                && requestContainer.fromLinkIndex == reference.fromLinkIndex //
+                && requestContainer.toLinkIndex == reference.toLinkIndex //
+                && requestContainer.associatedVehicle == reference.associatedVehicle //
+                && Double.compare(requestContainer.submissionTime, reference.submissionTime) == 0 //
+                && Objects.equals(requestContainer.requestStatus, reference.requestStatus);
+    }
+
+    // ---
+    private static int[] readIndices(DataInputStream in, int size) throws IOException {
+        int[] indices = new int[size];
+        int previousIndex = -1;
+        for (int i = 0; i < size; ++i) {
+            indices[i] = previousIndex + readVarInt(in);
+            previousIndex = indices[i];
+        }
+        return indices;
+    }
+
+    /** marks the entries of a delta frame which differ from the previous frame, one bit per entry */
+    private static void writeBitSet(DataOutputStream out, BitSet bitSet, int size) throws IOException {
+        out.write(Arrays.copyOf(bitSet.toByteArray(), (size + 7) / 8));
+    }
+
+    private static BitSet readBitSet(DataInputStream in, int size) throws IOException {
+        byte[] bytes = new byte[(size + 7) / 8];
+        in.readFully(bytes);
+        return BitSet.valueOf(bytes);
+    }
+
+    /** @return bit mask of the statuses shifted by one, 0 for null */
+    private static int statusMask(Set<RequestStatus> statuses) {
+        if (Objects.isNull(statuses))
+            return 0;
+        int mask = 0;
+        for (RequestStatus status : statuses)
+            mask |= 1 << status.ordinal();
+        return (mask << 1) | 1;
+    }
+
+    private static Set<RequestStatus> statusSet(int mask) {
+        if (mask == 0)
+            return null;
+        Set<RequestStatus> statuses = EnumSet.noneOf(RequestStatus.class);
+        for (RequestStatus status : REQUEST_STATUS)
+            if ((mask >> (status.ordinal() + 1) & 1) != 0)
+                statuses.add(status);
+        return statuses;
+    }
+
+    // ---
+    private static void writeSerializable(DataOutputStream out, Serializable serializable) throws IOException {
+        if (Objects.isNull(serializable)) {
+            writeVarInt(out, 0);
+            return;
+        }
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream)) {
+            objectOutputStream.writeObject(serializable);
+        }
+        writeVarInt(out, byteArrayOutputStream.size() + 1);
+        byteArrayOutputStream.writeTo(out);
+    }
+
+    private static Serializable readSerializable(DataInputStream in) throws IOException {
+        int length = readVarInt(in) - 1;
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (Serializable) objectInputStream.readObject();
+        } catch (ClassNotFoundException exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    /** zig-zag encoding, i.e., small absolute values take one byte */
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        writeVarLong(out, value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        return (int) readVarLong(in);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long zigzag = 0;
+        for (int shift = 0;; shift += 7) {
+            byte next = in.readByte();
+            zigzag |= (long) (next & 0x7F) << shift;
+            if (0 <= next)
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.net;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import amodeus.amodeus.dispatcher.core.RequestStatus;
+import amodeus.amodeus.dispatcher.core.RoboTaxiStatus;
+
+/** publishes the {@link SimulationObject}s of a dispatcher, i.e., stores them and sends them to the
+ * clients of the {@link SimulationServer}, see {@link SimulationDistribution}. The encoding and I/O
+ * happens on a writer thread which takes the {@link SimulationObject}s from a bounded queue, such that
+ * the simulation only pays for compiling the {@link SimulationObject}.
+ *
+ * If the queue is full, the {@link OverflowPolicy} decides whether the simulation waits, the new
+ * {@link SimulationObject} is dropped, or it is merged with the last pending {@link SimulationObject}.
+ * A capacity of 0 publishes synchronously on the calling thread. */
+public class SimulationPublisher implements AutoCloseable {
+    public enum OverflowPolicy {
+        /** the simulation waits until the writer thread catches up, no {@link SimulationObject} is lost */
+        BLOCK,
+        /** the new {@link SimulationObject} is discarded */
+        DROP,
+        /** the new {@link SimulationObject} replaces the last pending one, the link traces and
+         * request statuses of both are merged such that no traversed link is lost */
+        COALESCE,;
+    }
+
+    private static final Frame END = new Frame(null);
+    // ---
+    private final StorageUtils storageUtils;
+    private final OverflowPolicy overflowPolicy;
+    /** null if the {@link SimulationObject}s are published synchronously */
+    private final BlockingDeque<Frame> queue;
+    private final Thread writer;
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    // ---
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong latencySum = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+    private final AtomicLong maxDepth = new AtomicLong();
+
+    /** @param storageUtils
+     * @param capacity of queue, 0 for synchronous publishing
+     * @param overflowPolicy */
+    public SimulationPublisher(StorageUtils storageUtils, int capacity, OverflowPolicy overflowPolicy) {
+        this.storageUtils = Objects.requireNonNull(storageUtils);
+        this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+        if (capacity <= 0) {
+            queue = null;
+            writer = null;
+        } else {
+            queue = new LinkedBlockingDeque<>(capacity);
+            writer = new Thread(this::run, "simulation publisher");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    /** @param simulationObject which is not modified by the caller afterwards
+     * @throws RuntimeException if publishing a previous {@link SimulationObject} failed */
+    public void publish(SimulationObject simulationObject) {
+        rethrow();
+        if (Objects.isNull(queue)) {
+            SimulationDistribution.of(simulationObject, storageUtils);
+            published.incrementAndGet();
+            return;
+        }
+        Frame frame = new Frame(simulationObject);
+        if (!queue.offerLast(frame))
+            switch (overflowPolicy) {
+            case BLOCK:
+                put(frame);
+                break;
+            case DROP:
+                dropped.incrementAndGet();
+                return;
+            case COALESCE:
+                /** the simulation thread is the only producer, hence there is space after taking the last frame */
+                Frame pending = queue.pollLast();
+                if (Objects.nonNull(pending)) {
+                    coalesce(pending.simulationObject, simulationObject);
+                    coalesced.incrementAndGet();
+                }
+                put(Objects.isNull(pending) ? frame : new Frame(simulationObject, pending.enqueued));
+                break;
+            }
+        maxDepth.accumulateAndGet(queue.size(), Math::max);
+    }
+
+    /** waits until all pending {@link SimulationObject}s are published, stops the writer thread and
+     * closes the recorded files, see {@link StorageUtils#closeStorageSubscriber()}
+     *
+     * @throws RuntimeException if publishing a {@link SimulationObject} failed */
+    @Override // from AutoCloseable
+    public void close() {
+        if (Objects.nonNull(writer) && writer.isAlive()) {
+            put(END);
+            try {
+                writer.join();
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        System.out.println("simulation publisher: " + this);
+        try {
+            rethrow();
+        } finally {
+            storageUtils.closeStorageSubscriber();
+        }
+    }
+
+    private void put(Frame frame) {
+        try {
+            queue.putLast(frame);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(interruptedException);
+        }
+    }
+
+    private void rethrow() {
+        RuntimeException runtimeException = failure.get();
+        if (Objects.nonNull(runtimeException))
+            throw runtimeException;
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Frame frame = queue.takeFirst();
+                if (frame == END)
+                    return;
+                long latency = System.nanoTime() - frame.enqueued;
+                latencySum.addAndGet(latency);
+                maxLatency.accumulateAndGet(latency, Math::max);
+                SimulationDistribution.of(frame.simulationObject, storageUtils);
+                published.incrementAndGet();
+            }
+        } catch (InterruptedException interruptedException) {
+            // ---
+        } catch (Throwable throwable) {
+            /** errors are passed on as well, otherwise the simulation would wait for the writer forever */
+            failure.set(throwable instanceof RuntimeException ? (RuntimeException) throwable : new RuntimeException(throwable));
+            /** unblocks the simulation, all further frames are rejected by rethrow() */
+            queue.clear();
+        }
+    }
+
+    /** merges older into newer, which replaces older
+     *
+     * @param older
+     * @param newer */
+    /* package */ static void coalesce(SimulationObject older, SimulationObject newer) {
+        Map<Integer, VehicleContainer> vehicles = new LinkedHashMap<>();
+        older.vehicles.forEach(vehicleContainer -> vehicles.put(vehicleContainer.vehicleIndex, vehicleContainer));
+        for (VehicleContainer vehicleContainer : newer.vehicles) {
+            VehicleContainer previous = vehicles.get(vehicleContainer.vehicleIndex);
+            if (Objects.nonNull(previous)) {
+                int length = previous.linkTrace.length;
+                vehicleContainer.linkTrace = concat(previous.linkTrace, vehicleContainer.linkTrace);
+                /** the status appended to the trace of older is superseded by the statuses of newer */
+                RoboTaxiStatus[] statii = Arrays.copyOf(previous.statii, Math.min(length, previous.statii.length) + vehicleContainer.statii.length);
+                System.arraycopy(vehicleContainer.statii, 0, statii, statii.length - vehicleContainer.statii.length, vehicleContainer.statii.length);
+                vehicleContainer.statii = statii;
+            }
+        }
+        Map<Integer, RequestContainer> requests = new LinkedHashMap<>();
+        older.requests.forEach(requestContainer -> requests.put(requestContainer.requestIndex, requestContainer));
+        for (RequestContainer requestContainer : newer.requests) {
+            RequestContainer previous = requests.get(requestContainer.requestIndex);
+            if (Objects.nonNull(previous) && Objects.nonNull(previous.requestStatus) && Objects.nonNull(requestContainer.requestStatus)) {
+                EnumSet<RequestStatus> requestStatus = EnumSet.noneOf(RequestStatus.class);
+                requestStatus.addAll(previous.requestStatus);
+                requestStatus.addAll(requestContainer.requestStatus);
+                requestContainer.requestStatus = requestStatus;
+            }
+            requests.put(requestContainer.requestIndex, requestContainer);
+        }
+        /** requests which only appear in older, e.g., with status dropoff, are kept */
+        newer.requests.clear();
+        newer.requests.addAll(requests.values());
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        int[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    /** @return number of published {@link SimulationObject}s */
+    public long getPublished() {
+        return published.get();
+    }
+
+    /** @return number of {@link SimulationObject}s discarded with {@link OverflowPolicy#DROP} */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /** @return number of {@link SimulationObject}s merged into a later one with {@link OverflowPolicy#COALESCE} */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /** @return mean time in seconds a {@link SimulationObject} waits in the queue */
+    public double getMeanQueueLatency() {
+        long count = published.get();
+        return Objects.isNull(queue) || count == 0 ? 0.0 : latencySum.get() * 1e-9 / count;
+    }
+
+    /** @return maximum time in seconds a {@link SimulationObject} waited in the queue */
+    public double getMaxQueueLatency() {
+        return maxLatency.get() * 1e-9;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("published=%d dropped=%d coalesced=%d queueDepth(max=%d) queueLatency(mean=%.6fs, max=%.6fs)", //
+                getPublished(), getDropped(), getCoalesced(), maxDepth.get(), getMeanQueueLatency(), getMaxQueueLatency());
+    }
+
+    private static class Frame {
+        private final SimulationObject simulationObject;
+        private final long enqueued;
+
+        private Frame(SimulationObject simulationObject) {
+            this(simulationObject, System.nanoTime());
+        }
+
+        private Frame(SimulationObject simulationObject, long enqueued) {
+            this.simulationObject = simulationObject;
+            this.enqueued = enqueued;
+        }
+    }
+}
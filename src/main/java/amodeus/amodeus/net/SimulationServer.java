@@ -1,31 +1,252 @@
 /* amodeus - Copyright (c) 2018, ETH Zurich, Institute for Dynamic Systems and Control */
 package amodeus.amodeus.net;
 
-import java.net.Socket;
-import java.util.Timer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
-import amodeus.amodeus.util.net.AbstractServer;
-import amodeus.amodeus.util.net.ObjectSocket;
-
-public class SimulationServer extends AbstractServer {
+/** sends the {@link SimulationObject}s to the connected viewers, e.g., {@link amodeus.amodeus.util.net.ObjectClient}.
+ *
+ * The connections are served by a single thread with a {@link Selector}. Every {@link SimulationObject}
+ * is serialized once into a buffer that is shared by all clients. Every client has a bounded queue of
+ * frames, if a client cannot keep up, its oldest pending frame is dropped. The caller of
+ * {@link #broadcast(SimulationObject)} never waits for a client.
+ *
+ * The stream is compatible with {@link java.io.ObjectInputStream}: the header of the stream is sent upon
+ * connection, and every frame starts with a reset of the stream, such that frames do not refer to previous
+ * frames. Hence, frames can be dropped, and neither side retains the objects sent before. */
+public class SimulationServer {
     public static final int OBJECT_SERVER_PORT = 9380;
+    /** maximum number of frames pending for a client */
+    private static final int CLIENT_QUEUE = 4;
+    private static final int READ_BUFFER = 1024;
 
     public static final SimulationServer INSTANCE = new SimulationServer();
 
-    @Override
-    protected int getPort() {
-        return OBJECT_SERVER_PORT;
+    private final CopyOnWriteArrayList<Client> clients = new CopyOnWriteArrayList<>();
+    private final FrameEncoder frameEncoder = new FrameEncoder();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean isRunning = false;
+    private volatile Selector selector = null;
+    private boolean waitForClients = true;
+
+    private SimulationServer() {
+        // ---
+    }
+
+    public final void startAcceptingNonBlocking() {
+        isRunning = true;
+        Thread thread = new Thread(this::run, "simulation server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public final void setWaitForClients(boolean waitForClients) {
+        this.waitForClients = waitForClients;
+    }
+
+    public final boolean getWaitForClients() {
+        return isRunning && waitForClients;
+    }
+
+    /** @return true if at least one viewer is connected */
+    public boolean hasClients() {
+        return !clients.isEmpty();
+    }
+
+    /** @return number of frames dropped because a client did not keep up */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /** closes server socket and all connections */
+    public final void stopAccepting() {
+        isRunning = false;
+        Selector selector = this.selector;
+        if (Objects.nonNull(selector))
+            selector.wakeup();
+        System.out.println("server closed.");
+    }
+
+    /** queues simulationObject for all connected clients, the object is serialized once if there is a client
+     *
+     * @param simulationObject */
+    public void broadcast(SimulationObject simulationObject) {
+        if (clients.isEmpty())
+            return;
+        ByteBuffer frame;
+        try {
+            frame = frameEncoder.encode(simulationObject);
+        } catch (IOException ioException) {
+            ioException.printStackTrace();
+            return;
+        }
+        for (Client client : clients)
+            client.offer(frame.duplicate());
+        Selector selector = this.selector;
+        if (Objects.nonNull(selector))
+            selector.wakeup();
+    }
+
+    private void run() {
+        try (Selector selector = Selector.open(); ServerSocketChannel serverSocketChannel = ServerSocketChannel.open()) {
+            serverSocketChannel.bind(new InetSocketAddress(OBJECT_SERVER_PORT));
+            serverSocketChannel.configureBlocking(false);
+            serverSocketChannel.register(selector, SelectionKey.OP_ACCEPT);
+            this.selector = selector;
+            System.out.println("server available...");
+            while (isRunning) {
+                for (Client client : clients)
+                    client.updateInterest();
+                selector.select();
+                Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                while (iterator.hasNext()) {
+                    SelectionKey selectionKey = iterator.next();
+                    iterator.remove();
+                    if (!selectionKey.isValid())
+                        continue;
+                    if (selectionKey.isAcceptable())
+                        accept(serverSocketChannel.accept(), selector);
+                    else
+                        ((Client) selectionKey.attachment()).serve(selectionKey);
+                }
+            }
+        } catch (Exception exception) {
+            exception.printStackTrace();
+        } finally {
+            selector = null;
+            clients.forEach(Client::close);
+        }
     }
 
-    @Override
-    protected void handleConnection(Socket socket, Timer timer) {
-        ObjectSocket os = new ObjectSocket(socket) {
-            @Override
-            public void close() throws Exception {
-                super.close();
-                SimulationClientSet.INSTANCE.remove(this);
+    private void accept(SocketChannel socketChannel, Selector selector) throws IOException {
+        if (Objects.isNull(socketChannel))
+            return;
+        socketChannel.configureBlocking(false);
+        Client client = new Client(socketChannel, frameEncoder.header());
+        client.selectionKey = socketChannel.register(selector, SelectionKey.OP_READ | SelectionKey.OP_WRITE, client);
+        clients.add(client);
+    }
+
+    /** serializes frames into a reused buffer */
+    private static class FrameEncoder {
+        private final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        private final ObjectOutputStream objectOutputStream;
+        private final byte[] header;
+
+        private FrameEncoder() {
+            try {
+                objectOutputStream = new ObjectOutputStream(byteArrayOutputStream);
+                objectOutputStream.flush();
+            } catch (IOException ioException) {
+                throw new RuntimeException(ioException);
+            }
+            header = byteArrayOutputStream.toByteArray();
+        }
+
+        /** @return stream header that precedes the first frame of every connection */
+        private ByteBuffer header() {
+            return ByteBuffer.wrap(header).asReadOnlyBuffer();
+        }
+
+        private synchronized ByteBuffer encode(SimulationObject simulationObject) throws IOException {
+            byteArrayOutputStream.reset();
+            /** clears the back references, and makes the receiving stream do the same */
+            objectOutputStream.reset();
+            objectOutputStream.writeObject(simulationObject);
+            objectOutputStream.flush();
+            return ByteBuffer.wrap(byteArrayOutputStream.toByteArray()).asReadOnlyBuffer();
+        }
+    }
+
+    private class Client {
+        private final SocketChannel socketChannel;
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER);
+        /** frames which are not started yet */
+        private final Deque<ByteBuffer> pending = new ArrayDeque<>();
+        /** frame which is partially written, and therefore must not be dropped */
+        private ByteBuffer current;
+        private SelectionKey selectionKey;
+
+        private Client(SocketChannel socketChannel, ByteBuffer header) {
+            this.socketChannel = socketChannel;
+            current = header;
+        }
+
+        private synchronized void offer(ByteBuffer frame) {
+            if (pending.size() == CLIENT_QUEUE) {
+                pending.pollFirst();
+                dropped.incrementAndGet();
+            }
+            pending.addLast(frame);
+        }
+
+        private synchronized boolean hasData() {
+            return Objects.nonNull(current) || !pending.isEmpty();
+        }
+
+        private void updateInterest() {
+            if (selectionKey.isValid())
+                selectionKey.interestOps(hasData() ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+
+        private void serve(SelectionKey selectionKey) {
+            try {
+                if (selectionKey.isReadable()) {
+                    /** the clients do not send data except the header of their stream, which is discarded */
+                    readBuffer.clear();
+                    if (socketChannel.read(readBuffer) < 0) {
+                        System.out.println("client has disconnected");
+                        close();
+                        return;
+                    }
+                }
+                if (selectionKey.isValid() && selectionKey.isWritable())
+                    write();
+            } catch (IOException ioException) {
+                System.out.println("unsubscribe: " + ioException.getMessage());
+                close();
+            }
+        }
+
+        private void write() throws IOException {
+            while (true) {
+                ByteBuffer byteBuffer;
+                synchronized (this) {
+                    if (Objects.isNull(current))
+                        current = pending.pollFirst();
+                    byteBuffer = current;
+                }
+                if (Objects.isNull(byteBuffer))
+                    return;
+                socketChannel.write(byteBuffer);
+                if (byteBuffer.hasRemaining())
+                    return; // socket buffer is full
+                synchronized (this) {
+                    current = null;
+                }
+            }
+        }
+
+        private void close() {
+            clients.remove(this);
+            try {
+                socketChannel.close();
+            } catch (IOException ioException) {
+                ioException.printStackTrace();
             }
-        };
-        SimulationClientSet.INSTANCE.add(os);
+        }
     }
 }
@@ -0,0 +1,32 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.net;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import amodeus.amodeus.util.net.ObjectHandler;
+
+/** {@link ObjectHandler}s in the process of the simulation which receive every published {@link SimulationObject}
+ * after it is recorded, see {@link SimulationDistribution}, for instance a live analysis.
+ * 
+ * The {@link SimulationObject}s are handed over on the thread of the {@link SimulationPublisher} and must
+ * not be modified. When the simulation of an iteration ends, all {@link SimulationObject}s are handled. */
+public enum SimulationSubscribers {
+    INSTANCE;
+
+    private final List<ObjectHandler> objectHandlers = new CopyOnWriteArrayList<>();
+
+    /** @param objectHandler to receive all following {@link SimulationObject}s */
+    public void add(ObjectHandler objectHandler) {
+        objectHandlers.add(objectHandler);
+    }
+
+    public void remove(ObjectHandler objectHandler) {
+        objectHandlers.remove(objectHandler);
+    }
+
+    /* package */ void handle(SimulationObject simulationObject) {
+        for (ObjectHandler objectHandler : objectHandlers)
+            objectHandler.handle(simulationObject);
+    }
+}
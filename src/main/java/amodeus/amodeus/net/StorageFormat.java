@@ -0,0 +1,11 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.net;
+
+/** format of the {@link SimulationObject}s stored during the simulation, set with the
+ * dispatcher parameter storageFormat. {@link StorageSupplier} reads both formats. */
+public enum StorageFormat {
+    /** every {@link SimulationObject} is written with Java serialization */
+    SERIALIZED,
+    /** {@link SimulationObject}s are written with the {@link SimulationObjectCodec} */
+    COLUMNAR,;
+}
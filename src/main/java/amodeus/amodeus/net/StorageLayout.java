@@ -0,0 +1,14 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.net;
+
+/** arrangement of the recorded {@link SimulationObject}s on disk, set with the dispatcher
+ * parameter storageLayout. {@link StorageUtils} reads iterations in both layouts. */
+public enum StorageLayout {
+    /** one file per {@link SimulationObject} in a folder per 1000 seconds */
+    FILES,
+    /** {@link SimulationObject}s are appended to a few segment files per iteration, see {@link SegmentLog} */
+    SEGMENTS,
+    /** {@link SimulationObject}s are not recorded, but still sent to the viewers and the
+     * {@link SimulationSubscribers}, e.g., for a live analysis */
+    NONE,;
+}
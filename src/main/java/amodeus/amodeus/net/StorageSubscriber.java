@@ -2,29 +2,117 @@
 package amodeus.amodeus.net;
 
 import java.io.File;
+import java.nio.file.Files;
 import java.util.Objects;
+import java.util.function.IntFunction;
 
 import amodeus.amodeus.util.net.ObjectHandler;
 import ch.ethz.idsc.tensor.io.Export;
+import ch.ethz.idsc.tensor.io.ObjectFormat;
 
-public class StorageSubscriber implements ObjectHandler {
+/** records the {@link SimulationObject}s, and if a coarse period is set in {@link StorageUtils},
+ * additionally every first {@link SimulationObject} of a coarse period as keyframe in the coarse stream.
+ * The subscriber is closed at the end of the simulation, see {@link StorageUtils#closeStorageSubscriber()}. */
+public class StorageSubscriber implements ObjectHandler, AutoCloseable {
 
     private final StorageUtils storageUtils;
+    private final Recording recording;
+    /** null unless the coarse period is positive */
+    private final Recording coarseRecording;
+    private int coarseIteration = -1;
+    private long nextCoarse = 0;
 
     public StorageSubscriber(StorageUtils storageUtils) {
         this.storageUtils = Objects.requireNonNull(storageUtils);
+        recording = new Recording(storageUtils::getIterationDirectory, storageUtils.getKeyframeInterval());
+        /** every frame of the coarse stream is a keyframe */
+        coarseRecording = 0 < storageUtils.getCoarsePeriod() //
+                ? new Recording(storageUtils::getCoarseIterationDirectory, 1)
+                : null;
     }
 
     @Override
     public void handle(Object object) {
-        File file = null;
+        SimulationObject simulationObject = (SimulationObject) object;
+        recording.handle(simulationObject);
+        if (Objects.nonNull(coarseRecording)) {
+            if (simulationObject.iteration != coarseIteration) {
+                coarseIteration = simulationObject.iteration;
+                nextCoarse = 0;
+            }
+            if (nextCoarse <= simulationObject.now) {
+                long coarsePeriod = storageUtils.getCoarsePeriod();
+                nextCoarse = (simulationObject.now / coarsePeriod + 1) * coarsePeriod;
+                coarseRecording.handle(simulationObject);
+            }
+        }
+    }
+
+    /** closes the files which remain open between the frames, i.e., the log of the {@link StorageLayout} segments */
+    @Override // from AutoCloseable
+    public void close() {
         try {
-            SimulationObject simulationObject = (SimulationObject) object;
-            file = storageUtils.getFileForStorageOf(simulationObject);
-            Export.object(file, simulationObject);
-        } catch (Exception exception) {
-            exception.printStackTrace();
-            throw new RuntimeException(file.getAbsolutePath());
+            recording.close();
+        } finally {
+            if (Objects.nonNull(coarseRecording))
+                coarseRecording.close();
+        }
+    }
+
+    /** frames of one directory tree in the {@link StorageFormat} and {@link StorageLayout} of {@link StorageUtils} */
+    private class Recording {
+        private final IntFunction<File> iterationDirectory;
+        /** null unless the {@link StorageFormat} is columnar */
+        private final SimulationObjectCodec codec;
+        /** null unless the {@link StorageLayout} is segments */
+        private final SegmentLog.Writer segmentLog;
+        private int segmentIteration = -1;
+        private File segmentDirectory = null;
+
+        private Recording(IntFunction<File> iterationDirectory, int keyframeInterval) {
+            this.iterationDirectory = iterationDirectory;
+            codec = storageUtils.getStorageFormat().equals(StorageFormat.COLUMNAR) //
+                    ? new SimulationObjectCodec(keyframeInterval)
+                    : null;
+            segmentLog = storageUtils.getStorageLayout().equals(StorageLayout.SEGMENTS) //
+                    ? new SegmentLog.Writer()
+                    : null;
+        }
+
+        private void handle(SimulationObject simulationObject) {
+            if (storageUtils.getStorageLayout().equals(StorageLayout.NONE))
+                return;
+            File file = null;
+            try {
+                if (Objects.nonNull(segmentLog)) {
+                    if (simulationObject.iteration != segmentIteration) {
+                        segmentIteration = simulationObject.iteration;
+                        segmentDirectory = iterationDirectory.apply(segmentIteration);
+                    }
+                    file = segmentDirectory;
+                    segmentLog.append(segmentDirectory, simulationObject.now, //
+                            Objects.isNull(codec) ? ObjectFormat.of(simulationObject) : codec.encode(simulationObject));
+                    return;
+                }
+                file = storageUtils.getFileForStorageOf(iterationDirectory.apply(simulationObject.iteration), simulationObject);
+                if (Objects.isNull(codec))
+                    Export.object(file, simulationObject);
+                else
+                    Files.write(file.toPath(), codec.encode(simulationObject));
+            } catch (Exception exception) {
+                exception.printStackTrace();
+                throw new RuntimeException(Objects.isNull(file) ? "simulation object storage" : file.getAbsolutePath());
+            }
+        }
+
+        private void close() {
+            if (Objects.nonNull(segmentLog))
+                try {
+                    segmentLog.close();
+                } catch (Exception exception) {
+                    exception.printStackTrace();
+                    throw new RuntimeException(Objects.isNull(segmentDirectory) ? "simulation object storage" : segmentDirectory.getAbsolutePath());
+                }
         }
     }
 }
@@ -2,38 +2,205 @@
 package amodeus.amodeus.net;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import ch.ethz.idsc.tensor.io.Import;
+import ch.ethz.idsc.tensor.io.ObjectFormat;
 
+/** provides the {@link SimulationObject}s of an iteration in either {@link StorageFormat} and
+ * {@link StorageLayout}. Frames in the columnar format are decoded starting from the last keyframe,
+ * consecutive access in ascending order only decodes every frame once.
+ *
+ * The most recently used {@link SimulationObject}s are cached, and after every access the next frames
+ * in the direction of playback are decoded on a background thread. Hence, the returned
+ * {@link SimulationObject}s are shared and must not be modified by the caller. */
 public class StorageSupplier {
+    private static final int CACHE_SIZE = 32;
+    private static final int PREFETCH = 8;
+    /** shared by all instances, as typically one iteration is played back at a time */
+    private static final ExecutorService PREFETCHER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "storage prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    @SuppressWarnings("unused")
-    private final NavigableMap<Integer, File> navigableMap;
     private final List<File> ordered;
+    /** null unless the iteration is stored in the layout {@link StorageLayout#SEGMENTS} */
+    private final SegmentLog.Reader segmentLog;
     private final int intervalEstimate;
+    /** state of the sequential decoding of frames in the columnar format */
+    private SimulationObjectCodec codec = null;
+    private int decoded = -1;
+    // ---
+    private final Map<Integer, SimulationObject> cache = new LinkedHashMap<Integer, SimulationObject>(2 * CACHE_SIZE, 0.75f, true) {
+        @Override // from LinkedHashMap
+        protected boolean removeEldestEntry(Map.Entry<Integer, SimulationObject> eldest) {
+            return CACHE_SIZE < size();
+        }
+    };
+    private final AtomicInteger lastRequested = new AtomicInteger(-1);
+    /** incremented with every access, outdated prefetching stops */
+    private final AtomicInteger generation = new AtomicInteger();
 
     public StorageSupplier(NavigableMap<Integer, File> navigableMap) {
-        this.navigableMap = navigableMap;
         ordered = new ArrayList<>(navigableMap.values());
+        segmentLog = null;
         List<Integer> list = navigableMap.keySet().stream().limit(2).collect(Collectors.toList());
         // typically the list == [10, 20] and therefore the 20 - 10 == 10
         intervalEstimate = 2 <= list.size() ? list.get(1) - list.get(0) : 10;
     }
 
+    /** @param segmentLog of an iteration stored in the layout {@link StorageLayout#SEGMENTS} */
+    public StorageSupplier(SegmentLog.Reader segmentLog) {
+        ordered = Collections.emptyList();
+        this.segmentLog = segmentLog;
+        int[] times = segmentLog.times();
+        intervalEstimate = 2 <= times.length ? times[1] - times[0] : 10;
+    }
+
     /** @param index
      * @return
      * @throws Exception if anything goes wrong, for instance file not found,
      *             or object cannot be cast to SimulationObject */
     public SimulationObject getSimulationObject(int index) throws Exception {
-        return Import.object(ordered.get(index));
+        SimulationObject simulationObject = cached(index);
+        if (Objects.isNull(simulationObject))
+            simulationObject = load(index);
+        prefetch(index);
+        return simulationObject;
+    }
+
+    private synchronized SimulationObject load(int index) throws Exception {
+        SimulationObject simulationObject = cached(index); // may have been prefetched in the meantime
+        if (Objects.nonNull(simulationObject))
+            return simulationObject;
+        if (SimulationObjectCodec.isEncoded(header(index)))
+            return decode(index);
+        simulationObject = Objects.isNull(segmentLog) //
+                ? Import.object(ordered.get(index))
+                : ObjectFormat.parse(segmentLog.read(index));
+        cache(index, simulationObject);
+        return simulationObject;
+    }
+
+    /** @return frame with given index, all frames decoded on the way are cached */
+    private SimulationObject decode(int index) throws Exception {
+        int start = index;
+        if (Objects.isNull(codec) || index != decoded + 1) {
+            while (0 < start && !SimulationObjectCodec.isKeyframe(header(start)))
+                --start;
+            codec = new SimulationObjectCodec();
+        }
+        SimulationObject simulationObject = null;
+        for (int count = start; count <= index; ++count) {
+            simulationObject = codec.decode(bytes(count));
+            cache(count, simulationObject);
+        }
+        decoded = index;
+        return simulationObject;
+    }
+
+    /** decodes a range of frames independently of the cache and of the sequential decoding of this supplier,
+     * hence several ranges may be decoded in parallel. Delta frames are decoded starting from the preceding keyframe,
+     * i.e., a range that starts with a keyframe is decoded without overhead.
+     * 
+     * @param from index of the first frame, inclusive
+     * @param to index of the last frame, exclusive
+     * @return {@link List} of the frames from to to
+     * @throws Exception if a frame cannot be read or decoded */
+    public List<SimulationObject> getSimulationObjects(int from, int to) throws Exception {
+        List<SimulationObject> list = new ArrayList<>(to - from);
+        SimulationObjectCodec codec = null;
+        for (int index = from; index < to; ++index) {
+            byte[] bytes = bytes(index);
+            if (!SimulationObjectCodec.isEncoded(bytes))
+                list.add(ObjectFormat.parse(bytes));
+            else {
+                if (Objects.isNull(codec)) {
+                    codec = new SimulationObjectCodec();
+                    int start = index;
+                    while (0 < start && !SimulationObjectCodec.isKeyframe(header(start)))
+                        --start;
+                    for (int count = start; count < index; ++count)
+                        codec.decode(bytes(count));
+                }
+                list.add(codec.decode(bytes));
+            }
+        }
+        return list;
+    }
+
+    /** loads the next frames after index in the direction of the previous access on the background thread */
+    private void prefetch(int index) {
+        int direction = index < lastRequested.getAndSet(index) ? -1 : 1;
+        int current = generation.incrementAndGet();
+        PREFETCHER.execute(() -> {
+            for (int count = 1; count <= PREFETCH; ++count) {
+                int next = index + direction * count;
+                if (generation.get() != current || next < 0 || size() <= next)
+                    return;
+                try {
+                    if (Objects.isNull(cached(next)))
+                        load(next);
+                } catch (Exception exception) {
+                    return; // the error is reported once the frame is requested
+                }
+            }
+        });
+    }
+
+    private SimulationObject cached(int index) {
+        synchronized (cache) {
+            return cache.get(index);
+        }
+    }
+
+    private void cache(int index, SimulationObject simulationObject) {
+        synchronized (cache) {
+            cache.put(index, simulationObject);
+        }
+    }
+
+    private byte[] header(int index) throws IOException {
+        return Objects.isNull(segmentLog) //
+                ? SimulationObjectCodec.header(ordered.get(index))
+                : segmentLog.read(index, SimulationObjectCodec.HEADER_LENGTH);
+    }
+
+    private byte[] bytes(int index) throws IOException {
+        return Objects.isNull(segmentLog) //
+                ? Files.readAllBytes(ordered.get(index).toPath())
+                : segmentLog.read(index);
+    }
+
+    /** @return number of frames from one keyframe to the next, as recorded in the columnar format, the number of frames
+     *         if there is only one keyframe, or {@link SimulationObjectCodec#DEFAULT_KEYFRAME_INTERVAL} if the frames
+     *         are not encoded
+     * @throws IOException if a frame cannot be read */
+    public int getKeyframeInterval() throws IOException {
+        int size = size();
+        if (size == 0 || !SimulationObjectCodec.isEncoded(header(0)))
+            return SimulationObjectCodec.DEFAULT_KEYFRAME_INTERVAL;
+        for (int index = 1; index < size; ++index)
+            if (SimulationObjectCodec.isKeyframe(header(index)))
+                return index;
+        return size;
     }
 
     public final int size() {
-        return ordered.size();
+        return Objects.isNull(segmentLog) ? ordered.size() : segmentLog.size();
     }
 
     public final int getIntervalEstimate() {
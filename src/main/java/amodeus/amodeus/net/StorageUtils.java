@@ -2,10 +2,12 @@
 package amodeus.amodeus.net;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.NavigableMap;
+import java.util.Objects;
 import java.util.TreeMap;
 import java.util.stream.Stream;
 
@@ -16,11 +18,40 @@ public class StorageUtils {
     /** the output folder is created by MATSim */
     private static final File DEFAULT_OUTPUT_DIRECTORY = new File("output");
     private static final String SIMOBJ = "simobj";
+    private static final String SIMOBJ_COARSE = "simobj_coarse";
     // ---
     private final File output;
     private final File directory;
+    private final File coarseDirectory;
+    private final StorageFormat storageFormat;
+    private final StorageLayout storageLayout;
+    private final int keyframeInterval;
+    private final int coarsePeriod;
+    private StorageSubscriber storageSubscriber = null;
 
     public StorageUtils(File outputdirectory) {
+        this(outputdirectory, StorageFormat.SERIALIZED, StorageLayout.FILES);
+    }
+
+    /** @param outputdirectory
+     * @param storageFormat in which the {@link SimulationObject}s are recorded
+     * @param storageLayout in which the {@link SimulationObject}s are recorded, iterations are read in either layout */
+    public StorageUtils(File outputdirectory, StorageFormat storageFormat, StorageLayout storageLayout) {
+        this(outputdirectory, storageFormat, storageLayout, SimulationObjectCodec.DEFAULT_KEYFRAME_INTERVAL, 0);
+    }
+
+    /** @param outputdirectory
+     * @param storageFormat in which the {@link SimulationObject}s are recorded
+     * @param storageLayout in which the {@link SimulationObject}s are recorded, iterations are read in either layout
+     * @param keyframeInterval number of frames after which a frame independent of the previous frames is recorded,
+     *            only relevant for {@link StorageFormat#COLUMNAR}
+     * @param coarsePeriod in seconds of simulation time between the frames of the coarse stream, see
+     *            {@link #getCoarseIterations()}, or 0 if no coarse stream is recorded */
+    public StorageUtils(File outputdirectory, StorageFormat storageFormat, StorageLayout storageLayout, int keyframeInterval, int coarsePeriod) {
+        this.storageFormat = storageFormat;
+        this.storageLayout = storageLayout;
+        this.keyframeInterval = keyframeInterval;
+        this.coarsePeriod = coarsePeriod;
         System.out.println("StorageUtils output directory location: " + outputdirectory.getAbsolutePath());
         if (outputdirectory.isDirectory()) {
             output = outputdirectory;
@@ -31,6 +62,39 @@ public class StorageUtils {
             output = DEFAULT_OUTPUT_DIRECTORY;
         }
         directory = new File(output, SIMOBJ);
+        coarseDirectory = new File(output, SIMOBJ_COARSE);
+    }
+
+    public StorageFormat getStorageFormat() {
+        return storageFormat;
+    }
+
+    public StorageLayout getStorageLayout() {
+        return storageLayout;
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /** @return seconds of simulation time between the frames of the coarse stream, 0 if none is recorded */
+    public int getCoarsePeriod() {
+        return coarsePeriod;
+    }
+
+    /** @return {@link StorageSubscriber} which records all {@link SimulationObject}s, the same instance
+     *         is returned for every call as the columnar format encodes every frame relative to the previous frame */
+    public synchronized StorageSubscriber getStorageSubscriber() {
+        if (Objects.isNull(storageSubscriber))
+            storageSubscriber = new StorageSubscriber(this);
+        return storageSubscriber;
+    }
+
+    /** closes the files of the {@link StorageSubscriber}, if any, at the end of the simulation such that
+     * the last frames are flushed */
+    public synchronized void closeStorageSubscriber() {
+        if (Objects.nonNull(storageSubscriber))
+            storageSubscriber.close();
     }
 
     public void printStorageProperties() {
@@ -44,6 +108,20 @@ public class StorageUtils {
     /** @return {@link List} of {@link IterationFolder} where simulation results
      *         for visualization are stored. */
     public List<IterationFolder> getAvailableIterations() {
+        return getIterations(directory);
+    }
+
+    /** The coarse stream contains one frame per coarse period. Every frame can be read independently of the
+     * others, but the link traces of the vehicles only cover the time since the previous fine frame. Hence,
+     * the coarse stream serves for overview playback and analysis of snapshots, e.g., the distribution of
+     * the vehicle statuses, but not for quantities accumulated over time, such as distances.
+     * 
+     * @return {@link List} of {@link IterationFolder} of the coarse stream */
+    public List<IterationFolder> getCoarseIterations() {
+        return getIterations(coarseDirectory);
+    }
+
+    private List<IterationFolder> getIterations(File directory) {
         if (!directory.isDirectory()) {
             System.out.println("no iterations found");
             return Collections.emptyList();
@@ -75,18 +153,59 @@ public class StorageUtils {
         return getFrom(lastIter);
     }
 
+    /** @return {@link StorageSupplier} for the last available iteration in either {@link StorageLayout},
+     *         or an empty {@link StorageSupplier} if no iteration was recorded
+     * @throws IOException */
+    public StorageSupplier getLastIterationStorageSupplier() throws IOException {
+        File[] files = directory.isDirectory() //
+                ? Stream.of(directory.listFiles()).sorted().toArray(File[]::new)
+                : new File[0];
+        if (files.length == 0) {
+            System.out.println("no files found");
+            return new StorageSupplier(Collections.emptyNavigableMap());
+        }
+        File lastIter = files[files.length - 1];
+        System.out.println("loading last Iter = " + lastIter);
+        return getStorageSupplier(lastIter);
+    }
+
+    /** @param itDir {@link File} with iteration folder
+     * @return {@link StorageSupplier} for the iteration in either {@link StorageLayout}
+     * @throws IOException */
+    /* package */ StorageSupplier getStorageSupplier(File itDir) throws IOException {
+        return SegmentLog.exists(itDir) //
+                ? new StorageSupplier(new SegmentLog.Reader(itDir))
+                : new StorageSupplier(getFrom(itDir));
+    }
+
+    /** @param iteration
+     * @return folder of the given iteration, created if it does not exist yet */
+    /* package */ File getIterationDirectory(int iteration) {
+        return getIterationDirectory(directory, iteration);
+    }
+
+    /** @param iteration
+     * @return folder of the given iteration of the coarse stream, created if it does not exist yet */
+    /* package */ File getCoarseIterationDirectory(int iteration) {
+        return getIterationDirectory(coarseDirectory, iteration);
+    }
+
+    private File getIterationDirectory(File directory, int iteration) {
+        GlobalAssert.that(output.exists());
+        directory.mkdir();
+        File iter = new File(directory, String.format("it.%02d", iteration));
+        iter.mkdir();
+        return iter;
+    }
+
     /** function only called from {@link StorageSubscriber} when data is recorded
      * during simulation
      * 
+     * @param iter folder of the iteration of simulationObject
      * @param simulationObject
      * 
      * @return file to store given simulationObject */
-    /* package */ File getFileForStorageOf(SimulationObject simulationObject) {
-        GlobalAssert.that(output.exists());
-
-        directory.mkdir();
-        File iter = new File(directory, String.format("it.%02d", simulationObject.iteration));
-        iter.mkdir();
+    /* package */ File getFileForStorageOf(File iter, SimulationObject simulationObject) {
         long floor = (simulationObject.now / 1000) * 1000;
         File folder = new File(iter, String.format("%07d", floor));
         folder.mkdir();
@@ -2,6 +2,7 @@
 package amodeus.amodeus.parking;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -89,7 +90,8 @@ public class RestrictedLinkCapacityDispatcher extends RebalancingDispatcher {
         this.parkingStrategy = parkingStrategy;
         DistanceHeuristics distanceHeuristics = //
                 dispatcherConfig.getDistanceHeuristics(DistanceHeuristics.ASTARLANDMARKS);
-        this.parkingStrategy.setRuntimeParameters(avSpatialCapacityAmodeus, network, distanceHeuristics.getDistanceFunction(network));
+        this.parkingStrategy.setRuntimeParameters(avSpatialCapacityAmodeus, network, //
+                distanceHeuristics.getDistanceFunction(network, dispatcherConfig.getContractionHierarchyFile()));
         /** PARKING EXTENSION */
     }
 
@@ -105,7 +107,7 @@ public class RestrictedLinkCapacityDispatcher extends RebalancingDispatcher {
 
             robotaxisDivertable.forEach(unassignedRoboTaxis::add);
 
-            Set<PassengerRequest> requests = getUnassignedRequests();
+            Set<PassengerRequest> requests = new HashSet<>(getUnassignedRequests());
             requests.forEach(requestMaintainer::add);
 
             /** distinguish over- and undersupply cases */
@@ -0,0 +1,27 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.routing;
+
+import java.util.Collection;
+
+import org.matsim.api.core.v01.network.Link;
+
+/** {@link NetworkTimeDistInterface} which in addition computes complete matrices of travel times
+ * and distances, e.g., to construct the cost matrix of a bipartite matching. Implementations
+ * are expected to compute a row with a single one-to-many search instead of one search per entry. */
+public interface BatchNetworkTimeDistInterface extends NetworkTimeDistInterface {
+
+    /** @param from
+     * @param to
+     * @param now
+     * @return matrix in which the entry [i][j] is the travel time in seconds from the i-th {@link Link}
+     *         in from to the j-th {@link Link} in to, in iteration order of the collections */
+    double[][] travelTimes(Collection<Link> from, Collection<Link> to, double now);
+
+    /** @param from
+     * @param to
+     * @param now
+     * @return matrix in which the entry [i][j] is the distance in meters from the i-th {@link Link}
+     *         in from to the j-th {@link Link} in to, in iteration order of the collections */
+    double[][] distances(Collection<Link> from, Collection<Link> to, double now);
+
+}
@@ -1,40 +1,101 @@
 /* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
 package amodeus.amodeus.routing;
 
+import java.util.Objects;
+
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
 
+import amodeus.amodeus.dispatcher.core.DispatchCounter;
+import amodeus.amodeus.linkspeed.LSDataTravelTime;
+import amodeus.amodeus.linkspeed.LinkSpeedDataContainer;
+import amodeus.amodeus.util.math.Magnitude;
+import amodeus.amodeus.util.math.SI;
 import ch.ethz.idsc.tensor.Scalar;
 import ch.ethz.idsc.tensor.Tensor;
+import ch.ethz.idsc.tensor.qty.Quantity;
 
 public class CachedNetworkTimeDistance implements NetworkTimeDistInterface {
+    /** default upper bound on the number of cached pairs of {@link Link}s */
+    public static final int DEFAULT_MAX_ENTRIES = 1 << 20;
 
-    private final CachedNetworkPropertyComputation<Tensor> cachedNetworkPropertyComputation;
+    // ---
+    private final LeastCostPathCalculator calculator;
+    private final NetworkPropertyInterface<Tensor> pathInterface;
+    private final TimeDistanceCache cache;
+    /** null unless entries are invalidated at the time bins of a {@link LinkSpeedDataContainer} */
+    private final LinkSpeedInvalidation invalidation;
+    private double now = 0.0;
 
     /** A {@link CachedNetworkTimeDistance} stores all the calculated travel times
      * which were calculated no longer ago than @param maxLag. The underlying logic is that in this manner
      * the expensive routing computation has to be done fewer times for identical pairs
      * of {@link Link}s.For the routing, different {@link LeastCostPathCalculator}s can be used,
-     * e.g., to minimize traveltime or network distance. If the boolean @param cachePath is set to
-     * true, then the computed Pathes are stored as well (memory intensive!) */
+     * e.g., to minimize traveltime or network distance. The @param pathInterface has to return
+     * the pair {travel time, distance} in seconds and meters. */
     public CachedNetworkTimeDistance(LeastCostPathCalculator calculator, double maxLag, NetworkPropertyInterface<Tensor> pathInterface) {
-        this.cachedNetworkPropertyComputation = new CachedNetworkPropertyComputation<>(calculator, maxLag, pathInterface);
+        this(calculator, maxLag, pathInterface, DEFAULT_MAX_ENTRIES);
+    }
+
+    /** same as above but at most @param maxEntries pairs of {@link Link}s are kept in memory,
+     * values are stored as primitive doubles in a {@link TimeDistanceCache} */
+    public CachedNetworkTimeDistance(LeastCostPathCalculator calculator, double maxLag, NetworkPropertyInterface<Tensor> pathInterface, //
+            int maxEntries) {
+        this.calculator = calculator;
+        this.pathInterface = pathInterface;
+        this.cache = new TimeDistanceCache(maxLag, maxEntries);
+        this.invalidation = null;
+    }
+
+    /** A {@link CachedNetworkTimeDistance} in which the entries do not expire after a fixed lag but are invalidated
+     * when a new time bin of the @param lsData starts, i.e., at the times in {@link LinkSpeedDataContainer#getRecordedTimes()},
+     * and only if their path traverses a {@link Link} whose speed changes at that time. The @param calculator is
+     * expected to route with the travel times of the lsData, e.g., with a {@link LSDataTravelTime}. At most
+     * @param maxEntries pairs of {@link Link}s are kept in memory. */
+    public CachedNetworkTimeDistance(LeastCostPathCalculator calculator, LinkSpeedDataContainer lsData, int maxEntries) {
+        this.calculator = calculator;
+        this.pathInterface = TimeDistanceProperty.INSTANCE;
+        this.cache = new TimeDistanceCache(Double.POSITIVE_INFINITY, maxEntries);
+        this.invalidation = new LinkSpeedInvalidation(lsData);
     }
 
     public boolean checkTime(double now) {
-        return cachedNetworkPropertyComputation.checkTime(now);
+        return this.now == now;
     }
 
     @Override // from NetworkTimeDistInterface
     public Scalar travelTime(Link from, Link to, double now) {
-        Tensor timeDist = cachedNetworkPropertyComputation.fromTo(from, to, now);
-        return timeDist.Get(0);
+        return Quantity.of(cache.time(slot(from, to, now)), SI.SECOND);
     }
 
     @Override // from NetworkTimeDistInterface
     public Scalar distance(Link from, Link to, double now) {
-        Tensor timeDist = cachedNetworkPropertyComputation.fromTo(from, to, now);
-        return timeDist.Get(1);
+        return Quantity.of(cache.distance(slot(from, to, now)), SI.METER);
+    }
+
+    /** @return slot of the cache entry for the pair of {@link Link}s, computed if missing or expired */
+    private int slot(Link from, Link to, double now) {
+        this.now = now;
+        if (Objects.nonNull(invalidation))
+            invalidation.advance(now, cache);
+        long key = TimeDistanceCache.key(from, to);
+        int slot = cache.find(key, now);
+        if (0 <= slot) {
+            DispatchCounter.CACHE_HITS.increment();
+            return slot;
+        }
+        DispatchCounter.CACHE_MISSES.increment();
+        DispatchCounter.ROUTING_CALLS.increment();
+        if (Objects.isNull(invalidation)) {
+            Tensor timeDist = pathInterface.fromTo(from, to, calculator, now);
+            return cache.put(key, Magnitude.SECOND.toDouble(timeDist.Get(0)), Magnitude.METER.toDouble(timeDist.Get(1)), now);
+        }
+        /** the links of the path are required to invalidate the entry */
+        Path path = PathProperty.INSTANCE.fromTo(from, to, calculator, now);
+        slot = cache.put(key, path.travelTime, PathProperty.length(path), now);
+        invalidation.register(key, path, cache);
+        return slot;
     }
 
 }
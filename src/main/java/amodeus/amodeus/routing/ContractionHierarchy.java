@@ -0,0 +1,154 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.routing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.zip.DataFormatException;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+
+import ch.ethz.idsc.tensor.io.Export;
+import ch.ethz.idsc.tensor.io.Import;
+
+/** A {@link ContractionHierarchy} is a preprocessed representation of a {@link Network} which answers
+ * point-to-point queries for the minimum free-flow travel time, and the length of the corresponding
+ * path, in a small fraction of the time needed by a Dijkstra or A* search. The nodes are contracted
+ * once in the order of their importance and shortcut edges preserve the shortest paths among the
+ * remaining nodes. A query then consists of two small searches that only move upwards in the hierarchy.
+ *
+ * The edge weights are the free-flow travel times length / freespeed, i.e., the same as used by the
+ * {@link EasyMinTimePathCalculator}. Only travel times and distances are computed, no paths.
+ *
+ * Hierarchies are built at most once per {@link Network} with {@link #of(Network)} and can be stored
+ * to and restored from disk with {@link #of(Network, File)}. */
+public final class ContractionHierarchy implements Serializable {
+    private static final Map<Network, ContractionHierarchy> CACHE = new WeakHashMap<>();
+
+    /** @param network
+     * @return {@link ContractionHierarchy} of the network, built at most once per network */
+    public static synchronized ContractionHierarchy of(Network network) {
+        return CACHE.computeIfAbsent(network, ContractionHierarchyBuilder::build);
+    }
+
+    /** @param network
+     * @param file
+     * @return {@link ContractionHierarchy} of the network which is loaded from file if the file exists and
+     *         matches the network, otherwise the hierarchy is built and stored in file */
+    public static synchronized ContractionHierarchy of(Network network, File file) {
+        ContractionHierarchy hierarchy = CACHE.get(network);
+        if (Objects.isNull(hierarchy)) {
+            if (file.isFile())
+                try {
+                    hierarchy = load(file, network);
+                } catch (Exception exception) {
+                    System.err.println("WARN contraction hierarchy in " + file.getAbsolutePath() + " not usable: " + exception.getMessage());
+                }
+            if (Objects.isNull(hierarchy)) {
+                hierarchy = ContractionHierarchyBuilder.build(network);
+                try {
+                    hierarchy.save(file);
+                } catch (IOException exception) {
+                    exception.printStackTrace();
+                }
+            }
+            CACHE.put(network, hierarchy);
+        }
+        return hierarchy;
+    }
+
+    /** @param file
+     * @param network
+     * @return {@link ContractionHierarchy} stored in file
+     * @throws IllegalArgumentException if the stored hierarchy was not built for the network */
+    public static ContractionHierarchy load(File file, Network network) //
+            throws ClassNotFoundException, DataFormatException, IOException {
+        ContractionHierarchy hierarchy = Import.object(file);
+        if (hierarchy.fingerprint != fingerprint(network))
+            throw new IllegalArgumentException("hierarchy does not match the network");
+        hierarchy.bind();
+        return hierarchy;
+    }
+
+    /** @return order independent hash of the nodes and links of the network and the attributes relevant for routing */
+    /* package */ static long fingerprint(Network network) {
+        long hash = 31L * network.getNodes().size() + network.getLinks().size();
+        for (Link link : network.getLinks().values()) {
+            long value = link.getFromNode().getId().toString().hashCode();
+            value = 31 * value + link.getToNode().getId().toString().hashCode();
+            value = 31 * value + Double.hashCode(link.getLength());
+            value = 31 * value + Double.hashCode(link.getFreespeed());
+            hash += value * 0x9E3779B97F4A7C15L;
+        }
+        return hash;
+    }
+
+    // ---
+    private final long fingerprint;
+    private final String[] nodeIds;
+    /** edges u -> v from each node u to nodes v of higher rank */
+    /* package */ final Edges upward;
+    /** edges u -> v stored at v for nodes u of higher rank than v */
+    /* package */ final Edges downward;
+    private transient Map<Id<Node>, Integer> indices;
+
+    /* package */ ContractionHierarchy(long fingerprint, String[] nodeIds, Edges upward, Edges downward) {
+        this.fingerprint = fingerprint;
+        this.nodeIds = nodeIds;
+        this.upward = upward;
+        this.downward = downward;
+        bind();
+    }
+
+    private void bind() {
+        indices = new HashMap<>();
+        for (int index = 0; index < nodeIds.length; ++index)
+            indices.put(Id.createNodeId(nodeIds[index]), index);
+    }
+
+    /** @param file
+     * @throws IOException */
+    public void save(File file) throws IOException {
+        Export.object(file, this);
+    }
+
+    /** @return new {@link ContractionHierarchyQuery}, queries must not be shared among threads */
+    public ContractionHierarchyQuery query() {
+        return new ContractionHierarchyQuery(this);
+    }
+
+    /** @return number of nodes in the hierarchy */
+    public int size() {
+        return nodeIds.length;
+    }
+
+    /* package */ int indexOf(Node node) {
+        Integer index = indices.get(node.getId());
+        if (Objects.isNull(index))
+            throw new IllegalArgumentException("node " + node.getId() + " not in hierarchy");
+        return index;
+    }
+
+    /** adjacency arrays in compressed row format, the edges of node i are
+     * at positions offsets[i], ..., offsets[i + 1] - 1 */
+    /* package */ static final class Edges implements Serializable {
+        final int[] offsets;
+        final int[] nodes;
+        final double[] times;
+        final double[] lengths;
+
+        Edges(int[] offsets, int[] nodes, double[] times, double[] lengths) {
+            this.offsets = offsets;
+            this.nodes = nodes;
+            this.times = times;
+            this.lengths = lengths;
+        }
+    }
+}
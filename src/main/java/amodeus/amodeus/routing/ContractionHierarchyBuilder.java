@@ -0,0 +1,252 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+
+/** contracts the nodes of a {@link Network} in the order given by the edge difference,
+ * i.e., the number of shortcuts added minus the number of edges removed, plus the number
+ * of already contracted neighbors and the level of the node in the hierarchy. Priorities
+ * are only updated lazily when a node is polled from the queue. */
+/* package */ final class ContractionHierarchyBuilder {
+    /** number of settled nodes after which a witness search gives up,
+     * a missing witness only leads to a superfluous shortcut */
+    private static final int MAX_SETTLED = 64;
+    /** smaller limit used when shortcuts are only counted to estimate the priority */
+    private static final int MAX_SETTLED_ESTIMATE = 16;
+
+    public static ContractionHierarchy build(Network network) {
+        long time = System.currentTimeMillis();
+        ContractionHierarchy hierarchy = new ContractionHierarchyBuilder(network).contract();
+        System.out.println("contraction hierarchy of " + hierarchy.size() + " nodes built in " + //
+                (System.currentTimeMillis() - time) + " ms");
+        return hierarchy;
+    }
+
+    // ---
+    private final long fingerprint;
+    private final int n;
+    private final String[] nodeIds;
+    /** edges among nodes not yet contracted */
+    private final EdgeList[] out;
+    private final EdgeList[] in;
+    private final int[] contractedNeighbors;
+    private final int[] levels;
+    /** edges of the hierarchy */
+    private final EdgeList[] upward;
+    private final EdgeList[] downward;
+    /** witness search */
+    private final IndexedMinHeap witnessHeap;
+    private final double[] witnessTimes;
+    private final int[] touched;
+    private int touchedCount = 0;
+    /** targets of the current witness search are marked with the current stamp */
+    private final int[] targetStamps;
+    private int stamp = 0;
+
+    private ContractionHierarchyBuilder(Network network) {
+        fingerprint = ContractionHierarchy.fingerprint(network);
+        List<Node> nodes = new ArrayList<>(network.getNodes().values());
+        n = nodes.size();
+        nodeIds = new String[n];
+        out = new EdgeList[n];
+        in = new EdgeList[n];
+        upward = new EdgeList[n];
+        downward = new EdgeList[n];
+        Map<Id<Node>, Integer> indices = new HashMap<>();
+        for (int index = 0; index < n; ++index) {
+            nodeIds[index] = nodes.get(index).getId().toString();
+            indices.put(nodes.get(index).getId(), index);
+            out[index] = new EdgeList();
+            in[index] = new EdgeList();
+            upward[index] = new EdgeList();
+            downward[index] = new EdgeList();
+        }
+        for (Link link : network.getLinks().values()) {
+            int from = indices.get(link.getFromNode().getId());
+            int to = indices.get(link.getToNode().getId());
+            if (from != to) {
+                double time = link.getLength() / link.getFreespeed();
+                out[from].relax(to, time, link.getLength());
+                in[to].relax(from, time, link.getLength());
+            }
+        }
+        contractedNeighbors = new int[n];
+        levels = new int[n];
+        witnessHeap = new IndexedMinHeap(n);
+        witnessTimes = new double[n];
+        Arrays.fill(witnessTimes, Double.POSITIVE_INFINITY);
+        touched = new int[n];
+        targetStamps = new int[n];
+    }
+
+    private ContractionHierarchy contract() {
+        IndexedMinHeap queue = new IndexedMinHeap(n);
+        for (int node = 0; node < n; ++node)
+            queue.insertOrDecrease(node, priority(node));
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            double priority = priority(node);
+            if (priority > queue.peekKey()) // lazy update
+                queue.insertOrDecrease(node, priority);
+            else
+                for (int neighbor : contract(node)) {
+                    ++contractedNeighbors[neighbor];
+                    levels[neighbor] = Math.max(levels[neighbor], levels[node] + 1);
+                }
+        }
+        return new ContractionHierarchy(fingerprint, nodeIds, compress(upward), compress(downward));
+    }
+
+    private double priority(int node) {
+        return 2 * (shortcuts(node, false) - in[node].size - out[node].size) + contractedNeighbors[node] + levels[node];
+    }
+
+    /** @return uncontracted neighbors of the contracted node */
+    private int[] contract(int node) {
+        shortcuts(node, true);
+        EdgeList outs = out[node];
+        EdgeList ins = in[node];
+        for (int index = 0; index < outs.size; ++index) {
+            upward[node].relax(outs.nodes[index], outs.times[index], outs.lengths[index]);
+            in[outs.nodes[index]].remove(node);
+        }
+        for (int index = 0; index < ins.size; ++index) {
+            downward[node].relax(ins.nodes[index], ins.times[index], ins.lengths[index]);
+            out[ins.nodes[index]].remove(node);
+        }
+        out[node] = null;
+        in[node] = null;
+        return IntStream.concat(Arrays.stream(outs.nodes, 0, outs.size), Arrays.stream(ins.nodes, 0, ins.size)).distinct().toArray();
+    }
+
+    /** @param node to be contracted
+     * @param add whether the shortcuts are inserted or only counted
+     * @return number of shortcuts required when contracting the node */
+    private int shortcuts(int node, boolean add) {
+        int count = 0;
+        EdgeList ins = in[node];
+        EdgeList outs = out[node];
+        for (int i = 0; i < ins.size; ++i) {
+            int source = ins.nodes[i];
+            double maxTime = Double.NEGATIVE_INFINITY;
+            int targets = 0;
+            ++stamp;
+            for (int j = 0; j < outs.size; ++j)
+                if (outs.nodes[j] != source) {
+                    maxTime = Math.max(maxTime, ins.times[i] + outs.times[j]);
+                    targetStamps[outs.nodes[j]] = stamp;
+                    ++targets;
+                }
+            if (targets == 0)
+                continue;
+            witnessSearch(source, node, maxTime, targets, add ? MAX_SETTLED : MAX_SETTLED_ESTIMATE);
+            for (int j = 0; j < outs.size; ++j) {
+                int target = outs.nodes[j];
+                double time = ins.times[i] + outs.times[j];
+                if (target != source && time < witnessTimes[target]) {
+                    ++count;
+                    if (add) {
+                        double length = ins.lengths[i] + outs.lengths[j];
+                        out[source].relax(target, time, length);
+                        in[target].relax(source, time, length);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /** Dijkstra search from source among uncontracted nodes that avoids the excluded node,
+     * the search stops once all targets are settled */
+    private void witnessSearch(int source, int excluded, double maxTime, int targets, int maxSettled) {
+        for (int index = 0; index < touchedCount; ++index)
+            witnessTimes[touched[index]] = Double.POSITIVE_INFINITY;
+        touchedCount = 0;
+        witnessHeap.clear();
+        witnessTimes[source] = 0;
+        touched[touchedCount++] = source;
+        witnessHeap.insertOrDecrease(source, 0);
+        int settled = 0;
+        while (!witnessHeap.isEmpty() && witnessHeap.peekKey() <= maxTime && settled++ < maxSettled) {
+            int node = witnessHeap.poll();
+            if (targetStamps[node] == stamp && --targets == 0)
+                return;
+            EdgeList edges = out[node];
+            for (int index = 0; index < edges.size; ++index) {
+                int next = edges.nodes[index];
+                double time = witnessTimes[node] + edges.times[index];
+                if (next != excluded && time < witnessTimes[next]) {
+                    if (Double.isInfinite(witnessTimes[next]))
+                        touched[touchedCount++] = next;
+                    witnessTimes[next] = time;
+                    witnessHeap.insertOrDecrease(next, time);
+                }
+            }
+        }
+    }
+
+    private static ContractionHierarchy.Edges compress(EdgeList[] lists) {
+        int[] offsets = new int[lists.length + 1];
+        for (int node = 0; node < lists.length; ++node)
+            offsets[node + 1] = offsets[node] + lists[node].size;
+        int[] nodes = new int[offsets[lists.length]];
+        double[] times = new double[nodes.length];
+        double[] lengths = new double[nodes.length];
+        for (int node = 0; node < lists.length; ++node) {
+            EdgeList list = lists[node];
+            System.arraycopy(list.nodes, 0, nodes, offsets[node], list.size);
+            System.arraycopy(list.times, 0, times, offsets[node], list.size);
+            System.arraycopy(list.lengths, 0, lengths, offsets[node], list.size);
+        }
+        return new ContractionHierarchy.Edges(offsets, nodes, times, lengths);
+    }
+
+    /** edges to distinct nodes, parallel edges are reduced to the fastest */
+    private static final class EdgeList {
+        int size = 0;
+        int[] nodes = new int[4];
+        double[] times = new double[4];
+        double[] lengths = new double[4];
+
+        void relax(int node, double time, double length) {
+            for (int index = 0; index < size; ++index)
+                if (nodes[index] == node) {
+                    if (time < times[index]) {
+                        times[index] = time;
+                        lengths[index] = length;
+                    }
+                    return;
+                }
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * size);
+                times = Arrays.copyOf(times, 2 * size);
+                lengths = Arrays.copyOf(lengths, 2 * size);
+            }
+            nodes[size] = node;
+            times[size] = time;
+            lengths[size] = length;
+            ++size;
+        }
+
+        void remove(int node) {
+            for (int index = 0; index < size; ++index)
+                if (nodes[index] == node) {
+                    --size;
+                    nodes[index] = nodes[size];
+                    times[index] = times[size];
+                    lengths[index] = lengths[size];
+                    return;
+                }
+        }
+    }
+}
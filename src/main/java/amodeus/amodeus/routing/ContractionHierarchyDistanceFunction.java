@@ -0,0 +1,38 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.routing;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.contrib.dvrp.passenger.PassengerRequest;
+
+import amodeus.amodeus.dispatcher.core.RoboTaxi;
+
+/** {@link DistanceFunction} with the same semantics as the {@link NetworkMinTimeDistanceFunction},
+ * i.e., the length of the path with minimum free-flow travel time between the from nodes of the
+ * {@link Link}s, answered by a {@link ContractionHierarchy}. Instances are not thread-safe. */
+public class ContractionHierarchyDistanceFunction implements DistanceFunction {
+
+    private final ContractionHierarchyQuery query;
+
+    public ContractionHierarchyDistanceFunction(ContractionHierarchy contractionHierarchy) {
+        query = contractionHierarchy.query();
+    }
+
+    @Override
+    public double getDistance(RoboTaxi roboTaxi, PassengerRequest avrequest) {
+        return query.distance(roboTaxi.getDivertableLocation().getFromNode(), avrequest.getFromLink().getFromNode());
+    }
+
+    @Override
+    public double getDistance(RoboTaxi roboTaxi, Link link) {
+        return query.distance(roboTaxi.getDivertableLocation().getFromNode(), link.getFromNode());
+    }
+
+    @Override
+    public double getDistance(Link link1, Link link2) {
+        return query.distance(link1.getFromNode(), link2.getFromNode());
+    }
+
+    public double getTravelTime(Link from, Link to) {
+        return query.travelTime(from.getFromNode(), to.getFromNode());
+    }
+}
@@ -0,0 +1,115 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.routing;
+
+import java.util.Arrays;
+
+import org.matsim.api.core.v01.network.Node;
+
+/** bidirectional upward search in a {@link ContractionHierarchy}. A query keeps the search
+ * state of the last pair of nodes and must therefore not be shared among threads. If the
+ * target cannot be reached from the source, positive infinity is returned. */
+public final class ContractionHierarchyQuery {
+    private final ContractionHierarchy.Edges upward;
+    private final ContractionHierarchy.Edges downward;
+    private final ContractionHierarchy hierarchy;
+    // ---
+    private final IndexedMinHeap forwardHeap;
+    private final IndexedMinHeap backwardHeap;
+    private final double[] forwardTimes;
+    private final double[] forwardLengths;
+    private final double[] backwardTimes;
+    private final double[] backwardLengths;
+    private final int[] touched;
+    private int touchedCount = 0;
+    // ---
+    private int lastSource = -1;
+    private int lastTarget = -1;
+    private double time;
+    private double length;
+
+    /* package */ ContractionHierarchyQuery(ContractionHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        upward = hierarchy.upward;
+        downward = hierarchy.downward;
+        int n = hierarchy.size();
+        forwardHeap = new IndexedMinHeap(n);
+        backwardHeap = new IndexedMinHeap(n);
+        forwardTimes = new double[n];
+        forwardLengths = new double[n];
+        backwardTimes = new double[n];
+        backwardLengths = new double[n];
+        Arrays.fill(forwardTimes, Double.POSITIVE_INFINITY);
+        Arrays.fill(backwardTimes, Double.POSITIVE_INFINITY);
+        touched = new int[2 * n];
+    }
+
+    /** @param from
+     * @param to
+     * @return minimum free-flow travel time from {@link Node} from to {@link Node} to in seconds */
+    public double travelTime(Node from, Node to) {
+        search(hierarchy.indexOf(from), hierarchy.indexOf(to));
+        return time;
+    }
+
+    /** @param from
+     * @param to
+     * @return length in meters of the path with minimum free-flow travel time from {@link Node} from to {@link Node} to */
+    public double distance(Node from, Node to) {
+        search(hierarchy.indexOf(from), hierarchy.indexOf(to));
+        return length;
+    }
+
+    private void search(int source, int target) {
+        if (source == lastSource && target == lastTarget)
+            return;
+        reset();
+        lastSource = source;
+        lastTarget = target;
+        time = Double.POSITIVE_INFINITY;
+        length = Double.POSITIVE_INFINITY;
+        forwardTimes[source] = 0;
+        forwardLengths[source] = 0;
+        backwardTimes[target] = 0;
+        backwardLengths[target] = 0;
+        touched[touchedCount++] = source;
+        touched[touchedCount++] = target;
+        forwardHeap.insertOrDecrease(source, 0);
+        backwardHeap.insertOrDecrease(target, 0);
+        /** the search terminates once neither direction can improve the best connection found */
+        while (Math.min(forwardHeap.peekKey(), backwardHeap.peekKey()) < time)
+            if (forwardHeap.peekKey() <= backwardHeap.peekKey())
+                settle(forwardHeap, upward, forwardTimes, forwardLengths, backwardTimes, backwardLengths);
+            else
+                settle(backwardHeap, downward, backwardTimes, backwardLengths, forwardTimes, forwardLengths);
+    }
+
+    private void settle(IndexedMinHeap heap, ContractionHierarchy.Edges edges, //
+            double[] times, double[] lengths, double[] otherTimes, double[] otherLengths) {
+        int node = heap.poll();
+        if (times[node] + otherTimes[node] < time) {
+            time = times[node] + otherTimes[node];
+            length = lengths[node] + otherLengths[node];
+        }
+        for (int index = edges.offsets[node]; index < edges.offsets[node + 1]; ++index) {
+            int next = edges.nodes[index];
+            double nextTime = times[node] + edges.times[index];
+            if (nextTime < times[next]) {
+                if (Double.isInfinite(times[next]))
+                    touched[touchedCount++] = next;
+                times[next] = nextTime;
+                lengths[next] = lengths[node] + edges.lengths[index];
+                heap.insertOrDecrease(next, nextTime);
+            }
+        }
+    }
+
+    private void reset() {
+        for (int index = 0; index < touchedCount; ++index) {
+            forwardTimes[touched[index]] = Double.POSITIVE_INFINITY;
+            backwardTimes[touched[index]] = Double.POSITIVE_INFINITY;
+        }
+        touchedCount = 0;
+        forwardHeap.clear();
+        backwardHeap.clear();
+    }
+}
@@ -13,6 +13,14 @@ import org.matsim.vehicles.Vehicle;
 public enum EasyMinTimePathCalculator {
     ;
 
+    /** free-flow travel time of a {@link Link} */
+    public static final TravelTime FREE_FLOW = new TravelTime() {
+        @Override
+        public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+            return link.getLength() / link.getFreespeed();
+        }
+    };
+
     public static LeastCostPathCalculator prepPathCalculator(Network network, LeastCostPathCalculatorFactory calcFactory) {
         TravelDisutility travelDisutility = new TravelDisutility() {
             @Override
@@ -25,12 +33,6 @@ public enum EasyMinTimePathCalculator {
                 return link.getLength() / link.getFreespeed();
             }
         };
-        TravelTime travelTime = new TravelTime() {
-            @Override
-            public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
-                return link.getLength() / link.getFreespeed();
-            }
-        };
-        return calcFactory.createPathCalculator(network, travelDisutility, travelTime);
+        return calcFactory.createPathCalculator(network, travelDisutility, FREE_FLOW);
     }
 }
@@ -0,0 +1,99 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.routing;
+
+import java.util.Arrays;
+
+/** binary min-heap over the integers 0, 1, ..., n - 1 with primitive double keys
+ * and decrease-key, used by the searches of the {@link ContractionHierarchy} */
+/* package */ final class IndexedMinHeap {
+    private final int[] heap;
+    private final int[] position;
+    private final double[] keys;
+    private int size = 0;
+
+    /** @param n number of elements */
+    public IndexedMinHeap(int n) {
+        heap = new int[n];
+        position = new int[n];
+        keys = new double[n];
+        Arrays.fill(position, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** @return smallest key in the heap, or positive infinity if the heap is empty */
+    public double peekKey() {
+        return size == 0 ? Double.POSITIVE_INFINITY : keys[heap[0]];
+    }
+
+    /** inserts the element with the given key or decreases its key if it is already
+     * contained with a larger key
+     *
+     * @param element
+     * @param key */
+    public void insertOrDecrease(int element, double key) {
+        if (position[element] < 0) {
+            keys[element] = key;
+            heap[size] = element;
+            position[element] = size;
+            siftUp(size++);
+        } else if (key < keys[element]) {
+            keys[element] = key;
+            siftUp(position[element]);
+        }
+    }
+
+    /** @return element with smallest key which is removed from the heap */
+    public int poll() {
+        int element = heap[0];
+        position[element] = -1;
+        if (0 < --size) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return element;
+    }
+
+    public void clear() {
+        for (int index = 0; index < size; ++index)
+            position[heap[index]] = -1;
+        size = 0;
+    }
+
+    private void siftUp(int index) {
+        int element = heap[index];
+        double key = keys[element];
+        while (0 < index) {
+            int parent = (index - 1) >>> 1;
+            if (keys[heap[parent]] <= key)
+                break;
+            move(heap[parent], index);
+            index = parent;
+        }
+        move(element, index);
+    }
+
+    private void siftDown(int index) {
+        int element = heap[index];
+        double key = keys[element];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]])
+                ++child;
+            if (key <= keys[heap[child]])
+                break;
+            move(heap[child], index);
+            index = child;
+        }
+        move(element, index);
+    }
+
+    private void move(int element, int index) {
+        heap[index] = element;
+        position[element] = index;
+    }
+}
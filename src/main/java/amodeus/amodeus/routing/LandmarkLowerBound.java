@@ -0,0 +1,239 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+
+/** Lower bounds on the free-flow travel time between two nodes of a {@link Network} which are evaluated in
+ * constant time, e.g., to discard vehicles which cannot reach a request in time before any path is routed.
+ *
+ * The bound is the maximum of two admissible bounds: the beeline distance divided by the largest beeline speed
+ * of any link, see {@link #getMaxSpeed()}, and the landmark bound d(u, v) >= max(d(u, L) - d(v, L), d(L, v) - d(L, u))
+ * which follows from the triangle inequality for the travel times d to and from a few landmark nodes L.
+ *
+ * The free-flow travel time of a link is length / freespeed as in the {@link EasyMinTimePathCalculator}. Hence,
+ * the bounds also hold for other travel times as long as no link is traversed faster than with its freespeed.
+ *
+ * Bounds are computed at most once per {@link Network} with {@link #of(Network)}, the instances are immutable
+ * and may be shared among threads. */
+public final class LandmarkLowerBound {
+    private static final int LANDMARKS = 16;
+    private static final Map<Network, LandmarkLowerBound> CACHE = new WeakHashMap<>();
+
+    /** @param network
+     * @return {@link LandmarkLowerBound} of the network, computed at most once per network */
+    public static synchronized LandmarkLowerBound of(Network network) {
+        return CACHE.computeIfAbsent(network, key -> new LandmarkLowerBound(key, LANDMARKS));
+    }
+
+    // ---
+    private final Map<Id<Node>, Integer> indices = new HashMap<>();
+    private final double[] x;
+    private final double[] y;
+    /** free-flow travel times from the landmarks to the nodes */
+    private final double[][] fromLandmark;
+    /** free-flow travel times from the nodes to the landmarks */
+    private final double[][] toLandmark;
+    private final double maxSpeed;
+    private final double[] boundingBox = { //
+            Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+
+    /** @param network
+     * @param landmarks maximum number of landmarks */
+    /* package */ LandmarkLowerBound(Network network, int landmarks) {
+        List<Node> nodes = new ArrayList<>(network.getNodes().values());
+        int n = nodes.size();
+        x = new double[n];
+        y = new double[n];
+        for (int index = 0; index < n; ++index) {
+            Node node = nodes.get(index);
+            indices.put(node.getId(), index);
+            Coord coord = node.getCoord();
+            x[index] = coord.getX();
+            y[index] = coord.getY();
+            boundingBox[0] = Math.min(boundingBox[0], x[index]);
+            boundingBox[1] = Math.min(boundingBox[1], y[index]);
+            boundingBox[2] = Math.max(boundingBox[2], x[index]);
+            boundingBox[3] = Math.max(boundingBox[3], y[index]);
+        }
+
+        int m = network.getLinks().size();
+        int[] tails = new int[m];
+        int[] heads = new int[m];
+        double[] times = new double[m];
+        double speed = 0;
+        int count = 0;
+        for (Link link : network.getLinks().values()) {
+            int tail = indices.get(link.getFromNode().getId());
+            int head = indices.get(link.getToNode().getId());
+            double time = link.getLength() / link.getFreespeed();
+            double beeline = Math.hypot(x[head] - x[tail], y[head] - y[tail]);
+            if (0 < beeline)
+                speed = Math.max(speed, 0 < time ? beeline / time : Double.POSITIVE_INFINITY);
+            tails[count] = tail;
+            heads[count] = head;
+            times[count] = time;
+            ++count;
+        }
+        maxSpeed = speed;
+        Edges forward = Edges.of(n, tails, heads, times);
+        Edges backward = Edges.of(n, heads, tails, times);
+
+        /** the landmarks are chosen far from each other: the first is the node farthest from the center of the
+         * network, every further landmark is the node with the largest round trip time to its closest landmark */
+        List<double[]> from = new ArrayList<>();
+        List<double[]> to = new ArrayList<>();
+        IndexedMinHeap heap = new IndexedMinHeap(Math.max(1, n));
+        double[] score = new double[n];
+        Arrays.fill(score, Double.POSITIVE_INFINITY);
+        int landmark = farthestFrom((boundingBox[0] + boundingBox[2]) / 2, (boundingBox[1] + boundingBox[3]) / 2);
+        while (0 <= landmark && from.size() < landmarks) {
+            double[] fromTimes = dijkstra(forward, landmark, heap);
+            double[] toTimes = dijkstra(backward, landmark, heap);
+            from.add(fromTimes);
+            to.add(toTimes);
+            landmark = -1;
+            double best = 0;
+            for (int index = 0; index < n; ++index) {
+                score[index] = Math.min(score[index], fromTimes[index] + toTimes[index]);
+                if (Double.isFinite(score[index]) && best < score[index]) {
+                    best = score[index];
+                    landmark = index;
+                }
+            }
+        }
+        fromLandmark = from.toArray(new double[from.size()][]);
+        toLandmark = to.toArray(new double[to.size()][]);
+    }
+
+    /** @param from
+     * @param to
+     * @return lower bound on the free-flow travel time from node from to node to, positive infinity if to
+     *         is not reachable from from */
+    public double of(Node from, Node to) {
+        int u = indexOf(from);
+        int v = indexOf(to);
+        if (u == v)
+            return 0;
+        double bound = 0 < maxSpeed && Double.isFinite(maxSpeed) //
+                ? Math.hypot(x[v] - x[u], y[v] - y[u]) / maxSpeed
+                : 0;
+        for (int k = 0; k < fromLandmark.length; ++k) {
+            // d(u, v) >= d(u, L) - d(v, L), if u cannot reach L but v can, then u cannot reach v
+            double uToL = toLandmark[k][u];
+            double vToL = toLandmark[k][v];
+            if (Double.isFinite(vToL))
+                if (Double.isFinite(uToL))
+                    bound = Math.max(bound, uToL - vToL);
+                else
+                    return Double.POSITIVE_INFINITY;
+            // d(u, v) >= d(L, v) - d(L, u), if L reaches u but not v, then u cannot reach v
+            double lToU = fromLandmark[k][u];
+            double lToV = fromLandmark[k][v];
+            if (Double.isFinite(lToU))
+                if (Double.isFinite(lToV))
+                    bound = Math.max(bound, lToV - lToU);
+                else
+                    return Double.POSITIVE_INFINITY;
+        }
+        return bound;
+    }
+
+    /** @return largest ratio of the beeline distance between the nodes of a link and its free-flow travel time,
+     *         hence the beeline distance between two nodes is at most the free-flow travel time times the speed.
+     *         The speed is positive infinity if a link of positive beeline distance has zero travel time. */
+    public double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    /** @return bounding box of the nodes in format (minX, minY, maxX, maxY) */
+    public double[] getBoundingBox() {
+        return boundingBox.clone();
+    }
+
+    /** @return number of landmarks */
+    public int landmarks() {
+        return fromLandmark.length;
+    }
+
+    private int indexOf(Node node) {
+        Integer index = indices.get(node.getId());
+        if (Objects.isNull(index))
+            throw new IllegalArgumentException("node " + node.getId() + " not in network");
+        return index;
+    }
+
+    private int farthestFrom(double cx, double cy) {
+        int farthest = -1;
+        double distance = -1;
+        for (int index = 0; index < x.length; ++index) {
+            double value = Math.hypot(x[index] - cx, y[index] - cy);
+            if (distance < value) {
+                distance = value;
+                farthest = index;
+            }
+        }
+        return farthest;
+    }
+
+    private static double[] dijkstra(Edges edges, int source, IndexedMinHeap heap) {
+        double[] times = new double[edges.offsets.length - 1];
+        Arrays.fill(times, Double.POSITIVE_INFINITY);
+        times[source] = 0;
+        heap.insertOrDecrease(source, 0);
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            for (int edge = edges.offsets[node]; edge < edges.offsets[node + 1]; ++edge) {
+                double time = times[node] + edges.times[edge];
+                int head = edges.nodes[edge];
+                if (time < times[head]) {
+                    times[head] = time;
+                    heap.insertOrDecrease(head, time);
+                }
+            }
+        }
+        return times;
+    }
+
+    /** adjacency arrays in compressed row format, the edges of node i are
+     * at positions offsets[i], ..., offsets[i + 1] - 1 */
+    private static final class Edges {
+        final int[] offsets;
+        final int[] nodes;
+        final double[] times;
+
+        private Edges(int[] offsets, int[] nodes, double[] times) {
+            this.offsets = offsets;
+            this.nodes = nodes;
+            this.times = times;
+        }
+
+        static Edges of(int n, int[] tails, int[] heads, double[] times) {
+            int[] offsets = new int[n + 1];
+            for (int tail : tails)
+                ++offsets[tail + 1];
+            for (int index = 0; index < n; ++index)
+                offsets[index + 1] += offsets[index];
+            int[] next = Arrays.copyOf(offsets, n);
+            int[] nodes = new int[tails.length];
+            double[] edgeTimes = new double[tails.length];
+            for (int edge = 0; edge < tails.length; ++edge) {
+                int position = next[tails[edge]]++;
+                nodes[position] = heads[edge];
+                edgeTimes[position] = times[edge];
+            }
+            return new Edges(offsets, nodes, edgeTimes);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+
+import amodeus.amodeus.linkspeed.LinkSpeedDataContainer;
+import amodeus.amodeus.linkspeed.LinkSpeedTimeSeries;
+
+/** Invalidates the entries of a {@link TimeDistanceCache} whenever a new time bin of the
+ * {@link LinkSpeedDataContainer} starts, i.e., at the recorded times of the container. Only
+ * entries whose path traverses a {@link Link} with a speed change at that time are invalidated.
+ *
+ * To that end, the keys of the cached pairs are indexed by the links of their path. Links whose
+ * speed never changes are not indexed. The index of a link is emptied whenever the link changes.
+ * Before the index of a link grows, the keys of entries which were evicted or invalidated in the
+ * meantime and duplicate keys are removed, such that the index of a link never exceeds twice the
+ * maximum number of entries of the cache. */
+/* package */ final class LinkSpeedInvalidation {
+    private static final int INITIAL_KEYS_PER_LINK = 8;
+
+    /** recorded times at which the speed of at least one link changes, in ascending order */
+    private final int[] boundaries;
+    /** changedLinks[k] contains the indices of the links whose speed changes at boundaries[k] */
+    private final int[][] changedLinks;
+    /** keysOfLink[i] contains the keys of the cached pairs with a path on the link with index i,
+     * null for links whose speed never changes */
+    private final long[][] keysOfLink;
+    private final int[] keyCount;
+    private int next = 0;
+    private double now = Double.NEGATIVE_INFINITY;
+
+    public LinkSpeedInvalidation(LinkSpeedDataContainer lsData) {
+        SortedMap<Integer, List<Integer>> changes = new TreeMap<>();
+        lsData.getRecordedTimes().forEach(time -> changes.put(time, new ArrayList<>()));
+        int maxIndex = -1;
+        for (Entry<Integer, LinkSpeedTimeSeries> entry : lsData.getLinkMap().entrySet()) {
+            /** the speed before the first recording is undefined, hence the first recording counts as change */
+            Double previous = null;
+            for (Integer time : entry.getValue().getRecordedTimes()) {
+                Double speed = entry.getValue().getSpeedsAt(time);
+                if (!speed.equals(previous)) {
+                    changes.get(time).add(entry.getKey());
+                    maxIndex = Math.max(maxIndex, entry.getKey());
+                }
+                previous = speed;
+            }
+        }
+        changes.values().removeIf(List::isEmpty);
+        boundaries = changes.keySet().stream().mapToInt(Integer::intValue).toArray();
+        changedLinks = changes.values().stream() //
+                .map(list -> list.stream().mapToInt(Integer::intValue).toArray()).toArray(int[][]::new);
+        keysOfLink = new long[maxIndex + 1][];
+        keyCount = new int[maxIndex + 1];
+        for (int[] links : changedLinks)
+            for (int link : links)
+                if (Objects.isNull(keysOfLink[link]))
+                    keysOfLink[link] = new long[INITIAL_KEYS_PER_LINK];
+    }
+
+    /** invalidates the entries of all time bins which started until time now. If time moves backwards,
+     * e.g., at the start of a new iteration, the cache is cleared.
+     *
+     * @param now
+     * @param cache */
+    public void advance(double now, TimeDistanceCache cache) {
+        if (now < this.now) {
+            cache.clear();
+            Arrays.fill(keyCount, 0);
+            next = 0;
+        }
+        this.now = now;
+        while (next < boundaries.length && boundaries[next] <= now) {
+            for (int link : changedLinks[next]) {
+                for (int index = 0; index < keyCount[link]; ++index)
+                    cache.invalidate(keysOfLink[link][index]);
+                keyCount[link] = 0;
+            }
+            ++next;
+        }
+    }
+
+    /** registers the cached pair with the given key to be invalidated if the speed on a link of path changes
+     *
+     * @param key
+     * @param path
+     * @param cache in which the pair is stored */
+    public void register(long key, Path path, TimeDistanceCache cache) {
+        for (Link link : path.links) {
+            int index = link.getId().index();
+            if (index < keysOfLink.length && Objects.nonNull(keysOfLink[index])) {
+                if (keyCount[index] == keysOfLink[index].length) {
+                    compact(index, cache);
+                    /** the index only grows if at least half of its keys belong to distinct entries of the cache */
+                    if (keysOfLink[index].length < 2 * keyCount[index])
+                        keysOfLink[index] = Arrays.copyOf(keysOfLink[index], 2 * keysOfLink[index].length);
+                }
+                keysOfLink[index][keyCount[index]++] = key;
+            }
+        }
+    }
+
+    /** removes the keys of entries which are no longer in the cache and duplicate keys from the index of a link */
+    private void compact(int index, TimeDistanceCache cache) {
+        long[] keys = keysOfLink[index];
+        Arrays.sort(keys, 0, keyCount[index]);
+        int count = 0;
+        for (int i = 0; i < keyCount[index]; ++i)
+            if ((count == 0 || keys[count - 1] != keys[i]) && cache.contains(keys[i]))
+                keys[count++] = keys[i];
+        keyCount[index] = count;
+    }
+
+    /** @param link
+     * @return number of keys indexed for the link, including keys of evicted or invalidated entries */
+    public int keys(Link link) {
+        int index = link.getId().index();
+        return index < keyCount.length ? keyCount[index] : 0;
+    }
+
+    /** @return number of time bins at which entries are invalidated */
+    public int bins() {
+        return boundaries.length;
+    }
+}
@@ -10,4 +10,8 @@ public class NetworkMinTimeDistanceFunction extends NetworkDistanceFunction {
     public NetworkMinTimeDistanceFunction(Network network, LeastCostPathCalculatorFactory calcFactory) {
         super(EasyMinTimePathCalculator.prepPathCalculator(network, calcFactory));
     }
+
+    public NetworkMinTimeDistanceFunction(SharedLandmarksRouters landmarksRouters) {
+        super(landmarksRouters.minTime());
+    }
 }
@@ -0,0 +1,182 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.routing;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.router.util.TravelTime;
+
+import amodeus.amodeus.util.math.SI;
+import ch.ethz.idsc.tensor.Scalar;
+import ch.ethz.idsc.tensor.qty.Quantity;
+
+/** {@link BatchNetworkTimeDistInterface} that computes each row of a matrix with a single
+ * time-dependent Dijkstra search which stops as soon as all targets are settled. The rows are
+ * computed in parallel, every thread holds its own search state. Sources which appear several
+ * times, e.g., vehicles waiting on the same {@link Link}, are only searched once.
+ *
+ * As in {@link TimeDistanceProperty}, the path from {@link Link} from to {@link Link} to starts at
+ * the from node of from and ends at the to node of to, the path minimizes the travel time according
+ * to the given {@link TravelTime}. Unreachable entries are set to positive infinity. */
+public class OneToManyNetworkTimeDistance implements BatchNetworkTimeDistInterface {
+    private final TravelTime travelTime;
+    private final Map<Id<Node>, Integer> indices = new HashMap<>();
+    /** outgoing links of node i are at positions offsets[i], ..., offsets[i + 1] - 1 */
+    private final int[] offsets;
+    private final Link[] links;
+    private final int[] heads;
+    private final ThreadLocal<Search> searches;
+
+    public OneToManyNetworkTimeDistance(Network network, TravelTime travelTime) {
+        this.travelTime = Objects.requireNonNull(travelTime);
+        for (Node node : network.getNodes().values())
+            indices.put(node.getId(), indices.size());
+        int n = indices.size();
+        offsets = new int[n + 1];
+        for (Link link : network.getLinks().values())
+            ++offsets[indexOf(link.getFromNode()) + 1];
+        for (int node = 0; node < n; ++node)
+            offsets[node + 1] += offsets[node];
+        links = new Link[offsets[n]];
+        heads = new int[offsets[n]];
+        int[] positions = Arrays.copyOf(offsets, n);
+        for (Link link : network.getLinks().values()) {
+            int position = positions[indexOf(link.getFromNode())]++;
+            links[position] = link;
+            heads[position] = indexOf(link.getToNode());
+        }
+        searches = ThreadLocal.withInitial(() -> new Search(n));
+    }
+
+    @Override // from NetworkTimeDistInterface
+    public Scalar travelTime(Link from, Link to, double now) {
+        Search search = searches.get();
+        int target = indexOf(to.getToNode());
+        search.run(indexOf(from.getFromNode()), new int[] { target }, now);
+        return Quantity.of(search.times[target], SI.SECOND);
+    }
+
+    @Override // from NetworkTimeDistInterface
+    public Scalar distance(Link from, Link to, double now) {
+        Search search = searches.get();
+        int target = indexOf(to.getToNode());
+        search.run(indexOf(from.getFromNode()), new int[] { target }, now);
+        return Quantity.of(search.distances[target], SI.METER);
+    }
+
+    @Override // from BatchNetworkTimeDistInterface
+    public double[][] travelTimes(Collection<Link> from, Collection<Link> to, double now) {
+        return matrix(from, to, now, true);
+    }
+
+    @Override // from BatchNetworkTimeDistInterface
+    public double[][] distances(Collection<Link> from, Collection<Link> to, double now) {
+        return matrix(from, to, now, false);
+    }
+
+    /** @param from
+     * @param to
+     * @param now
+     * @return matrix in which the entry [i][j] is the distance in meters of the path with minimum travel
+     *         time from the i-th {@link Node} in from to the j-th {@link Node} in to */
+    public double[][] nodeDistances(Collection<Node> from, Collection<Node> to, double now) {
+        return matrix(from.stream().mapToInt(this::indexOf).toArray(), to.stream().mapToInt(this::indexOf).toArray(), now, false);
+    }
+
+    private double[][] matrix(Collection<Link> from, Collection<Link> to, double now, boolean time) {
+        int[] sources = from.stream().map(Link::getFromNode).mapToInt(this::indexOf).toArray();
+        int[] targets = to.stream().map(Link::getToNode).mapToInt(this::indexOf).toArray();
+        return matrix(sources, targets, now, time);
+    }
+
+    private double[][] matrix(int[] sources, int[] targets, double now, boolean time) {
+        int[] distinct = Arrays.stream(sources).distinct().toArray();
+        double[][] rows = new double[distinct.length][];
+        IntStream.range(0, distinct.length).parallel().forEach(index -> {
+            Search search = searches.get();
+            search.run(distinct[index], targets, now);
+            double[] values = time ? search.times : search.distances;
+            rows[index] = Arrays.stream(targets).mapToDouble(target -> values[target]).toArray();
+        });
+        Map<Integer, double[]> rowOfSource = new HashMap<>();
+        for (int index = 0; index < distinct.length; ++index)
+            rowOfSource.put(distinct[index], rows[index]);
+        double[][] matrix = new double[sources.length][];
+        for (int index = 0; index < sources.length; ++index)
+            matrix[index] = rowOfSource.get(sources[index]).clone();
+        return matrix;
+    }
+
+    private int indexOf(Node node) {
+        Integer index = indices.get(node.getId());
+        if (Objects.isNull(index))
+            throw new IllegalArgumentException("node " + node.getId() + " not in network");
+        return index;
+    }
+
+    /** search state confined to a single thread */
+    private class Search {
+        private final IndexedMinHeap heap;
+        private final double[] times;
+        private final double[] distances;
+        private final int[] touched;
+        private int touchedCount = 0;
+        private final int[] targetStamps;
+        private int stamp = 0;
+
+        private Search(int n) {
+            heap = new IndexedMinHeap(n);
+            times = new double[n];
+            distances = new double[n];
+            Arrays.fill(times, Double.POSITIVE_INFINITY);
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+            touched = new int[n];
+            targetStamps = new int[n];
+        }
+
+        /** after the call, times and distances hold the values of all targets */
+        private void run(int source, int[] targets, double now) {
+            for (int index = 0; index < touchedCount; ++index) {
+                times[touched[index]] = Double.POSITIVE_INFINITY;
+                distances[touched[index]] = Double.POSITIVE_INFINITY;
+            }
+            touchedCount = 0;
+            heap.clear();
+            ++stamp;
+            int remaining = 0;
+            for (int target : targets)
+                if (targetStamps[target] != stamp) {
+                    targetStamps[target] = stamp;
+                    ++remaining;
+                }
+            times[source] = 0;
+            distances[source] = 0;
+            touched[touchedCount++] = source;
+            heap.insertOrDecrease(source, 0);
+            while (0 < remaining && !heap.isEmpty()) {
+                int node = heap.poll();
+                if (targetStamps[node] == stamp && --remaining == 0)
+                    return;
+                for (int index = offsets[node]; index < offsets[node + 1]; ++index) {
+                    int next = heads[index];
+                    double nextTime = times[node] + travelTime.getLinkTravelTime(links[index], now + times[node], null, null);
+                    if (nextTime < times[next]) {
+                        if (Double.isInfinite(times[next]))
+                            touched[touchedCount++] = next;
+                        times[next] = nextTime;
+                        distances[next] = distances[node] + links[index].getLength();
+                        heap.insertOrDecrease(next, nextTime);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.routing;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.router.FastAStarLandmarksFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+
+/** Registry of A* landmarks routers on a {@link Network}. The landmarks are preprocessed at most once
+ * per network and travel disutility, i.e., once for the free-flow travel time as in the
+ * {@link EasyMinTimePathCalculator} and once for the distance as in the {@link EasyMinDistPathCalculator}.
+ * All calculators handed out share this preprocessed data.
+ *
+ * A {@link LeastCostPathCalculator} is not thread-safe, every call to {@link #minTime()} or {@link #minDist()}
+ * returns a new calculator which should be confined to the thread of the caller.
+ *
+ * Instances are obtained with {@link #of(Network)}, the same instance is bound for every mode which
+ * routes on the same {@link Network} and can be injected with getModal(SharedLandmarksRouters.class).
+ * The registry does not keep networks or their landmarks alive once no caller refers to them. */
+public class SharedLandmarksRouters {
+    /** the instances refer to their network, hence they are referenced weakly as well */
+    private static final Map<Network, WeakReference<SharedLandmarksRouters>> SHARED = new WeakHashMap<>();
+
+    /** @param network
+     * @return registry of A* landmarks routers on the network, the same instance for every call with the same network
+     *         as long as the instance is in use */
+    public static synchronized SharedLandmarksRouters of(Network network) {
+        WeakReference<SharedLandmarksRouters> reference = SHARED.get(Objects.requireNonNull(network));
+        SharedLandmarksRouters routers = Objects.isNull(reference) ? null : reference.get();
+        if (Objects.isNull(routers)) {
+            routers = new SharedLandmarksRouters(network);
+            SHARED.put(network, new WeakReference<>(routers));
+        }
+        return routers;
+    }
+
+    // ---
+    private final Network network;
+    /** {@link FastAStarLandmarksFactory} preprocesses the landmarks once per network with the travel disutility
+     * of the first call, hence separate factories for different travel disutilities */
+    private final LeastCostPathCalculatorFactory minTimeFactory = new FastAStarLandmarksFactory(Runtime.getRuntime().availableProcessors());
+    private final LeastCostPathCalculatorFactory minDistFactory = new FastAStarLandmarksFactory(Runtime.getRuntime().availableProcessors());
+
+    private SharedLandmarksRouters(Network network) {
+        this.network = network;
+    }
+
+    /** @return new {@link LeastCostPathCalculator} minimizing the free-flow travel time */
+    public synchronized LeastCostPathCalculator minTime() {
+        return EasyMinTimePathCalculator.prepPathCalculator(network, minTimeFactory);
+    }
+
+    /** @return new {@link LeastCostPathCalculator} minimizing the network distance */
+    public synchronized LeastCostPathCalculator minDist() {
+        return EasyMinDistPathCalculator.prepPathCalculator(network, minDistFactory);
+    }
+
+    public Network getNetwork() {
+        return network;
+    }
+}
@@ -0,0 +1,206 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.routing;
+
+import java.util.Arrays;
+
+import org.matsim.api.core.v01.network.Link;
+
+import amodeus.amodeus.util.math.GlobalAssert;
+
+/** Open-addressing hash table that stores the travel time and the distance between a pair of
+ * {@link Link}s as primitive doubles. The pair is identified by the indices of the two link ids
+ * packed into a single long, so that neither lookups nor insertions allocate objects.
+ *
+ * Every entry remembers the time bucket in which it was computed. An entry is valid as long as
+ * its bucket started no longer than maxLag ago, expired entries are dropped whenever the table
+ * is rehashed. The table never holds more than maxEntries valid entries, if the cap is reached
+ * the entries of the oldest buckets are evicted until at most half of the cap remains.
+ * Single entries can be invalidated explicitly, e.g., when the travel times along their path change.
+ *
+ * Like the map based {@link CachedNetworkPropertyComputation}, the table is not thread-safe. */
+/* package */ final class TimeDistanceCache {
+    private static final long EMPTY = -1L;
+    private static final int MIN_CAPACITY = 16;
+    /** number of buckets into which the interval maxLag is divided */
+    private static final int BUCKETS_PER_LAG = 16;
+    /** upper bound on the width of a bucket, relevant if maxLag is very large or infinite */
+    private static final double MAX_BUCKET_WIDTH = 900.0;
+
+    /** @return key for the pair of {@link Link}s @param from and @param to */
+    public static long key(Link from, Link to) {
+        return ((long) from.getId().index() << 32) | (to.getId().index() & 0xFFFFFFFFL);
+    }
+
+    // ---
+    private final double maxLag;
+    private final double bucketWidth;
+    private final int maxEntries;
+    private final int maxCapacity;
+    // ---
+    private long[] keys;
+    private double[] times;
+    private double[] distances;
+    private int[] buckets;
+    private int mask;
+    private int size = 0;
+
+    /** @param maxLag positive duration in seconds for which a computed value remains valid, may be infinite
+     * @param maxEntries positive upper bound on the number of stored pairs */
+    public TimeDistanceCache(double maxLag, int maxEntries) {
+        GlobalAssert.that(0 < maxLag);
+        GlobalAssert.that(0 < maxEntries && maxEntries <= 1 << 29);
+        this.maxLag = maxLag;
+        this.maxEntries = maxEntries;
+        bucketWidth = Math.min(maxLag / BUCKETS_PER_LAG, MAX_BUCKET_WIDTH);
+        int capacity = MIN_CAPACITY;
+        while (capacity < 2 * maxEntries)
+            capacity <<= 1;
+        maxCapacity = capacity;
+        allocate(MIN_CAPACITY);
+    }
+
+    /** @param key
+     * @param now
+     * @return slot of the entry for the given key if present and not expired at time now, or -1 otherwise */
+    public int find(long key, double now) {
+        int slot = indexOf(key);
+        return keys[slot] == key && oldestValidBucket(now) <= buckets[slot] && !Double.isNaN(times[slot]) ? slot : -1;
+    }
+
+    /** @param key
+     * @return true if an entry for the given key is stored and was not invalidated, regardless of its age */
+    public boolean contains(long key) {
+        int slot = indexOf(key);
+        return keys[slot] == key && !Double.isNaN(times[slot]);
+    }
+
+    /** marks the entry of the given key as invalid, the entry is dropped at the next rehash or overwritten by put
+     *
+     * @param key */
+    public void invalidate(long key) {
+        int slot = indexOf(key);
+        if (keys[slot] == key)
+            times[slot] = Double.NaN;
+    }
+
+    /** removes all entries */
+    public void clear() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /** stores the travel time and distance of the pair identified by key, computed at time now
+     *
+     * @param key
+     * @param time
+     * @param distance
+     * @param now
+     * @return slot of the stored entry, valid until the next call to put */
+    public int put(long key, double time, double distance, double now) {
+        int slot = indexOf(key);
+        if (keys[slot] == EMPTY) {
+            if (keys.length < 2 * (size + 1) || maxEntries <= size) {
+                makeRoom(now);
+                slot = indexOf(key);
+            }
+            keys[slot] = key;
+            ++size;
+        }
+        times[slot] = time;
+        distances[slot] = distance;
+        buckets[slot] = bucketOf(now);
+        return slot;
+    }
+
+    /** @param slot as returned by {@link #find(long, double)} or {@link #put(long, double, double, double)}
+     * @return travel time stored in slot */
+    public double time(int slot) {
+        return times[slot];
+    }
+
+    /** @param slot as returned by {@link #find(long, double)} or {@link #put(long, double, double, double)}
+     * @return distance stored in slot */
+    public double distance(int slot) {
+        return distances[slot];
+    }
+
+    /** @return number of stored entries, including expired and invalidated entries not yet dropped */
+    public int size() {
+        return size;
+    }
+
+    /** @return slot at which the key is stored or the empty slot at which it would be inserted */
+    private int indexOf(long key) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int bucketOf(double time) {
+        return (int) Math.floor(time / bucketWidth);
+    }
+
+    /** @return first bucket whose entries were all computed no longer than maxLag before now */
+    private int oldestValidBucket(double now) {
+        if (Double.isInfinite(maxLag))
+            return Integer.MIN_VALUE;
+        return (int) Math.ceil((now - maxLag) / bucketWidth);
+    }
+
+    /** drops expired entries and, if the cap is reached, the oldest valid entries, then resizes the table */
+    private void makeRoom(double now) {
+        int cutoff = oldestValidBucket(now);
+        int[] valid = new int[size];
+        int count = 0;
+        for (int slot = 0; slot < keys.length; ++slot)
+            if (keys[slot] != EMPTY && cutoff <= buckets[slot] && !Double.isNaN(times[slot]))
+                valid[count++] = buckets[slot];
+        if (maxEntries <= count) {
+            Arrays.sort(valid, 0, count);
+            int evictionCutoff = valid[count - Math.max(1, maxEntries / 2)];
+            int kept = 0;
+            for (int index = 0; index < count; ++index)
+                if (evictionCutoff <= valid[index])
+                    ++kept;
+            /** if the newest bucket alone exceeds the cap, the table is cleared entirely */
+            cutoff = kept < maxEntries ? evictionCutoff : Integer.MAX_VALUE;
+            count = kept < maxEntries ? kept : 0;
+        }
+        int capacity = MIN_CAPACITY;
+        while (capacity < 4 * (count + 1) && capacity < maxCapacity)
+            capacity <<= 1;
+        rehash(capacity, cutoff);
+    }
+
+    private void rehash(int capacity, int cutoff) {
+        long[] oldKeys = keys;
+        double[] oldTimes = times;
+        double[] oldDistances = distances;
+        int[] oldBuckets = buckets;
+        allocate(capacity);
+        for (int index = 0; index < oldKeys.length; ++index)
+            if (oldKeys[index] != EMPTY && cutoff <= oldBuckets[index] && !Double.isNaN(oldTimes[index])) {
+                int slot = indexOf(oldKeys[index]);
+                keys[slot] = oldKeys[index];
+                times[slot] = oldTimes[index];
+                distances[slot] = oldDistances[index];
+                buckets[slot] = oldBuckets[index];
+                ++size;
+            }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        times = new double[capacity];
+        distances = new double[capacity];
+        buckets = new int[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+}
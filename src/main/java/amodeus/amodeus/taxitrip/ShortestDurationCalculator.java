@@ -3,17 +3,13 @@ package amodeus.amodeus.taxitrip;
 
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
-import org.matsim.api.core.v01.population.Person;
-import org.matsim.core.router.FastAStarLandmarksFactory;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.LeastCostPathCalculator.Path;
-import org.matsim.core.router.util.TravelDisutility;
-import org.matsim.core.router.util.TravelTime;
-import org.matsim.vehicles.Vehicle;
 
 import amodeus.amodeus.net.FastLinkLookup;
 import amodeus.amodeus.net.MatsimAmodeusDatabase;
 import amodeus.amodeus.net.TensorCoords;
+import amodeus.amodeus.routing.SharedLandmarksRouters;
 import amodeus.amodeus.util.math.SI;
 import ch.ethz.idsc.tensor.Scalar;
 import ch.ethz.idsc.tensor.Tensor;
@@ -25,24 +21,7 @@ public class ShortestDurationCalculator {
     private final LeastCostPathCalculator leastCostPathCalculator;
 
     public ShortestDurationCalculator(Network network, MatsimAmodeusDatabase db) {
-        leastCostPathCalculator = new FastAStarLandmarksFactory(Runtime.getRuntime().availableProcessors()).createPathCalculator(network, //
-                new TravelDisutility() { // free speed travel time
-                    @Override
-                    public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
-                        return getLinkMinimumTravelDisutility(link);
-                    }
-
-                    @Override
-                    public double getLinkMinimumTravelDisutility(Link link) {
-                        return link.getLength() / link.getFreespeed();
-                    }
-                }, //
-                new TravelTime() {
-                    @Override
-                    public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
-                        return link.getLength() / link.getFreespeed();
-                    }
-                });
+        leastCostPathCalculator = SharedLandmarksRouters.of(network).minTime();
         // fast link lookup
         fastLinkLookup = new FastLinkLookup(network, db);
     }
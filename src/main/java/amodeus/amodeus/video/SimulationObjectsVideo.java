@@ -4,7 +4,16 @@ package amodeus.amodeus.video;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import amodeus.amodeus.gfx.AmodeusComponent;
 import amodeus.amodeus.net.SimulationObject;
@@ -12,59 +21,145 @@ import amodeus.amodeus.util.gui.GraphicsUtil;
 import ch.ethz.idsc.tensor.io.AnimationWriter;
 
 /** @author onicolo 06-2018
- *         Runnable script for making video renderers of Amod simulation directly from simulation objects. */
+ *         Runnable script for making video renderers of Amod simulation directly from simulation objects.
+ *
+ *         The frames are rendered in parallel, one thread per {@link AmodeusComponent}, and written in the
+ *         order of {@link #append(SimulationObject)} by the calling thread. At most two frames per component
+ *         are in flight, and their images are reused. Before a component renders a frame, it is given the
+ *         preceding frames that it has not rendered itself, see {@link AmodeusComponent#remember(SimulationObject)}. */
 /* package */ class SimulationObjectsVideo implements AutoCloseable {
     public static final Dimension RESOLUTION_4K = new Dimension(3840, 2160);
     public static final Dimension RESOLUTION_FullHD = new Dimension(1920, 1080);
+    /** number of preceding frames a layer may refer to, the load layer shows a history of up to 10 frames */
+    private static final int HISTORY = 9;
+    private static final Job END = new Job(null, Collections.emptyList());
     // ---
     private final AnimationWriter animationWriter;
-    private final BufferedImage bufferedImage;
-    private final Graphics2D graphics;
-    // ---
-    private final AmodeusComponent amodeusComponent;
+    private final Dimension dimension;
+    private final List<Thread> workers = new ArrayList<>();
+    private final BlockingQueue<Job> jobs = new LinkedBlockingQueue<>();
+    /** images of written frames which are reused */
+    private final BlockingQueue<BufferedImage> images = new LinkedBlockingQueue<>();
+    private final Deque<CompletableFuture<BufferedImage>> inFlight = new ArrayDeque<>();
+    private final Deque<SimulationObject> history = new ArrayDeque<>();
+    private final int window;
+    /** maximum time in milliseconds to wait for the tiles of the map */
+    public long tileTimeout = 20000;
 
     /** Hint: the working directory has to contain the files config.xml, AmodeusOptions.properties, network.xml.gz etc.
-     * 
+     *
      * @param filename for instance "video.mp4" relative to the working directory
+     * @param amodeusComponents with identical layers and map position, each of which is used by a single thread,
+     *            preferably sharing one tile cache such that every map tile is loaded once
      * @throws Exception */
-    public SimulationObjectsVideo(String filename, Dimension dimension, int fps, AmodeusComponent amodeusComponent) throws Exception {
+    public SimulationObjectsVideo(String filename, Dimension dimension, int fps, List<AmodeusComponent> amodeusComponents) throws Exception {
+        if (amodeusComponents.isEmpty())
+            throw new IllegalArgumentException("no component to render");
 
         animationWriter = new Mp4AnimationWriter(filename, dimension, fps);
 
-        this.amodeusComponent = amodeusComponent;
-        amodeusComponent.setSize(dimension);
-
-        bufferedImage = new BufferedImage(dimension.width, dimension.height, BufferedImage.TYPE_3BYTE_BGR);
-        graphics = bufferedImage.createGraphics();
+        this.dimension = dimension;
+        window = 2 * amodeusComponents.size();
+        for (AmodeusComponent amodeusComponent : amodeusComponents) {
+            amodeusComponent.setSize(dimension);
+            Thread thread = new Thread(() -> run(amodeusComponent), "video render " + workers.size());
+            thread.setDaemon(true);
+            thread.start();
+            workers.add(thread);
+        }
     }
 
-    private boolean first = true;
-    public int millis = 8000;
+    public SimulationObjectsVideo(String filename, Dimension dimension, int fps, AmodeusComponent amodeusComponent) throws Exception {
+        this(filename, dimension, fps, Collections.singletonList(amodeusComponent));
+    }
 
     public void append(SimulationObject simulationObject) throws Exception {
+        if (inFlight.size() == window)
+            write(inFlight.pollFirst());
+        Job job = new Job(simulationObject, new ArrayList<>(history));
+        inFlight.addLast(job.future);
+        jobs.add(job);
+
+        history.addLast(simulationObject);
+        if (HISTORY < history.size())
+            history.pollFirst();
+    }
 
-        amodeusComponent.setSimulationObject(simulationObject);
+    private void write(CompletableFuture<BufferedImage> future) throws Exception {
+        BufferedImage bufferedImage;
+        try {
+            bufferedImage = future.get();
+        } catch (ExecutionException executionException) {
+            Throwable cause = executionException.getCause();
+            throw cause instanceof Exception ? (Exception) cause : executionException;
+        }
+        animationWriter.write(bufferedImage);
+        images.add(bufferedImage);
+    }
 
-        GraphicsUtil.setQualityHigh(graphics);
-        amodeusComponent.paint(graphics);
+    private void run(AmodeusComponent amodeusComponent) {
+        try {
+            while (true) {
+                Job job = jobs.take();
+                if (job == END)
+                    return;
+                try {
+                    job.future.complete(render(amodeusComponent, job));
+                } catch (Exception exception) {
+                    job.future.completeExceptionally(exception);
+                }
+            }
+        } catch (InterruptedException interruptedException) {
+            // ---
+        }
+    }
 
-        if (first) {
-            first = false;
-            // TODO @datahaki, resolve or instruct other person to resolve
-            System.out.println("Loading Tiles...");
-            Thread.sleep(millis);
-            System.out.println("Starting mp4 Video.");
+    private BufferedImage render(AmodeusComponent amodeusComponent, Job job) throws InterruptedException {
+        BufferedImage bufferedImage = images.poll();
+        if (Objects.isNull(bufferedImage))
+            bufferedImage = new BufferedImage(dimension.width, dimension.height, BufferedImage.TYPE_3BYTE_BGR);
+        job.history.forEach(amodeusComponent::remember);
+        amodeusComponent.setSimulationObject(job.simulationObject);
 
+        Graphics2D graphics = bufferedImage.createGraphics();
+        try {
             GraphicsUtil.setQualityHigh(graphics);
             amodeusComponent.paint(graphics);
+            if (amodeusComponent.hasPendingTiles()) {
+                System.out.println("Loading Tiles...");
+                if (!amodeusComponent.awaitTiles(tileTimeout))
+                    System.err.println("WARN tiles not loaded within " + tileTimeout + " ms");
+                GraphicsUtil.setQualityHigh(graphics);
+                amodeusComponent.paint(graphics);
+            }
+        } finally {
+            graphics.dispose();
         }
-
-        animationWriter.write(bufferedImage);
+        return bufferedImage;
     }
 
     @Override // from AutoCloseable
     public void close() throws Exception {
-        if (Objects.nonNull(animationWriter))
-            animationWriter.close();
+        try {
+            while (!inFlight.isEmpty())
+                write(inFlight.pollFirst());
+        } finally {
+            workers.forEach(thread -> jobs.add(END));
+            for (Thread thread : workers)
+                thread.join();
+            if (Objects.nonNull(animationWriter))
+                animationWriter.close();
+        }
+    }
+
+    private static class Job {
+        private final SimulationObject simulationObject;
+        private final List<SimulationObject> history;
+        private final CompletableFuture<BufferedImage> future = new CompletableFuture<>();
+
+        private Job(SimulationObject simulationObject, List<SimulationObject> history) {
+            this.simulationObject = simulationObject;
+            this.history = history;
+        }
     }
 }
@@ -3,6 +3,8 @@ package amodeus.amodeus.video;
 
 import java.awt.Dimension;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 import org.matsim.api.core.v01.network.Link;
@@ -29,11 +31,15 @@ import amodeus.amodeus.net.StorageUtils;
 import amodeus.amodeus.options.ScenarioOptions;
 import amodeus.amodeus.options.ScenarioOptionsBase;
 import amodeus.amodeus.util.math.GlobalAssert;
+import amodeus.amodeus.view.jmapviewer.SharedTileCache;
 import amodeus.amodeus.util.matsim.NetworkLoader;
 import amodeus.amodeus.virtualnetwork.core.VirtualNetwork;
 import amodeus.amodeus.virtualnetwork.core.VirtualNetworkGet;
 
 public class VideoGenerator implements Runnable {
+    /** one core is left for reading the simulation objects and encoding the video */
+    private static final int RENDER_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    // ---
     Thread thread;
     File workingDirectory;
 
@@ -80,9 +86,57 @@ public class VideoGenerator implements Runnable {
 
         // load viewer
         MatsimAmodeusDatabase db = MatsimAmodeusDatabase.initialize(network, referenceFrame);
-        AmodeusComponent amodeusComponent = new AmodeusComponent(db);
         ViewerConfig viewerConfig = ViewerConfig.from(db, workingDirectory);
 
+        /** this is optional and should not cause problems if file does not
+         * exist. temporary solution */
+        VirtualNetwork<Link> virtualNetwork = VirtualNetworkGet.readDefault(network, scenarioOptions); // may be null
+        System.out.println("has vn: " + (virtualNetwork != null));
+
+        Dimension resolution = SimulationObjectsVideo.RESOLUTION_FullHD;
+        /** every render thread uses its own component, the map tiles are loaded once for all components */
+        SharedTileCache sharedTileCache = new SharedTileCache();
+        List<AmodeusComponent> amodeusComponents = new ArrayList<>();
+        for (int count = 0; count < RENDER_THREADS; ++count) {
+            AmodeusComponent amodeusComponent = createAmodeusComponent(db, sharedTileCache, viewerConfig, virtualNetwork);
+            amodeusComponent.setSize(resolution);
+            AmodeusComponentUtil.adjustMapZoom(amodeusComponent, network, scenarioOptions, db);
+            amodeusComponent.reorientMap(viewerConfig);
+            amodeusComponents.add(amodeusComponent);
+        }
+
+        StorageUtils storageUtils = new StorageUtils(outputSubDirectory);
+        IterationFolder iterationFolder = storageUtils.getAvailableIterations().get(0);
+        // storageSupplier typically has size = 10800
+        StorageSupplier storageSupplier = iterationFolder.storageSupplier();
+
+        int count = 0;
+        int base = 1;
+        try (SimulationObjectsVideo simulationObjectsVideo = new SimulationObjectsVideo( //
+                String.format("%s_%s.mp4", java.time.LocalDate.now(), network.getName()), //
+                resolution, viewerConfig.settings.fps, amodeusComponents //
+        )) {
+            int intervalEstimate = storageSupplier.getIntervalEstimate(); // 10
+            int hrs = 60 * 60 / intervalEstimate;
+            final int start = viewerConfig.settings.startTime * hrs;
+            final int end = Math.min(viewerConfig.settings.endTime * hrs, storageSupplier.size());
+            for (int index = start; index < end; index += 1) {
+                SimulationObject simulationObject = storageSupplier.getSimulationObject(index);
+                simulationObjectsVideo.append(simulationObject);
+                if (++count >= base) {
+                    System.out.println("render simObj " + count + "/" + (end - start));
+                    base *= 2;
+                }
+            }
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private static AmodeusComponent createAmodeusComponent(MatsimAmodeusDatabase db, SharedTileCache sharedTileCache, //
+            ViewerConfig viewerConfig, VirtualNetwork<Link> virtualNetwork) {
+        AmodeusComponent amodeusComponent = new AmodeusComponent(db, sharedTileCache);
+
         amodeusComponent.setTileSource(viewerConfig.getTileSource());
 
         TilesLayer tilesLayer = new TilesLayer(amodeusComponent);
@@ -114,46 +168,11 @@ public class VideoGenerator implements Runnable {
         clockLayer.loadSettings(viewerConfig.settings);
         amodeusComponent.addLayer(clockLayer);
 
-        /** this is optional and should not cause problems if file does not
-         * exist. temporary solution */
-        VirtualNetwork<Link> virtualNetwork = VirtualNetworkGet.readDefault(network, scenarioOptions); // may be null
-        System.out.println("has vn: " + (virtualNetwork != null));
         VirtualNetworkLayer virtualNetworkLayer = new VirtualNetworkLayer(amodeusComponent);
         virtualNetworkLayer.setVirtualNetwork(virtualNetwork);
         virtualNetworkLayer.loadSettings(viewerConfig.settings);
         amodeusComponent.addLayer(virtualNetworkLayer);
 
-        Dimension resolution = SimulationObjectsVideo.RESOLUTION_FullHD;
-        amodeusComponent.setSize(resolution);
-        AmodeusComponentUtil.adjustMapZoom(amodeusComponent, network, scenarioOptions, db);
-        amodeusComponent.reorientMap(viewerConfig);
-
-        StorageUtils storageUtils = new StorageUtils(outputSubDirectory);
-        IterationFolder iterationFolder = storageUtils.getAvailableIterations().get(0);
-        // storageSupplier typically has size = 10800
-        StorageSupplier storageSupplier = iterationFolder.storageSupplier();
-
-        int count = 0;
-        int base = 1;
-        try (SimulationObjectsVideo simulationObjectsVideo = new SimulationObjectsVideo( //
-                String.format("%s_%s.mp4", java.time.LocalDate.now(), network.getName()), //
-                resolution, viewerConfig.settings.fps, amodeusComponent //
-        )) {
-            simulationObjectsVideo.millis = 20000;
-            int intervalEstimate = storageSupplier.getIntervalEstimate(); // 10
-            int hrs = 60 * 60 / intervalEstimate;
-            final int start = viewerConfig.settings.startTime * hrs;
-            final int end = Math.min(viewerConfig.settings.endTime * hrs, storageSupplier.size());
-            for (int index = start; index < end; index += 1) {
-                SimulationObject simulationObject = storageSupplier.getSimulationObject(index);
-                simulationObjectsVideo.append(simulationObject);
-                if (++count >= base) {
-                    System.out.println("render simObj " + count + "/" + (end - start));
-                    base *= 2;
-                }
-            }
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
+        return amodeusComponent;
     }
 }
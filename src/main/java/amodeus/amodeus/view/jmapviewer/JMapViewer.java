@@ -7,7 +7,9 @@ import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Point;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.swing.JComponent;
 
@@ -58,6 +60,9 @@ public class JMapViewer extends JComponent implements TileLoaderListener {
 
     private transient AttributionSupport attribution = new AttributionSupport();
 
+    /** tiles requested by painting which were not loaded at that time, guarded by itself */
+    private final Set<Tile> pendingTiles = new HashSet<>();
+
     /** Creates a standard {@link JMapViewer} instance that can be controlled via
      * mouse: hold right mouse button for moving, double click left mouse button
      * or use mouse wheel for zooming. Loaded tiles are stored in a
@@ -68,8 +73,19 @@ public class JMapViewer extends JComponent implements TileLoaderListener {
         new DefaultMapController(this);
     }
 
+    /** Creates a {@link JMapViewer} instance like {@link #JMapViewer()} which loads
+     * its tiles into the given cache, shared with other viewers.
+     *
+     * @param sharedTileCache */
+    public JMapViewer(SharedTileCache sharedTileCache) {
+        this(sharedTileCache.getTileCache());
+        tileController.setTileLoader(sharedTileCache.getTileLoader());
+        sharedTileCache.addListener(this);
+        new DefaultMapController(this);
+    }
+
     /** Creates a new {@link JMapViewer} instance.
-     * 
+     *
      * @param tileCache
      *            The cache where to store tiles */
     JMapViewer(TileCache tileCache) {
@@ -293,6 +309,10 @@ public class JMapViewer extends JComponent implements TileLoaderListener {
                             tile = tileController.getTile(tilex, tiley, zoom);
                         }
                         if (tile != null) {
+                            if (!isSettled(tile))
+                                synchronized (pendingTiles) {
+                                    pendingTiles.add(tile);
+                                }
                             tile.paint(g, posx, posy); // , tilesize, tilesize
 
                             {
@@ -454,9 +474,46 @@ public class JMapViewer extends JComponent implements TileLoaderListener {
     @Override
     public void tileLoadingFinished(Tile tile, boolean success) {
         tile.setLoaded(success);
+        synchronized (pendingTiles) {
+            pendingTiles.remove(tile);
+            pendingTiles.notifyAll();
+        }
         repaint();
     }
 
+    /** @return true if loading of tile has finished, successfully or not */
+    private static boolean isSettled(Tile tile) {
+        return tile.isLoaded() || tile.hasError();
+    }
+
+    /** @return true if a tile requested by painting the map is not loaded yet */
+    public boolean hasPendingTiles() {
+        synchronized (pendingTiles) {
+            pendingTiles.removeIf(JMapViewer::isSettled);
+            return !pendingTiles.isEmpty();
+        }
+    }
+
+    /** blocks until all tiles requested by painting the map are loaded, for instance before
+     * the map is rendered into a video
+     * 
+     * @param timeout in milliseconds
+     * @return true if loading of all tiles has finished, false if the timeout elapsed before
+     * @throws InterruptedException */
+    public boolean awaitTiles(long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        synchronized (pendingTiles) {
+            while (true) {
+                /** a tile may finish loading before it is registered as pending */
+                pendingTiles.removeIf(JMapViewer::isSettled);
+                long remaining = deadline - System.currentTimeMillis();
+                if (pendingTiles.isEmpty() || remaining <= 0)
+                    return pendingTiles.isEmpty();
+                pendingTiles.wait(remaining);
+            }
+        }
+    }
+
     /** Determines whether scroll wrap is enabled or not.
      * 
      * @return {@code true} if scroll wrap is enabled, {@code false} otherwise */
@@ -0,0 +1,36 @@
+// License: GPL. For details, see Readme.txt file.
+package amodeus.amodeus.view.jmapviewer;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import amodeus.amodeus.view.jmapviewer.interfaces.TileCache;
+import amodeus.amodeus.view.jmapviewer.interfaces.TileLoader;
+import amodeus.amodeus.view.jmapviewer.interfaces.TileLoaderListener;
+
+/** {@link TileCache} and {@link TileLoader} shared by several {@link JMapViewer}, for instance
+ * by the components which render the frames of a video in parallel. Every tile is loaded once
+ * and the completion is reported to all viewers, since a viewer may wait for a tile that was
+ * requested by another viewer. */
+public final class SharedTileCache implements TileLoaderListener {
+    private final TileCache tileCache = new MemoryTileCache();
+    private final TileLoader tileLoader = new OsmTileLoader(this);
+    private final List<TileLoaderListener> listeners = new CopyOnWriteArrayList<>();
+
+    /* package */ TileCache getTileCache() {
+        return tileCache;
+    }
+
+    /* package */ TileLoader getTileLoader() {
+        return tileLoader;
+    }
+
+    /* package */ void addListener(TileLoaderListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void tileLoadingFinished(Tile tile, boolean success) {
+        listeners.forEach(listener -> listener.tileLoadingFinished(tile, success));
+    }
+}
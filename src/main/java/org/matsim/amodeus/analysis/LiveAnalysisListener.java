@@ -0,0 +1,118 @@
+package org.matsim.amodeus.analysis;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.log4j.Logger;
+import org.matsim.amodeus.config.AmodeusConfigGroup;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.events.IterationEndsEvent;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.listener.IterationEndsListener;
+import org.matsim.core.controler.listener.IterationStartsListener;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import amodeus.amodeus.analysis.Analysis;
+import amodeus.amodeus.net.MatsimAmodeusDatabase;
+import amodeus.amodeus.net.SimulationObject;
+import amodeus.amodeus.net.SimulationSubscribers;
+import amodeus.amodeus.options.ScenarioOptions;
+import amodeus.amodeus.util.net.ObjectHandler;
+
+/** Runs the {@link Analysis} on the simulation objects while the simulation is running instead of reading
+ * the recorded simulation objects afterwards. The reports are generated when the iteration ends, in the
+ * folder amodeus_analysis of the iteration. Hence, the simulation objects do not have to be recorded, see
+ * the dispatcher parameter storageLayout.
+ * 
+ * The dispatcher of each mode publishes the simulation objects of its own fleet, hence every fleet is analyzed
+ * separately. If more than one mode is configured, the reports of a fleet are generated in the subfolder
+ * fleet[i] where i is the smallest index of its vehicles. */
+@Singleton
+public class LiveAnalysisListener implements IterationStartsListener, IterationEndsListener, ObjectHandler {
+    private final static Logger logger = Logger.getLogger(LiveAnalysisListener.class);
+    private static final String ANALYSIS_DIRECTORY_NAME = "amodeus_analysis";
+
+    private final OutputDirectoryHierarchy outputDirectory;
+    private final int liveAnalysisInterval;
+    private final ScenarioOptions scenarioOptions;
+    private final Network network;
+    private final MatsimAmodeusDatabase db;
+    private final boolean multipleModes;
+
+    /** null unless the analysis is active in the current iteration */
+    private File analysisDirectory = null;
+    /** analysis of each fleet by the indices of its vehicles, created upon the first simulation object of the fleet */
+    private final Map<Integer, Analysis> analyses = new HashMap<>();
+    private final List<Analysis> fleetAnalyses = new ArrayList<>();
+
+    @Inject
+    public LiveAnalysisListener(AmodeusConfigGroup config, OutputDirectoryHierarchy outputDirectory, ScenarioOptions scenarioOptions, Network network,
+            MatsimAmodeusDatabase db) {
+        this.outputDirectory = outputDirectory;
+        this.liveAnalysisInterval = config.getLiveAnalysisInterval();
+        this.scenarioOptions = scenarioOptions;
+        this.network = network;
+        this.db = db;
+        this.multipleModes = config.getModes().size() > 1;
+    }
+
+    @Override
+    public synchronized void notifyIterationStarts(IterationStartsEvent event) {
+        if (liveAnalysisInterval > 0 && event.getIteration() % liveAnalysisInterval == 0) {
+            analysisDirectory = new File(outputDirectory.getIterationFilename(event.getIteration(), ANALYSIS_DIRECTORY_NAME));
+            analysisDirectory.mkdirs();
+            SimulationSubscribers.INSTANCE.add(this);
+        }
+    }
+
+    /** receives the simulation objects on the thread of the publisher of each dispatcher */
+    @Override
+    public synchronized void handle(Object object) {
+        if (Objects.isNull(analysisDirectory))
+            return;
+        SimulationObject simulationObject = (SimulationObject) object;
+        /** the simulation objects of a fleet always contain all of its vehicles */
+        Analysis analysis = analyses.get(simulationObject.vehicles.get(0).vehicleIndex);
+        if (Objects.isNull(analysis)) {
+            Set<Integer> vehicleIndices = simulationObject.vehicles.stream().map(vc -> vc.vehicleIndex).collect(Collectors.toSet());
+            File directory = analysisDirectory;
+            if (multipleModes) {
+                directory = new File(analysisDirectory, "fleet" + Collections.min(vehicleIndices));
+                directory.mkdir();
+            }
+            try {
+                analysis = Analysis.live(scenarioOptions, directory, network, db, vehicleIndices);
+            } catch (Exception exception) {
+                throw new RuntimeException(exception);
+            }
+            for (int vehicleIndex : vehicleIndices)
+                analyses.put(vehicleIndex, analysis);
+            fleetAnalyses.add(analysis);
+        }
+        analysis.register(simulationObject);
+    }
+
+    /** the simulation objects of the iteration are all handled, since the publishers are closed when the simulation ends */
+    @Override
+    public synchronized void notifyIterationEnds(IterationEndsEvent event) {
+        if (Objects.isNull(analysisDirectory))
+            return;
+        SimulationSubscribers.INSTANCE.remove(this);
+        if (fleetAnalyses.isEmpty())
+            logger.warn("No simulation objects were published in iteration " + event.getIteration());
+        fleetAnalyses.forEach(Analysis::finish);
+        analyses.clear();
+        fleetAnalyses.clear();
+        analysisDirectory = null;
+    }
+}
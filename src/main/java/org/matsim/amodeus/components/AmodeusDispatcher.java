@@ -9,10 +9,18 @@ public interface AmodeusDispatcher {
 
     void onNextTaskStarted(DvrpVehicle vehicle);
 
+    /** called when the schedule of the vehicle is started with its first task, before the first time step */
+    default void onScheduleStarted(DvrpVehicle vehicle) {
+    }
+
     void onNextTimestep(double now);
 
     void addVehicle(DvrpVehicle vehicle);
 
+    /** called once after the last time step of the simulation, e.g., to finish pending output */
+    default void onSimulationEnd() {
+    }
+
     interface AVDispatcherFactory {
         AmodeusDispatcher createDispatcher(ModalProviders.InstanceGetter inject);
     }
@@ -1,12 +1,14 @@
 package org.matsim.amodeus.components.router;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.Future;
 
 import org.matsim.amodeus.components.AmodeusRouter;
 import org.matsim.amodeus.config.AmodeusConfigGroup;
 import org.matsim.amodeus.plpc.DefaultParallelLeastCostPathCalculator;
 import org.matsim.amodeus.plpc.ParallelLeastCostPathCalculator;
+import org.matsim.amodeus.plpc.PathQuery;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.api.core.v01.network.Node;
 import org.matsim.api.core.v01.population.Person;
@@ -33,6 +35,11 @@ public class DefaultAmodeusRouter implements AmodeusRouter {
         return delegate.calcLeastCostPath(fromNode, toNode, starttime, person, vehicle);
     }
 
+    @Override
+    public List<Future<Path>> calcLeastCostPaths(List<PathQuery> queries) {
+        return delegate.calcLeastCostPaths(queries);
+    }
+
     @Override
     public void close() throws IOException {
         delegate.close();
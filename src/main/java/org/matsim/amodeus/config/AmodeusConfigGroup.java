@@ -14,11 +14,13 @@ public class AmodeusConfigGroup extends ReflectiveConfigGroup {
     static final public String NUMBER_OF_PARALLEL_ROUTERS = "numberOfParallelRouters";
     static final public String PASSENGER_ANALYSIS_INTERVAL = "passengerAnalysisInterval";
     static final public String VEHICLE_ANALYSIS_INTERVAL = "vehicleAnalysisInterval";
+    static final public String LIVE_ANALYSIS_INTERVAL = "liveAnalysisInterval";
     static final public String USE_SCORING = "useScoring";
 
     private long parallelRouters = 4;
     private int passengerAnalysisInterval = 0;
     private int vehicleAnalysisInterval = 0;
+    private int liveAnalysisInterval = 0;
     private boolean useScoring = true;
 
     public AmodeusConfigGroup() {
@@ -135,6 +137,16 @@ public class AmodeusConfigGroup extends ReflectiveConfigGroup {
         this.vehicleAnalysisInterval = vehicleAnalysisInterval;
     }
 
+    @StringGetter(LIVE_ANALYSIS_INTERVAL)
+    public int getLiveAnalysisInterval() {
+        return liveAnalysisInterval;
+    }
+
+    @StringSetter(LIVE_ANALYSIS_INTERVAL)
+    public void setLiveAnalysisInterval(int liveAnalysisInterval) {
+        this.liveAnalysisInterval = liveAnalysisInterval;
+    }
+
     @StringGetter(USE_SCORING)
     public boolean getUseScoring() {
         return useScoring;
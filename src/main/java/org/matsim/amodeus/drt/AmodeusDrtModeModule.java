@@ -5,6 +5,7 @@ import org.matsim.amodeus.components.router.RouterShutdownListener;
 import org.matsim.amodeus.config.AmodeusModeConfig;
 import org.matsim.amodeus.framework.VirtualNetworkModeModule;
 import org.matsim.amodeus.framework.registry.RouterRegistry;
+import org.matsim.api.core.v01.network.Network;
 import org.matsim.contrib.dvrp.run.AbstractDvrpModeModule;
 import org.matsim.contrib.dvrp.trafficmonitoring.DvrpTravelTimeModule;
 import org.matsim.core.router.util.TravelTime;
@@ -13,6 +14,8 @@ import com.google.inject.Key;
 import com.google.inject.Singleton;
 import com.google.inject.name.Names;
 
+import amodeus.amodeus.routing.SharedLandmarksRouters;
+
 public class AmodeusDrtModeModule extends AbstractDvrpModeModule {
     private final AmodeusModeConfig config;
 
@@ -40,6 +43,10 @@ public class AmodeusDrtModeModule extends AbstractDvrpModeModule {
             return factory.createRouter(getter);
         })).in(Singleton.class);
 
+        bindModal(SharedLandmarksRouters.class).toProvider(modalProvider(getter -> {
+            return SharedLandmarksRouters.of(getter.getModal(Network.class));
+        })).in(Singleton.class);
+
         install(new VirtualNetworkModeModule(config));
     }
 }
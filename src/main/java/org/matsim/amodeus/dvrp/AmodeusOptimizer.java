@@ -13,13 +13,15 @@ import org.matsim.contrib.dvrp.schedule.Schedules;
 import org.matsim.contrib.dvrp.schedule.Task;
 import org.matsim.contrib.dvrp.tracker.OnlineTrackerListener;
 import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.mobsim.framework.events.MobsimBeforeCleanupEvent;
 import org.matsim.core.mobsim.framework.events.MobsimBeforeSimStepEvent;
+import org.matsim.core.mobsim.framework.listeners.MobsimBeforeCleanupListener;
 import org.matsim.core.mobsim.framework.listeners.MobsimBeforeSimStepListener;
 
 import com.google.inject.Singleton;
 
 @Singleton
-public class AmodeusOptimizer implements VrpOptimizer, OnlineTrackerListener, MobsimBeforeSimStepListener {
+public class AmodeusOptimizer implements VrpOptimizer, OnlineTrackerListener, MobsimBeforeSimStepListener, MobsimBeforeCleanupListener {
     private double now;
 
     private EventsManager eventsManager;
@@ -48,6 +50,10 @@ public class AmodeusOptimizer implements VrpOptimizer, OnlineTrackerListener, Mo
         }
 
         schedule.nextTask();
+
+        synchronized (dispatcher) {
+            dispatcher.onScheduleStarted(vehicle);
+        }
     }
 
     private void ensureNonFinishingSchedule(Schedule schedule, DvrpVehicle vehicle) {
@@ -121,6 +127,13 @@ public class AmodeusOptimizer implements VrpOptimizer, OnlineTrackerListener, Mo
         dispatcher.onNextTimestep(now);
     }
 
+    @Override
+    public void notifyMobsimBeforeCleanup(@SuppressWarnings("rawtypes") MobsimBeforeCleanupEvent e) {
+        synchronized (dispatcher) {
+            dispatcher.onSimulationEnd();
+        }
+    }
+
     @Override
     public void vehicleEnteredNextLink(DvrpVehicle vehicle, Link nextLink) {
 
@@ -38,6 +38,8 @@ import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 import com.google.inject.name.Names;
 
+import amodeus.amodeus.routing.SharedLandmarksRouters;
+
 public class AmodeusModeModule extends AbstractDvrpModeModule {
     private final AmodeusModeConfig modeConfig;
 
@@ -65,6 +67,11 @@ public class AmodeusModeModule extends AbstractDvrpModeModule {
         bindModal(PassengerRequestValidator.class).toInstance(new DefaultPassengerRequestValidator());
         bindModal(TravelTime.class).to(Key.get(TravelTime.class, Names.named(DvrpTravelTimeModule.DVRP_ESTIMATED)));
 
+        // Shared A* landmarks routers for the dispatchers, preprocessed once per network
+        bindModal(SharedLandmarksRouters.class).toProvider(modalProvider(getter -> {
+            return SharedLandmarksRouters.of(getter.getModal(Network.class));
+        })).in(Singleton.class);
+
         bindModal(RouterShutdownListener.class).toProvider(modalProvider(getter -> {
             return new RouterShutdownListener(getter.getModal(AmodeusRouter.class));
         })).in(Singleton.class);
@@ -3,6 +3,7 @@ package org.matsim.amodeus.framework;
 import java.util.Map;
 
 import org.matsim.amodeus.analysis.AnalysisOutputListener;
+import org.matsim.amodeus.analysis.LiveAnalysisListener;
 import org.matsim.amodeus.components.AmodeusGenerator;
 import org.matsim.amodeus.components.generator.PopulationDensityGenerator;
 import org.matsim.amodeus.config.AmodeusConfigGroup;
@@ -44,6 +45,10 @@ public class AmodeusModule extends AbstractModule {
 
         addControlerListenerBinding().to(AnalysisOutputListener.class);
 
+        if (AmodeusConfigGroup.get(getConfig()).getLiveAnalysisInterval() > 0) {
+            addControlerListenerBinding().to(LiveAnalysisListener.class);
+        }
+
         for (AmodeusModeConfig modeConfig : AmodeusConfigGroup.get(getConfig()).getModes().values()) {
             install(new AmodeusModeModule(modeConfig));
         }
@@ -1,14 +1,21 @@
 package org.matsim.amodeus.plpc;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
+import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.api.core.v01.network.Node;
 import org.matsim.api.core.v01.population.Person;
@@ -19,31 +26,53 @@ import org.matsim.core.router.util.TravelDisutility;
 import org.matsim.core.router.util.TravelTime;
 import org.matsim.vehicles.Vehicle;
 
+/** Distributes the path calculations among a fixed number of workers. Every worker owns one
+ * {@link LeastCostPathCalculator} and one thread, hence a calculator is never handed over between
+ * threads. Single paths are submitted to the worker with the fewest pending paths, batches are split
+ * into one contiguous chunk per worker.
+ *
+ * For every worker the queue depth at submission and the latency from submission to completion are
+ * recorded, see {@link #getWorkerStatistics()}. The statistics are logged when the calculator is closed
+ * and help to choose the number of parallel routers. */
 public class DefaultParallelLeastCostPathCalculator implements ParallelLeastCostPathCalculator {
-    final private BlockingQueue<LeastCostPathCalculator> calculators = new LinkedBlockingQueue<>();
-    final private ExecutorService executor;
+    private final static Logger logger = Logger.getLogger(DefaultParallelLeastCostPathCalculator.class);
+
+    final private List<Worker> workers = new ArrayList<>();
 
     public DefaultParallelLeastCostPathCalculator(Collection<LeastCostPathCalculator> calculators) {
-        this.calculators.addAll(calculators);
-        this.executor = Executors.newFixedThreadPool(calculators.size());
+        if (calculators.isEmpty())
+            throw new IllegalArgumentException("at least one router is required, check the number of parallel routers");
+        calculators.forEach(calculator -> workers.add(new Worker(calculator)));
     }
 
     @Override
     public Future<Path> calcLeastCostPath(Node fromNode, Node toNode, double starttime, Person person, Vehicle vehicle) {
-        Future<Path> future = executor.submit(() -> {
-            LeastCostPathCalculator calculator = calculators.take();
-            Path path = calculator.calcLeastCostPath(fromNode, toNode, starttime, person, vehicle);
-            calculators.put(calculator);
-            return path;
-        });
+        Worker worker = Collections.min(workers, Comparator.comparingInt(Worker::pending));
+        return worker.submit(Collections.singletonList(new PathQuery(fromNode, toNode, starttime, person, vehicle))).get(0);
+    }
+
+    @Override
+    public List<Future<Path>> calcLeastCostPaths(List<PathQuery> queries) {
+        List<Worker> ordered = workers.stream().sorted(Comparator.comparingInt(Worker::pending)).collect(Collectors.toList());
+        int chunk = Math.max(1, (queries.size() + ordered.size() - 1) / ordered.size());
+        List<Future<Path>> futures = new ArrayList<>(queries.size());
+        for (int index = 0; index < queries.size(); index += chunk) {
+            List<PathQuery> part = new ArrayList<>(queries.subList(index, Math.min(index + chunk, queries.size())));
+            futures.addAll(ordered.get(index / chunk).submit(part));
+        }
+        return futures;
+    }
 
-        // futures.add(future);
-        return future;
+    /** @return statistics of each worker since the creation of the calculator */
+    public List<WorkerStatistics> getWorkerStatistics() {
+        return workers.stream().map(Worker::statistics).collect(Collectors.toList());
     }
 
     @Override
     public void close() {
-        executor.shutdownNow();
+        for (int index = 0; index < workers.size(); ++index)
+            logger.info("router worker " + index + ": " + workers.get(index).statistics());
+        workers.forEach(worker -> worker.executor.shutdownNow());
     }
 
     static public ParallelLeastCostPathCalculator create(int numberOfInstances, LeastCostPathCalculatorFactory factory, Network network, TravelDisutility travelDisutility,
@@ -53,11 +82,133 @@ public class DefaultParallelLeastCostPathCalculator implements ParallelLeastCost
         for (int i = 0; i < numberOfInstances; i++) {
             instances.add(factory.createPathCalculator(network, travelDisutility, travelTime));
         }
-        
+
         return new DefaultParallelLeastCostPathCalculator(instances);
-        
+
         // return new SerialLeastCostPathCalculator(factory.createPathCalculator(network, travelDisutility, travelTime));
 
-        
+
+    }
+
+    /** single thread with its own calculator */
+    private static class Worker {
+        private final LeastCostPathCalculator calculator;
+        private final ExecutorService executor = Executors.newSingleThreadExecutor();
+        private final long creation = System.nanoTime();
+        private final AtomicInteger pending = new AtomicInteger();
+        // ---
+        private final AtomicLong submissions = new AtomicLong();
+        private final AtomicLong depthSum = new AtomicLong();
+        private final AtomicLong maxDepth = new AtomicLong();
+        private final AtomicLong paths = new AtomicLong();
+        private final AtomicLong latencySum = new AtomicLong();
+        private final AtomicLong maxLatency = new AtomicLong();
+        private final AtomicLong busy = new AtomicLong();
+
+        private Worker(LeastCostPathCalculator calculator) {
+            this.calculator = calculator;
+        }
+
+        private int pending() {
+            return pending.get();
+        }
+
+        private List<Future<Path>> submit(List<PathQuery> queries) {
+            long submission = System.nanoTime();
+            int depth = pending.getAndAdd(queries.size());
+            submissions.incrementAndGet();
+            depthSum.addAndGet(depth);
+            maxDepth.accumulateAndGet(depth, Math::max);
+
+            List<CompletableFuture<Path>> futures = new ArrayList<>(queries.size());
+            for (int index = 0; index < queries.size(); ++index)
+                futures.add(new CompletableFuture<>());
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                for (int index = 0; index < queries.size(); ++index) {
+                    PathQuery query = queries.get(index);
+                    Path path = null;
+                    Exception failure = null;
+                    try {
+                        path = calculator.calcLeastCostPath(query.getFromNode(), query.getToNode(), query.getStarttime(), query.getPerson(), query.getVehicle());
+                    } catch (Exception exception) {
+                        failure = exception;
+                    }
+                    /** statistics are recorded before the future completes */
+                    pending.decrementAndGet();
+                    long latency = System.nanoTime() - submission;
+                    paths.incrementAndGet();
+                    latencySum.addAndGet(latency);
+                    maxLatency.accumulateAndGet(latency, Math::max);
+                    if (Objects.isNull(failure))
+                        futures.get(index).complete(path);
+                    else
+                        futures.get(index).completeExceptionally(failure);
+                }
+                busy.addAndGet(System.nanoTime() - start);
+            });
+            return new ArrayList<>(futures);
+        }
+
+        private WorkerStatistics statistics() {
+            return new WorkerStatistics(paths.get(), //
+                    submissions.get() == 0 ? 0.0 : depthSum.get() / (double) submissions.get(), (int) maxDepth.get(), //
+                    paths.get() == 0 ? 0.0 : latencySum.get() * 1e-9 / paths.get(), maxLatency.get() * 1e-9, //
+                    busy.get() / (double) (System.nanoTime() - creation));
+        }
+    }
+
+    public static class WorkerStatistics {
+        private final long paths;
+        private final double meanQueueDepth;
+        private final int maxQueueDepth;
+        private final double meanLatency;
+        private final double maxLatency;
+        private final double utilization;
+
+        private WorkerStatistics(long paths, double meanQueueDepth, int maxQueueDepth, double meanLatency, double maxLatency, double utilization) {
+            this.paths = paths;
+            this.meanQueueDepth = meanQueueDepth;
+            this.maxQueueDepth = maxQueueDepth;
+            this.meanLatency = meanLatency;
+            this.maxLatency = maxLatency;
+            this.utilization = utilization;
+        }
+
+        /** @return number of computed paths */
+        public long getPaths() {
+            return paths;
+        }
+
+        /** @return mean number of pending paths of the worker at the time of a submission */
+        public double getMeanQueueDepth() {
+            return meanQueueDepth;
+        }
+
+        /** @return maximum number of pending paths of the worker at the time of a submission */
+        public int getMaxQueueDepth() {
+            return maxQueueDepth;
+        }
+
+        /** @return mean time in seconds from the submission of a path until its completion */
+        public double getMeanLatency() {
+            return meanLatency;
+        }
+
+        /** @return maximum time in seconds from the submission of a path until its completion */
+        public double getMaxLatency() {
+            return maxLatency;
+        }
+
+        /** @return fraction of the time since creation in which the worker was computing paths */
+        public double getUtilization() {
+            return utilization;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("paths=%d queueDepth(mean=%.2f, max=%d) latency(mean=%.6fs, max=%.6fs) utilization=%.3f", //
+                    paths, meanQueueDepth, maxQueueDepth, meanLatency, maxLatency, utilization);
+        }
     }
 }
@@ -1,7 +1,9 @@
 package org.matsim.amodeus.plpc;
 
 import java.io.Closeable;
+import java.util.List;
 import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import org.matsim.api.core.v01.network.Node;
 import org.matsim.api.core.v01.population.Person;
@@ -10,4 +12,15 @@ import org.matsim.vehicles.Vehicle;
 
 public interface ParallelLeastCostPathCalculator extends Closeable {
     Future<LeastCostPathCalculator.Path> calcLeastCostPath(Node fromNode, Node toNode, double starttime, final Person person, final Vehicle vehicle);
+
+    /** Submits several paths at once, implementations may distribute the batch among their workers
+     * with less overhead than one submission per path.
+     * 
+     * @param queries
+     * @return futures of the paths in the order of the queries */
+    default List<Future<LeastCostPathCalculator.Path>> calcLeastCostPaths(List<PathQuery> queries) {
+        return queries.stream() //
+                .map(query -> calcLeastCostPath(query.getFromNode(), query.getToNode(), query.getStarttime(), query.getPerson(), query.getVehicle())) //
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,47 @@
+package org.matsim.amodeus.plpc;
+
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.vehicles.Vehicle;
+
+/** The arguments of a single call to calcLeastCostPath, used to submit several paths at once with
+ * {@link ParallelLeastCostPathCalculator#calcLeastCostPaths(java.util.List)}. */
+public class PathQuery {
+    private final Node fromNode;
+    private final Node toNode;
+    private final double starttime;
+    private final Person person;
+    private final Vehicle vehicle;
+
+    public PathQuery(Node fromNode, Node toNode, double starttime, Person person, Vehicle vehicle) {
+        this.fromNode = fromNode;
+        this.toNode = toNode;
+        this.starttime = starttime;
+        this.person = person;
+        this.vehicle = vehicle;
+    }
+
+    public PathQuery(Node fromNode, Node toNode, double starttime) {
+        this(fromNode, toNode, starttime, null, null);
+    }
+
+    public Node getFromNode() {
+        return fromNode;
+    }
+
+    public Node getToNode() {
+        return toNode;
+    }
+
+    public double getStarttime() {
+        return starttime;
+    }
+
+    public Person getPerson() {
+        return person;
+    }
+
+    public Vehicle getVehicle() {
+        return vehicle;
+    }
+}
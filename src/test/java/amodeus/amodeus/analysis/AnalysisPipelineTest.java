@@ -0,0 +1,110 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.analysis;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+
+import amodeus.amodeus.analysis.element.AnalysisElement;
+import amodeus.amodeus.net.SimulationObject;
+import amodeus.amodeus.net.StorageSupplier;
+import junit.framework.TestCase;
+
+public class AnalysisPipelineTest extends TestCase {
+    /** supplies frames with now = 10 * index without reading files, the first index of every requested chunk is added to froms */
+    private static StorageSupplier storageSupplier(int size, int keyframeInterval, List<Integer> froms) {
+        TreeMap<Integer, File> navigableMap = new TreeMap<>();
+        SimulationObject[] simulationObjects = new SimulationObject[size];
+        for (int index = 0; index < size; ++index) {
+            navigableMap.put(10 * index, new File("frame" + index));
+            simulationObjects[index] = new SimulationObject();
+            simulationObjects[index].now = 10 * index;
+        }
+        return new StorageSupplier(navigableMap) {
+            @Override
+            public SimulationObject getSimulationObject(int index) {
+                return simulationObjects[index];
+            }
+
+            @Override
+            public List<SimulationObject> getSimulationObjects(int from, int to) {
+                froms.add(from);
+                return new ArrayList<>(Arrays.asList(simulationObjects).subList(from, to));
+            }
+
+            @Override
+            public int getKeyframeInterval() {
+                return keyframeInterval;
+            }
+        };
+    }
+
+    private static StorageSupplier storageSupplier(int size) {
+        return storageSupplier(size, 60, Collections.synchronizedList(new ArrayList<>()));
+    }
+
+    public void testOrder() throws Exception {
+        StorageSupplier storageSupplier = storageSupplier(1000);
+        List<SimulationObject> first = new ArrayList<>();
+        List<SimulationObject> second = new ArrayList<>();
+        new AnalysisPipeline(storageSupplier, Arrays.asList(first::add, second::add)).run();
+
+        /** the frames are registered as by a loop over the indices of the supplier */
+        List<SimulationObject> expected = new ArrayList<>();
+        for (int index = 0; index < storageSupplier.size(); ++index)
+            expected.add(storageSupplier.getSimulationObject(index));
+        assertEquals(expected.size(), first.size());
+        for (int index = 0; index < expected.size(); ++index) {
+            assertSame(expected.get(index), first.get(index));
+            assertSame(expected.get(index), second.get(index));
+        }
+    }
+
+    public void testFailure() throws Exception {
+        StorageSupplier storageSupplier = storageSupplier(1000);
+        RuntimeException runtimeException = new IllegalStateException();
+        AnalysisElement failing = simulationObject -> {
+            if (simulationObject.now == 5000)
+                throw runtimeException;
+        };
+        try {
+            new AnalysisPipeline(storageSupplier, Arrays.asList(simulationObject -> {
+            }, failing)).run();
+            fail();
+        } catch (IllegalStateException illegalStateException) {
+            assertSame(runtimeException, illegalStateException);
+        }
+    }
+
+    public void testError() throws Exception {
+        StorageSupplier storageSupplier = storageSupplier(1000);
+        Error error = new AssertionError();
+        AnalysisElement failing = simulationObject -> {
+            if (simulationObject.now == 10)
+                throw error;
+        };
+        try {
+            new AnalysisPipeline(storageSupplier, Arrays.asList(failing, simulationObject -> {
+            })).run();
+            fail();
+        } catch (AssertionError assertionError) {
+            assertSame(error, assertionError);
+        }
+    }
+
+    public void testKeyframeInterval() throws Exception {
+        List<Integer> froms = Collections.synchronizedList(new ArrayList<>());
+        StorageSupplier storageSupplier = storageSupplier(1000, 25, froms);
+        List<SimulationObject> registered = new ArrayList<>();
+        new AnalysisPipeline(storageSupplier, Arrays.asList(registered::add)).run();
+
+        /** every chunk starts with a keyframe */
+        assertEquals(40, froms.size());
+        for (int from : froms)
+            assertEquals(0, from % 25);
+        assertEquals(1000, registered.size());
+    }
+}
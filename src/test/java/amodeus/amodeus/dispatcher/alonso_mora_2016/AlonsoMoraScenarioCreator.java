@@ -0,0 +1,124 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.dispatcher.alonso_mora_2016;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.matsim.amodeus.config.AmodeusModeConfig;
+import org.matsim.amodeus.dvrp.request.AmodeusRequest;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.IdMap;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
+import org.matsim.contrib.dvrp.optimizer.Request;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.DijkstraFactory;
+import org.matsim.core.router.costcalculators.OnlyTimeDependentTravelDisutility;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+
+import amodeus.amodeus.dispatcher.alonso_mora_2016.routing.DefaultTravelFunction;
+import amodeus.amodeus.dispatcher.core.RoboTaxi;
+import amodeus.amodeus.dispatcher.core.schedule.directives.Directive;
+
+/** grid network with random requests and vehicles for the tests of the graph builders */
+public class AlonsoMoraScenarioCreator {
+    private static final double LENGTH = 200.0;
+    private static final double FREESPEED = 10.0;
+    /** the travel times depend on the time of day, hence the routes depend on the departure time */
+    public static final TravelTime TRAVEL_TIME = (link, time, person, vehicle) -> //
+    link.getLength() / link.getFreespeed() * (1.0 + (time % 3600.0) / 3600.0);
+
+    public final Network network = NetworkUtils.createNetwork();
+    private final List<Link> links = new ArrayList<>();
+
+    /** @param size number of nodes per side of the grid, neighboring nodes are connected in both directions */
+    public AlonsoMoraScenarioCreator(int size) {
+        Node[][] nodes = new Node[size][size];
+        for (int i = 0; i < size; ++i)
+            for (int j = 0; j < size; ++j)
+                nodes[i][j] = NetworkUtils.createAndAddNode(network, Id.createNodeId(i + "_" + j), new Coord(LENGTH * i, LENGTH * j));
+        for (int i = 0; i < size; ++i)
+            for (int j = 0; j < size; ++j) {
+                if (i + 1 < size) {
+                    addLink(nodes[i][j], nodes[i + 1][j]);
+                    addLink(nodes[i + 1][j], nodes[i][j]);
+                }
+                if (j + 1 < size) {
+                    addLink(nodes[i][j], nodes[i][j + 1]);
+                    addLink(nodes[i][j + 1], nodes[i][j]);
+                }
+            }
+    }
+
+    private void addLink(Node from, Node to) {
+        links.add(NetworkUtils.createAndAddLink(network, Id.createLinkId(from.getId() + "-" + to.getId()), from, to, LENGTH, FREESPEED, 1000, 1));
+    }
+
+    /** @return requests submitted at time now between random links */
+    public List<AlonsoMoraRequest> requests(int count, double now, Random random) {
+        List<AlonsoMoraRequest> requests = new ArrayList<>();
+        for (int index = 0; index < count; ++index) {
+            Link fromLink = links.get(random.nextInt(links.size()));
+            Link toLink = links.get(random.nextInt(links.size()));
+            AmodeusRequest request = new AmodeusRequest(Id.create("r" + index, Request.class), null, fromLink, toLink, now, AmodeusModeConfig.DEFAULT_MODE, null,
+                    Double.MAX_VALUE, Double.MAX_VALUE);
+            requests.add(new AlonsoMoraRequest(request, now + 600.0, now + 1800.0, now + 600.0));
+        }
+        return requests;
+    }
+
+    /** @return idle vehicles on random links */
+    public List<AlonsoMoraVehicle> vehicles(int count, int capacity, Random random) {
+        List<AlonsoMoraVehicle> vehicles = new ArrayList<>();
+        for (int index = 0; index < count; ++index)
+            vehicles.add(vehicle("v" + index, links.get(random.nextInt(links.size())), capacity, Collections.emptyList()));
+        return vehicles;
+    }
+
+    /** @return travel function which routes with its own {@link DefaultTravelTimeCalculator} */
+    public AlonsoMoraTravelFunction travelFunction(AlonsoMoraParameters parameters, double now, Collection<AlonsoMoraRequest> requests) {
+        TravelDisutility travelDisutility = new OnlyTimeDependentTravelDisutility(TRAVEL_TIME);
+        TravelTimeCalculator travelTimeCalculator = new DefaultTravelTimeCalculator( //
+                () -> new DijkstraFactory().createPathCalculator(network, travelDisutility, TRAVEL_TIME), parameters.travelTimeCacheInterval);
+        IdMap<Request, AlonsoMoraRequest> requestMap = new IdMap<>(Request.class);
+        requests.forEach(request -> requestMap.put(request.getId(), request));
+        return new DefaultTravelFunction(parameters, now, travelTimeCalculator, requestMap, 30.0, 30.0, Collections.emptySet());
+    }
+
+    public static AlonsoMoraVehicle vehicle(String id, Link location, int capacity, List<Directive> directives) {
+        Id<DvrpVehicle> vehicleId = Id.create(id, DvrpVehicle.class);
+        return new AlonsoMoraVehicle() {
+            @Override
+            public Id<DvrpVehicle> getId() {
+                return vehicleId;
+            }
+
+            @Override
+            public Link getLocation() {
+                return location;
+            }
+
+            @Override
+            public List<Directive> getDirectives() {
+                return directives;
+            }
+
+            @Override
+            public int getCapacity() {
+                return capacity;
+            }
+
+            @Override
+            public RoboTaxi getVehicle() {
+                return null;
+            }
+        };
+    }
+}
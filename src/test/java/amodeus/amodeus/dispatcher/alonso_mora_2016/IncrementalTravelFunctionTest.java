@@ -0,0 +1,172 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.dispatcher.alonso_mora_2016;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.matsim.api.core.v01.network.Link;
+
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraParameters.RouteSearchType;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraTravelFunction.Result;
+import amodeus.amodeus.dispatcher.core.schedule.directives.Directive;
+import amodeus.amodeus.dispatcher.core.schedule.directives.StopDirective;
+import junit.framework.TestCase;
+
+public class IncrementalTravelFunctionTest extends TestCase {
+    /** returns the same result for every trip and counts the evaluations */
+    private static class StubTravelFunction implements AlonsoMoraTravelFunction {
+        private final Optional<Result> result;
+        private int calls = 0;
+
+        StubTravelFunction(Optional<Result> result) {
+            this.result = result;
+        }
+
+        @Override
+        public Optional<Result> calculate(AlonsoMoraVehicle vehicle, Collection<AlonsoMoraRequest> requests) {
+            ++calls;
+            return result;
+        }
+
+        @Override
+        public Optional<Result> calculate(AlonsoMoraRequest firstRequest, AlonsoMoraRequest secondRequest) {
+            ++calls;
+            return result;
+        }
+    }
+
+    private final AlonsoMoraScenarioCreator scenario = new AlonsoMoraScenarioCreator(3);
+    private final List<AlonsoMoraRequest> requests = scenario.requests(2, 0.0, new Random(1));
+    private final AlonsoMoraVehicle vehicle = scenario.vehicles(1, 2, new Random(2)).get(0);
+
+    /** @return pickups and dropoffs of both requests */
+    private List<StopDirective> directives() {
+        return Arrays.asList( //
+                Directive.pickup(requests.get(0).getRequest()), Directive.pickup(requests.get(1).getRequest()), //
+                Directive.dropoff(requests.get(0).getRequest()), Directive.dropoff(requests.get(1).getRequest()));
+    }
+
+    public void testInfeasibleReused() {
+        StubTravelFunction delegate = new StubTravelFunction(Optional.empty());
+        IncrementalTravelFunction travelFunction = new IncrementalTravelFunction();
+        for (double now = 0.0; now < 3600.0; now += 600.0) {
+            travelFunction.update(delegate, now, Collections.singleton(vehicle), requests);
+            assertFalse(travelFunction.calculate(vehicle, requests).isPresent());
+            assertFalse(travelFunction.calculate(requests.get(0), requests.get(1)).isPresent());
+        }
+        assertEquals(2, delegate.calls);
+    }
+
+    public void testSlack() {
+        StubTravelFunction delegate = new StubTravelFunction(Optional.of(new Result(directives(), 10.0, 60.0)));
+        IncrementalTravelFunction travelFunction = new IncrementalTravelFunction();
+
+        travelFunction.update(delegate, 0.0, Collections.singleton(vehicle), requests);
+        assertEquals(10.0, travelFunction.calculate(vehicle, requests).get().cost, 0.0);
+
+        /** the sequence starts 60 seconds later, hence both dropoffs are 60 seconds later */
+        travelFunction.update(delegate, 60.0, Collections.singleton(vehicle), requests);
+        Result result = travelFunction.calculate(vehicle, requests).get();
+        assertEquals(10.0 + 2 * 60.0, result.cost, 0.0);
+        assertEquals(0.0, result.slack, 0.0);
+        assertEquals(1, delegate.calls);
+
+        /** the delay exceeds the slack */
+        travelFunction.update(delegate, 61.0, Collections.singleton(vehicle), requests);
+        assertEquals(10.0, travelFunction.calculate(vehicle, requests).get().cost, 0.0);
+        assertEquals(2, delegate.calls);
+    }
+
+    public void testDiscarded() {
+        StubTravelFunction delegate = new StubTravelFunction(Optional.of(new Result(directives(), 10.0, 3600.0)));
+        IncrementalTravelFunction travelFunction = new IncrementalTravelFunction();
+        AlonsoMoraRequest request = requests.get(0);
+
+        travelFunction.update(delegate, 0.0, Collections.singleton(vehicle), requests);
+        travelFunction.calculate(vehicle, requests);
+        travelFunction.update(delegate, 10.0, Collections.singleton(vehicle), requests);
+        travelFunction.calculate(vehicle, requests);
+        assertEquals(1, delegate.calls);
+
+        /** the vehicle has moved */
+        Link link = scenario.network.getLinks().values().stream().filter(candidate -> candidate != vehicle.getLocation()).findFirst().get();
+        AlonsoMoraVehicle moved = AlonsoMoraScenarioCreator.vehicle(vehicle.getId().toString(), link, 2, Collections.emptyList());
+        travelFunction.update(delegate, 20.0, Collections.singleton(moved), requests);
+        travelFunction.calculate(moved, requests);
+        assertEquals(2, delegate.calls);
+
+        /** the directives of the vehicle have changed */
+        AlonsoMoraVehicle assigned = AlonsoMoraScenarioCreator.vehicle(vehicle.getId().toString(), link, 2, //
+                Arrays.asList(Directive.pickup(request.getRequest()), Directive.dropoff(request.getRequest())));
+        travelFunction.update(delegate, 30.0, Collections.singleton(assigned), requests);
+        travelFunction.calculate(assigned, requests);
+        assertEquals(3, delegate.calls);
+
+        /** the active times of a request have changed */
+        travelFunction.calculate(requests.get(0), requests.get(1));
+        assertEquals(4, delegate.calls);
+        request.setActivePickupTime(request.getActivePickupTime() - 60.0);
+        travelFunction.update(delegate, 40.0, Collections.singleton(assigned), requests);
+        travelFunction.calculate(assigned, requests);
+        travelFunction.calculate(requests.get(0), requests.get(1));
+        assertEquals(6, delegate.calls);
+
+        /** nothing has changed */
+        travelFunction.update(delegate, 50.0, Collections.singleton(assigned), requests);
+        travelFunction.calculate(assigned, requests);
+        travelFunction.calculate(requests.get(0), requests.get(1));
+        assertEquals(6, delegate.calls);
+    }
+
+    public void testUpperBound() {
+        AlonsoMoraScenarioCreator grid = new AlonsoMoraScenarioCreator(8);
+        Random random = new Random(3);
+        List<AlonsoMoraRequest> gridRequests = grid.requests(20, 0.0, random);
+        List<AlonsoMoraVehicle> gridVehicles = grid.vehicles(10, 2, random);
+        AlonsoMoraParameters parameters = new AlonsoMoraParameters();
+        /** the optimal sequence is found and the travel times do not depend on the time */
+        parameters.routeSearchType = RouteSearchType.Extensive;
+        parameters.travelTimeCacheInterval = Integer.MAX_VALUE;
+
+        IncrementalTravelFunction travelFunction = new IncrementalTravelFunction();
+        int evaluations = 0;
+        int calls = 0;
+        for (double now = 0.0; now <= 120.0; now += 30.0) {
+            AlonsoMoraTravelFunction delegate = grid.travelFunction(parameters, now, gridRequests);
+            StubTravelFunction counting = new StubTravelFunction(null) {
+                @Override
+                public Optional<Result> calculate(AlonsoMoraVehicle vehicle, Collection<AlonsoMoraRequest> requests) {
+                    super.calculate(vehicle, requests);
+                    return delegate.calculate(vehicle, requests);
+                }
+
+                @Override
+                public Optional<Result> calculate(AlonsoMoraRequest firstRequest, AlonsoMoraRequest secondRequest) {
+                    super.calculate(firstRequest, secondRequest);
+                    return delegate.calculate(firstRequest, secondRequest);
+                }
+            };
+            travelFunction.update(counting, now, gridVehicles, gridRequests);
+            for (AlonsoMoraVehicle gridVehicle : gridVehicles)
+                for (int i = 0; i < gridRequests.size(); ++i)
+                    for (int j = i; j < gridRequests.size(); j += 7) {
+                        List<AlonsoMoraRequest> trip = i == j //
+                                ? Collections.singletonList(gridRequests.get(i))
+                                : Arrays.asList(gridRequests.get(i), gridRequests.get(j));
+                        Optional<Result> result = travelFunction.calculate(gridVehicle, trip);
+                        Optional<Result> fresh = delegate.calculate(gridVehicle, trip);
+                        assertEquals(fresh.isPresent(), result.isPresent());
+                        if (result.isPresent())
+                            assertTrue(fresh.get().cost <= result.get().cost + 1e-9);
+                        ++evaluations;
+                    }
+            calls += counting.calls;
+        }
+        /** trips have been reused, hence the bound has been checked on shifted costs */
+        assertTrue(calls < evaluations);
+    }
+}
@@ -0,0 +1,87 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.dispatcher.alonso_mora_2016.rtv;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraParameters;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraRequest;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraScenarioCreator;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraTravelFunction;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraVehicle;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.rtv.RequestTripVehicleGraph.TripVehicleEdge;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.rv.RequestVehicleGraph;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.rv.RequestVehicleGraphBuilder;
+import junit.framework.TestCase;
+
+public class ParallelRequestTripVehicleGraphBuilderTest extends TestCase {
+    private static final double NOW = 1100.0;
+
+    private AlonsoMoraScenarioCreator scenario;
+    private List<AlonsoMoraRequest> requests;
+    private RequestVehicleGraph requestVehicleGraph;
+    private ForkJoinPool forkJoinPool;
+
+    @Override
+    protected void setUp() {
+        scenario = new AlonsoMoraScenarioCreator(8);
+        Random random = new Random(2);
+        requests = scenario.requests(20, NOW, random);
+        List<AlonsoMoraVehicle> vehicles = scenario.vehicles(12, 3, random);
+        requestVehicleGraph = new RequestVehicleGraphBuilder(scenario.travelFunction(new AlonsoMoraParameters(), NOW, requests)) //
+                .build(NOW, vehicles, requests);
+        forkJoinPool = new ForkJoinPool(4);
+    }
+
+    @Override
+    protected void tearDown() {
+        forkJoinPool.shutdown();
+    }
+
+    /** @return trip-vehicle edges identified by the vehicle and the requests of the trip, together with their costs */
+    private static Set<String> edges(RequestTripVehicleGraph requestTripVehicleGraph) {
+        Set<String> edges = new HashSet<>();
+        for (TripVehicleEdge edge : requestTripVehicleGraph.getTripVehicleEdges()) {
+            String trip = requestTripVehicleGraph.getTrips().get(edge.getTripIndex()).getRequests().stream() //
+                    .map(request -> request.getId().toString()).sorted().collect(Collectors.joining(","));
+            edges.add(requestTripVehicleGraph.getVehicles().get(edge.getVehicleIndex()).getId() + " " + trip + " " + edge.getCost());
+        }
+        return edges;
+    }
+
+    private RequestTripVehicleGraph[] build(AlonsoMoraParameters parameters) {
+        AlonsoMoraTravelFunction travelFunction = scenario.travelFunction(parameters, NOW, requests);
+        return new RequestTripVehicleGraph[] { //
+                new RequestTripVehicleGraphBuilder(travelFunction, parameters).build(requestVehicleGraph), //
+                new ParallelRequestTripVehicleGraphBuilder(travelFunction, parameters, forkJoinPool).build(requestVehicleGraph) };
+    }
+
+    public void testSameEdges() {
+        RequestTripVehicleGraph[] graphs = build(new AlonsoMoraParameters());
+        Set<String> serial = edges(graphs[0]);
+        assertEquals(serial, edges(graphs[1]));
+        assertEquals(serial.size(), graphs[1].getTripVehicleEdges().size());
+        /** trips of more than one request are found */
+        assertTrue(graphs[0].getTrips().stream().anyMatch(trip -> 1 < trip.getRequests().size()));
+    }
+
+    public void testFleetLimit() {
+        Set<String> unlimited = edges(build(new AlonsoMoraParameters())[0]);
+        AlonsoMoraParameters parameters = new AlonsoMoraParameters();
+        parameters.rtvLimitPerFleet = unlimited.size() / 3;
+
+        for (int count = 0; count < 3; ++count) {
+            RequestTripVehicleGraph[] graphs = build(parameters);
+            /** the serial builder stops at the limit */
+            assertEquals(parameters.rtvLimitPerFleet, graphs[0].getTripVehicleEdges().size());
+            for (RequestTripVehicleGraph graph : graphs) {
+                assertTrue(graph.getTripVehicleEdges().size() <= parameters.rtvLimitPerFleet);
+                assertTrue(unlimited.containsAll(edges(graph)));
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.dispatcher.alonso_mora_2016.rv;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraParameters;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraRequest;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraScenarioCreator;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.AlonsoMoraVehicle;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.rv.RequestVehicleGraph.RequestRequestEdge;
+import amodeus.amodeus.dispatcher.alonso_mora_2016.rv.RequestVehicleGraph.RequestVehicleEdge;
+import junit.framework.TestCase;
+
+public class ParallelRequestVehicleGraphBuilderTest extends TestCase {
+    /** @return edges identified by their requests and vehicles, together with their costs */
+    private static Set<String> edges(RequestVehicleGraph requestVehicleGraph) {
+        Set<String> edges = new HashSet<>();
+        for (List<RequestVehicleEdge> vehicleEdges : requestVehicleGraph.getRequestVehicleEdges().values())
+            for (RequestVehicleEdge edge : vehicleEdges)
+                edges.add(edge.getVehicle().getId() + " " + edge.getRequest().getId() + " " + edge.getCost());
+        for (RequestRequestEdge edge : requestVehicleGraph.getRequestRequestEdges())
+            edges.add(edge.getFirstRequest().getId() + " " + edge.getSecondRequest().getId());
+        return edges;
+    }
+
+    public void testSameEdges() {
+        AlonsoMoraScenarioCreator scenario = new AlonsoMoraScenarioCreator(8);
+        Random random = new Random(1);
+        double now = 1100.0;
+        List<AlonsoMoraRequest> requests = scenario.requests(40, now, random);
+        List<AlonsoMoraVehicle> vehicles = scenario.vehicles(30, 3, random);
+        AlonsoMoraParameters parameters = new AlonsoMoraParameters();
+
+        /** every builder routes with its own cache, such that the parallel builder cannot reuse travel times of the serial one */
+        RequestVehicleGraph serial = new RequestVehicleGraphBuilder(scenario.travelFunction(parameters, now, requests)) //
+                .build(now, vehicles, requests);
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            for (int count = 0; count < 3; ++count) {
+                RequestVehicleGraph parallel = new ParallelRequestVehicleGraphBuilder(scenario.travelFunction(parameters, now, requests), null, forkJoinPool) //
+                        .build(now, vehicles, requests);
+                assertEquals(edges(serial), edges(parallel));
+            }
+        } finally {
+            forkJoinPool.shutdown();
+        }
+        assertFalse(serial.getRequestVehicleEdges().isEmpty());
+        assertFalse(serial.getRequestRequestEdges().isEmpty());
+    }
+}
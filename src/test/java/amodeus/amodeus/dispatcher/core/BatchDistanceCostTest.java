@@ -0,0 +1,86 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.dispatcher.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.network.NetworkUtils;
+
+import amodeus.amodeus.dispatcher.util.BatchDistanceCost;
+import amodeus.amodeus.dispatcher.util.DistanceCost;
+import amodeus.amodeus.dispatcher.util.DistanceHeuristics;
+import amodeus.amodeus.dispatcher.util.GlobalBipartiteCost;
+import amodeus.amodeus.routing.DistanceFunction;
+import junit.framework.TestCase;
+
+public class BatchDistanceCostTest extends TestCase {
+    /** grid with random lengths and free speeds such that the paths with minimum travel time are unique */
+    private static Network grid(int size, Random random) {
+        Network network = NetworkUtils.createNetwork();
+        Node[][] nodes = new Node[size][size];
+        for (int i = 0; i < size; ++i)
+            for (int j = 0; j < size; ++j)
+                nodes[i][j] = NetworkUtils.createAndAddNode(network, Id.createNodeId(i + "_" + j), new Coord(500 * i, 500 * j));
+        for (int i = 0; i < size; ++i)
+            for (int j = 0; j < size; ++j) {
+                if (i + 1 < size) {
+                    addLink(network, nodes[i][j], nodes[i + 1][j], random);
+                    addLink(network, nodes[i + 1][j], nodes[i][j], random);
+                }
+                if (j + 1 < size) {
+                    addLink(network, nodes[i][j], nodes[i][j + 1], random);
+                    addLink(network, nodes[i][j + 1], nodes[i][j], random);
+                }
+            }
+        return network;
+    }
+
+    private static void addLink(Network network, Node from, Node to, Random random) {
+        NetworkUtils.createAndAddLink(network, Id.createLinkId(from.getId() + "-" + to.getId()), from, to, //
+                500 + 450 * random.nextDouble(), 5 + 20 * random.nextDouble(), 1000, 1);
+    }
+
+    public void testNetworkHeuristics() {
+        Network network = grid(8, new Random(1));
+        Random random = new Random(2);
+        List<Link> links = new ArrayList<>(network.getLinks().values());
+        List<RoboTaxi> roboTaxis = new ArrayList<>();
+        for (int index = 0; index < 12; ++index)
+            roboTaxis.add(StaticRoboTaxiCreator.createStayingRoboTaxi(links.get(random.nextInt(links.size())), null));
+        roboTaxis.add(roboTaxis.get(0)); // two vehicles at the same location
+        List<Link> destinations = new ArrayList<>();
+        for (int index = 0; index < 15; ++index)
+            destinations.add(links.get(random.nextInt(links.size())));
+
+        for (DistanceHeuristics distanceHeuristics : new DistanceHeuristics[] { //
+                DistanceHeuristics.DIJKSTRA, DistanceHeuristics.ASTAR, DistanceHeuristics.ASTARLANDMARKS }) {
+            DistanceFunction distanceFunction = distanceHeuristics.getDistanceFunction(network);
+            GlobalBipartiteCost cost = distanceHeuristics.getBipartiteCost(network, distanceFunction);
+            assertTrue(cost instanceof BatchDistanceCost);
+
+            /** same costs as the search per pair */
+            double[][] expected = new DistanceCost(distanceFunction).matrix(roboTaxis, destinations);
+            double[][] matrix = cost.matrix(roboTaxis, destinations);
+            assertEquals(roboTaxis.size(), matrix.length);
+            for (int i = 0; i < roboTaxis.size(); ++i) {
+                assertEquals(destinations.size(), matrix[i].length);
+                for (int j = 0; j < destinations.size(); ++j) {
+                    assertEquals(expected[i][j], matrix[i][j], 1e-6);
+                    assertEquals(expected[i][j], cost.between(roboTaxis.get(i), destinations.get(j)), 1e-6);
+                }
+            }
+        }
+    }
+
+    public void testOtherHeuristics() {
+        Network network = grid(4, new Random(3));
+        for (DistanceHeuristics distanceHeuristics : new DistanceHeuristics[] { DistanceHeuristics.EUCLIDEAN, DistanceHeuristics.CH })
+            assertTrue(distanceHeuristics.getBipartiteCost(network, distanceHeuristics.getDistanceFunction(network)) instanceof DistanceCost);
+    }
+}
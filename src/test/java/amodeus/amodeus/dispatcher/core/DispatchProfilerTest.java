@@ -0,0 +1,61 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.dispatcher.core;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import amodeus.amodeus.dispatcher.core.DispatchProfiler.Phase;
+import junit.framework.TestCase;
+
+public class DispatchProfilerTest extends TestCase {
+    public void testCsv() throws Exception {
+        File directory = Files.createTempDirectory("dispatchprofiler").toFile();
+        File csv = new File(new File(directory, "it.0"), "0.dispatchProfile.csv");
+        DispatchProfiler profiler = new DispatchProfiler(() -> csv);
+
+        profiler.beginStep();
+        profiler.time(Phase.REDISPATCH, () -> {
+            DispatchCounter.ROUTING_CALLS.increment();
+            DispatchCounter.ROUTING_CALLS.increment();
+        });
+        profiler.time(Phase.CONSISTENCY, () -> {
+        });
+        profiler.endStep(10.4);
+        assertTrue(profiler.summary().endsWith(",2r)"));
+
+        profiler.beginStep();
+        profiler.time(Phase.REDISPATCH, () -> DispatchCounter.CACHE_HITS.increment());
+        profiler.endStep(20.0);
+        profiler.close();
+        profiler.close();
+
+        List<String> lines = Files.readAllLines(csv.toPath());
+        assertEquals(3, lines.size());
+        int phases = Phase.values().length;
+        int counters = DispatchCounter.values().length;
+        String[] header = lines.get(0).split(",");
+        assertEquals(1 + 2 * phases + 2 + counters, header.length);
+        assertEquals("time", header[0]);
+        assertEquals("info_line_ms", header[1]);
+        assertEquals("info_line_kB", header[1 + phases]);
+        assertEquals("total_ms", header[1 + 2 * phases]);
+        assertEquals("routingCalls", header[3 + 2 * phases + DispatchCounter.ROUTING_CALLS.ordinal()]);
+
+        String[] first = lines.get(1).split(",");
+        assertEquals(header.length, first.length);
+        assertEquals("10", first[0]);
+        assertEquals("0.000", first[1 + Phase.INFO_LINE.ordinal()]);
+        assertEquals("2", first[3 + 2 * phases + DispatchCounter.ROUTING_CALLS.ordinal()]);
+        assertEquals("0", first[3 + 2 * phases + DispatchCounter.CACHE_HITS.ordinal()]);
+
+        String[] second = lines.get(2).split(",");
+        assertEquals("20", second[0]);
+        assertEquals("0", second[3 + 2 * phases + DispatchCounter.ROUTING_CALLS.ordinal()]);
+        assertEquals("1", second[3 + 2 * phases + DispatchCounter.CACHE_HITS.ordinal()]);
+
+        csv.delete();
+        csv.getParentFile().delete();
+        directory.delete();
+    }
+}
@@ -0,0 +1,138 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.dispatcher.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.matsim.amodeus.plpc.SerialLeastCostPathCalculator;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.contrib.dvrp.schedule.Schedule.ScheduleStatus;
+import org.matsim.core.router.FastDijkstraFactory;
+
+import amodeus.amodeus.ArtificialScenarioCreator;
+import amodeus.amodeus.dispatcher.core.schedule.FutureVrpPathCalculator;
+import amodeus.amodeus.dispatcher.core.schedule.directives.Directive;
+import amodeus.amodeus.routing.EasyMinTimePathCalculator;
+import junit.framework.TestCase;
+
+public class FleetIndexTest extends TestCase {
+    private final ArtificialScenarioCreator scenario = new ArtificialScenarioCreator();
+    private final FutureVrpPathCalculator router = new FutureVrpPathCalculator( //
+            new SerialLeastCostPathCalculator(EasyMinTimePathCalculator.prepPathCalculator(scenario.network, new FastDijkstraFactory())), //
+            EasyMinTimePathCalculator.FREE_FLOW);
+    private final List<RoboTaxi> roboTaxis = new ArrayList<>();
+    private final FleetIndex fleetIndex = new FleetIndex();
+
+    @Override
+    protected void setUp() {
+        List<Link> links = Arrays.asList(scenario.linkUp, scenario.linkRight, scenario.linkDown, scenario.linkLeft, scenario.linkDepotOut, scenario.linkUp);
+        for (int index = 0; index < links.size(); ++index) {
+            RoboTaxi roboTaxi = StaticRoboTaxiCreator.createPlannedRoboTaxi("roboTaxi" + index, links.get(index), router);
+            /** the schedule of the last RoboTaxi is started later */
+            if (index < links.size() - 1)
+                roboTaxi.getSchedule().nextTask();
+            roboTaxis.add(roboTaxi);
+            fleetIndex.add(roboTaxi);
+        }
+    }
+
+    /** compares the index with a filter over the whole fleet */
+    private void assertIndex() {
+        List<RoboTaxi> started = roboTaxis.stream() //
+                .filter(roboTaxi -> roboTaxi.getSchedule().getStatus().equals(ScheduleStatus.STARTED)) //
+                .collect(Collectors.toList());
+        assertEquals(started, fleetIndex.getStarted());
+        for (RoboTaxiStatus status : RoboTaxiStatus.values()) {
+            List<RoboTaxi> expected = started.stream().filter(roboTaxi -> roboTaxi.getStatus().equals(status)).collect(Collectors.toList());
+            assertEquals(expected, new ArrayList<>(fleetIndex.getRoboTaxis(status)));
+            assertEquals(expected, fleetIndex.getWithStatus(EnumSet.of(status)));
+        }
+        Set<RoboTaxiStatus> statuses = EnumSet.of(RoboTaxiStatus.STAY, RoboTaxiStatus.REBALANCEDRIVE);
+        assertEquals(started.stream().filter(roboTaxi -> statuses.contains(roboTaxi.getStatus())).collect(Collectors.toList()), //
+                fleetIndex.getWithStatus(statuses));
+        List<RoboTaxi> divertable = started.stream().filter(RoboTaxi::isDivertable).collect(Collectors.toList());
+        assertEquals(divertable, new ArrayList<>(fleetIndex.getDivertableRoboTaxis()));
+        assertEquals(divertable, fleetIndex.getDivertable());
+        assertEquals(roboTaxis.stream().filter(RoboTaxi::isInStayTask).count(), fleetIndex.countInStayTask());
+        assertEquals(started.stream().filter(roboTaxi -> roboTaxi.getStatus().isDriving()).count(), fleetIndex.countDriving());
+    }
+
+    public void testStatusChanges() {
+        assertIndex();
+        RoboTaxi customer = roboTaxis.get(0);
+        RoboTaxi rebalance = roboTaxis.get(1);
+        RoboTaxi locked = roboTaxis.get(2);
+        RoboTaxi planned = roboTaxis.get(5);
+
+        /** pickup on the current link, dropoff after a drive */
+        customer.getScheduleManager().addRequest(scenario.avRequest1);
+        assertEquals(RoboTaxiStatus.DRIVETOCUSTOMER, customer.getStatus());
+        assertIndex();
+
+        rebalance.getScheduleManager().setDirectives(Collections.singletonList(Directive.drive(scenario.linkLeft)));
+        assertEquals(RoboTaxiStatus.REBALANCEDRIVE, rebalance.getStatus());
+        assertIndex();
+
+        locked.lock();
+        assertFalse(locked.isDivertable());
+        assertIndex();
+
+        /** start of the schedule, as reported by the simulation */
+        planned.getSchedule().nextTask();
+        fleetIndex.update(planned.getDvrpVehicle());
+        assertIndex();
+
+        /** start of the pickup, as reported by the simulation */
+        customer.getSchedule().nextTask();
+        fleetIndex.update(customer.getDvrpVehicle());
+        assertFalse(customer.isDivertable());
+        assertFalse(customer.isInStayTask());
+        assertIndex();
+
+        /** end of the pickup, the customer is on board once the sequence is updated */
+        customer.getSchedule().nextTask();
+        fleetIndex.update(customer.getDvrpVehicle());
+        assertIndex();
+        customer.getScheduleManager().updateSequence(0.0);
+        assertEquals(RoboTaxiStatus.DRIVEWITHCUSTOMER, customer.getStatus());
+        assertTrue(customer.isDivertable());
+        assertIndex();
+
+        locked.unlock();
+        assertIndex();
+
+        rebalance.getScheduleManager().setDirectives(Collections.emptyList());
+        assertEquals(RoboTaxiStatus.STAY, rebalance.getStatus());
+        assertIndex();
+    }
+
+    public void testSnapshots() {
+        Set<RoboTaxiStatus> statuses = EnumSet.of(RoboTaxiStatus.STAY, RoboTaxiStatus.DRIVETOCUSTOMER);
+        List<RoboTaxi> before = fleetIndex.getWithStatus(statuses);
+        assertSame(before, fleetIndex.getWithStatus(EnumSet.copyOf(statuses)));
+        assertEquals(5, before.size());
+
+        /** changes of other statuses do not affect the list */
+        RoboTaxi roboTaxi = roboTaxis.get(3);
+        List<RoboTaxi> rebalancing = fleetIndex.getWithStatus(EnumSet.of(RoboTaxiStatus.REBALANCEDRIVE));
+        List<RoboTaxi> divertable = fleetIndex.getDivertable();
+        roboTaxi.lock();
+        assertNotSame(divertable, fleetIndex.getDivertable());
+        roboTaxi.unlock();
+        assertSame(before, fleetIndex.getWithStatus(statuses));
+
+        roboTaxi.getScheduleManager().setDirectives(Collections.singletonList(Directive.drive(scenario.linkUp)));
+        List<RoboTaxi> after = fleetIndex.getWithStatus(statuses);
+        assertNotSame(before, after);
+        assertEquals(5, before.size());
+        assertEquals(4, after.size());
+        assertFalse(after.contains(roboTaxi));
+        assertNotSame(rebalancing, fleetIndex.getWithStatus(EnumSet.of(RoboTaxiStatus.REBALANCEDRIVE)));
+        assertIndex();
+    }
+}
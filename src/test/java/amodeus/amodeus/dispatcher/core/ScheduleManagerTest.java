@@ -0,0 +1,193 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.dispatcher.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import org.matsim.amodeus.dvrp.schedule.AmodeusStopTask;
+import org.matsim.amodeus.plpc.ParallelLeastCostPathCalculator;
+import org.matsim.amodeus.plpc.PathQuery;
+import org.matsim.amodeus.plpc.SerialLeastCostPathCalculator;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.contrib.drt.schedule.DrtDriveTask;
+import org.matsim.contrib.dvrp.path.VrpPathWithTravelData;
+import org.matsim.contrib.dvrp.schedule.Schedule;
+import org.matsim.contrib.dvrp.schedule.Task;
+import org.matsim.core.router.FastDijkstraFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.vehicles.Vehicle;
+
+import amodeus.amodeus.ArtificialScenarioCreator;
+import amodeus.amodeus.dispatcher.core.schedule.FutureVrpPathCalculator;
+import amodeus.amodeus.dispatcher.core.schedule.FutureVrpPathWithTravelData;
+import amodeus.amodeus.dispatcher.core.schedule.directives.Directive;
+import amodeus.amodeus.routing.EasyMinTimePathCalculator;
+import junit.framework.TestCase;
+
+public class ScheduleManagerTest extends TestCase {
+    /** counts the submitted paths and batches */
+    private static class CountingPathCalculator implements ParallelLeastCostPathCalculator {
+        private final ParallelLeastCostPathCalculator delegate;
+        private int paths = 0;
+        private int batches = 0;
+
+        CountingPathCalculator(ParallelLeastCostPathCalculator delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Future<Path> calcLeastCostPath(Node fromNode, Node toNode, double starttime, Person person, Vehicle vehicle) {
+            ++paths;
+            return delegate.calcLeastCostPath(fromNode, toNode, starttime, person, vehicle);
+        }
+
+        @Override
+        public List<Future<Path>> calcLeastCostPaths(List<PathQuery> queries) {
+            ++batches;
+            paths += queries.size();
+            return delegate.calcLeastCostPaths(queries);
+        }
+
+        @Override
+        public void close() {
+            // ---
+        }
+    }
+
+    private final ArtificialScenarioCreator scenario = new ArtificialScenarioCreator();
+    private final LeastCostPathCalculator dijkstra = EasyMinTimePathCalculator.prepPathCalculator(scenario.network, new FastDijkstraFactory());
+    private final CountingPathCalculator pathCalculator = new CountingPathCalculator(new SerialLeastCostPathCalculator(dijkstra));
+    private final FutureVrpPathCalculator router = new FutureVrpPathCalculator(pathCalculator, EasyMinTimePathCalculator.FREE_FLOW);
+
+    /** @return staying {@link RoboTaxi} with a started schedule */
+    private RoboTaxi roboTaxi(Link link) {
+        RoboTaxi roboTaxi = StaticRoboTaxiCreator.createPlannedRoboTaxi("roboTaxi", link, router);
+        roboTaxi.getSchedule().nextTask();
+        return roboTaxi;
+    }
+
+    private static List<Directive> append(List<Directive> directives, Directive... appended) {
+        List<Directive> list = new ArrayList<>(directives);
+        list.addAll(Arrays.asList(appended));
+        return list;
+    }
+
+    public void testUnchangedPrefix() {
+        RoboTaxi roboTaxi = roboTaxi(scenario.linkUp);
+        Schedule schedule = roboTaxi.getSchedule();
+        roboTaxi.getScheduleManager().addRequest(scenario.avRequest1);
+        /** stay, pickup, drive, dropoff, stay */
+        assertEquals(5, schedule.getTaskCount());
+        schedule.nextTask(); // the pickup has started
+        router.flush();
+        List<Task> before = new ArrayList<>(schedule.getTasks());
+        int paths = pathCalculator.paths;
+
+        roboTaxi.getScheduleManager().setDirectives(append(roboTaxi.getScheduleManager().getDirectives(), //
+                Directive.pickup(scenario.avRequest2), Directive.dropoff(scenario.avRequest2)));
+
+        /** the tasks of the first request are kept, only the tasks after its dropoff are added */
+        for (int index = 0; index < 4; ++index)
+            assertSame(before.get(index), schedule.getTasks().get(index));
+        assertEquals(9, schedule.getTaskCount());
+        AmodeusStopTask pickup = (AmodeusStopTask) schedule.getTasks().get(5);
+        assertTrue(pickup.getPickupRequests().containsKey(scenario.avRequest2.getId()));
+        router.flush();
+        assertEquals(paths + 2, pathCalculator.paths);
+    }
+
+    public void testPartiallyChangedStop() {
+        RoboTaxi roboTaxi = roboTaxi(scenario.linkDepotOut);
+        Schedule schedule = roboTaxi.getSchedule();
+        /** both requests are picked up by the same stop */
+        roboTaxi.getScheduleManager().setDirectives(Arrays.asList( //
+                Directive.pickup(scenario.avRequest5), Directive.pickup(scenario.avRequest6), //
+                Directive.dropoff(scenario.avRequest5), Directive.dropoff(scenario.avRequest6)));
+        /** stay, drive, pickup, drive, dropoff, drive, dropoff, stay */
+        assertEquals(8, schedule.getTaskCount());
+        AmodeusStopTask sharedPickup = (AmodeusStopTask) schedule.getTasks().get(2);
+        assertEquals(2, sharedPickup.getPickupRequests().size());
+        schedule.nextTask(); // the drive to the pickup has started
+        Task drive = schedule.getCurrentTask();
+        router.flush();
+        int paths = pathCalculator.paths;
+
+        roboTaxi.getScheduleManager().setDirectives(Arrays.asList( //
+                Directive.pickup(scenario.avRequest5), Directive.dropoff(scenario.avRequest5)));
+
+        /** the pickup also served the removed request, hence it is rebuilt */
+        assertSame(drive, schedule.getCurrentTask());
+        assertEquals(6, schedule.getTaskCount());
+        AmodeusStopTask pickup = (AmodeusStopTask) schedule.getTasks().get(2);
+        assertNotSame(sharedPickup, pickup);
+        assertEquals(1, pickup.getPickupRequests().size());
+        assertTrue(pickup.getPickupRequests().containsKey(scenario.avRequest5.getId()));
+        /** the route to the dropoff is reused */
+        router.flush();
+        assertEquals(paths, pathCalculator.paths);
+    }
+
+    public void testReusedPath() {
+        RoboTaxi roboTaxi = roboTaxi(scenario.linkUp);
+        Schedule schedule = roboTaxi.getSchedule();
+        roboTaxi.getScheduleManager().setDirectives(Arrays.asList( //
+                Directive.pickup(scenario.avRequest4), Directive.dropoff(scenario.avRequest4)));
+        FutureVrpPathWithTravelData toPickup = (FutureVrpPathWithTravelData) ((DrtDriveTask) schedule.getTasks().get(1)).getPath();
+        assertEquals(0.0, toPickup.getDepartureTime(), 0.0);
+        double estimatedArrivalTime = toPickup.getArrivalTime();
+
+        /** the stay ends later, all drives depart later */
+        roboTaxi.getScheduleManager().updateSequence(100.0);
+        roboTaxi.getScheduleManager().setDirectives(append(roboTaxi.getScheduleManager().getDirectives(), Directive.drive(scenario.linkLeft)));
+        assertEquals(0, pathCalculator.paths);
+
+        VrpPathWithTravelData reused = ((DrtDriveTask) schedule.getTasks().get(1)).getPath();
+        assertNotSame(toPickup, reused);
+        assertSame(scenario.linkUp, reused.getFromLink());
+        assertSame(scenario.linkRight, reused.getToLink());
+        assertEquals(100.0, reused.getDepartureTime(), 0.0);
+        assertEquals(estimatedArrivalTime + 100.0, reused.getArrivalTime(), 0.0);
+        assertEquals(100.0, schedule.getTasks().get(1).getBeginTime(), 0.0);
+
+        /** the reused paths are routed once, together with the new drive */
+        router.flush();
+        assertEquals(1, pathCalculator.batches);
+        assertEquals(3, pathCalculator.paths);
+        List<Link> links = new ArrayList<>();
+        reused.forEach(links::add);
+        assertEquals(Arrays.asList(scenario.linkUp, scenario.linkRight), links);
+    }
+
+    public void testFlush() {
+        RoboTaxi roboTaxi = roboTaxi(scenario.linkDepotOut);
+        Schedule schedule = roboTaxi.getSchedule();
+        roboTaxi.getScheduleManager().setDirectives(Arrays.asList( //
+                Directive.pickup(scenario.avRequest2), Directive.dropoff(scenario.avRequest2), Directive.drive(scenario.linkDown)));
+        /** stay, drive, pickup, drive, dropoff, drive, stay */
+        assertEquals(7, schedule.getTaskCount());
+        assertEquals(0, pathCalculator.paths);
+
+        /** accessing a deferred path submits all deferred paths as one batch */
+        VrpPathWithTravelData toPickup = ((DrtDriveTask) schedule.getTasks().get(1)).getPath();
+        assertEquals(scenario.linkRight, toPickup.getLink(toPickup.getLinkCount() - 1));
+        assertEquals(1, pathCalculator.batches);
+        assertEquals(3, pathCalculator.paths);
+
+        for (int index : new int[] { 1, 3, 5 }) {
+            VrpPathWithTravelData path = ((DrtDriveTask) schedule.getTasks().get(index)).getPath();
+            Path expected = dijkstra.calcLeastCostPath(path.getFromLink().getToNode(), path.getToLink().getFromNode(), path.getDepartureTime(), null, null);
+            assertEquals(expected.links.size() + 2, path.getLinkCount());
+            for (int link = 0; link < expected.links.size(); ++link)
+                assertSame(expected.links.get(link), path.getLink(link + 1));
+        }
+
+        /** nothing left to submit */
+        router.flush();
+        assertEquals(1, pathCalculator.batches);
+    }
+}
@@ -14,6 +14,8 @@ import org.matsim.contrib.dvrp.path.VrpPathWithTravelData;
 import org.matsim.contrib.dvrp.schedule.Schedule;
 import org.matsim.contrib.dvrp.util.LinkTimePair;
 
+import amodeus.amodeus.dispatcher.core.schedule.FutureVrpPathCalculator;
+
 /* package */ enum StaticRoboTaxiCreator {
     ;
 
@@ -78,18 +80,36 @@ import org.matsim.contrib.dvrp.util.LinkTimePair;
         schedule.nextTask();
     }
 
+    /** @param id
+     * @param link
+     * @param router
+     * @return {@link RoboTaxi} with a stay task on link whose schedule is not yet started */
+    /* package */ static RoboTaxi createPlannedRoboTaxi(String id, Link link, FutureVrpPathCalculator router) {
+        RoboTaxi roboTaxi = createRoboTaxi(id, link, link, router);
+        roboTaxi.getSchedule().addTask(new DrtStayTask(0.0, Double.POSITIVE_INFINITY, link));
+        return roboTaxi;
+    }
+
     private static RoboTaxi createRoboTaxi(Link divertableLink, Link vehicleLink) {
+        return createRoboTaxi(STAYINGVEHICLEID, divertableLink, vehicleLink, null);
+    }
+
+    private static RoboTaxi createRoboTaxi(String id, Link divertableLink, Link vehicleLink, FutureVrpPathCalculator router) {
         LinkTimePair divertableLinkTime = new LinkTimePair(divertableLink, 0.0);
-        Id<DvrpVehicle> idAv2 = Id.create(STAYINGVEHICLEID, DvrpVehicle.class);
-        DvrpVehicle vehicle = new DvrpVehicleImpl(ImmutableDvrpVehicleSpecification.newBuilder() //
+        return new RoboTaxi(createVehicle(id, vehicleLink), divertableLinkTime, divertableLinkTime.link, RoboTaxiUsageType.SHARED, router);
+    }
+
+    /** @param id
+     * @param link
+     * @return {@link DvrpVehicle} starting on link without a schedule */
+    /* package */ static DvrpVehicle createVehicle(String id, Link link) {
+        Id<DvrpVehicle> idAv2 = Id.create(id, DvrpVehicle.class);
+        return new DvrpVehicleImpl(ImmutableDvrpVehicleSpecification.newBuilder() //
                 .id(idAv2) //
                 .serviceBeginTime(0.0) //
                 .serviceEndTime(Double.POSITIVE_INFINITY) //
                 .capacity(seats) //
-                .startLinkId(vehicleLink.getId()) //
-                .build(), vehicleLink);
-        return new RoboTaxi(vehicle, divertableLinkTime, divertableLinkTime.link, RoboTaxiUsageType.SHARED, null);
+                .startLinkId(link.getId()) //
+                .build(), link);
     }
-
-
 }
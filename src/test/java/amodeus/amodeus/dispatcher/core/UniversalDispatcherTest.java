@@ -0,0 +1,151 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.dispatcher.core;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.matsim.amodeus.config.AmodeusModeConfig;
+import org.matsim.amodeus.dvrp.request.AmodeusRequest;
+import org.matsim.amodeus.plpc.SerialLeastCostPathCalculator;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.contrib.drt.schedule.DrtStayTask;
+import org.matsim.contrib.dvrp.fleet.DvrpVehicle;
+import org.matsim.contrib.dvrp.optimizer.Request;
+import org.matsim.contrib.dvrp.passenger.PassengerRequest;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.router.FastDijkstraFactory;
+
+import amodeus.amodeus.ArtificialScenarioCreator;
+import amodeus.amodeus.routing.EasyMinTimePathCalculator;
+import junit.framework.TestCase;
+
+public class UniversalDispatcherTest extends TestCase {
+    /** assignments are made by the test between the time steps */
+    private static class TestDispatcher extends UniversalDispatcher {
+        TestDispatcher(ArtificialScenarioCreator scenario, AmodeusModeConfig operatorConfig) {
+            super(ConfigUtils.createConfig(), operatorConfig, EasyMinTimePathCalculator.FREE_FLOW, //
+                    new SerialLeastCostPathCalculator(EasyMinTimePathCalculator.prepPathCalculator(scenario.network, new FastDijkstraFactory())), //
+                    EventsUtils.createEventsManager(), null, null, RoboTaxiUsageType.SHARED);
+        }
+
+        @Override
+        protected void redispatch(double now) {
+            // ---
+        }
+    }
+
+    private final ArtificialScenarioCreator scenario = new ArtificialScenarioCreator();
+    private TestDispatcher dispatcher;
+    private DvrpVehicle vehicleUp;
+    private DvrpVehicle vehicleDown;
+
+    @Override
+    protected void setUp() {
+        AmodeusModeConfig operatorConfig = new AmodeusModeConfig(AmodeusModeConfig.DEFAULT_MODE);
+        operatorConfig.getDispatcherConfig().setPublishPeriod(0);
+        dispatcher = new TestDispatcher(scenario, operatorConfig);
+        vehicleUp = startVehicle("vehicleUp", scenario.linkUp);
+        vehicleDown = startVehicle("vehicleDown", scenario.linkDown);
+        dispatcher.onNextTimestep(0.0);
+    }
+
+    private DvrpVehicle startVehicle(String id, Link link) {
+        DvrpVehicle vehicle = StaticRoboTaxiCreator.createVehicle(id, link);
+        dispatcher.addVehicle(vehicle);
+        vehicle.getSchedule().addTask(new DrtStayTask(0.0, Double.POSITIVE_INFINITY, link));
+        vehicle.getSchedule().nextTask();
+        dispatcher.onScheduleStarted(vehicle);
+        return vehicle;
+    }
+
+    private RoboTaxi roboTaxi(DvrpVehicle vehicle) {
+        return dispatcher.getRoboTaxis().stream().filter(roboTaxi -> roboTaxi.getDvrpVehicle() == vehicle).findFirst().get();
+    }
+
+    /** the pickup and the dropoff are on the same link such that the schedules only consist of stops */
+    private static AmodeusRequest request(String id, Link link) {
+        return new AmodeusRequest(Id.create(id, Request.class), null, link, link, 0.0, AmodeusModeConfig.DEFAULT_MODE, null, Double.MAX_VALUE, Double.MAX_VALUE);
+    }
+
+    /** the request is served by the vehicle and the simulation reports the next task */
+    private void nextTask(DvrpVehicle vehicle, double now) {
+        vehicle.getSchedule().nextTask();
+        dispatcher.onNextTaskStarted(vehicle);
+        dispatcher.onNextTimestep(now);
+    }
+
+    /** compares the indexes with filters over the pending requests and the menus */
+    private void assertRequests() {
+        Set<PassengerRequest> inMenus = new HashSet<>();
+        for (RoboTaxi roboTaxi : dispatcher.getRoboTaxis())
+            for (PassengerRequest request : dispatcher.getUniqueRequests(roboTaxi)) {
+                inMenus.add(request);
+                assertSame(roboTaxi, dispatcher.getCurrentPickupTaxi(request));
+            }
+        assertEquals(inMenus, dispatcher.getAssignedRequests());
+        assertEquals(dispatcher.pendingRequests.stream() //
+                .filter(request -> !inMenus.contains(request)) //
+                .collect(Collectors.toSet()), dispatcher.getUnassignedRequests());
+    }
+
+    public void testRequestSets() {
+        AmodeusRequest request1 = request("r1", scenario.linkUp);
+        AmodeusRequest request2 = request("r2", scenario.linkUp);
+        AmodeusRequest request3 = request("r3", scenario.linkUp);
+        AmodeusRequest request4 = request("r4", scenario.linkUp);
+        AmodeusRequest request5 = request("r5", scenario.linkDown);
+        for (AmodeusRequest request : new AmodeusRequest[] { request1, request2, request3, request4, request5 })
+            dispatcher.onRequestSubmitted(request);
+        assertEquals(5, dispatcher.getUnassignedRequests().size());
+        assertRequests();
+
+        RoboTaxi roboTaxiUp = roboTaxi(vehicleUp);
+        RoboTaxi roboTaxiDown = roboTaxi(vehicleDown);
+
+        /** assign */
+        dispatcher.addSharedRoboTaxiPickup(roboTaxiUp, request1);
+        dispatcher.addSharedRoboTaxiPickup(roboTaxiUp, request2);
+        dispatcher.addSharedRoboTaxiPickup(roboTaxiUp, request4);
+        dispatcher.addSharedRoboTaxiPickup(roboTaxiDown, request5);
+        assertEquals(1, dispatcher.getUnassignedRequests().size());
+        assertRequests();
+
+        /** reassign */
+        dispatcher.addSharedRoboTaxiPickup(roboTaxiDown, request2);
+        assertSame(roboTaxiDown, dispatcher.getCurrentPickupTaxi(request2));
+        assertRequests();
+
+        /** unassign */
+        dispatcher.abortAvRequest(request5);
+        assertTrue(dispatcher.getUnassignedRequests().contains(request5));
+        assertRequests();
+
+        /** removal of an assigned and of an unassigned request */
+        dispatcher.cancelRequest(request4);
+        dispatcher.cancelRequest(request3);
+        assertFalse(dispatcher.getAssignedRequests().contains(request4));
+        assertFalse(dispatcher.getUnassignedRequests().contains(request3));
+        assertRequests();
+
+        dispatcher.onNextTimestep(1.0);
+        assertRequests();
+
+        /** pickup, the request is no longer pending but remains assigned */
+        nextTask(vehicleUp, 2.0);
+        assertFalse(dispatcher.pendingRequests.contains(request1));
+        assertTrue(dispatcher.getAssignedRequests().contains(request1));
+        assertRequests();
+
+        /** dropoff */
+        nextTask(vehicleUp, 3.0);
+        assertRequests();
+        nextTask(vehicleUp, 4.0);
+        assertFalse(dispatcher.getAssignedRequests().contains(request1));
+        assertEquals(Set.of(request2), dispatcher.getAssignedRequests());
+        assertEquals(Set.of(request5), dispatcher.getUnassignedRequests());
+        assertRequests();
+    }
+}
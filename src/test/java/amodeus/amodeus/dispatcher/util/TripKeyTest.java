@@ -0,0 +1,34 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.dispatcher.util;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+public class TripKeyTest extends TestCase {
+    private static void checkCandidates(int candidates) {
+        TripKey a = TripKey.of(candidates, 3, candidates - 1);
+        TripKey b = TripKey.of(candidates, 7, 3);
+        TripKey union = a.union(b);
+        assertEquals(3, union.size());
+        assertEquals(TripKey.of(candidates, candidates - 1, 7, 3), union);
+        assertEquals(TripKey.of(candidates, 3, 7, candidates - 1).hashCode(), union.hashCode());
+        assertFalse(union.equals(a));
+
+        Set<TripKey> trips = new HashSet<>(Arrays.asList(a, b));
+        assertFalse(union.containsAllSubtrips(trips));
+        trips.add(TripKey.of(candidates, 7, candidates - 1));
+        assertTrue(union.containsAllSubtrips(trips));
+    }
+
+    public void testBits() {
+        checkCandidates(64);
+    }
+
+    public void testIndices() {
+        checkCandidates(65);
+        checkCandidates(1000);
+    }
+}
@@ -255,6 +255,10 @@ public class StandardMATSimScenarioTest {
         dispatcherConfig.addParam("infoLinePeriod", "3600");
         dispatcherConfig.setType(dispatcher);
 
+        if (dispatcher.equals("GlobalBipartiteMatchingDispatcher"))
+            // network distances, the cost matrices are computed with one-to-many searches
+            dispatcherConfig.addParam("distanceHeuristics", "DIJKSTRA");
+
         // Make sure that we do not need the SimulationObjectCompiler
         dispatcherConfig.addParam("publishPeriod", "-1");
 
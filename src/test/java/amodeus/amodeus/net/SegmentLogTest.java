@@ -0,0 +1,34 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.net;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+public class SegmentLogTest extends TestCase {
+    public void testAppendRead() throws Exception {
+        File directory = Files.createTempDirectory("segmentlog").toFile();
+        File iteration = new File(directory, "it.00");
+        try (SegmentLog.Writer writer = new SegmentLog.Writer()) {
+            assertFalse(SegmentLog.exists(iteration));
+            for (int time = 0; time < 100; time += 10)
+                writer.append(iteration, time, new byte[] { (byte) time, 1, 2 });
+        }
+        assertTrue(SegmentLog.exists(iteration));
+        SegmentLog.Reader reader = new SegmentLog.Reader(iteration);
+        assertEquals(10, reader.size());
+        assertEquals(90, reader.times()[9]);
+        assertTrue(Arrays.equals(new byte[] { 70, 1, 2 }, reader.read(7)));
+        assertTrue(Arrays.equals(new byte[] { 30, 1 }, reader.read(3, 2)));
+        StorageSupplier storageSupplier = new StorageSupplier(reader);
+        assertEquals(10, storageSupplier.size());
+        assertEquals(10, storageSupplier.getIntervalEstimate());
+        reader.close();
+        for (File file : iteration.listFiles())
+            file.delete();
+        iteration.delete();
+        directory.delete();
+    }
+}
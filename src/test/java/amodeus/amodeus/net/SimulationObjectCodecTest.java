@@ -0,0 +1,111 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.net;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import amodeus.amodeus.dispatcher.core.RequestStatus;
+import amodeus.amodeus.dispatcher.core.RoboTaxiStatus;
+import junit.framework.TestCase;
+
+public class SimulationObjectCodecTest extends TestCase {
+    private static SimulationObject frame(long now, int link) {
+        SimulationObject simulationObject = new SimulationObject();
+        simulationObject.iteration = 3;
+        simulationObject.now = now;
+        simulationObject.infoLine = "t=" + now;
+        simulationObject.total_matchedRequests = (int) now / 10;
+        simulationObject.vehicles = new ArrayList<>();
+        VehicleContainer vehicleContainer = new VehicleContainer();
+        vehicleContainer.vehicleIndex = 2;
+        vehicleContainer.linkTrace = new int[] { link, link + 1 };
+        vehicleContainer.statii = new RoboTaxiStatus[] { RoboTaxiStatus.DRIVETOCUSTOMER, null };
+        vehicleContainer.destinationLinkIndex = 40;
+        VehicleContainer idle = new VehicleContainer();
+        idle.vehicleIndex = 7;
+        idle.linkTrace = new int[] { 5 };
+        idle.statii = new RoboTaxiStatus[] { RoboTaxiStatus.STAY };
+        simulationObject.vehicles.add(vehicleContainer);
+        simulationObject.vehicles.add(idle);
+        RequestContainer requestContainer = new RequestContainer();
+        requestContainer.requestIndex = 11;
+        requestContainer.fromLinkIndex = 40;
+        requestContainer.toLinkIndex = 12;
+        requestContainer.submissionTime = 7.5;
+        requestContainer.associatedVehicle = 2;
+        requestContainer.requestStatus = EnumSet.of(RequestStatus.ASSIGNED);
+        simulationObject.requests.add(requestContainer);
+        return simulationObject;
+    }
+
+    private static void assertFrame(SimulationObject expected, SimulationObject actual) {
+        assertEquals(expected.iteration, actual.iteration);
+        assertEquals(expected.now, actual.now);
+        assertEquals(expected.infoLine, actual.infoLine);
+        assertEquals(expected.total_matchedRequests, actual.total_matchedRequests);
+        assertEquals(expected.vehicles.size(), actual.vehicles.size());
+        for (int i = 0; i < expected.vehicles.size(); ++i) {
+            VehicleContainer vc = expected.vehicles.get(i);
+            VehicleContainer vd = actual.vehicles.get(i);
+            assertEquals(vc.vehicleIndex, vd.vehicleIndex);
+            assertEquals(vc.destinationLinkIndex, vd.destinationLinkIndex);
+            assertTrue(Arrays.equals(vc.linkTrace, vd.linkTrace));
+            assertTrue(Arrays.equals(vc.statii, vd.statii));
+        }
+        RequestContainer rc = expected.requests.get(0);
+        RequestContainer rd = actual.requests.get(0);
+        assertEquals(rc.requestIndex, rd.requestIndex);
+        assertEquals(rc.fromLinkIndex, rd.fromLinkIndex);
+        assertEquals(rc.toLinkIndex, rd.toLinkIndex);
+        assertEquals(rc.associatedVehicle, rd.associatedVehicle);
+        assertEquals(rc.submissionTime, rd.submissionTime);
+        assertEquals(rc.requestStatus, rd.requestStatus);
+    }
+
+    public void testRoundTrip() throws Exception {
+        SimulationObjectCodec encoder = new SimulationObjectCodec(3);
+        SimulationObjectCodec decoder = new SimulationObjectCodec();
+        List<SimulationObject> frames = new ArrayList<>();
+        List<byte[]> encoded = new ArrayList<>();
+        for (int index = 0; index < 5; ++index) {
+            SimulationObject simulationObject = frame(10 * index, 100 + index);
+            if (index == 2)
+                simulationObject.vehicles.remove(1);
+            frames.add(simulationObject);
+            encoded.add(encoder.encode(simulationObject));
+        }
+        assertTrue(encoded.get(1).length < encoded.get(0).length);
+        /** every third frame is a keyframe */
+        assertFrame(frames.get(3), new SimulationObjectCodec().decode(encoded.get(3)));
+        for (int index = 0; index < frames.size(); ++index)
+            assertFrame(frames.get(index), decoder.decode(encoded.get(index)));
+    }
+
+    public void testUnchangedOmitted() throws Exception {
+        SimulationObjectCodec encoder = new SimulationObjectCodec();
+        SimulationObjectCodec decoder = new SimulationObjectCodec();
+        SimulationObject first = frame(0, 100);
+        SimulationObject second = frame(10, 101);
+        SimulationObject decoded = decoder.decode(encoder.encode(first));
+        SimulationObject next = decoder.decode(encoder.encode(second));
+        assertFrame(second, next);
+        /** the idle vehicle and the request did not change and are not stored in the delta frame */
+        assertNotSame(decoded.vehicles.get(0), next.vehicles.get(0));
+        assertSame(decoded.vehicles.get(1), next.vehicles.get(1));
+        assertSame(decoded.requests.get(0), next.requests.get(0));
+    }
+
+    public void testDeltaWithoutKeyframe() throws Exception {
+        SimulationObjectCodec encoder = new SimulationObjectCodec();
+        encoder.encode(frame(0, 1));
+        byte[] delta = encoder.encode(frame(10, 2));
+        try {
+            new SimulationObjectCodec().decode(delta);
+            fail();
+        } catch (IllegalStateException illegalStateException) {
+            // ---
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.net;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+
+import amodeus.amodeus.dispatcher.core.RequestStatus;
+import amodeus.amodeus.dispatcher.core.RoboTaxiStatus;
+import junit.framework.TestCase;
+
+public class SimulationPublisherTest extends TestCase {
+    private static SimulationObject frame(long now, int[] linkTrace, RoboTaxiStatus[] statii, int requestIndex, RequestStatus requestStatus) {
+        SimulationObject simulationObject = new SimulationObject();
+        simulationObject.now = now;
+        simulationObject.vehicles = new ArrayList<>();
+        VehicleContainer vehicleContainer = new VehicleContainer();
+        vehicleContainer.linkTrace = linkTrace;
+        vehicleContainer.statii = statii;
+        simulationObject.vehicles.add(vehicleContainer);
+        RequestContainer requestContainer = new RequestContainer();
+        requestContainer.requestIndex = requestIndex;
+        requestContainer.requestStatus = EnumSet.of(requestStatus);
+        simulationObject.requests.add(requestContainer);
+        return simulationObject;
+    }
+
+    public void testCoalesce() {
+        SimulationObject older = frame(10, new int[] { 1, 2 }, //
+                new RoboTaxiStatus[] { RoboTaxiStatus.STAY, RoboTaxiStatus.STAY, RoboTaxiStatus.DRIVETOCUSTOMER }, 5, RequestStatus.DROPOFF);
+        SimulationObject newer = frame(20, new int[] { 3 }, //
+                new RoboTaxiStatus[] { RoboTaxiStatus.DRIVETOCUSTOMER }, 6, RequestStatus.REQUESTED);
+        SimulationPublisher.coalesce(older, newer);
+        assertEquals(20, newer.now);
+        VehicleContainer vehicleContainer = newer.vehicles.get(0);
+        assertTrue(Arrays.equals(new int[] { 1, 2, 3 }, vehicleContainer.linkTrace));
+        assertTrue(Arrays.equals(new RoboTaxiStatus[] { RoboTaxiStatus.STAY, RoboTaxiStatus.STAY, RoboTaxiStatus.DRIVETOCUSTOMER }, vehicleContainer.statii));
+        /** the request which was dropped off in the older frame is kept */
+        assertEquals(2, newer.requests.size());
+        assertEquals(EnumSet.of(RequestStatus.DROPOFF), newer.requests.get(0).requestStatus);
+    }
+}
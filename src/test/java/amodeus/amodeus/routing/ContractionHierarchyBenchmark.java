@@ -0,0 +1,58 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.routing;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+
+import amodeus.amodeus.dispatcher.util.DistanceHeuristics;
+import amodeus.amodeus.util.io.Locate;
+import amodeus.amodeus.util.matsim.NetworkLoader;
+
+/** compares {@link DistanceHeuristics#CH} to {@link DistanceHeuristics#ASTARLANDMARKS} on the network
+ * of the test scenario, or on the network file given as first argument */
+/* package */ enum ContractionHierarchyBenchmark {
+    ;
+    private static final int QUERIES = 10000;
+
+    public static void main(String[] args) {
+        File file = 0 < args.length ? new File(args[0]) : //
+                new File(Locate.repoFolder(ContractionHierarchyBenchmark.class, "amodeus"), "resources/testScenario/network.xml");
+        Network network = NetworkLoader.fromNetworkFile(file);
+        System.out.println("nodes: " + network.getNodes().size() + " links: " + network.getLinks().size());
+
+        long time = System.nanoTime();
+        DistanceFunction aStarLandmarks = DistanceHeuristics.ASTARLANDMARKS.getDistanceFunction(network);
+        System.out.println("ASTARLANDMARKS preprocessing: " + (System.nanoTime() - time) / 1000000 + " ms");
+        time = System.nanoTime();
+        DistanceFunction contractionHierarchy = DistanceHeuristics.CH.getDistanceFunction(network);
+        System.out.println("CH preprocessing:             " + (System.nanoTime() - time) / 1000000 + " ms");
+
+        List<Link> links = new ArrayList<>(network.getLinks().values());
+        Random random = new Random(1);
+        Link[] from = new Link[QUERIES];
+        Link[] to = new Link[QUERIES];
+        for (int index = 0; index < QUERIES; ++index) {
+            from[index] = links.get(random.nextInt(links.size()));
+            to[index] = links.get(random.nextInt(links.size()));
+        }
+
+        double[] reference = new double[QUERIES];
+        time = System.nanoTime();
+        for (int index = 0; index < QUERIES; ++index)
+            reference[index] = aStarLandmarks.getDistance(from[index], to[index]);
+        System.out.println("ASTARLANDMARKS query: " + (System.nanoTime() - time) / 1000 / QUERIES + " us");
+
+        int mismatches = 0;
+        time = System.nanoTime();
+        for (int index = 0; index < QUERIES; ++index)
+            if (1e-3 < Math.abs(reference[index] - contractionHierarchy.getDistance(from[index], to[index])))
+                ++mismatches;
+        System.out.println("CH query:             " + (System.nanoTime() - time) / 1000 / QUERIES + " us");
+        System.out.println("distances differing from ASTARLANDMARKS: " + mismatches + " of " + QUERIES);
+    }
+}
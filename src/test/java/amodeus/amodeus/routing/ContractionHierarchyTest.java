@@ -0,0 +1,109 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.routing;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.FastDijkstraFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+
+import amodeus.amodeus.dispatcher.util.DistanceHeuristics;
+import junit.framework.TestCase;
+
+public class ContractionHierarchyTest extends TestCase {
+    /** @return grid network with random link lengths and speeds */
+    /* package */ static Network grid(int size, Random random) {
+        Network network = NetworkUtils.createNetwork();
+        Node[][] nodes = new Node[size][size];
+        for (int i = 0; i < size; ++i)
+            for (int j = 0; j < size; ++j)
+                nodes[i][j] = NetworkUtils.createAndAddNode(network, Id.createNodeId(i + "_" + j), new Coord(100 * i, 100 * j));
+        for (int i = 0; i < size; ++i)
+            for (int j = 0; j < size; ++j) {
+                if (i + 1 < size) {
+                    addLink(network, nodes[i][j], nodes[i + 1][j], random);
+                    addLink(network, nodes[i + 1][j], nodes[i][j], random);
+                }
+                if (j + 1 < size) {
+                    addLink(network, nodes[i][j], nodes[i][j + 1], random);
+                    addLink(network, nodes[i][j + 1], nodes[i][j], random);
+                }
+            }
+        return network;
+    }
+
+    private static void addLink(Network network, Node from, Node to, Random random) {
+        Id<Link> id = Id.createLinkId(from.getId() + "-" + to.getId());
+        NetworkUtils.createAndAddLink(network, id, from, to, 50 + 450 * random.nextDouble(), 5 + 20 * random.nextDouble(), 1000, 1);
+    }
+
+    private static void assertSameAsDijkstra(Network network, ContractionHierarchyQuery query, Random random) {
+        LeastCostPathCalculator dijkstra = EasyMinTimePathCalculator.prepPathCalculator(network, new FastDijkstraFactory());
+        List<Node> nodes = new ArrayList<>(network.getNodes().values());
+        for (int count = 0; count < 200; ++count) {
+            Node from = nodes.get(random.nextInt(nodes.size()));
+            Node to = nodes.get(random.nextInt(nodes.size()));
+            Path path = PathProperty.fromTo(from, to, dijkstra, 0.0);
+            assertEquals(path.travelTime, query.travelTime(from, to), 1e-6);
+            assertEquals(PathProperty.length(path), query.distance(from, to), 1e-6);
+        }
+    }
+
+    public void testGrid() {
+        Network network = grid(20, new Random(1));
+        ContractionHierarchy hierarchy = ContractionHierarchy.of(network);
+        assertSame(hierarchy, ContractionHierarchy.of(network));
+        assertEquals(400, hierarchy.size());
+        assertSameAsDijkstra(network, hierarchy.query(), new Random(2));
+    }
+
+    public void testFile() throws Exception {
+        Network network = grid(8, new Random(3));
+        File file = File.createTempFile("hierarchy", ".bin");
+        try {
+            ContractionHierarchyBuilder.build(network).save(file);
+            ContractionHierarchy hierarchy = ContractionHierarchy.load(file, network);
+            assertSameAsDijkstra(network, hierarchy.query(), new Random(4));
+            try {
+                ContractionHierarchy.load(file, grid(8, new Random(5)));
+                fail();
+            } catch (IllegalArgumentException illegalArgumentException) {
+                // ---
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testDistanceHeuristicsFile() throws Exception {
+        File file = File.createTempFile("hierarchy", ".bin");
+        file.delete();
+        try {
+            /** the hierarchy is built and stored */
+            Network network = grid(8, new Random(6));
+            DistanceFunction distanceFunction = DistanceHeuristics.CH.getDistanceFunction(network, file);
+            assertTrue(file.isFile());
+            assertSame(ContractionHierarchy.of(network), ContractionHierarchy.of(network, file));
+
+            /** an identical network loads the stored hierarchy */
+            Network copy = grid(8, new Random(6));
+            DistanceFunction loaded = DistanceHeuristics.CH.getDistanceFunction(copy, file);
+            assertEquals(64, ContractionHierarchy.of(copy).size());
+            Link destination = network.getLinks().values().iterator().next();
+            for (Link link : network.getLinks().values())
+                assertEquals(distanceFunction.getDistance(link, destination), //
+                        loaded.getDistance(copy.getLinks().get(link.getId()), copy.getLinks().get(destination.getId())), 1e-6);
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.FastDijkstraFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+
+import junit.framework.TestCase;
+
+public class LandmarkLowerBoundTest extends TestCase {
+    public void testGrid() {
+        Network network = ContractionHierarchyTest.grid(15, new Random(1));
+        LandmarkLowerBound lowerBound = LandmarkLowerBound.of(network);
+        assertSame(lowerBound, LandmarkLowerBound.of(network));
+        assertEquals(16, lowerBound.landmarks());
+
+        LeastCostPathCalculator dijkstra = EasyMinTimePathCalculator.prepPathCalculator(network, new FastDijkstraFactory());
+        List<Node> nodes = new ArrayList<>(network.getNodes().values());
+        Random random = new Random(2);
+        for (int count = 0; count < 200; ++count) {
+            Node from = nodes.get(random.nextInt(nodes.size()));
+            Node to = nodes.get(random.nextInt(nodes.size()));
+            double bound = lowerBound.of(from, to);
+            assertTrue(0 <= bound);
+            assertTrue(bound <= PathProperty.fromTo(from, to, dijkstra, 0.0).travelTime + 1e-6);
+        }
+    }
+
+    public void testUnreachable() {
+        Network network = NetworkUtils.createNetwork();
+        Node a = NetworkUtils.createAndAddNode(network, Id.createNodeId("a"), new Coord(0, 0));
+        Node b = NetworkUtils.createAndAddNode(network, Id.createNodeId("b"), new Coord(100, 0));
+        NetworkUtils.createAndAddLink(network, Id.createLinkId("ab"), a, b, 200, 10, 1000, 1);
+        LandmarkLowerBound lowerBound = new LandmarkLowerBound(network, 4);
+        assertEquals(5.0, lowerBound.getMaxSpeed(), 1e-9);
+        assertEquals(20.0, lowerBound.of(a, b), 1e-9);
+        assertEquals(Double.POSITIVE_INFINITY, lowerBound.of(b, a));
+        assertEquals(0.0, lowerBound.of(a, a));
+    }
+}
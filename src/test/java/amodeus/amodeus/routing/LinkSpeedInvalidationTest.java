@@ -0,0 +1,88 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+
+import amodeus.amodeus.linkspeed.LinkSpeedDataContainer;
+import junit.framework.TestCase;
+
+public class LinkSpeedInvalidationTest extends TestCase {
+    private static Path path(Link... links) {
+        return new Path(new ArrayList<>(), Arrays.asList(links), 0.0, 0.0);
+    }
+
+    public void testChangedLinksOnly() {
+        Network network = ContractionHierarchyTest.grid(3, new Random(1));
+        List<Link> links = new ArrayList<>(network.getLinks().values());
+        Link changing = links.get(0);
+        Link constant = links.get(1);
+        Link unrecorded = links.get(2);
+        LinkSpeedDataContainer lsData = new LinkSpeedDataContainer();
+        lsData.addData(changing, 0, 10.0);
+        lsData.addData(changing, 3600, 5.0);
+        lsData.addData(constant, 0, 10.0);
+        lsData.addData(constant, 3600, 10.0);
+
+        LinkSpeedInvalidation invalidation = new LinkSpeedInvalidation(lsData);
+        assertEquals(2, invalidation.bins());
+        TimeDistanceCache cache = new TimeDistanceCache(Double.POSITIVE_INFINITY, 100);
+        invalidation.advance(0.0, cache);
+        cache.put(1L, 1.0, 1.0, 0.0);
+        invalidation.register(1L, path(changing, unrecorded), cache);
+        cache.put(2L, 2.0, 2.0, 0.0);
+        invalidation.register(2L, path(constant, unrecorded), cache);
+        cache.put(3L, 3.0, 3.0, 0.0);
+        invalidation.register(3L, path(unrecorded), cache);
+
+        invalidation.advance(3599.0, cache);
+        assertTrue(0 <= cache.find(1L, 3599.0));
+        invalidation.advance(3600.0, cache);
+        assertEquals(-1, cache.find(1L, 3600.0));
+        assertTrue(0 <= cache.find(2L, 3600.0));
+        assertTrue(0 <= cache.find(3L, 3600.0));
+
+        /** recomputed entries remain valid until the next change */
+        cache.put(1L, 4.0, 4.0, 3600.0);
+        invalidation.register(1L, path(changing, unrecorded), cache);
+        assertEquals(4.0, cache.time(cache.find(1L, 7200.0)), 0.0);
+
+        /** time moving backwards clears the cache */
+        invalidation.advance(0.0, cache);
+        assertEquals(-1, cache.find(2L, 0.0));
+        assertEquals(0, cache.size());
+    }
+
+    public void testBoundedIndex() {
+        Network network = ContractionHierarchyTest.grid(3, new Random(1));
+        Link changing = network.getLinks().values().iterator().next();
+        LinkSpeedDataContainer lsData = new LinkSpeedDataContainer();
+        lsData.addData(changing, 0, 10.0);
+        lsData.addData(changing, 3600, 5.0);
+
+        int maxEntries = 64;
+        LinkSpeedInvalidation invalidation = new LinkSpeedInvalidation(lsData);
+        TimeDistanceCache cache = new TimeDistanceCache(Double.POSITIVE_INFINITY, maxEntries);
+        invalidation.advance(0.0, cache);
+        for (long key = 0; key < 100 * maxEntries; ++key) {
+            /** every key is registered twice and older entries are evicted by the cache */
+            cache.put(key, 1.0, 1.0, key);
+            invalidation.register(key, path(changing), cache);
+            invalidation.register(key, path(changing), cache);
+            assertTrue(invalidation.keys(changing) <= 2 * maxEntries);
+        }
+
+        /** the entries which remain in the cache are still invalidated */
+        long last = 100 * maxEntries - 1;
+        assertTrue(0 <= cache.find(last, last));
+        invalidation.advance(3600.0, cache);
+        assertEquals(-1, cache.find(last, 3600.0));
+        assertEquals(0, invalidation.keys(changing));
+    }
+}
@@ -0,0 +1,45 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.router.FastDijkstraFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.TravelTime;
+
+import junit.framework.TestCase;
+
+public class OneToManyNetworkTimeDistanceTest extends TestCase {
+    public void testMatrix() {
+        Network network = ContractionHierarchyTest.grid(12, new Random(1));
+        TravelTime travelTime = (link, time, person, vehicle) -> link.getLength() / link.getFreespeed();
+        BatchNetworkTimeDistInterface timeDist = new OneToManyNetworkTimeDistance(network, travelTime);
+        LeastCostPathCalculator dijkstra = EasyMinTimePathCalculator.prepPathCalculator(network, new FastDijkstraFactory());
+
+        Random random = new Random(2);
+        List<Link> links = new ArrayList<>(network.getLinks().values());
+        List<Link> from = new ArrayList<>();
+        List<Link> to = new ArrayList<>();
+        for (int index = 0; index < 10; ++index)
+            from.add(links.get(random.nextInt(links.size())));
+        from.add(from.get(0)); // duplicate source
+        for (int index = 0; index < 15; ++index)
+            to.add(links.get(random.nextInt(links.size())));
+
+        double[][] times = timeDist.travelTimes(from, to, 0.0);
+        double[][] distances = timeDist.distances(from, to, 0.0);
+        assertEquals(from.size(), times.length);
+        for (int i = 0; i < from.size(); ++i)
+            for (int j = 0; j < to.size(); ++j) {
+                Path path = PathProperty.fromTo(from.get(i).getFromNode(), to.get(j).getToNode(), dijkstra, 0.0);
+                assertEquals(path.travelTime, times[i][j], 1e-6);
+                assertEquals(PathProperty.length(path), distances[i][j], 1e-6);
+                assertEquals(distances[i][j], timeDist.distance(from.get(i), to.get(j), 0.0).number().doubleValue(), 1e-6);
+            }
+    }
+}
@@ -0,0 +1,53 @@
+/* amodeus - Copyright (c) 2019, ETH Zurich, Institute for Dynamic Systems and Control */
+package amodeus.amodeus.routing;
+
+import junit.framework.TestCase;
+
+public class TimeDistanceCacheTest extends TestCase {
+    public void testFindPut() {
+        TimeDistanceCache cache = new TimeDistanceCache(1800.0, 1000);
+        assertEquals(-1, cache.find(3L, 0.0));
+        int slot = cache.put(3L, 12.0, 240.0, 0.0);
+        assertEquals(slot, cache.find(3L, 10.0));
+        assertEquals(12.0, cache.time(slot), 0.0);
+        assertEquals(240.0, cache.distance(slot), 0.0);
+        assertEquals(-1, cache.find(4L, 10.0));
+        assertEquals(1, cache.size());
+    }
+
+    public void testGrow() {
+        TimeDistanceCache cache = new TimeDistanceCache(Double.POSITIVE_INFINITY, 10000);
+        for (long key = 0; key < 5000; ++key)
+            cache.put(key << 32 | key, key, 2 * key, key);
+        assertEquals(5000, cache.size());
+        for (long key = 0; key < 5000; ++key) {
+            int slot = cache.find(key << 32 | key, 1e9);
+            assertTrue(0 <= slot);
+            assertEquals((double) key, cache.time(slot), 0.0);
+            assertEquals(2.0 * key, cache.distance(slot), 0.0);
+        }
+    }
+
+    public void testExpiry() {
+        TimeDistanceCache cache = new TimeDistanceCache(160.0, 1000);
+        cache.put(1L, 1.0, 1.0, 0.0);
+        assertTrue(0 <= cache.find(1L, 160.0));
+        assertEquals(-1, cache.find(1L, 171.0));
+        /** expired entries are overwritten in place */
+        int slot = cache.put(1L, 2.0, 3.0, 171.0);
+        assertEquals(slot, cache.find(1L, 171.0));
+        assertEquals(2.0, cache.time(slot), 0.0);
+        assertEquals(1, cache.size());
+    }
+
+    public void testCap() {
+        TimeDistanceCache cache = new TimeDistanceCache(Double.POSITIVE_INFINITY, 100);
+        for (long key = 0; key < 1000; ++key) {
+            cache.put(key, 0.0, 0.0, key * 1000.0);
+            assertTrue(cache.size() <= 100);
+        }
+        /** most recent entries survive the eviction */
+        assertTrue(0 <= cache.find(999L, 1e6));
+        assertEquals(-1, cache.find(0L, 1e6));
+    }
+}
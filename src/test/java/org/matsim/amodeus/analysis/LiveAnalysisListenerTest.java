@@ -0,0 +1,93 @@
+package org.matsim.amodeus.analysis;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.matsim.amodeus.config.AmodeusConfigGroup;
+import org.matsim.amodeus.config.AmodeusModeConfig;
+import org.matsim.amodeus.framework.AmodeusModule;
+import org.matsim.amodeus.framework.AmodeusQSimModule;
+import org.matsim.amodeus.scenario.TestScenarioGenerator;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.contrib.dvrp.run.DvrpConfigGroup;
+import org.matsim.contrib.dvrp.run.DvrpModule;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
+import org.matsim.core.config.groups.StrategyConfigGroup.StrategySettings;
+import org.matsim.core.controler.Controler;
+
+import amodeus.amodeus.options.ScenarioOptions;
+import amodeus.amodeus.options.ScenarioOptionsBase;
+
+public class LiveAnalysisListenerTest {
+    private static final String SECOND_MODE = "av2";
+
+    @BeforeClass
+    public static void doYourOneTimeSetup() {
+        new File("test_output").mkdir();
+    }
+
+    @AfterClass
+    public static void doYourOneTimeTeardown() throws IOException {
+        FileUtils.deleteDirectory(new File("test_output"));
+    }
+
+    @Test
+    public void testMultipleModes() throws IOException {
+        AmodeusConfigGroup avConfigGroup = new AmodeusConfigGroup();
+        avConfigGroup.setLiveAnalysisInterval(1);
+
+        for (String mode : Arrays.asList(AmodeusModeConfig.DEFAULT_MODE, SECOND_MODE)) {
+            AmodeusModeConfig operatorConfig = new AmodeusModeConfig(mode);
+            operatorConfig.getGeneratorConfig().setNumberOfVehicles(10);
+            avConfigGroup.addMode(operatorConfig);
+        }
+
+        Config config = ConfigUtils.createConfig(avConfigGroup, new DvrpConfigGroup());
+        Scenario scenario = TestScenarioGenerator.generateWithAVLegs(config);
+
+        for (String mode : Arrays.asList(AmodeusModeConfig.DEFAULT_MODE, SECOND_MODE)) {
+            PlanCalcScoreConfigGroup.ModeParams modeParams = config.planCalcScore().getOrCreateModeParams(mode);
+            modeParams.setMonetaryDistanceRate(0.0);
+            modeParams.setMarginalUtilityOfTraveling(8.86);
+            modeParams.setConstant(0.0);
+        }
+
+        config.controler().setLastIteration(0);
+        config.controler().setOutputDirectory("test_output/live");
+
+        StrategySettings strategySettings = new StrategySettings();
+        strategySettings.setStrategyName("KeepLastSelected");
+        strategySettings.setWeight(1.0);
+        config.strategy().addStrategySettings(strategySettings);
+
+        ScenarioOptions scenarioOptions = new ScenarioOptions(new File("test_output"), ScenarioOptionsBase.getDefault());
+
+        Controler controler = new Controler(scenario);
+        controler.addOverridingModule(new DvrpModule());
+        controler.addOverridingModule(new AmodeusModule(scenarioOptions));
+        controler.addOverridingQSimModule(new AmodeusQSimModule());
+
+        controler.configureQSimComponents(AmodeusQSimModule.activateModes(avConfigGroup));
+
+        controler.run();
+
+        /** the fleet of each mode is analyzed separately */
+        File analysisDirectory = new File("test_output/live/ITERS/it.0/0.amodeus_analysis");
+        File[] fleetDirectories = analysisDirectory.listFiles(file -> file.isDirectory() && file.getName().startsWith("fleet"));
+        Assert.assertNotNull(fleetDirectories);
+        Assert.assertEquals(2, fleetDirectories.length);
+        for (File fleetDirectory : fleetDirectories) {
+            File dataDirectory = new File(fleetDirectory, "data");
+            Assert.assertTrue(dataDirectory.isDirectory());
+            Assert.assertTrue(dataDirectory.list().length > 0);
+        }
+    }
+}
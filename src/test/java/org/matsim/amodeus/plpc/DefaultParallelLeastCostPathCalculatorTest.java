@@ -0,0 +1,77 @@
+package org.matsim.amodeus.plpc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.DijkstraFactory;
+import org.matsim.core.router.costcalculators.OnlyTimeDependentTravelDisutility;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.TravelTime;
+
+public class DefaultParallelLeastCostPathCalculatorTest {
+    private static Network createGrid(int size) {
+        Network network = NetworkUtils.createNetwork();
+        Node[][] nodes = new Node[size][size];
+        for (int i = 0; i < size; i++)
+            for (int j = 0; j < size; j++)
+                nodes[i][j] = NetworkUtils.createAndAddNode(network, Id.createNodeId(i + "_" + j), new Coord(100 * i, 100 * j));
+        for (int i = 0; i < size; i++)
+            for (int j = 0; j < size; j++) {
+                if (i + 1 < size) {
+                    NetworkUtils.createAndAddLink(network, Id.createLinkId(i + "_" + j + "_e"), nodes[i][j], nodes[i + 1][j], 100.0, 10.0 + j, 1000, 1);
+                    NetworkUtils.createAndAddLink(network, Id.createLinkId(i + "_" + j + "_w"), nodes[i + 1][j], nodes[i][j], 100.0, 10.0 + j, 1000, 1);
+                }
+                if (j + 1 < size) {
+                    NetworkUtils.createAndAddLink(network, Id.createLinkId(i + "_" + j + "_n"), nodes[i][j], nodes[i][j + 1], 100.0, 10.0 + i, 1000, 1);
+                    NetworkUtils.createAndAddLink(network, Id.createLinkId(i + "_" + j + "_s"), nodes[i][j + 1], nodes[i][j], 100.0, 10.0 + i, 1000, 1);
+                }
+            }
+        return network;
+    }
+
+    @Test
+    public void testBatchEqualsSingle() throws Exception {
+        Network network = createGrid(10);
+        TravelTime travelTime = (link, time, person, vehicle) -> link.getLength() / link.getFreespeed();
+        LeastCostPathCalculator reference = new DijkstraFactory().createPathCalculator(network, new OnlyTimeDependentTravelDisutility(travelTime), travelTime);
+        DefaultParallelLeastCostPathCalculator calculator = (DefaultParallelLeastCostPathCalculator) DefaultParallelLeastCostPathCalculator.create( //
+                3, new DijkstraFactory(), network, new OnlyTimeDependentTravelDisutility(travelTime), travelTime);
+
+        List<Node> nodes = new ArrayList<>(network.getNodes().values());
+        Random random = new Random(1);
+        List<PathQuery> queries = new ArrayList<>();
+        for (int index = 0; index < 100; index++)
+            queries.add(new PathQuery(nodes.get(random.nextInt(nodes.size())), nodes.get(random.nextInt(nodes.size())), 0.0));
+
+        List<Future<Path>> futures = calculator.calcLeastCostPaths(queries);
+        Assert.assertEquals(queries.size(), futures.size());
+        for (int index = 0; index < queries.size(); index++) {
+            PathQuery query = queries.get(index);
+            Path expected = reference.calcLeastCostPath(query.getFromNode(), query.getToNode(), 0.0, null, null);
+            Assert.assertEquals(expected.travelTime, futures.get(index).get().travelTime, 1e-9);
+            Assert.assertEquals(expected.travelTime, //
+                    calculator.calcLeastCostPath(query.getFromNode(), query.getToNode(), 0.0, null, null).get().travelTime, 1e-9);
+        }
+
+        long paths = calculator.getWorkerStatistics().stream().mapToLong(DefaultParallelLeastCostPathCalculator.WorkerStatistics::getPaths).sum();
+        Assert.assertEquals(2 * queries.size(), paths);
+        calculator.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoRouter() {
+        Network network = createGrid(2);
+        TravelTime travelTime = (link, time, person, vehicle) -> link.getLength() / link.getFreespeed();
+        DefaultParallelLeastCostPathCalculator.create(0, new DijkstraFactory(), network, new OnlyTimeDependentTravelDisutility(travelTime), travelTime);
+    }
+}